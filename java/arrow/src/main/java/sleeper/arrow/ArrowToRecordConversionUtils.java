@@ -13,7 +13,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package sleeper.ingest.impl.recordbatch.arrow;
+package sleeper.arrow;
 
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
@@ -55,15 +55,15 @@ public class ArrowToRecordConversionUtils {
                         fieldVector.getChildrenFromFields().size() == 1 &&
                                 fieldVector.getChildrenFromFields().get(0).getMinorType() == Types.MinorType.STRUCT &&
                                 fieldVector.getChildrenFromFields().get(0).getChildrenFromFields().size() == 2 &&
-                                fieldVector.getChildrenFromFields().get(0).getChildrenFromFields().get(0).getField().getName().equals(ArrowRecordBatch.MAP_KEY_FIELD_NAME) &&
-                                fieldVector.getChildrenFromFields().get(0).getChildrenFromFields().get(1).getField().getName().equals(ArrowRecordBatch.MAP_VALUE_FIELD_NAME);
+                                fieldVector.getChildrenFromFields().get(0).getChildrenFromFields().get(0).getField().getName().equals(ArrowSchemaConverter.MAP_KEY_FIELD_NAME) &&
+                                fieldVector.getChildrenFromFields().get(0).getChildrenFromFields().get(1).getField().getName().equals(ArrowSchemaConverter.MAP_VALUE_FIELD_NAME);
                 if (isActuallyMap) {
                     // Convert the list of structs into a map
                     value = ((List<?>) value).stream()
                             .map(obj -> (Map<?, ?>) obj)
                             .map(map -> new AbstractMap.SimpleEntry<>(
-                                    map.get(ArrowRecordBatch.MAP_KEY_FIELD_NAME),
-                                    map.get(ArrowRecordBatch.MAP_VALUE_FIELD_NAME)))
+                                    map.get(ArrowSchemaConverter.MAP_KEY_FIELD_NAME),
+                                    map.get(ArrowSchemaConverter.MAP_VALUE_FIELD_NAME)))
                             .collect(Collectors.toMap(
                                     entry -> (entry.getKey() instanceof Text) ? entry.getKey().toString() : entry.getKey(),
                                     entry -> (entry.getValue() instanceof Text) ? entry.getValue().toString() : entry.getValue()));
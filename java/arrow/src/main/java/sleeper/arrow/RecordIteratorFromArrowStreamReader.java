@@ -13,7 +13,7 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package sleeper.ingest.impl.recordbatch.arrow;
+package sleeper.arrow;
 
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
@@ -31,7 +31,7 @@ import java.util.NoSuchElementException;
  * The rows are read from the file in small batches, which correspond to the small batches that were used when the file
  * was orginally written.
  */
-class RecordIteratorFromArrowStreamReader implements CloseableIterator<Record> {
+public class RecordIteratorFromArrowStreamReader implements CloseableIterator<Record> {
     private final ArrowStreamReader arrowStreamReader;
     private int currentRecordNoInBatch;
     private long totalNoOfRecordsRead = 0L;
@@ -43,7 +43,7 @@ class RecordIteratorFromArrowStreamReader implements CloseableIterator<Record> {
      * @param arrowStreamReader The {@link ArrowStreamReader} to use to read the small batchea from the file.
      * @throws IOException -
      */
-    RecordIteratorFromArrowStreamReader(ArrowStreamReader arrowStreamReader) throws IOException {
+    public RecordIteratorFromArrowStreamReader(ArrowStreamReader arrowStreamReader) throws IOException {
         this.arrowStreamReader = arrowStreamReader;
         this.loadNextBatch();
     }
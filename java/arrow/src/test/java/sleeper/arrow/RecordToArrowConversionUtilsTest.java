@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.ByteArrayType;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.ListType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.MapType;
+import sleeper.core.schema.type.StringType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.arrow.ArrowSchemaConverter.convertSleeperSchemaToArrowSchema;
+import static sleeper.arrow.RecordToArrowConversionUtils.writeRecord;
+
+class RecordToArrowConversionUtilsTest {
+    private final BufferAllocator allocator = new RootAllocator();
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    @Test
+    void shouldConvertRecordsToArrowAndBack() {
+        // Given
+        Schema schema = Schema.builder()
+                .rowKeyFields(new Field("key", new StringType()))
+                .sortKeyFields(new Field("sort", new LongType()))
+                .valueFields(
+                        new Field("count", new IntType()),
+                        new Field("bytes", new ByteArrayType()),
+                        new Field("list", new ListType(new StringType())),
+                        new Field("map", new MapType(new StringType(), new LongType())))
+                .build();
+        List<Record> records = List.of(
+                new Record(Map.of("key", "a", "sort", 1L, "count", 10, "bytes", new byte[]{1, 2},
+                        "list", List.of("x", "y"), "map", Map.of("m", 5L))),
+                new Record(Map.of("key", "b", "sort", 2L, "count", 20, "bytes", new byte[]{},
+                        "list", List.of(), "map", Map.of())));
+
+        // When
+        List<Record> found;
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(convertSleeperSchemaToArrowSchema(schema), allocator)) {
+            root.allocateNew();
+            for (int rowNo = 0; rowNo < records.size(); rowNo++) {
+                writeRecord(schema.getAllFields(), root, records.get(rowNo), rowNo);
+            }
+            root.setRowCount(records.size());
+            found = List.of(
+                    ArrowToRecordConversionUtils.convertVectorSchemaRootToRecord(root, 0),
+                    ArrowToRecordConversionUtils.convertVectorSchemaRootToRecord(root, 1));
+        }
+
+        // Then
+        assertThat(found).containsExactlyElementsOf(records);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.cdk.stack;
+
+import software.amazon.awscdk.NestedStack;
+import software.amazon.awscdk.RemovalPolicy;
+import software.amazon.awscdk.services.dynamodb.Attribute;
+import software.amazon.awscdk.services.dynamodb.AttributeType;
+import software.amazon.awscdk.services.dynamodb.BillingMode;
+import software.amazon.awscdk.services.dynamodb.Table;
+import software.amazon.awscdk.services.iam.IGrantable;
+import software.constructs.Construct;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.statestore.transactionlog.DynamoDBTransactionLogStore;
+
+import java.util.Locale;
+
+import static sleeper.cdk.Utils.removalPolicy;
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.TRANSACTION_LOG_TABLENAME;
+import static sleeper.configuration.properties.instance.CommonProperty.ID;
+import static sleeper.configuration.properties.instance.CommonProperty.TRANSACTION_LOG_STATE_STORE_POINT_IN_TIME_RECOVERY;
+
+public class TransactionLogStateStoreStack extends NestedStack {
+    private final Table transactionLogTable;
+    private final TableDataStack dataStack;
+
+    public TransactionLogStateStoreStack(Construct scope, String id, InstanceProperties instanceProperties,
+                                         TableDataStack dataStack, ManagedPoliciesStack policiesStack) {
+        super(scope, id);
+        this.dataStack = dataStack;
+        RemovalPolicy removalPolicy = removalPolicy(instanceProperties);
+
+        // Dynamo table to store the transaction log for each Sleeper table. Snapshots are held in the data bucket.
+        Attribute partitionKeyTransactionLogTable = Attribute.builder()
+                .name(DynamoDBTransactionLogStore.TABLE_ID)
+                .type(AttributeType.STRING)
+                .build();
+        Attribute sortKeyTransactionLogTable = Attribute.builder()
+                .name(DynamoDBTransactionLogStore.TRANSACTION_NUMBER)
+                .type(AttributeType.NUMBER)
+                .build();
+
+        this.transactionLogTable = Table.Builder
+                .create(this, "DynamoDBTransactionLogTable")
+                .tableName(String.join("-", "sleeper", instanceProperties.get(ID), "table", "transaction", "log").toLowerCase(Locale.ROOT))
+                .removalPolicy(removalPolicy)
+                .billingMode(BillingMode.PAY_PER_REQUEST)
+                .partitionKey(partitionKeyTransactionLogTable)
+                .sortKey(sortKeyTransactionLogTable)
+                .pointInTimeRecovery(instanceProperties.getBoolean(TRANSACTION_LOG_STATE_STORE_POINT_IN_TIME_RECOVERY))
+                .build();
+        instanceProperties.set(TRANSACTION_LOG_TABLENAME, this.transactionLogTable.getTableName());
+        transactionLogTable.grantReadWriteData(policiesStack.getIngestPolicy());
+    }
+
+    public void grantReadWrite(IGrantable grantee) {
+        transactionLogTable.grantReadWriteData(grantee);
+        dataStack.getDataBucket().grantReadWrite(grantee);
+    }
+
+    public void grantRead(IGrantable grantee) {
+        // Readers may also write a snapshot and trim the log, if enough transactions have been added
+        transactionLogTable.grantReadWriteData(grantee);
+        dataStack.getDataBucket().grantReadWrite(grantee);
+    }
+}
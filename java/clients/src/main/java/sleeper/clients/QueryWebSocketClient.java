@@ -37,12 +37,18 @@ import sleeper.configuration.properties.instance.CdkDefinedInstanceProperty;
 import sleeper.configuration.properties.instance.InstanceProperties;
 import sleeper.configuration.properties.table.TableProperties;
 import sleeper.configuration.properties.table.TablePropertiesProvider;
+import sleeper.core.record.Record;
 import sleeper.core.statestore.StateStoreException;
 import sleeper.query.model.Query;
 import sleeper.query.model.QuerySerDe;
+import sleeper.query.model.output.ArrowResultsOutput;
+import sleeper.query.model.output.ArrowWebSocketResultsReader;
+import sleeper.query.model.output.ResultsOutputConstants;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -72,7 +78,9 @@ public class QueryWebSocketClient extends QueryCommandLineClient {
         Client client = null;
         try {
             long startTime = System.currentTimeMillis();
-            client = new Client(URI.create(apiUrl), query, querySerDe);
+            client = new Client(URI.create(apiUrl), query.withResultsPublisherConfig(new HashMap<>(Map.of(
+                    ResultsOutputConstants.DESTINATION, ArrowResultsOutput.DESTINATION_NAME,
+                    ArrowResultsOutput.SINK, ArrowResultsOutput.SINK_WEBSOCKET))), querySerDe);
             while (!client.isQueryComplete()) {
                 Thread.sleep(500);
             }
@@ -94,6 +102,7 @@ public class QueryWebSocketClient extends QueryCommandLineClient {
         private final Gson serde = new GsonBuilder().create();
         private final Set<String> outstandingQueries = new HashSet<>();
         private final Map<String, JsonArray> records = new HashMap<>();
+        private final ArrowWebSocketResultsReader arrowReader = new ArrowWebSocketResultsReader();
         private final QuerySerDe querySerDe;
         private final Query query;
         private boolean queryComplete = false;
@@ -194,6 +203,7 @@ public class QueryWebSocketClient extends QueryCommandLineClient {
                     System.err.println("ERROR: API said it had returned " + recordCount + " records for query " + queryId + ", but only received " + (records.containsKey(queryId) ? records.get(queryId).size() : 0));
                 }
                 outstandingQueries.remove(queryId);
+                arrowReader.queryFinished(queryId);
                 System.out.println(recordCount + " records returned by query: " + queryId + " Remaining pending queries: " + outstandingQueries.size());
                 totalRecordsReturned += recordCount;
             } else {
@@ -214,9 +224,26 @@ public class QueryWebSocketClient extends QueryCommandLineClient {
             }
         }
 
+        @Override
+        public void onMessage(ByteBuffer bytes) {
+            String queryId = ArrowWebSocketResultsReader.readQueryId(bytes);
+            JsonArray recordBatch = new JsonArray();
+            try {
+                for (Record record : arrowReader.readRecords(queryId, bytes)) {
+                    recordBatch.add(serde.toJsonTree(record));
+                }
+            } catch (IOException e) {
+                System.err.println("ERROR: Failed reading Arrow records for query " + queryId + ": " + e);
+            }
+            if (recordBatch.size() > 0) {
+                records.computeIfAbsent(queryId, id -> new JsonArray()).addAll(recordBatch);
+            }
+        }
+
         @Override
         public void onClose(int code, String reason, boolean remote) {
             queryComplete = true;
+            arrowReader.close();
             System.out.println("Disconnected from WebSocket API: " + reason);
         }
 
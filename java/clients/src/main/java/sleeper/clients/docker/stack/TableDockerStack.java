@@ -23,6 +23,7 @@ import sleeper.configuration.properties.instance.InstanceProperties;
 import sleeper.configuration.table.index.DynamoDBTableIndexCreator;
 import sleeper.statestore.dynamodb.DynamoDBStateStoreCreator;
 import sleeper.statestore.s3.S3StateStoreCreator;
+import sleeper.statestore.transactionlog.DynamoDBTransactionLogStateStoreCreator;
 
 import java.util.Locale;
 
@@ -34,6 +35,7 @@ import static sleeper.configuration.properties.instance.CdkDefinedInstanceProper
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.REVISION_TABLENAME;
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.TABLE_ID_INDEX_DYNAMO_TABLENAME;
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.TABLE_NAME_INDEX_DYNAMO_TABLENAME;
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.TRANSACTION_LOG_TABLENAME;
 import static sleeper.configuration.properties.instance.CommonProperty.ID;
 
 public class TableDockerStack implements DockerStack {
@@ -72,6 +74,8 @@ public class TableDockerStack implements DockerStack {
         new DynamoDBStateStoreCreator(instanceProperties, dynamoDB).create();
         instanceProperties.set(REVISION_TABLENAME, String.join("-", "sleeper", instanceId, "rv"));
         new S3StateStoreCreator(instanceProperties, dynamoDB).create();
+        instanceProperties.set(TRANSACTION_LOG_TABLENAME, String.join("-", "sleeper", instanceId, "transaction-log"));
+        new DynamoDBTransactionLogStateStoreCreator(instanceProperties, dynamoDB).create();
     }
 
     public void tearDown() {
@@ -79,6 +83,7 @@ public class TableDockerStack implements DockerStack {
         dynamoDB.deleteTable(instanceProperties.get(READY_FOR_GC_FILEINFO_TABLENAME));
         dynamoDB.deleteTable(instanceProperties.get(PARTITION_TABLENAME));
         dynamoDB.deleteTable(instanceProperties.get(REVISION_TABLENAME));
+        dynamoDB.deleteTable(instanceProperties.get(TRANSACTION_LOG_TABLENAME));
         tearDownBucket(s3Client, instanceProperties.get(DATA_BUCKET));
     }
 
@@ -35,11 +35,13 @@ import sleeper.core.table.TableIdentity;
 import sleeper.statestore.StateStoreProvider;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static sleeper.configuration.properties.table.TableProperty.COMPACTION_STRATEGY_CLASS;
+import static sleeper.core.statestore.AssignJobIdRequest.assignJobOnFiles;
 
 /**
  * Creates compaction job definitions and posts them to an SQS queue.
@@ -49,10 +51,13 @@ import static sleeper.configuration.properties.table.TableProperty.COMPACTION_ST
  * - Groups these by partition.
  * - For each partition, uses the configurable {@link CompactionStrategy} to
  * decide what compaction jobs to create.
- * - These compaction jobs are then sent to SQS.
+ * - These compaction jobs are then sent to SQS in batches.
+ * - After each batch is sent, the input files of the jobs that were sent are assigned to their jobs in the
+ * {@link StateStore}.
  */
 public class CreateJobs {
     private static final Logger LOGGER = LoggerFactory.getLogger(CreateJobs.class);
+    private static final int JOB_SEND_BATCH_SIZE = 10;
 
     private final ObjectFactory objectFactory;
     private final InstanceProperties instanceProperties;
@@ -119,31 +124,44 @@ public class CreateJobs {
         List<CompactionJob> compactionJobs = compactionStrategy.createCompactionJobs(activeFileInfosWithJobId, activeFileInfosWithNoJobId, allPartitions);
         LOGGER.info("Used {} to create {} compaction jobs for table {}", compactionStrategy.getClass().getSimpleName(), compactionJobs.size(), tableId);
 
-        for (CompactionJob compactionJob : compactionJobs) {
-            // Send compaction job to SQS (NB Send compaction job to SQS before updating the job field of the files in the
-            // StateStore so that if the send to SQS fails then the StateStore will not be updated and later another
-            // job can be created for these files.)
-            jobSender.send(compactionJob);
-
-            // Update the statuses of these files to record that a compaction job is in progress
-            LOGGER.debug("Updating status of files in StateStore");
-
-            List<FileInfo> fileInfos1 = new ArrayList<>();
-            for (String filename : compactionJob.getInputFiles()) {
-                for (FileInfo fileInfo : activeFiles) {
-                    if (fileInfo.getFilename().equals(filename)) {
-                        fileInfos1.add(fileInfo);
-                        break;
-                    }
-                }
-            }
-            stateStore.atomicallyUpdateJobStatusOfFiles(compactionJob.getId(), fileInfos1);
-            jobStatusStore.jobCreated(compactionJob);
+        Map<String, FileInfo> activeFileByName = new HashMap<>();
+        activeFiles.forEach(fileInfo -> activeFileByName.put(fileInfo.getFilename(), fileInfo));
+
+        // Send compaction jobs to SQS before updating the job field of the files in the StateStore, so that if the
+        // send to SQS fails then the StateStore will not be updated and later another job can be created for these
+        // files. The files are assigned after each batch is sent, so that the jobs which were sent are assigned even
+        // if a later batch fails, and a failed assignment stops any more jobs from being sent.
+        for (int i = 0; i < compactionJobs.size(); i += JOB_SEND_BATCH_SIZE) {
+            List<CompactionJob> batch = compactionJobs.subList(i, Math.min(i + JOB_SEND_BATCH_SIZE, compactionJobs.size()));
+            jobSender.send(batch, sentJobs -> assignFilesToJobs(stateStore, sentJobs, activeFileByName));
         }
     }
 
+    private void assignFilesToJobs(StateStore stateStore, List<CompactionJob> sentJobs, Map<String, FileInfo> activeFileByName) throws StateStoreException {
+        // Update the statuses of these files to record that a compaction job is in progress
+        LOGGER.debug("Updating status of files in StateStore for {} jobs", sentJobs.size());
+        stateStore.atomicallyAssignJobIdsToFiles(sentJobs.stream()
+                .map(job -> assignJobOnFiles(job.getId(), job.getInputFiles().stream()
+                        .map(activeFileByName::get)
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList()));
+        sentJobs.forEach(jobStatusStore::jobCreated);
+    }
+
+    /**
+     * Sends compaction jobs. Jobs may be sent in several requests. After each request the jobs that were sent are
+     * passed to the listener, before any more jobs are sent.
+     */
     @FunctionalInterface
     public interface JobSender {
-        void send(CompactionJob compactionJob) throws IOException;
+        void send(List<CompactionJob> compactionJobs, SentJobsListener listener) throws IOException, StateStoreException;
+    }
+
+    /**
+     * Receives compaction jobs once they have been sent.
+     */
+    @FunctionalInterface
+    public interface SentJobsListener {
+        void jobsSent(List<CompactionJob> compactionJobs) throws StateStoreException;
     }
 }
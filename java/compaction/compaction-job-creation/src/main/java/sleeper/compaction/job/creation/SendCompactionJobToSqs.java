@@ -16,23 +16,32 @@
 package sleeper.compaction.job.creation;
 
 import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.model.SendMessageRequest;
-import com.amazonaws.services.sqs.model.SendMessageResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import sleeper.compaction.job.CompactionJob;
 import sleeper.compaction.job.CompactionJobSerDe;
+import sleeper.compaction.job.creation.CreateJobs.SentJobsListener;
 import sleeper.configuration.properties.instance.InstanceProperties;
 import sleeper.configuration.properties.table.TablePropertiesProvider;
+import sleeper.core.statestore.StateStoreException;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.COMPACTION_JOB_QUEUE_URL;
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.SPLITTING_COMPACTION_JOB_QUEUE_URL;
 
 public class SendCompactionJobToSqs {
     private static final Logger LOGGER = LoggerFactory.getLogger(SendCompactionJobToSqs.class);
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final int MAX_BATCH_BYTES = 256 * 1024;
 
     private final InstanceProperties instanceProperties;
     private final AmazonSQS sqsClient;
@@ -47,21 +56,70 @@ public class SendCompactionJobToSqs {
         this.compactionJobSerDe = new CompactionJobSerDe(tablePropertiesProvider);
     }
 
-    public void send(CompactionJob compactionJob) throws IOException {
-        if (compactionJob.isSplittingJob()) {
-            sendToQueue(compactionJob, instanceProperties.get(SPLITTING_COMPACTION_JOB_QUEUE_URL));
-        } else {
-            sendToQueue(compactionJob, instanceProperties.get(COMPACTION_JOB_QUEUE_URL));
+    /**
+     * Sends compaction jobs to SQS. Jobs are sent in batches of up to 10, which is the most SQS will accept in a
+     * single request. After each request, the jobs which SQS accepted are passed to the listener, even if others in
+     * the same request failed.
+     *
+     * @param  compactionJobs      the jobs
+     * @param  listener            receives the jobs that were sent, after each request
+     * @throws IOException         if any job could not be serialised or sent
+     * @throws StateStoreException if the listener failed
+     */
+    public void send(List<CompactionJob> compactionJobs, SentJobsListener listener) throws IOException, StateStoreException {
+        List<CompactionJob> splittingJobs = new ArrayList<>();
+        List<CompactionJob> standardJobs = new ArrayList<>();
+        for (CompactionJob compactionJob : compactionJobs) {
+            if (compactionJob.isSplittingJob()) {
+                splittingJobs.add(compactionJob);
+            } else {
+                standardJobs.add(compactionJob);
+            }
         }
+        sendToQueue(splittingJobs, instanceProperties.get(SPLITTING_COMPACTION_JOB_QUEUE_URL), listener);
+        sendToQueue(standardJobs, instanceProperties.get(COMPACTION_JOB_QUEUE_URL), listener);
     }
 
-    private void sendToQueue(CompactionJob compactionJob, String queueUrl) throws IOException {
-        String serialisedJobDefinition = compactionJobSerDe.serialiseToString(compactionJob);
-        LOGGER.debug("Sending compaction job with id {} to SQS", compactionJob.getId());
-        SendMessageRequest sendMessageRequest = new SendMessageRequest()
+    private void sendToQueue(List<CompactionJob> compactionJobs, String queueUrl, SentJobsListener listener) throws IOException, StateStoreException {
+        List<CompactionJob> batchJobs = new ArrayList<>();
+        List<SendMessageBatchRequestEntry> batch = new ArrayList<>();
+        int batchBytes = 0;
+        for (CompactionJob compactionJob : compactionJobs) {
+            String serialisedJobDefinition = compactionJobSerDe.serialiseToString(compactionJob);
+            int messageBytes = serialisedJobDefinition.getBytes(StandardCharsets.UTF_8).length;
+            if (batch.size() == MAX_BATCH_SIZE || (!batch.isEmpty() && batchBytes + messageBytes > MAX_BATCH_BYTES)) {
+                sendBatch(batchJobs, batch, queueUrl, listener);
+                batchJobs.clear();
+                batch.clear();
+                batchBytes = 0;
+            }
+            LOGGER.debug("Sending compaction job with id {} to SQS", compactionJob.getId());
+            batch.add(new SendMessageBatchRequestEntry()
+                    .withId(String.valueOf(batch.size()))
+                    .withMessageBody(serialisedJobDefinition));
+            batchJobs.add(compactionJob);
+            batchBytes += messageBytes;
+        }
+        if (!batch.isEmpty()) {
+            sendBatch(batchJobs, batch, queueUrl, listener);
+        }
+    }
+
+    private void sendBatch(List<CompactionJob> batchJobs, List<SendMessageBatchRequestEntry> batch, String queueUrl,
+                           SentJobsListener listener) throws IOException, StateStoreException {
+        SendMessageBatchResult result = sqsClient.sendMessageBatch(new SendMessageBatchRequest()
                 .withQueueUrl(queueUrl)
-                .withMessageBody(serialisedJobDefinition);
-        SendMessageResult sendMessageResult = sqsClient.sendMessage(sendMessageRequest);
-        LOGGER.debug("Result of sending message: {}", sendMessageResult);
+                .withEntries(batch));
+        LOGGER.debug("Result of sending batch of {} messages: {}", batch.size(), result);
+        List<CompactionJob> sentJobs = result.getSuccessful().stream()
+                .map(entry -> batchJobs.get(Integer.parseInt(entry.getId())))
+                .collect(Collectors.toList());
+        if (!sentJobs.isEmpty()) {
+            listener.jobsSent(sentJobs);
+        }
+        if (!result.getFailed().isEmpty()) {
+            throw new IOException("Failed sending " + result.getFailed().size() + " of " + batch.size()
+                    + " compaction jobs to SQS: " + result.getFailed());
+        }
     }
 }
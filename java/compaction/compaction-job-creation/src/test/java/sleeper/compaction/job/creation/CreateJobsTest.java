@@ -16,6 +16,7 @@
 package sleeper.compaction.job.creation;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 import sleeper.compaction.job.CompactionJob;
 import sleeper.compaction.job.CompactionJobStatusStore;
@@ -34,15 +35,20 @@ import sleeper.core.statestore.FileInfoFactory;
 import sleeper.core.statestore.StateStore;
 import sleeper.statestore.FixedStateStoreProvider;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -121,6 +127,86 @@ public class CreateJobsTest {
         verifyNoMoreJobCreationReports();
     }
 
+    @Test
+    public void shouldAssignFilesAfterEachBatchIsSent() throws Exception {
+        // Given
+        Partition partition = setSinglePartition();
+        FileInfoFactory fileInfoFactory = new FileInfoFactory(schema, Collections.singletonList(partition), Instant.now());
+        List<FileInfo> files = IntStream.range(0, 60)
+                .mapToObj(i -> fileInfoFactory.leafFile("file" + i, 200L, "a", "b"))
+                .collect(Collectors.toUnmodifiableList());
+        setActiveFiles(files);
+        List<List<CompactionJob>> batches = new ArrayList<>();
+
+        // When
+        createJobs((batch, listener) -> {
+            batches.add(List.copyOf(batch));
+            listener.jobsSent(batch);
+        });
+
+        // Then
+        assertThat(batches).extracting(List::size).containsExactly(10, 2);
+        InOrder inOrder = inOrder(stateStore);
+        inOrder.verify(stateStore).atomicallyAssignJobIdsToFiles(argThat(requests -> requests.size() == 10));
+        inOrder.verify(stateStore).atomicallyAssignJobIdsToFiles(argThat(requests -> requests.size() == 2));
+        verifyOtherStateStoreCalls();
+    }
+
+    @Test
+    public void shouldAssignFilesForJobsSentBeforeSendingFailed() throws Exception {
+        // Given
+        Partition partition = setSinglePartition();
+        FileInfoFactory fileInfoFactory = new FileInfoFactory(schema, Collections.singletonList(partition), Instant.now());
+        List<FileInfo> files = IntStream.range(0, 60)
+                .mapToObj(i -> fileInfoFactory.leafFile("file" + i, 200L, "a", "b"))
+                .collect(Collectors.toUnmodifiableList());
+        setActiveFiles(files);
+        List<CompactionJob> sentJobs = new ArrayList<>();
+        IOException failure = new IOException("Failed sending batch");
+
+        // When / Then
+        assertThatThrownBy(() -> createJobs((batch, listener) -> {
+            if (!sentJobs.isEmpty()) {
+                throw failure;
+            }
+            sentJobs.addAll(batch);
+            listener.jobsSent(batch);
+        })).isSameAs(failure);
+        assertThat(sentJobs).hasSize(10);
+        verify(stateStore).atomicallyAssignJobIdsToFiles(argThat(requests -> requests.size() == 10));
+        sentJobs.forEach(this::verifyJobCreationReported);
+        verifyOtherStateStoreCalls();
+        verifyNoMoreJobCreationReports();
+    }
+
+    @Test
+    public void shouldAssignFilesForJobsSentInBatchWhenOtherJobsInBatchFailed() throws Exception {
+        // Given
+        Partition partition = setSinglePartition();
+        FileInfoFactory fileInfoFactory = new FileInfoFactory(schema, Collections.singletonList(partition), Instant.now());
+        List<FileInfo> files = IntStream.range(0, 10)
+                .mapToObj(i -> fileInfoFactory.leafFile("file" + i, 200L, "a", "b"))
+                .collect(Collectors.toUnmodifiableList());
+        setActiveFiles(files);
+        List<CompactionJob> sentJobs = new ArrayList<>();
+        IOException failure = new IOException("Failed sending one job");
+
+        // When / Then
+        assertThatThrownBy(() -> createJobs((batch, listener) -> {
+            sentJobs.add(batch.get(0));
+            listener.jobsSent(List.of(batch.get(0)));
+            throw failure;
+        })).isSameAs(failure);
+        assertThat(sentJobs).singleElement().satisfies(job -> {
+            verifySetJobForFilesInStateStore(job.getId(), files.stream()
+                    .filter(file -> job.getInputFiles().contains(file.getFilename()))
+                    .collect(Collectors.toList()));
+            verifyJobCreationReported(job);
+        });
+        verifyOtherStateStoreCalls();
+        verifyNoMoreJobCreationReports();
+    }
+
     private Partition setSinglePartition() throws Exception {
         List<Partition> partitions = new PartitionsFromSplitPoints(schema, Collections.emptyList()).construct();
         setPartitions(partitions);
@@ -136,11 +222,9 @@ public class CreateJobsTest {
     }
 
     private void verifySetJobForFilesInStateStore(String jobId, List<FileInfo> files) throws Exception {
-        verify(stateStore).atomicallyUpdateJobStatusOfFiles(
-                eq(jobId), argThat(actualFiles -> {
-                    assertThat(actualFiles).containsExactlyInAnyOrderElementsOf(files);
-                    return true;
-                }));
+        verify(stateStore).atomicallyAssignJobIdsToFiles(argThat(requests -> requests.stream()
+                .anyMatch(request -> request.getJobId().equals(jobId)
+                        && Set.copyOf(request.getFiles()).equals(Set.copyOf(files)))));
     }
 
     private void verifyOtherStateStoreCalls() throws Exception {
@@ -158,16 +242,23 @@ public class CreateJobsTest {
     }
 
     private List<CompactionJob> createJobs() throws Exception {
+        List<CompactionJob> compactionJobs = new ArrayList<>();
+        createJobs((batch, listener) -> {
+            compactionJobs.addAll(batch);
+            listener.jobsSent(batch);
+        });
+        return compactionJobs;
+    }
+
+    private void createJobs(CreateJobs.JobSender jobSender) throws Exception {
 
         InstanceProperties instanceProperties = createInstanceProperties();
         TableProperties tableProperties = createTableProperties(schema, instanceProperties);
 
-        List<CompactionJob> compactionJobs = new ArrayList<>();
         CreateJobs createJobs = new CreateJobs(ObjectFactory.noUserJars(), instanceProperties,
                 new FixedTablePropertiesProvider(tableProperties),
                 new FixedStateStoreProvider(tableProperties, stateStore),
-                compactionJobs::add, jobStatusStore);
+                jobSender, jobStatusStore);
         createJobs.createJobs();
-        return compactionJobs;
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.compaction.job.creation;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
+import org.junit.jupiter.api.Test;
+
+import sleeper.compaction.job.CompactionJob;
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.FixedTablePropertiesProvider;
+import sleeper.configuration.properties.table.TableProperties;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static sleeper.compaction.job.creation.CreateJobsTestUtils.createInstanceProperties;
+import static sleeper.compaction.job.creation.CreateJobsTestUtils.createSchema;
+import static sleeper.compaction.job.creation.CreateJobsTestUtils.createTableProperties;
+import static sleeper.configuration.properties.table.TableProperty.TABLE_ID;
+
+public class SendCompactionJobToSqsTest {
+
+    private final InstanceProperties instanceProperties = createInstanceProperties();
+    private final TableProperties tableProperties = createTableProperties(createSchema(), instanceProperties);
+    private final AmazonSQS sqsClient = mock(AmazonSQS.class);
+    private final SendCompactionJobToSqs sender = new SendCompactionJobToSqs(
+            instanceProperties, new FixedTablePropertiesProvider(tableProperties), sqsClient);
+
+    @Test
+    void shouldReportJobsSentInEachRequest() throws Exception {
+        // Given
+        List<CompactionJob> jobs = createJobs(12);
+        when(sqsClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenAnswer(invocation -> succeedAll(invocation.getArgument(0)));
+        List<List<CompactionJob>> sentBatches = new ArrayList<>();
+
+        // When
+        sender.send(jobs, sentBatches::add);
+
+        // Then
+        assertThat(sentBatches).containsExactly(jobs.subList(0, 10), jobs.subList(10, 12));
+    }
+
+    @Test
+    void shouldReportJobsSentWhenOthersInSameRequestFailed() {
+        // Given
+        List<CompactionJob> jobs = createJobs(3);
+        when(sqsClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(new SendMessageBatchResult()
+                        .withSuccessful(
+                                new SendMessageBatchResultEntry().withId("0"),
+                                new SendMessageBatchResultEntry().withId("2"))
+                        .withFailed(new BatchResultErrorEntry().withId("1").withCode("InternalError")));
+        List<List<CompactionJob>> sentBatches = new ArrayList<>();
+
+        // When / Then
+        assertThatThrownBy(() -> sender.send(jobs, sentBatches::add))
+                .isInstanceOf(IOException.class);
+        assertThat(sentBatches).containsExactly(List.of(jobs.get(0), jobs.get(2)));
+    }
+
+    private List<CompactionJob> createJobs(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> CompactionJob.builder()
+                        .tableId(tableProperties.get(TABLE_ID))
+                        .jobId("job-" + i)
+                        .inputFiles(List.of("file-" + i))
+                        .outputFile("output-" + i)
+                        .isSplittingJob(false)
+                        .partitionId("root")
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static SendMessageBatchResult succeedAll(SendMessageBatchRequest request) {
+        return new SendMessageBatchResult()
+                .withSuccessful(request.getEntries().stream()
+                        .map(entry -> new SendMessageBatchResultEntry().withId(entry.getId()))
+                        .collect(Collectors.toList()));
+    }
+}
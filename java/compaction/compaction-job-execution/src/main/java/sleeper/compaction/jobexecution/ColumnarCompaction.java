@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.compaction.jobexecution;
+
+import org.apache.datasketches.quantiles.ItemsSketch;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.core.record.process.RecordsProcessed;
+import sleeper.core.schema.Schema;
+import sleeper.io.parquet.columnar.ColumnBatch;
+import sleeper.io.parquet.columnar.ColumnBatchReader;
+import sleeper.io.parquet.columnar.ColumnBatchRow;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges sorted Parquet files into one sorted Parquet file without creating a record for each row. Each input is
+ * read a batch of rows at a time into arrays for each column. The merge order is decided by comparing the key
+ * columns of the batches, with a tournament tree of losers over the inputs, and each row is written to the output
+ * straight from the arrays of its batch.
+ * <p>
+ * This can only be used when no iterator needs to be applied, and when every field can be held in a
+ * {@link ColumnBatch}.
+ */
+class ColumnarCompaction {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ColumnarCompaction.class);
+    static final int BATCH_SIZE = 4096;
+
+    private final Schema schema;
+    private final String jobId;
+    private final int batchSize;
+
+    ColumnarCompaction(Schema schema, String jobId) {
+        this(schema, jobId, BATCH_SIZE);
+    }
+
+    ColumnarCompaction(Schema schema, String jobId, int batchSize) {
+        this.schema = schema;
+        this.jobId = jobId;
+        this.batchSize = batchSize;
+    }
+
+    static boolean canCompact(Schema schema, String iteratorClassName) {
+        return null == iteratorClassName && ColumnBatch.isSupported(schema);
+    }
+
+    /**
+     * Merges the input files into the given writer, and adds the row keys of every row written to the sketches.
+     *
+     * @param  inputFiles       the sorted files to merge
+     * @param  writer           the writer for the output file, which will not be closed
+     * @param  keyFieldToSketch the sketches for each row key field
+     * @param  conf             the Hadoop configuration to read the files with
+     * @return                  the number of rows read and written
+     * @throws IOException      if a file could not be read or written
+     */
+    RecordsProcessed merge(List<String> inputFiles, ParquetWriter<ColumnBatchRow> writer,
+                           Map<String, ItemsSketch> keyFieldToSketch, Configuration conf) throws IOException {
+        int numInputs = inputFiles.size();
+        ColumnBatchReader[] readers = new ColumnBatchReader[numInputs];
+        try {
+            for (int i = 0; i < numInputs; i++) {
+                readers[i] = new ColumnBatchReader(new Path(inputFiles.get(i)), schema, conf);
+                LOGGER.debug("Compaction job {}: Created column batch reader for file {}", jobId, inputFiles.get(i));
+            }
+            Inputs inputs = new Inputs(schema, readers, batchSize);
+            long recordsWritten = writeInMergedOrder(inputs, writer, keyFieldToSketch);
+            long recordsRead = 0L;
+            for (ColumnBatchReader reader : readers) {
+                recordsRead += reader.getRowsRead();
+            }
+            return new RecordsProcessed(recordsRead, recordsWritten);
+        } finally {
+            for (ColumnBatchReader reader : readers) {
+                if (null != reader) {
+                    reader.close();
+                }
+            }
+            LOGGER.debug("Compaction job {}: Closed readers", jobId);
+        }
+    }
+
+    private long writeInMergedOrder(Inputs inputs, ParquetWriter<ColumnBatchRow> writer,
+                                    Map<String, ItemsSketch> keyFieldToSketch) throws IOException {
+        List<String> rowKeyFieldNames = schema.getRowKeyFieldNames();
+        List<String> allFieldNames = schema.getAllFieldNames();
+        int[] rowKeyColumns = new int[rowKeyFieldNames.size()];
+        ItemsSketch[] sketches = new ItemsSketch[rowKeyFieldNames.size()];
+        for (int i = 0; i < rowKeyColumns.length; i++) {
+            rowKeyColumns[i] = allFieldNames.indexOf(rowKeyFieldNames.get(i));
+            sketches[i] = keyFieldToSketch.get(rowKeyFieldNames.get(i));
+        }
+        ColumnBatchRow row = new ColumnBatchRow();
+        long recordsWritten = 0L;
+        while (inputs.hasNext()) {
+            int winner = inputs.winner();
+            ColumnBatch batch = inputs.batches[winner];
+            int position = inputs.positions[winner];
+            writer.write(row.set(batch, position));
+            for (int i = 0; i < rowKeyColumns.length; i++) {
+                sketches[i].update(batch.getComparableKey(rowKeyColumns[i], position));
+            }
+            recordsWritten++;
+            if (0 == recordsWritten % 1_000_000) {
+                LOGGER.info("Compaction job {}: Written {} records", jobId, recordsWritten);
+            }
+            inputs.advance(winner);
+        }
+        return recordsWritten;
+    }
+
+    /**
+     * The current batch and row position for each input, and a tournament tree of losers to find the input with the
+     * lowest current row. This works the same way as {@link sleeper.core.iterator.LoserTreeMergingIterator}.
+     */
+    private static class Inputs {
+        private final ColumnBatchReader[] readers;
+        private final ColumnBatch[] batches;
+        private final int[] positions;
+        private final boolean[] exhausted;
+        private final int[] tree;
+        private final int numInputs;
+
+        Inputs(Schema schema, ColumnBatchReader[] readers, int batchSize) throws IOException {
+            this.readers = readers;
+            this.numInputs = readers.length;
+            this.batches = new ColumnBatch[numInputs];
+            this.positions = new int[numInputs];
+            this.exhausted = new boolean[numInputs];
+            this.tree = new int[Math.max(1, numInputs)];
+            for (int i = 0; i < numInputs; i++) {
+                batches[i] = new ColumnBatch(schema, batchSize);
+                exhausted[i] = !readers[i].readBatch(batches[i]);
+            }
+            initialiseTree();
+        }
+
+        boolean hasNext() {
+            return numInputs > 0 && !exhausted[tree[0]];
+        }
+
+        int winner() {
+            return tree[0];
+        }
+
+        void advance(int input) throws IOException {
+            positions[input]++;
+            if (positions[input] >= batches[input].size()) {
+                positions[input] = 0;
+                exhausted[input] = !readers[input].readBatch(batches[input]);
+            }
+            replay(input);
+        }
+
+        private void initialiseTree() {
+            if (numInputs == 0) {
+                return;
+            }
+            int[] winners = new int[2 * numInputs];
+            for (int i = 0; i < numInputs; i++) {
+                winners[numInputs + i] = i;
+            }
+            for (int node = numInputs - 1; node >= 1; node--) {
+                int left = winners[2 * node];
+                int right = winners[2 * node + 1];
+                if (beats(left, right)) {
+                    winners[node] = left;
+                    tree[node] = right;
+                } else {
+                    winners[node] = right;
+                    tree[node] = left;
+                }
+            }
+            tree[0] = numInputs == 1 ? 0 : winners[1];
+        }
+
+        private void replay(int input) {
+            int winner = input;
+            for (int node = (input + numInputs) / 2; node >= 1; node /= 2) {
+                int loser = tree[node];
+                if (beats(loser, winner)) {
+                    tree[node] = winner;
+                    winner = loser;
+                }
+            }
+            tree[0] = winner;
+        }
+
+        private boolean beats(int input1, int input2) {
+            if (exhausted[input1]) {
+                return false;
+            }
+            if (exhausted[input2]) {
+                return true;
+            }
+            int diff = ColumnBatch.compareKeys(batches[input1], positions[input1], batches[input2], positions[input2]);
+            return diff < 0 || (diff == 0 && input1 < input2);
+        }
+    }
+}
@@ -22,6 +22,9 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.datasketches.quantiles.ItemsSketch;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.slf4j.Logger;
@@ -33,9 +36,10 @@ import sleeper.configuration.jars.ObjectFactory;
 import sleeper.configuration.jars.ObjectFactoryException;
 import sleeper.configuration.properties.instance.InstanceProperties;
 import sleeper.configuration.properties.table.TableProperties;
+import sleeper.configuration.properties.validation.CompactionMethod;
 import sleeper.core.iterator.CloseableIterator;
 import sleeper.core.iterator.IteratorException;
-import sleeper.core.iterator.MergingIterator;
+import sleeper.core.iterator.MergeImplementation;
 import sleeper.core.iterator.SortedRecordIterator;
 import sleeper.core.record.Record;
 import sleeper.core.record.SingleKeyComparator;
@@ -47,6 +51,9 @@ import sleeper.core.schema.type.ByteArrayType;
 import sleeper.core.statestore.FileInfo;
 import sleeper.core.statestore.StateStore;
 import sleeper.core.statestore.StateStoreException;
+import sleeper.io.parquet.columnar.ColumnBatchRow;
+import sleeper.io.parquet.columnar.ColumnBatchRowWriterFactory;
+import sleeper.io.parquet.record.AsyncParquetWriter;
 import sleeper.io.parquet.record.ParquetReaderIterator;
 import sleeper.io.parquet.record.ParquetRecordReader;
 import sleeper.io.parquet.record.ParquetRecordWriterFactory;
@@ -62,7 +69,15 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Future;
+
+import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
+import static org.apache.parquet.filter2.predicate.FilterApi.intColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static sleeper.configuration.properties.table.TableProperty.COMPACTION_METHOD;
+import static sleeper.configuration.properties.table.TableProperty.COMPACTION_PIPELINE_QUEUE_BATCHES;
+import static sleeper.configuration.properties.table.TableProperty.MERGE_IMPLEMENTATION;
 import static sleeper.core.metrics.MetricsLogger.METRICS_LOGGER;
 
 /**
@@ -127,164 +142,291 @@ public class CompactSortedFiles {
 
     private RecordsProcessed compactNoSplitting() throws IOException, IteratorException {
         Configuration conf = getConfiguration();
+        RecordsProcessed recordsProcessed = deleteOutputsOnFailure(List.of(compactionJob.getOutputFile()), conf,
+                () -> writeNoSplitting(conf));
+
+        LOGGER.info("Compaction job {}: Read {} records and wrote {} records", compactionJob.getId(),
+                recordsProcessed.getRecordsRead(), recordsProcessed.getRecordsWritten());
+
+        updateStateStoreSuccess(compactionJob.getInputFiles(),
+                compactionJob.getOutputFile(),
+                compactionJob.getPartitionId(),
+                recordsProcessed.getRecordsWritten(),
+                stateStore);
+        LOGGER.info("Compaction job {}: compaction committed to state store at {}", compactionJob.getId(), LocalDateTime.now());
+        return recordsProcessed;
+    }
 
-        // Create a reader for each file
-        List<CloseableIterator<Record>> inputIterators = createInputIterators(conf);
+    private RecordsProcessed writeNoSplitting(Configuration conf) throws IOException, IteratorException {
+        if (CompactionMethod.from(tableProperties.get(COMPACTION_METHOD)) == CompactionMethod.COLUMNAR) {
+            if (ColumnarCompaction.canCompact(schema, compactionJob.getIteratorClassName())) {
+                return writeNoSplittingByColumn(conf);
+            }
+            LOGGER.info("Compaction job {}: Cannot compact by column with iterator {} and schema {}, compacting records",
+                    compactionJob.getId(), compactionJob.getIteratorClassName(), schema);
+        }
+
+        try (CompactionPipeline pipeline = createPipeline()) {
+            return writeNoSplitting(conf, pipeline);
+        }
+    }
 
-        // Merge these iterator into one sorted iterator
-        CloseableIterator<Record> mergingIterator = getMergingIterator(inputIterators);
+    private RecordsProcessed writeNoSplitting(Configuration conf, CompactionPipeline pipeline) throws IOException, IteratorException {
+        // Create a reader for each file, and merge them into one sorted iterator
+        MergedInputs inputs = openInputs(conf, pipeline, FilterCompat.NOOP);
 
         // Create writer
+        OutputFile output = openOutput(compactionJob.getOutputFile(), conf, pipeline);
+        while (inputs.hasNext()) {
+            output.write(inputs.next());
+        }
+        output.close();
+        inputs.close();
+        pipeline.logQueueStatistics();
+        return new RecordsProcessed(inputs.getRecordsRead(), output.getRecordsWritten());
+    }
+
+    private RecordsProcessed writeNoSplittingByColumn(Configuration conf) throws IOException {
         LOGGER.debug("Creating writer for file {}", compactionJob.getOutputFile());
         Path outputPath = new Path(compactionJob.getOutputFile());
-        ParquetWriter<Record> writer = ParquetRecordWriterFactory.createParquetRecordWriter(outputPath, tableProperties, conf);
-
-        LOGGER.info("Compaction job {}: Created writer for file {}", compactionJob.getId(), compactionJob.getOutputFile());
         Map<String, ItemsSketch> keyFieldToSketch = getSketches();
-
-        long recordsWritten = 0L;
-        while (mergingIterator.hasNext()) {
-            Record record = mergingIterator.next();
-            updateQuantilesSketch(record, keyFieldToSketch);
-            // Write out
-            writer.write(record);
-            recordsWritten++;
-            if (0 == recordsWritten % 1_000_000) {
-                LOGGER.info("Compaction job {}: Written {} records", compactionJob.getId(), recordsWritten);
-            }
-        }
+        ParquetWriter<ColumnBatchRow> writer = ColumnBatchRowWriterFactory.createColumnBatchRowWriter(outputPath, tableProperties, conf);
+        LOGGER.info("Compaction job {}: Created writer for file {}, compacting by column", compactionJob.getId(), compactionJob.getOutputFile());
+        RecordsProcessed recordsProcessed = new ColumnarCompaction(schema, compactionJob.getId())
+                .merge(compactionJob.getInputFiles(), writer, keyFieldToSketch, conf);
+        // The writer is only closed once every record is written, so that a partial file is not finalised on failure
         writer.close();
         LOGGER.debug("Compaction job {}: Closed writer", compactionJob.getId());
 
-        // Remove the extension (if present), then add one
-        String sketchesFilename = compactionJob.getOutputFile();
-        sketchesFilename = FilenameUtils.removeExtension(sketchesFilename);
-        sketchesFilename = sketchesFilename + ".sketches";
-        Path sketchesPath = new Path(sketchesFilename);
-        new SketchesSerDeToS3(schema).saveToHadoopFS(sketchesPath, new Sketches(keyFieldToSketch), conf);
+        Path sketchesPath = writeSketches(compactionJob.getOutputFile(), keyFieldToSketch, conf);
         LOGGER.info("Compaction job {}: Wrote sketches file to {}", compactionJob.getId(), sketchesPath);
+        return recordsProcessed;
+    }
 
-        for (CloseableIterator<Record> iterator : inputIterators) {
-            iterator.close();
-        }
-        LOGGER.debug("Compaction job {}: Closed readers", compactionJob.getId());
-
-        long totalNumberOfRecordsRead = 0L;
-        for (CloseableIterator<Record> iterator : inputIterators) {
-            totalNumberOfRecordsRead += ((ParquetReaderIterator) iterator).getNumberOfRecordsRead();
-        }
+    private RecordsProcessed compactSplitting() throws IOException, IteratorException {
+        Configuration conf = getConfiguration();
+        Pair<String, String> outputFiles = compactionJob.getOutputFiles();
+        SplitResult result = deleteOutputsOnFailure(List.of(outputFiles.getLeft(), outputFiles.getRight()), conf,
+                () -> writeSplitting(conf));
 
-        LOGGER.info("Compaction job {}: Read {} records and wrote {} records", compactionJob.getId(), totalNumberOfRecordsRead, recordsWritten);
+        long totalNumberOfRecordsRead = result.recordsRead;
+        long recordsWrittenToLeftFile = result.left.getRecordsWritten();
+        long recordsWrittenToRightFile = result.right.getRecordsWritten();
+        LOGGER.info("Compaction job {}: Read {} records and wrote ({}, {}) records",
+                compactionJob.getId(), totalNumberOfRecordsRead, recordsWrittenToLeftFile, recordsWrittenToRightFile);
 
         updateStateStoreSuccess(compactionJob.getInputFiles(),
-                compactionJob.getOutputFile(),
+                compactionJob.getOutputFiles(),
                 compactionJob.getPartitionId(),
-                recordsWritten,
+                compactionJob.getChildPartitions(),
+                new ImmutablePair<>(recordsWrittenToLeftFile, recordsWrittenToRightFile),
                 stateStore);
-        LOGGER.info("Compaction job {}: compaction committed to state store at {}", compactionJob.getId(), LocalDateTime.now());
-
-        return new RecordsProcessed(totalNumberOfRecordsRead, recordsWritten);
+        LOGGER.info("Splitting compaction job {}: compaction committed to state store at {}", compactionJob.getId(), LocalDateTime.now());
+        return new RecordsProcessed(totalNumberOfRecordsRead, recordsWrittenToLeftFile + recordsWrittenToRightFile);
     }
 
-    private RecordsProcessed compactSplitting() throws IOException, IteratorException {
-        Configuration conf = getConfiguration();
-
-        // Create a reader for each file
-        List<CloseableIterator<Record>> inputIterators = createInputIterators(conf);
-
-        // Merge these iterator into one sorted iterator
-        CloseableIterator<Record> mergingIterator = getMergingIterator(inputIterators);
-
-        // Create writers
-        Path leftPath = new Path(compactionJob.getOutputFiles().getLeft());
-        ParquetWriter<Record> leftWriter = ParquetRecordWriterFactory.createParquetRecordWriter(leftPath, tableProperties, conf);
-        LOGGER.debug("Compaction job {}: Created writer for file {}", compactionJob.getId(), compactionJob.getOutputFiles().getLeft());
-
-        Path rightPath = new Path(compactionJob.getOutputFiles().getRight());
-        ParquetWriter<Record> rightWriter = ParquetRecordWriterFactory.createParquetRecordWriter(rightPath, tableProperties, conf);
-        LOGGER.debug("Compaction job {}: Created writer for file {}", compactionJob.getId(), compactionJob.getOutputFiles().getRight());
-
-        Map<String, ItemsSketch> leftKeyFieldToSketch = getSketches();
-        Map<String, ItemsSketch> rightKeyFieldToSketch = getSketches();
+    private SplitResult writeSplitting(Configuration conf) throws IOException, IteratorException {
+        try (CompactionPipeline pipeline = createPipeline()) {
+            return writeSplitting(conf, pipeline);
+        }
+    }
 
-        long recordsWrittenToLeftFile = 0L;
-        long recordsWrittenToRightFile = 0L;
+    private SplitResult writeSplitting(Configuration conf, CompactionPipeline pipeline) throws IOException, IteratorException {
         int dimension = compactionJob.getDimension();
-        // Compare using the key of dimension compactionJob.getDimension(), i.e. of that position in the list
-        SingleKeyComparator keyComparator = new SingleKeyComparator(schema.getRowKeyTypes().get(dimension));
         String comparisonKeyFieldName = schema.getRowKeyFieldNames().get(dimension);
         LOGGER.debug("Splitting on dimension {} (field name {})", dimension, comparisonKeyFieldName);
-
         Object splitPoint = compactionJob.getSplitPoint();
         LOGGER.info("Split point is " + splitPoint);
 
-        // TODO This is unnecessarily complicated as the records for the left file will all be written in one go,
-        // followed by the records to the right file.
-        while (mergingIterator.hasNext()) {
-            Record record = mergingIterator.next();
-            if (keyComparator.compare(record.get(comparisonKeyFieldName), splitPoint) < 0) {
-                leftWriter.write(record);
-                recordsWrittenToLeftFile++;
-                updateQuantilesSketch(record, leftKeyFieldToSketch);
-            } else {
-                rightWriter.write(record);
-                recordsWrittenToRightFile++;
-                updateQuantilesSketch(record, rightKeyFieldToSketch);
-            }
+        SplitResult result;
+        if (dimension != 0) {
+            // Records are sorted by the first row key, so records either side of a split point in another
+            // dimension are interleaved
+            result = compactSplittingWithBothFilesOpen(conf, pipeline, dimension, splitPoint);
+        } else if (pipeline.isEnabled() && null != splitFilterColumn(splitPoint)) {
+            result = compactSplittingInParallel(conf, pipeline, splitPoint);
+        } else {
+            result = compactSplittingLeftThenRight(conf, pipeline, splitPoint);
+        }
+        pipeline.logQueueStatistics();
+        return result;
+    }
 
-            if ((recordsWrittenToLeftFile > 0 && 0 == recordsWrittenToLeftFile % 1_000_000)
-                    || (recordsWrittenToRightFile > 0 && 0 == recordsWrittenToRightFile % 1_000_000)) {
-                LOGGER.info("Compaction job {}: Written {} records to left file and {} records to right file",
-                        compactionJob.getId(), recordsWrittenToLeftFile, recordsWrittenToRightFile);
+    /**
+     * Writes the output files of the job, deleting them if the job fails before they are committed. This avoids
+     * leaving a partial or uncommitted file at an output path, which would stop a retry of the job from creating it.
+     *
+     * @param  <T>               the type of the result
+     * @param  outputFiles       the output files of the job
+     * @param  conf              the Hadoop configuration
+     * @param  write             writes the output files
+     * @return                   the result of writing the files
+     * @throws IOException       if writing failed
+     * @throws IteratorException if the iterator for the table could not be created
+     */
+    private <T> T deleteOutputsOnFailure(
+            List<String> outputFiles, Configuration conf, CompactionPipeline.Stage<T> write) throws IOException, IteratorException {
+        try {
+            return write.run();
+        } catch (IOException | IteratorException | RuntimeException | Error e) {
+            deleteOutputs(outputFiles, conf, e);
+            throw e;
+        }
+    }
+
+    private void deleteOutputs(List<String> outputFiles, Configuration conf, Throwable failure) {
+        for (String outputFile : outputFiles) {
+            for (Path path : List.of(new Path(outputFile), sketchesPath(outputFile))) {
+                try {
+                    if (path.getFileSystem(conf).delete(path, false)) {
+                        LOGGER.info("Compaction job {}: Deleted {} after failure", compactionJob.getId(), path);
+                    }
+                } catch (IOException e) {
+                    failure.addSuppressed(e);
+                }
             }
+        }
+    }
 
+    /**
+     * Splits on the first row key. All records for the left file come before all records for the right file, so the
+     * left file can be written and closed before the right file is opened.
+     *
+     * @param  conf       the Hadoop configuration
+     * @param  pipeline   the pipeline to run the job in
+     * @param  splitPoint the split point
+     * @return            the output files and the number of records read
+     */
+    private SplitResult compactSplittingLeftThenRight(
+            Configuration conf, CompactionPipeline pipeline, Object splitPoint) throws IOException, IteratorException {
+        SingleKeyComparator keyComparator = new SingleKeyComparator(schema.getRowKeyTypes().get(0));
+        String keyFieldName = schema.getRowKeyFieldNames().get(0);
+        MergedInputs inputs = openInputs(conf, pipeline, FilterCompat.NOOP);
+
+        OutputFile left = openOutput(compactionJob.getOutputFiles().getLeft(), conf, pipeline);
+        Record record = inputs.hasNext() ? inputs.next() : null;
+        while (null != record && keyComparator.compare(record.get(keyFieldName), splitPoint) < 0) {
+            left.write(record);
+            record = inputs.hasNext() ? inputs.next() : null;
         }
-        leftWriter.close();
-        rightWriter.close();
-        LOGGER.debug("Compaction job {}: Closed writers", compactionJob.getId());
+        left.close();
 
-        // Remove the extension (if present), then add one
-        String leftSketchesFilename = compactionJob.getOutputFiles().getLeft();
-        leftSketchesFilename = FilenameUtils.removeExtension(leftSketchesFilename);
-        leftSketchesFilename = leftSketchesFilename + ".sketches";
-        Path leftSketchesPath = new Path(leftSketchesFilename);
-        new SketchesSerDeToS3(schema).saveToHadoopFS(leftSketchesPath, new Sketches(leftKeyFieldToSketch), conf);
+        OutputFile right = openOutput(compactionJob.getOutputFiles().getRight(), conf, pipeline);
+        while (null != record) {
+            right.write(record);
+            record = inputs.hasNext() ? inputs.next() : null;
+        }
+        right.close();
+        inputs.close();
+        return new SplitResult(inputs.getRecordsRead(), left, right);
+    }
 
-        String rightSketchesFilename = compactionJob.getOutputFiles().getRight();
-        rightSketchesFilename = FilenameUtils.removeExtension(rightSketchesFilename);
-        rightSketchesFilename = rightSketchesFilename + ".sketches";
-        Path rightSketchesPath = new Path(rightSketchesFilename);
-        new SketchesSerDeToS3(schema).saveToHadoopFS(rightSketchesPath, new Sketches(rightKeyFieldToSketch), conf);
+    /**
+     * Splits on the first row key, writing both files at the same time. The inputs are read separately for each file,
+     * with a filter on the split point. Parquet uses this to skip row groups and pages which are all on the other side
+     * of the split point, based on their statistics and page index.
+     *
+     * @param  conf       the Hadoop configuration
+     * @param  pipeline   the pipeline to run the job in, which must be enabled
+     * @param  splitPoint the split point, which must be an int or a long
+     * @return            the output files and the number of records read
+     */
+    private SplitResult compactSplittingInParallel(
+            Configuration conf, CompactionPipeline pipeline, Object splitPoint) throws IOException, IteratorException {
+        Operators.Column<?> column = splitFilterColumn(splitPoint);
+        FilterPredicate leftFilter = splitPoint instanceof Integer
+                ? lt((Operators.IntColumn) column, (Integer) splitPoint)
+                : lt((Operators.LongColumn) column, (Long) splitPoint);
+        FilterPredicate rightFilter = splitPoint instanceof Integer
+                ? gtEq((Operators.IntColumn) column, (Integer) splitPoint)
+                : gtEq((Operators.LongColumn) column, (Long) splitPoint);
+        Future<SplitHalf> leftHalf = pipeline.submit(() -> compactSplitHalf(
+                compactionJob.getOutputFiles().getLeft(), conf, pipeline, leftFilter));
+        SplitHalf rightHalf;
+        try {
+            rightHalf = compactSplitHalf(compactionJob.getOutputFiles().getRight(), conf, pipeline, rightFilter);
+        } catch (IOException | IteratorException | RuntimeException e) {
+            leftHalf.cancel(true);
+            throw e;
+        }
+        SplitHalf left = CompactionPipeline.getResult(leftHalf);
+        return new SplitResult(left.recordsRead + rightHalf.recordsRead, left.output, rightHalf.output);
+    }
 
-        LOGGER.info("Wrote sketches to {} and {}", leftSketchesPath, rightSketchesPath);
+    private SplitHalf compactSplitHalf(
+            String outputFile, Configuration conf, CompactionPipeline pipeline, FilterPredicate filter) throws IOException, IteratorException {
+        MergedInputs inputs = openInputs(conf, pipeline, FilterCompat.get(filter));
+        OutputFile output = openOutput(outputFile, conf, pipeline);
+        while (inputs.hasNext()) {
+            output.write(inputs.next());
+        }
+        output.close();
+        inputs.close();
+        return new SplitHalf(inputs.getRecordsRead(), output);
+    }
 
-        for (CloseableIterator<Record> iterator : inputIterators) {
-            iterator.close();
+    private SplitResult compactSplittingWithBothFilesOpen(
+            Configuration conf, CompactionPipeline pipeline, int dimension, Object splitPoint) throws IOException, IteratorException {
+        // Compare using the key of dimension compactionJob.getDimension(), i.e. of that position in the list
+        SingleKeyComparator keyComparator = new SingleKeyComparator(schema.getRowKeyTypes().get(dimension));
+        String comparisonKeyFieldName = schema.getRowKeyFieldNames().get(dimension);
+        MergedInputs inputs = openInputs(conf, pipeline, FilterCompat.NOOP);
+        OutputFile left = openOutput(compactionJob.getOutputFiles().getLeft(), conf, pipeline);
+        OutputFile right = openOutput(compactionJob.getOutputFiles().getRight(), conf, pipeline);
+        while (inputs.hasNext()) {
+            Record record = inputs.next();
+            if (keyComparator.compare(record.get(comparisonKeyFieldName), splitPoint) < 0) {
+                left.write(record);
+            } else {
+                right.write(record);
+            }
         }
-        LOGGER.debug("Compaction job {}: Closed readers", compactionJob.getId());
+        left.close();
+        right.close();
+        inputs.close();
+        return new SplitResult(inputs.getRecordsRead(), left, right);
+    }
 
-        long totalNumberOfRecordsRead = 0L;
-        for (CloseableIterator<Record> iterator : inputIterators) {
-            totalNumberOfRecordsRead += ((ParquetReaderIterator) iterator).getNumberOfRecordsRead();
+    /**
+     * Finds the Parquet column to filter on to divide the inputs at the split point. This is only done for int and
+     * long keys, as Parquet compares binary values differently to Sleeper.
+     *
+     * @param  splitPoint the split point
+     * @return            the column, or null if the inputs cannot be divided with a filter
+     */
+    private Operators.Column<?> splitFilterColumn(Object splitPoint) {
+        String keyFieldName = schema.getRowKeyFieldNames().get(0);
+        if (splitPoint instanceof Integer) {
+            return intColumn(keyFieldName);
+        } else if (splitPoint instanceof Long) {
+            return longColumn(keyFieldName);
+        } else {
+            return null;
         }
+    }
 
-        LOGGER.info("Compaction job {}: Read {} records and wrote ({}, {}) records",
-                compactionJob.getId(), totalNumberOfRecordsRead, recordsWrittenToLeftFile, recordsWrittenToRightFile);
+    private MergedInputs openInputs(Configuration conf, CompactionPipeline pipeline, FilterCompat.Filter filter) throws IOException, IteratorException {
+        List<CloseableIterator<Record>> inputIterators = createInputIterators(conf, filter);
+        List<CloseableIterator<Record>> readAheadIterators = readAhead(inputIterators, pipeline);
+        return new MergedInputs(inputIterators, readAheadIterators, getMergingIterator(readAheadIterators));
+    }
 
-        updateStateStoreSuccess(compactionJob.getInputFiles(),
-                compactionJob.getOutputFiles(),
-                compactionJob.getPartitionId(),
-                compactionJob.getChildPartitions(),
-                new ImmutablePair<>(recordsWrittenToLeftFile, recordsWrittenToRightFile),
-                stateStore);
-        LOGGER.info("Splitting compaction job {}: compaction committed to state store at {}", compactionJob.getId(), LocalDateTime.now());
-        return new RecordsProcessed(totalNumberOfRecordsRead, recordsWrittenToLeftFile + recordsWrittenToRightFile);
+    private OutputFile openOutput(String file, Configuration conf, CompactionPipeline pipeline) throws IOException {
+        LOGGER.debug("Creating writer for file {}", file);
+        AsyncParquetWriter<Record> writer = pipeline.writer(
+                ParquetRecordWriterFactory.createParquetRecordWriter(new Path(file), tableProperties, conf),
+                "writer for " + file);
+        LOGGER.info("Compaction job {}: Created writer for file {}", compactionJob.getId(), file);
+        return new OutputFile(file, writer, conf);
     }
 
-    private List<CloseableIterator<Record>> createInputIterators(Configuration conf) throws IOException {
+    private List<CloseableIterator<Record>> createInputIterators(Configuration conf, FilterCompat.Filter filter) throws IOException {
         List<CloseableIterator<Record>> inputIterators = new ArrayList<>();
         for (String file : compactionJob.getInputFiles()) {
-            ParquetReader<Record> reader = new ParquetRecordReader.Builder(new Path(file), schema).withConf(conf).build();
+            ParquetReader<Record> reader = new ParquetRecordReader.Builder(new Path(file), schema)
+                    .withConf(conf)
+                    .withFilter(filter)
+                    .build();
             ParquetReaderIterator recordIterator = new ParquetReaderIterator(reader);
             inputIterators.add(recordIterator);
             LOGGER.debug("Compaction job {}: Created reader for file {}", compactionJob.getId(), file);
@@ -292,8 +434,23 @@ public class CompactSortedFiles {
         return inputIterators;
     }
 
+    private CompactionPipeline createPipeline() {
+        return new CompactionPipeline(compactionJob.getId(), tableProperties.getInt(COMPACTION_PIPELINE_QUEUE_BATCHES));
+    }
+
+    private List<CloseableIterator<Record>> readAhead(List<CloseableIterator<Record>> inputIterators, CompactionPipeline pipeline) {
+        List<CloseableIterator<Record>> readAheadIterators = new ArrayList<>(inputIterators.size());
+        for (int i = 0; i < inputIterators.size(); i++) {
+            readAheadIterators.add(pipeline.readAhead(inputIterators.get(i),
+                    "read-ahead for " + compactionJob.getInputFiles().get(i)));
+        }
+        return readAheadIterators;
+    }
+
     private CloseableIterator<Record> getMergingIterator(List<CloseableIterator<Record>> inputIterators) throws IteratorException {
-        CloseableIterator<Record> mergingIterator = new MergingIterator(schema, inputIterators);
+        MergeImplementation mergeImplementation = MergeImplementation.from(tableProperties.get(MERGE_IMPLEMENTATION));
+        LOGGER.debug("Merging {} input files using {}", inputIterators.size(), mergeImplementation);
+        CloseableIterator<Record> mergingIterator = mergeImplementation.createMergingIterator(schema, inputIterators);
 
         // Apply an iterator if one is provided
         if (null != compactionJob.getIteratorClassName()) {
@@ -311,6 +468,17 @@ public class CompactSortedFiles {
         return mergingIterator;
     }
 
+    private Path writeSketches(String outputFile, Map<String, ItemsSketch> keyFieldToSketch, Configuration conf) throws IOException {
+        Path sketchesPath = sketchesPath(outputFile);
+        new SketchesSerDeToS3(schema).saveToHadoopFS(sketchesPath, new Sketches(keyFieldToSketch), conf);
+        return sketchesPath;
+    }
+
+    private static Path sketchesPath(String outputFile) {
+        // Remove the extension (if present), then add one
+        return new Path(FilenameUtils.removeExtension(outputFile) + ".sketches");
+    }
+
     private Configuration getConfiguration() {
         return HadoopConfigurationProvider.getConfigurationForECS(instanceProperties);
     }
@@ -403,4 +571,105 @@ public class CompactSortedFiles {
             }
         }
     }
+
+    /**
+     * The readers for the input files of a job, merged into one sorted iterator with any iterator for the table
+     * applied.
+     */
+    private class MergedInputs {
+        private final List<CloseableIterator<Record>> inputIterators;
+        private final List<CloseableIterator<Record>> readAheadIterators;
+        private final CloseableIterator<Record> mergingIterator;
+
+        MergedInputs(List<CloseableIterator<Record>> inputIterators,
+                     List<CloseableIterator<Record>> readAheadIterators,
+                     CloseableIterator<Record> mergingIterator) {
+            this.inputIterators = inputIterators;
+            this.readAheadIterators = readAheadIterators;
+            this.mergingIterator = mergingIterator;
+        }
+
+        boolean hasNext() {
+            return mergingIterator.hasNext();
+        }
+
+        Record next() {
+            return mergingIterator.next();
+        }
+
+        void close() throws IOException {
+            for (CloseableIterator<Record> iterator : readAheadIterators) {
+                iterator.close();
+            }
+            LOGGER.debug("Compaction job {}: Closed readers", compactionJob.getId());
+        }
+
+        long getRecordsRead() {
+            long totalNumberOfRecordsRead = 0L;
+            for (CloseableIterator<Record> iterator : inputIterators) {
+                totalNumberOfRecordsRead += ((ParquetReaderIterator) iterator).getNumberOfRecordsRead();
+            }
+            return totalNumberOfRecordsRead;
+        }
+    }
+
+    /**
+     * An output file of a job, with the sketches of its row keys. The sketches file is written when the output file is
+     * closed.
+     */
+    private class OutputFile {
+        private final String file;
+        private final AsyncParquetWriter<Record> writer;
+        private final Configuration conf;
+        private final Map<String, ItemsSketch> keyFieldToSketch = getSketches();
+        private long recordsWritten = 0L;
+
+        OutputFile(String file, AsyncParquetWriter<Record> writer, Configuration conf) {
+            this.file = file;
+            this.writer = writer;
+            this.conf = conf;
+        }
+
+        void write(Record record) throws IOException {
+            updateQuantilesSketch(record, keyFieldToSketch);
+            writer.write(record);
+            recordsWritten++;
+            if (0 == recordsWritten % 1_000_000) {
+                LOGGER.info("Compaction job {}: Written {} records to file {}", compactionJob.getId(), recordsWritten, file);
+            }
+        }
+
+        void close() throws IOException {
+            writer.close();
+            LOGGER.debug("Compaction job {}: Closed writer for file {}", compactionJob.getId(), file);
+            Path sketchesPath = writeSketches(file, keyFieldToSketch, conf);
+            LOGGER.info("Compaction job {}: Wrote sketches file to {}", compactionJob.getId(), sketchesPath);
+        }
+
+        long getRecordsWritten() {
+            return recordsWritten;
+        }
+    }
+
+    private static class SplitHalf {
+        private final long recordsRead;
+        private final OutputFile output;
+
+        SplitHalf(long recordsRead, OutputFile output) {
+            this.recordsRead = recordsRead;
+            this.output = output;
+        }
+    }
+
+    private static class SplitResult {
+        private final long recordsRead;
+        private final OutputFile left;
+        private final OutputFile right;
+
+        SplitResult(long recordsRead, OutputFile left, OutputFile right) {
+            this.recordsRead = recordsRead;
+            this.left = left;
+            this.right = right;
+        }
+    }
 }
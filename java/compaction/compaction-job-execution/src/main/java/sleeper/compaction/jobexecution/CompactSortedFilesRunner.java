@@ -59,16 +59,26 @@ import sleeper.utils.HadoopConfigurationProvider;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.COMPACTION_JOB_QUEUE_URL;
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.SPLITTING_COMPACTION_JOB_QUEUE_URL;
 import static sleeper.configuration.properties.instance.CompactionProperty.COMPACTION_ECS_LAUNCHTYPE;
 import static sleeper.configuration.properties.instance.CompactionProperty.COMPACTION_KEEP_ALIVE_PERIOD_IN_SECONDS;
 import static sleeper.configuration.properties.instance.CompactionProperty.COMPACTION_QUEUE_VISIBILITY_TIMEOUT_IN_SECONDS;
+import static sleeper.configuration.properties.instance.CompactionProperty.COMPACTION_TASK_MAX_CONCURRENT_JOBS;
+import static sleeper.configuration.properties.instance.CompactionProperty.COMPACTION_TASK_MEMORY_PER_JOB_IN_MB;
 
 /**
  * Retrieves compaction {@link CompactionJob}s from an SQS queue, and executes
- * them. It delegates the actual execution of the job to an instance of
+ * them. Several jobs may be run at once, each on a thread from a fixed size
+ * pool. It delegates the actual execution of the job to an instance of
  * {@link CompactSortedFiles}. It passes a
  * {@link sleeper.job.common.action.ChangeMessageVisibilityTimeoutAction} to
  * that class so that the message on the SQS queue can be kept alive whilst the job
@@ -168,27 +178,59 @@ public class CompactSortedFilesRunner {
 
         taskStatusStore.taskStarted(taskStatusBuilder.build());
         CompactionTaskFinishedStatus.Builder taskFinishedBuilder = CompactionTaskFinishedStatus.builder();
-        long totalNumberOfMessagesProcessed = 0L;
+        int maxConcurrentJobs = maxConcurrentJobs(instanceProperties,
+                Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().maxMemory());
+        LOGGER.info("Running up to {} compaction jobs at once", maxConcurrentJobs);
+        ExecutorService executorService = Executors.newFixedThreadPool(maxConcurrentJobs);
+        RunningJobs runningJobs = new RunningJobs(executorService, taskFinishedBuilder);
         int numConsecutiveTimesNoMessages = 0;
-        while (numConsecutiveTimesNoMessages < maxMessageRetrieveAttempts) {
-            ReceiveMessageRequest receiveMessageRequest = new ReceiveMessageRequest(sqsJobQueueUrl)
-                    .withMaxNumberOfMessages(1)
-                    .withWaitTimeSeconds(waitTimeSeconds); // Must be >= 0 and <= 20
-            ReceiveMessageResult receiveMessageResult = sqsClient.receiveMessage(receiveMessageRequest);
-            if (receiveMessageResult.getMessages().isEmpty()) {
-                LOGGER.info("Received no messages in {} seconds", waitTimeSeconds);
-                numConsecutiveTimesNoMessages++;
-                Thread.sleep(10000L);
-            } else {
-                Message message = receiveMessageResult.getMessages().get(0);
-                LOGGER.info("Received message: {}", message);
-                CompactionJob compactionJob = compactionJobSerDe.deserialiseFromString(message.getBody());
-                LOGGER.info("CompactionJob is: {}", compactionJob);
-                taskFinishedBuilder.addJobSummary(compact(compactionJob, message));
-                totalNumberOfMessagesProcessed++;
-                numConsecutiveTimesNoMessages = 0;
+        try {
+            // Stop receiving messages once a job has failed, but let the other running jobs finish
+            while (!runningJobs.hasFailed() && numConsecutiveTimesNoMessages < maxMessageRetrieveAttempts) {
+                if (runningJobs.size() == maxConcurrentJobs) {
+                    runningJobs.waitForNextToFinish();
+                }
+                ReceiveMessageRequest receiveMessageRequest = new ReceiveMessageRequest(sqsJobQueueUrl)
+                        .withMaxNumberOfMessages(Math.min(10, maxConcurrentJobs - runningJobs.size())) // Must be <= 10
+                        .withWaitTimeSeconds(waitTimeSeconds); // Must be >= 0 and <= 20
+                ReceiveMessageResult receiveMessageResult = sqsClient.receiveMessage(receiveMessageRequest);
+                if (receiveMessageResult.getMessages().isEmpty()) {
+                    LOGGER.info("Received no messages in {} seconds", waitTimeSeconds);
+                    if (runningJobs.size() == 0) {
+                        numConsecutiveTimesNoMessages++;
+                        Thread.sleep(10000L);
+                    } else {
+                        runningJobs.waitForNextToFinish(10, TimeUnit.SECONDS);
+                    }
+                } else {
+                    // Every message received is started, even if another could not be, so that none are left
+                    // without a thread keeping them alive until the task stops
+                    for (Message message : receiveMessageResult.getMessages()) {
+                        LOGGER.info("Received message: {}", message);
+                        try {
+                            CompactionJob compactionJob = compactionJobSerDe.deserialiseFromString(message.getBody());
+                            LOGGER.info("CompactionJob is: {}", compactionJob);
+                            CompactSortedFiles compactSortedFiles = createCompactSortedFiles(compactionJob);
+                            runningJobs.submit(() -> compact(compactSortedFiles, compactionJob, message));
+                        } catch (RuntimeException e) {
+                            runningJobs.failedToStart(e);
+                        }
+                    }
+                    numConsecutiveTimesNoMessages = 0;
+                }
+                runningJobs.collectFinished();
+            }
+        } finally {
+            // Jobs still running are not interrupted, so that their work is not wasted and they are not left part way
+            // through committing their results
+            try {
+                runningJobs.waitForAllToFinish();
+            } finally {
+                executorService.shutdownNow();
             }
         }
+        runningJobs.throwIfAnyFailed();
+        long totalNumberOfMessagesProcessed = runningJobs.getNumFinished();
         LOGGER.info("Returning from run() method in CompactSortedFilesRunner as no messages received in {} seconds",
                 (numConsecutiveTimesNoMessages * waitTimeSeconds));
         LOGGER.info("Total number of messages processed = {}", totalNumberOfMessagesProcessed);
@@ -201,7 +243,24 @@ public class CompactSortedFilesRunner {
         taskStatusStore.taskFinished(taskFinished);
     }
 
-    private RecordsProcessedSummary compact(CompactionJob compactionJob, Message message)
+    /**
+     * Works out how many compaction jobs a task can run at once, from the configured maximum, the number of
+     * processors, and the memory available to the task.
+     *
+     * @param  instanceProperties  the instance properties
+     * @param  availableProcessors the number of processors available to the task
+     * @param  maxMemoryBytes      the maximum heap size of the task
+     * @return                     the number of jobs to run at once
+     */
+    public static int maxConcurrentJobs(InstanceProperties instanceProperties, int availableProcessors, long maxMemoryBytes) {
+        long memoryPerJobBytes = instanceProperties.getLong(COMPACTION_TASK_MEMORY_PER_JOB_IN_MB) * 1024L * 1024L;
+        long jobsFittingInMemory = maxMemoryBytes / memoryPerJobBytes;
+        long maxJobs = Math.min(instanceProperties.getInt(COMPACTION_TASK_MAX_CONCURRENT_JOBS),
+                Math.min(availableProcessors, jobsFittingInMemory));
+        return (int) Math.max(1, maxJobs);
+    }
+
+    private RecordsProcessedSummary compact(CompactSortedFiles compactSortedFiles, CompactionJob compactionJob, Message message)
             throws IOException, IteratorException, ActionException {
         MessageReference messageReference = new MessageReference(sqsClient, sqsJobQueueUrl,
                 "Compaction job " + compactionJob.getId(), message.getReceiptHandle());
@@ -216,7 +275,7 @@ public class CompactSortedFilesRunner {
 
         RecordsProcessedSummary summary;
         try {
-            summary = compact(compactionJob);
+            summary = compactSortedFiles.compact();
         } finally {
             LOGGER.info("Compaction job {}: Stopping background thread to keep SQS messages alive",
                     compactionJob.getId());
@@ -231,13 +290,121 @@ public class CompactSortedFilesRunner {
         return summary;
     }
 
-    private RecordsProcessedSummary compact(CompactionJob compactionJob) throws IteratorException, IOException {
+    private CompactSortedFiles createCompactSortedFiles(CompactionJob compactionJob) {
+        // The properties and state store are loaded on the thread receiving messages, as their caches are not
+        // thread safe
         propertiesReloader.reloadIfNeeded();
         TableProperties tableProperties = tablePropertiesProvider.getById(compactionJob.getTableId());
         StateStore stateStore = stateStoreProvider.getStateStore(tableProperties);
-        CompactSortedFiles compactSortedFiles = new CompactSortedFiles(instanceProperties, tableProperties, objectFactory,
+        return new CompactSortedFiles(instanceProperties, tableProperties, objectFactory,
                 compactionJob, stateStore, jobStatusStore, taskId);
-        return compactSortedFiles.compact();
+    }
+
+    /**
+     * Tracks the compaction jobs running on the worker pool, and adds the summary of each finished job to the task
+     * status. A job that failed or could not be started is recorded without affecting the other jobs, and the failure
+     * can be rethrown once they have finished. This is only used from the thread receiving messages.
+     */
+    private static class RunningJobs {
+        private final ExecutorCompletionService<RecordsProcessedSummary> completionService;
+        private final CompactionTaskFinishedStatus.Builder taskFinishedBuilder;
+        private int numRunning;
+        private long numFinished;
+        private Throwable failure;
+
+        RunningJobs(ExecutorService executorService, CompactionTaskFinishedStatus.Builder taskFinishedBuilder) {
+            this.completionService = new ExecutorCompletionService<>(executorService);
+            this.taskFinishedBuilder = taskFinishedBuilder;
+        }
+
+        void submit(Callable<RecordsProcessedSummary> job) {
+            completionService.submit(job);
+            numRunning++;
+        }
+
+        int size() {
+            return numRunning;
+        }
+
+        long getNumFinished() {
+            return numFinished;
+        }
+
+        void waitForNextToFinish() throws InterruptedException {
+            finished(completionService.take());
+        }
+
+        void waitForNextToFinish(long timeout, TimeUnit unit) throws InterruptedException {
+            Future<RecordsProcessedSummary> job = completionService.poll(timeout, unit);
+            if (job != null) {
+                finished(job);
+            }
+        }
+
+        void collectFinished() throws InterruptedException {
+            for (Future<RecordsProcessedSummary> job = completionService.poll(); job != null; job = completionService.poll()) {
+                finished(job);
+            }
+        }
+
+        void waitForAllToFinish() throws InterruptedException {
+            while (numRunning > 0) {
+                waitForNextToFinish();
+            }
+        }
+
+        boolean hasFailed() {
+            return null != failure;
+        }
+
+        /**
+         * Rethrows the failure of the first job that failed. Failures of any other jobs are added as suppressed
+         * exceptions.
+         *
+         * @throws IOException       if the first job failed with an IOException
+         * @throws IteratorException if the first job failed with an IteratorException
+         * @throws ActionException   if the first job failed with an ActionException
+         */
+        void throwIfAnyFailed() throws IOException, IteratorException, ActionException {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof IteratorException) {
+                throw (IteratorException) failure;
+            } else if (failure instanceof ActionException) {
+                throw (ActionException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (null != failure) {
+                throw new RuntimeException(failure);
+            }
+        }
+
+        void failedToStart(Exception e) {
+            LOGGER.error("Could not start compaction job, stopping once other running jobs have finished", e);
+            recordFailure(e);
+        }
+
+        private void finished(Future<RecordsProcessedSummary> job) throws InterruptedException {
+            numRunning--;
+            try {
+                taskFinishedBuilder.addJobSummary(job.get());
+                numFinished++;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                LOGGER.error("Compaction job failed, waiting for {} other running jobs before stopping", numRunning, cause);
+                recordFailure(cause);
+            }
+        }
+
+        private void recordFailure(Throwable e) {
+            if (null == failure) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
     }
 
     public static void main(String[] args)
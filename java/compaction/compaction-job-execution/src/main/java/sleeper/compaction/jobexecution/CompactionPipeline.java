@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.compaction.jobexecution;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.iterator.IteratorException;
+import sleeper.core.iterator.ReadAheadIterator;
+import sleeper.core.record.Record;
+import sleeper.core.util.InstrumentedQueue;
+import sleeper.io.parquet.record.AsyncParquetWriter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static sleeper.core.metrics.MetricsLogger.METRICS_LOGGER;
+
+/**
+ * Runs the stages of a compaction job on separate threads. Each input file is read ahead on its own thread, the
+ * merge happens on the thread running the job, and each output file is written on its own thread. The stages are
+ * connected by bounded queues, which record how long each stage waited for the others.
+ */
+class CompactionPipeline implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactionPipeline.class);
+    static final int BATCH_SIZE = 1000;
+
+    private final String jobId;
+    private final int queueBatches;
+    private final ExecutorService executorService;
+    // Stages running on other threads may add readers and writers, so their queues are registered concurrently
+    private final List<InstrumentedQueue<?>> queues = new CopyOnWriteArrayList<>();
+
+    CompactionPipeline(String jobId, int queueBatches) {
+        this.jobId = jobId;
+        this.queueBatches = queueBatches;
+        this.executorService = queueBatches > 0 ? Executors.newCachedThreadPool() : null;
+    }
+
+    CloseableIterator<Record> readAhead(CloseableIterator<Record> input, String name) {
+        if (null == executorService) {
+            return input;
+        }
+        ReadAheadIterator<Record> readAhead = new ReadAheadIterator<>(input, executorService, name, BATCH_SIZE, queueBatches);
+        queues.add(readAhead.getQueue());
+        return readAhead;
+    }
+
+    AsyncParquetWriter<Record> writer(ParquetWriter<Record> writer, String name) {
+        AsyncParquetWriter<Record> asyncWriter = new AsyncParquetWriter<>(writer, executorService, name, BATCH_SIZE, queueBatches);
+        if (null != executorService) {
+            queues.add(asyncWriter.getQueue());
+        }
+        return asyncWriter;
+    }
+
+    boolean isEnabled() {
+        return null != executorService;
+    }
+
+    /**
+     * Runs part of a job on another thread. This should only be called if the pipeline is enabled.
+     *
+     * @param  <T>   the type of the result
+     * @param  stage the part of the job to run
+     * @return       a future to retrieve the result with {@link #getResult}
+     */
+    <T> Future<T> submit(Stage<T> stage) {
+        return executorService.submit(stage::run);
+    }
+
+    static <T> T getResult(Future<T> future) throws IOException, IteratorException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for compaction stage", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof IteratorException) {
+                throw (IteratorException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    void logQueueStatistics() {
+        for (InstrumentedQueue<?> queue : queues) {
+            METRICS_LOGGER.info("Compaction job {}: {}", jobId, queue);
+        }
+    }
+
+    /**
+     * Stops any stages which are still running, and waits for them to finish. If the job failed, this means the output
+     * files are no longer being written when this returns, so they can be deleted.
+     */
+    @Override
+    public void close() {
+        if (null == executorService) {
+            return;
+        }
+        executorService.shutdownNow();
+        try {
+            if (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.warn("Compaction job {}: Stages did not finish within 1 minute of being stopped", jobId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Part of a compaction job that can be run on another thread.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface Stage<T> {
+        T run() throws IOException, IteratorException;
+    }
+}
@@ -18,8 +18,10 @@ package sleeper.compaction.jobexecution;
 import org.junit.jupiter.api.Test;
 
 import sleeper.compaction.job.CompactionJob;
+import sleeper.compaction.job.CompactionJobStatusStore;
 import sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestBase;
 import sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestDataHelper;
+import sleeper.compaction.jobexecution.testutils.FailingIterator;
 import sleeper.core.record.Record;
 import sleeper.core.record.process.RecordsProcessedSummary;
 import sleeper.core.schema.Schema;
@@ -31,8 +33,10 @@ import sleeper.core.statestore.StateStore;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestData.combineSortedBySingleByteArrayKey;
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestData.combineSortedBySingleKey;
+import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestData.dataFileExists;
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestData.keyAndTwoValuesSortedEvenByteArrays;
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestData.keyAndTwoValuesSortedEvenLongs;
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestData.keyAndTwoValuesSortedEvenStrings;
@@ -43,6 +47,11 @@ import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestDa
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestUtils.assertReadyForGC;
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestUtils.createCompactSortedFiles;
 import static sleeper.compaction.jobexecution.testutils.CompactSortedFilesTestUtils.createSchemaWithTypesForKeyAndTwoValues;
+import static sleeper.configuration.properties.table.TableProperty.COMPACTION_METHOD;
+import static sleeper.configuration.properties.table.TableProperty.COMPACTION_PIPELINE_QUEUE_BATCHES;
+import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CLASS_NAME;
+import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CONFIG;
+import static sleeper.configuration.properties.table.TableProperty.MERGE_IMPLEMENTATION;
 import static sleeper.core.statestore.inmemory.StateStoreTestHelper.inMemoryStateStoreWithFixedSinglePartition;
 
 class CompactSortedFilesIT extends CompactSortedFilesTestBase {
@@ -83,6 +92,163 @@ class CompactSortedFilesIT extends CompactSortedFilesTestBase {
                 .containsExactly(dataHelper.expectedLeafFile(compactionJob.getOutputFile(), 200L, 0L, 199L));
     }
 
+    @Test
+    void filesShouldMergeCorrectlyWithLoserTreeMergeImplementation() throws Exception {
+        // Given
+        Schema schema = createSchemaWithTypesForKeyAndTwoValues(new LongType(), new LongType(), new LongType());
+        tableProperties.setSchema(schema);
+        tableProperties.set(MERGE_IMPLEMENTATION, "loser_tree");
+        StateStore stateStore = inMemoryStateStoreWithFixedSinglePartition(schema);
+        CompactSortedFilesTestDataHelper dataHelper = new CompactSortedFilesTestDataHelper(schema, stateStore);
+
+        List<Record> data1 = keyAndTwoValuesSortedEvenLongs();
+        List<Record> data2 = keyAndTwoValuesSortedOddLongs();
+        dataHelper.writeLeafFile(folderName + "/file1.parquet", data1, 0L, 198L);
+        dataHelper.writeLeafFile(folderName + "/file2.parquet", data2, 1L, 199L);
+
+        CompactionJob compactionJob = compactionFactory().createCompactionJob(
+                dataHelper.allFileInfos(), dataHelper.singlePartition().getId());
+        dataHelper.addFilesToStateStoreForJob(compactionJob);
+
+        // When
+        CompactSortedFiles compactSortedFiles = createCompactSortedFiles(instanceProperties, tableProperties,
+                compactionJob, stateStore, CompactionJobStatusStore.NONE, DEFAULT_TASK_ID);
+        RecordsProcessedSummary summary = compactSortedFiles.compact();
+
+        // Then
+        List<Record> expectedResults = combineSortedBySingleKey(data1, data2);
+        assertThat(summary.getRecordsRead()).isEqualTo(expectedResults.size());
+        assertThat(summary.getRecordsWritten()).isEqualTo(expectedResults.size());
+        assertThat(readDataFile(schema, compactionJob.getOutputFile())).isEqualTo(expectedResults);
+        assertReadyForGC(stateStore, dataHelper.allFileInfos());
+    }
+
+    @Test
+    void filesShouldMergeCorrectlyOnSeparateThreadsWhenPipelineEnabled() throws Exception {
+        // Given
+        Schema schema = createSchemaWithTypesForKeyAndTwoValues(new LongType(), new LongType(), new LongType());
+        tableProperties.setSchema(schema);
+        tableProperties.set(COMPACTION_PIPELINE_QUEUE_BATCHES, "4");
+        StateStore stateStore = inMemoryStateStoreWithFixedSinglePartition(schema);
+        CompactSortedFilesTestDataHelper dataHelper = new CompactSortedFilesTestDataHelper(schema, stateStore);
+
+        List<Record> data1 = keyAndTwoValuesSortedEvenLongs();
+        List<Record> data2 = keyAndTwoValuesSortedOddLongs();
+        dataHelper.writeLeafFile(folderName + "/file1.parquet", data1, 0L, 198L);
+        dataHelper.writeLeafFile(folderName + "/file2.parquet", data2, 1L, 199L);
+
+        CompactionJob compactionJob = compactionFactory().createCompactionJob(
+                dataHelper.allFileInfos(), dataHelper.singlePartition().getId());
+        dataHelper.addFilesToStateStoreForJob(compactionJob);
+
+        // When
+        CompactSortedFiles compactSortedFiles = createCompactSortedFiles(instanceProperties, tableProperties,
+                compactionJob, stateStore, CompactionJobStatusStore.NONE, DEFAULT_TASK_ID);
+        RecordsProcessedSummary summary = compactSortedFiles.compact();
+
+        // Then
+        List<Record> expectedResults = combineSortedBySingleKey(data1, data2);
+        assertThat(summary.getRecordsRead()).isEqualTo(expectedResults.size());
+        assertThat(summary.getRecordsWritten()).isEqualTo(expectedResults.size());
+        assertThat(readDataFile(schema, compactionJob.getOutputFile())).isEqualTo(expectedResults);
+        assertReadyForGC(stateStore, dataHelper.allFileInfos());
+    }
+
+    @Test
+    void shouldDeleteOutputFileWhenJobFailsWithPipelineEnabled() throws Exception {
+        // Given
+        Schema schema = createSchemaWithTypesForKeyAndTwoValues(new LongType(), new LongType(), new LongType());
+        tableProperties.setSchema(schema);
+        tableProperties.set(COMPACTION_PIPELINE_QUEUE_BATCHES, "4");
+        tableProperties.set(ITERATOR_CLASS_NAME, FailingIterator.class.getName());
+        tableProperties.set(ITERATOR_CONFIG, "150");
+        StateStore stateStore = inMemoryStateStoreWithFixedSinglePartition(schema);
+        CompactSortedFilesTestDataHelper dataHelper = new CompactSortedFilesTestDataHelper(schema, stateStore);
+
+        dataHelper.writeLeafFile(folderName + "/file1.parquet", keyAndTwoValuesSortedEvenLongs(), 0L, 198L);
+        dataHelper.writeLeafFile(folderName + "/file2.parquet", keyAndTwoValuesSortedOddLongs(), 1L, 199L);
+
+        CompactionJob compactionJob = compactionFactory().createCompactionJob(
+                dataHelper.allFileInfos(), dataHelper.singlePartition().getId());
+        dataHelper.addFilesToStateStoreForJob(compactionJob);
+
+        // When
+        CompactSortedFiles compactSortedFiles = createCompactSortedFiles(instanceProperties, tableProperties,
+                compactionJob, stateStore, CompactionJobStatusStore.NONE, DEFAULT_TASK_ID);
+
+        // Then
+        assertThatThrownBy(compactSortedFiles::compact)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Failed after 150 records");
+        assertThat(dataFileExists(compactionJob.getOutputFile())).isFalse();
+        assertThat(stateStore.getReadyForGCFiles()).isExhausted();
+    }
+
+    @Test
+    void filesShouldMergeCorrectlyByColumnAndStateStoreUpdatedLongKey() throws Exception {
+        // Given
+        Schema schema = createSchemaWithTypesForKeyAndTwoValues(new LongType(), new LongType(), new LongType());
+        tableProperties.setSchema(schema);
+        tableProperties.set(COMPACTION_METHOD, "columnar");
+        StateStore stateStore = inMemoryStateStoreWithFixedSinglePartition(schema);
+        CompactSortedFilesTestDataHelper dataHelper = new CompactSortedFilesTestDataHelper(schema, stateStore);
+
+        List<Record> data1 = keyAndTwoValuesSortedEvenLongs();
+        List<Record> data2 = keyAndTwoValuesSortedOddLongs();
+        dataHelper.writeLeafFile(folderName + "/file1.parquet", data1, 0L, 198L);
+        dataHelper.writeLeafFile(folderName + "/file2.parquet", data2, 1L, 199L);
+
+        CompactionJob compactionJob = compactionFactory().createCompactionJob(
+                dataHelper.allFileInfos(), dataHelper.singlePartition().getId());
+        dataHelper.addFilesToStateStoreForJob(compactionJob);
+
+        // When
+        CompactSortedFiles compactSortedFiles = createCompactSortedFiles(instanceProperties, tableProperties,
+                compactionJob, stateStore, CompactionJobStatusStore.NONE, DEFAULT_TASK_ID);
+        RecordsProcessedSummary summary = compactSortedFiles.compact();
+
+        // Then
+        List<Record> expectedResults = combineSortedBySingleKey(data1, data2);
+        assertThat(summary.getRecordsRead()).isEqualTo(expectedResults.size());
+        assertThat(summary.getRecordsWritten()).isEqualTo(expectedResults.size());
+        assertThat(readDataFile(schema, compactionJob.getOutputFile())).isEqualTo(expectedResults);
+        assertReadyForGC(stateStore, dataHelper.allFileInfos());
+        assertThat(stateStore.getActiveFiles())
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("lastStateStoreUpdateTime")
+                .containsExactly(dataHelper.expectedLeafFile(compactionJob.getOutputFile(), 200L, 0L, 199L));
+    }
+
+    @Test
+    void filesShouldMergeCorrectlyByColumnWithByteArrayKey() throws Exception {
+        // Given
+        Schema schema = createSchemaWithTypesForKeyAndTwoValues(new ByteArrayType(), new ByteArrayType(), new LongType());
+        tableProperties.setSchema(schema);
+        tableProperties.set(COMPACTION_METHOD, "columnar");
+        StateStore stateStore = inMemoryStateStoreWithFixedSinglePartition(schema);
+        CompactSortedFilesTestDataHelper dataHelper = new CompactSortedFilesTestDataHelper(schema, stateStore);
+
+        List<Record> data1 = keyAndTwoValuesSortedEvenByteArrays();
+        List<Record> data2 = keyAndTwoValuesSortedOddByteArrays();
+        dataHelper.writeLeafFile(folderName + "/file1.parquet", data1, new byte[]{0, 0}, new byte[]{1, 70});
+        dataHelper.writeLeafFile(folderName + "/file2.parquet", data2, new byte[]{0, 1}, new byte[]{1, 71});
+
+        CompactionJob compactionJob = compactionFactory().createCompactionJob(
+                dataHelper.allFileInfos(), dataHelper.singlePartition().getId());
+        dataHelper.addFilesToStateStoreForJob(compactionJob);
+
+        // When
+        CompactSortedFiles compactSortedFiles = createCompactSortedFiles(instanceProperties, tableProperties,
+                compactionJob, stateStore, CompactionJobStatusStore.NONE, DEFAULT_TASK_ID);
+        RecordsProcessedSummary summary = compactSortedFiles.compact();
+
+        // Then
+        List<Record> expectedResults = combineSortedBySingleByteArrayKey(data1, data2);
+        assertThat(summary.getRecordsRead()).isEqualTo(expectedResults.size());
+        assertThat(summary.getRecordsWritten()).isEqualTo(expectedResults.size());
+        assertThat(readDataFile(schema, compactionJob.getOutputFile())).isEqualTo(expectedResults);
+        assertReadyForGC(stateStore, dataHelper.allFileInfos());
+    }
+
     @Test
     void shouldGenerateTestData200EvenAndOddStrings() {
         // When
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.compaction.jobexecution;
+
+import org.junit.jupiter.api.Test;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.configuration.properties.instance.CompactionProperty.COMPACTION_TASK_MAX_CONCURRENT_JOBS;
+import static sleeper.configuration.properties.instance.CompactionProperty.COMPACTION_TASK_MEMORY_PER_JOB_IN_MB;
+
+class CompactSortedFilesRunnerTest {
+    private static final long GIGABYTE = 1024L * 1024L * 1024L;
+    private final InstanceProperties instanceProperties = new InstanceProperties();
+
+    @Test
+    void shouldRunOneJobAtOnceByDefault() {
+        assertThat(CompactSortedFilesRunner.maxConcurrentJobs(instanceProperties, 4, 8 * GIGABYTE))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRunConfiguredNumberOfJobsWhenEnoughProcessorsAndMemory() {
+        // Given
+        instanceProperties.set(COMPACTION_TASK_MAX_CONCURRENT_JOBS, "3");
+        instanceProperties.set(COMPACTION_TASK_MEMORY_PER_JOB_IN_MB, "1024");
+
+        // When / Then
+        assertThat(CompactSortedFilesRunner.maxConcurrentJobs(instanceProperties, 4, 8 * GIGABYTE))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void shouldLimitJobsToNumberOfProcessors() {
+        // Given
+        instanceProperties.set(COMPACTION_TASK_MAX_CONCURRENT_JOBS, "8");
+        instanceProperties.set(COMPACTION_TASK_MEMORY_PER_JOB_IN_MB, "1024");
+
+        // When / Then
+        assertThat(CompactSortedFilesRunner.maxConcurrentJobs(instanceProperties, 2, 8 * GIGABYTE))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldLimitJobsToNumberFittingInMemory() {
+        // Given
+        instanceProperties.set(COMPACTION_TASK_MAX_CONCURRENT_JOBS, "8");
+        instanceProperties.set(COMPACTION_TASK_MEMORY_PER_JOB_IN_MB, "2048");
+
+        // When / Then
+        assertThat(CompactSortedFilesRunner.maxConcurrentJobs(instanceProperties, 8, 5 * GIGABYTE))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldRunOneJobWhenLessMemoryThanNeededForOneJob() {
+        // Given
+        instanceProperties.set(COMPACTION_TASK_MAX_CONCURRENT_JOBS, "4");
+        instanceProperties.set(COMPACTION_TASK_MEMORY_PER_JOB_IN_MB, "4096");
+
+        // When / Then
+        assertThat(CompactSortedFilesRunner.maxConcurrentJobs(instanceProperties, 4, GIGABYTE))
+                .isEqualTo(1);
+    }
+}
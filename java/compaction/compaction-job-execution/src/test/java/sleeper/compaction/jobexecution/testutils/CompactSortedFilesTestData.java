@@ -16,6 +16,7 @@
 package sleeper.compaction.jobexecution.testutils;
 
 import com.facebook.collections.ByteArray;
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.parquet.hadoop.ParquetWriter;
 
@@ -178,4 +179,9 @@ public class CompactSortedFilesTestData {
         }
         return results;
     }
+
+    public static boolean dataFileExists(String filename) throws IOException {
+        Path path = new Path(filename);
+        return path.getFileSystem(new Configuration()).exists(path);
+    }
 }
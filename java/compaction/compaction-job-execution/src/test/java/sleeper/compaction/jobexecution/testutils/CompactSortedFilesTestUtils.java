@@ -75,6 +75,12 @@ public class CompactSortedFilesTestUtils {
         InstanceProperties instanceProperties = new InstanceProperties();
         TableProperties tableProperties = new TableProperties(instanceProperties);
         tableProperties.setSchema(schema);
+        return createCompactSortedFiles(instanceProperties, tableProperties, compactionJob, stateStore, jobStatusStore, taskId);
+    }
+
+    public static CompactSortedFiles createCompactSortedFiles(
+            InstanceProperties instanceProperties, TableProperties tableProperties,
+            CompactionJob compactionJob, StateStore stateStore, CompactionJobStatusStore jobStatusStore, String taskId) {
         return new CompactSortedFiles(instanceProperties, tableProperties, ObjectFactory.noUserJars(),
                 compactionJob, stateStore, jobStatusStore, taskId);
     }
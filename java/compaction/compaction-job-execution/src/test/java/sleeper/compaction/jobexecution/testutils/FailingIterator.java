@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.compaction.jobexecution.testutils;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.iterator.SortedRecordIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An iterator which fails after passing on a number of records, set in its configuration string. This is used to test
+ * what happens when a compaction job fails partway through.
+ */
+public class FailingIterator implements SortedRecordIterator {
+    private int failAfterRecords;
+
+    @Override
+    public void init(String configString, Schema schema) {
+        failAfterRecords = Integer.parseInt(configString);
+    }
+
+    @Override
+    public List<String> getRequiredValueFields() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public CloseableIterator<Record> apply(CloseableIterator<Record> input) {
+        return new CloseableIterator<>() {
+            private int recordsRead = 0;
+
+            @Override
+            public boolean hasNext() {
+                return input.hasNext();
+            }
+
+            @Override
+            public Record next() {
+                if (recordsRead >= failAfterRecords) {
+                    throw new IllegalStateException("Failed after " + recordsRead + " records");
+                }
+                recordsRead++;
+                return input.next();
+            }
+
+            @Override
+            public void close() throws IOException {
+                input.close();
+            }
+        };
+    }
+}
@@ -16,9 +16,14 @@
 
 package sleeper.configuration.properties.instance;
 
+import sleeper.configuration.Utils;
 import sleeper.configuration.properties.SleeperPropertyIndex;
+import sleeper.configuration.properties.validation.ArrowSpillCompressionCodec;
 
 import java.util.List;
+import java.util.Locale;
+
+import static sleeper.configuration.Utils.describeEnumValuesInLowerCase;
 
 
 public interface ArrowIngestProperty {
@@ -50,6 +55,28 @@ public interface ArrowIngestProperty {
                     "(arrow-based ingest only) [1K]")
             .defaultValue("1024")
             .propertyGroup(InstancePropertyGroup.INGEST).build();
+    UserDefinedInstanceProperty ARROW_INGEST_SORT_THREADS = Index.propertyBuilder("sleeper.ingest.arrow.sort.threads")
+            .description("The number of threads to use to sort each Arrow batch before it is written to the local store. " +
+                    "Sorting a large batch on more threads reduces the time that ingest waits for each batch, but uses " +
+                    "additional heap memory of 8 bytes per record in the batch while sorting.\n" +
+                    "(arrow-based ingest only) [1]")
+            .defaultValue("1")
+            .validationPredicate(Utils::isPositiveInteger)
+            .propertyGroup(InstancePropertyGroup.INGEST).build();
+    UserDefinedInstanceProperty ARROW_INGEST_SPILL_COMPRESSION_CODEC = Index.propertyBuilder("sleeper.ingest.arrow.spill.compression.codec")
+            .description("The compression codec to use for the Arrow files written to the local store. Compressing these " +
+                    "files means more records can be held on the local disk before they are uploaded, and less data is " +
+                    "written to and read from the disk. The limit on the size of the local store applies to the " +
+                    "compressed size of the files. Both codecs checksum the compressed data, so that a corrupt local " +
+                    "file fails the ingest rather than writing bad data. When the local files are merged, each one is " +
+                    "read with its own decompressor and two heap buffers. The buffers are 1MB each for up to 16 files, " +
+                    "and shrink as the number of files grows, down to 64KB each. A zstd decompressor also holds about 2MB " +
+                    "of native memory per file.\n" +
+                    "Valid values are: " + describeEnumValuesInLowerCase(ArrowSpillCompressionCodec.class) + "\n" +
+                    "(arrow-based ingest only) [none]")
+            .defaultValue(ArrowSpillCompressionCodec.NONE.name().toLowerCase(Locale.ROOT))
+            .validationPredicate(ArrowSpillCompressionCodec::isValid)
+            .propertyGroup(InstancePropertyGroup.INGEST).build();
 
     static List<UserDefinedInstanceProperty> getAll() {
         return Index.INSTANCE.getAll();
@@ -40,6 +40,23 @@ public interface CompactionProperty {
                     "This should be less than the value of sleeper.compaction.queue.visibility.timeout.seconds.")
             .defaultValue("300")
             .propertyGroup(InstancePropertyGroup.COMPACTION).build();
+    UserDefinedInstanceProperty COMPACTION_TASK_MAX_CONCURRENT_JOBS = Index.propertyBuilder("sleeper.compaction.task.max.concurrent.jobs")
+            .description("The maximum number of compaction jobs that a compaction task will run at the same time. " +
+                    "The task receives up to this many messages from the compaction job queue, and runs each job on " +
+                    "its own thread with its own keep-alive for the message.\n" +
+                    "The number of jobs run at once is also limited to the number of processors available to the " +
+                    "task, and to the memory available to the task divided by " +
+                    "sleeper.compaction.task.memory.per.job.mb.")
+            .defaultValue("1")
+            .validationPredicate(Utils::isPositiveInteger)
+            .propertyGroup(InstancePropertyGroup.COMPACTION).build();
+    UserDefinedInstanceProperty COMPACTION_TASK_MEMORY_PER_JOB_IN_MB = Index.propertyBuilder("sleeper.compaction.task.memory.per.job.mb")
+            .description("The amount of memory in megabytes to allow for each compaction job when a compaction task " +
+                    "runs more than one job at the same time. This is used with the maximum heap size of the task to " +
+                    "limit the number of jobs run at once, as set in sleeper.compaction.task.max.concurrent.jobs.")
+            .defaultValue("1024")
+            .validationPredicate(Utils::isPositiveInteger)
+            .propertyGroup(InstancePropertyGroup.COMPACTION).build();
     UserDefinedInstanceProperty COMPACTION_JOB_CREATION_LAMBDA_PERIOD_IN_MINUTES = Index.propertyBuilder("sleeper.compaction.job.creation.period.minutes")
             .description("The rate at which the compaction job creation lambda runs (in minutes, must be >=1).")
             .defaultValue("1")
@@ -73,6 +73,16 @@ public interface IngestProperty {
                     "on the refresh frequency.)")
             .defaultValue("120")
             .propertyGroup(InstancePropertyGroup.INGEST).build();
+    UserDefinedInstanceProperty INGEST_MAX_BATCHES_IN_FLIGHT = Index.propertyBuilder("sleeper.ingest.batches.in.flight.max")
+            .description("The maximum number of full batches of records that an ingest can sort and write to partition files " +
+                    "in the background, while it continues to accept records into a new batch. If this is 0, accepting " +
+                    "records waits while each batch is written.\n" +
+                    "Each batch being written holds its own memory and local files. With the arrow record batch type, the " +
+                    "memory for batches is multiplied by this plus one, so the memory for ingest tasks may need to be " +
+                    "increased. New records will also wait for a batch to finish if there is not enough memory for another.")
+            .defaultValue("0")
+            .validationPredicate(Utils::isNonNegativeInteger)
+            .propertyGroup(InstancePropertyGroup.INGEST).build();
     UserDefinedInstanceProperty INGEST_SOURCE_BUCKET = Index.propertyBuilder("sleeper.ingest.source.bucket")
             .description("A comma-separated list of buckets that contain files to be ingested via ingest jobs. The buckets should already " +
                     "exist, i.e. they will not be created as part of the cdk deployment of this instance of Sleeper. The ingest " +
@@ -41,7 +41,9 @@ public interface QueryProperty {
             .runCdkDeployWhenChanged(true).build();
     UserDefinedInstanceProperty QUERY_PROCESSING_LAMBDA_STATE_REFRESHING_PERIOD_IN_SECONDS = Index.propertyBuilder("sleeper.query.processor.state.refresh.period.seconds")
             .description("The frequency with which the query processing lambda refreshes its knowledge of the system state " +
-                    "(i.e. the partitions and the mapping from partition to files), in seconds.")
+                    "(i.e. the partitions and the mapping from partition to files), in seconds. This is refreshed in the " +
+                    "background, so queries are not delayed by it. The instance properties are also reloaded at this " +
+                    "frequency.")
             .defaultValue("60")
             .propertyGroup(InstancePropertyGroup.QUERY).build();
     UserDefinedInstanceProperty QUERY_PROCESSING_LAMBDA_RESULTS_BATCH_SIZE = Index.propertyBuilder("sleeper.query.processor.results.batch.size")
@@ -54,6 +56,42 @@ public interface QueryProperty {
             .defaultValue("10")
             .validationPredicate(Utils::isPositiveInteger)
             .propertyGroup(InstancePropertyGroup.QUERY).build();
+    UserDefinedInstanceProperty QUERY_PROCESSOR_FILE_OPEN_MAX_CONCURRENCY = Index.propertyBuilder("sleeper.query.processor.file.open.max.concurrency")
+            .description("The maximum number of files that a query processing lambda will open at once, across all the " +
+                    "queries it is running. The actual number adapts to the time taken to open files, and is reduced " +
+                    "when that time rises, e.g. due to throttling by S3.")
+            .defaultValue("64")
+            .validationPredicate(Utils::isPositiveInteger)
+            .propertyGroup(InstancePropertyGroup.QUERY).build();
+    UserDefinedInstanceProperty QUERY_PROCESSOR_FILE_OPEN_DEDICATED_THREADS = Index.propertyBuilder("sleeper.query.processor.file.open.dedicated.threads")
+            .description("If true, a query processing lambda opens files on threads dedicated to that purpose, which are " +
+                    "created on demand and discarded when idle. If false, files are opened on the thread pool for " +
+                    "retrieving records, which limits how many can be opened at once to the size of that pool.")
+            .defaultValue("false")
+            .validationPredicate(Utils::isTrueOrFalse)
+            .propertyGroup(InstancePropertyGroup.QUERY).build();
+    UserDefinedInstanceProperty QUERY_PARQUET_METADATA_CACHE_SIZE_IN_BYTES = Index.propertyBuilder("sleeper.query.parquet.metadata.cache.bytes")
+            .description("The maximum number of bytes of Parquet file footers and page indexes to cache in memory in a " +
+                    "query runner. These are shared between queries, so that repeated reads of the same file do not need " +
+                    "to fetch its metadata again. Set this to 0 to disable the cache.")
+            .defaultValue("" + (64 * 1024 * 1024)) // 64 MiB
+            .validationPredicate(Utils::isNonNegativeInteger)
+            .propertyGroup(InstancePropertyGroup.QUERY).build();
+    UserDefinedInstanceProperty QUERY_RESULTS_CACHE_MAX_ENTRIES = Index.propertyBuilder("sleeper.query.results.cache.max.entries")
+            .description("The maximum number of query results to cache in a query processing lambda. A cached result " +
+                    "is reused for an identical query while the files it was read from are unchanged. The least " +
+                    "recently used results are evicted first. Set this to 0 to disable the cache. Note that results " +
+                    "will not reflect the passage of time in iterators which depend on it, e.g. an age-off filter, " +
+                    "until the table's files change.")
+            .defaultValue("0")
+            .validationPredicate(Utils::isNonNegativeInteger)
+            .propertyGroup(InstancePropertyGroup.QUERY).build();
+    UserDefinedInstanceProperty QUERY_RESULTS_CACHE_MAX_RECORDS_IN_MEMORY = Index.propertyBuilder("sleeper.query.results.cache.memory.max.records")
+            .description("The maximum number of records in a query result that will be cached in memory. Larger results " +
+                    "are cached in a file in the query results bucket.")
+            .defaultValue("10000")
+            .validationPredicate(Utils::isNonNegativeInteger)
+            .propertyGroup(InstancePropertyGroup.QUERY).build();
     UserDefinedInstanceProperty QUERY_TRACKER_ITEM_TTL_IN_DAYS = Index.propertyBuilder("sleeper.query.tracker.ttl.days")
             .description("This value is used to set the time-to-live on the tracking of the queries in the DynamoDB-based query tracker.")
             .defaultValue("1")
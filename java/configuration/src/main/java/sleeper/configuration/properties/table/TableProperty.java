@@ -22,8 +22,11 @@ import sleeper.configuration.properties.PropertyGroup;
 import sleeper.configuration.properties.SleeperPropertyIndex;
 import sleeper.configuration.properties.instance.SleeperProperty;
 import sleeper.configuration.properties.validation.BatchIngestMode;
+import sleeper.configuration.properties.validation.CompactionMethod;
+import sleeper.core.iterator.MergeImplementation;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 import static sleeper.configuration.Utils.describeEnumValuesInLowerCase;
@@ -133,6 +136,14 @@ public interface TableProperty extends SleeperProperty {
             .description("Whether dictionary encoding should be used for value columns in the Parquet files.")
             .propertyGroup(TablePropertyGroup.DATA_STORAGE)
             .build();
+    TableProperty BLOOM_FILTER_FOR_ROW_KEY_FIELDS = Index.propertyBuilder("sleeper.table.parquet.bloomfilter.rowkey.fields")
+            .defaultValue("false")
+            .description("Whether a bloom filter should be written for row key columns in the Parquet files. This lets " +
+                    "queries for an exact row key skip files that do not contain the key, at the cost of some extra space " +
+                    "in each file.")
+            .validationPredicate(Utils::isTrueOrFalse)
+            .propertyGroup(TablePropertyGroup.DATA_STORAGE)
+            .build();
     TableProperty COLUMN_INDEX_TRUNCATE_LENGTH = Index.propertyBuilder("sleeper.table.parquet.columnindex.truncate.length")
             .defaultProperty(DEFAULT_COLUMN_INDEX_TRUNCATE_LENGTH)
             .description("Used to set parquet.columnindex.truncate.length, see documentation here:\n" +
@@ -150,6 +161,16 @@ public interface TableProperty extends SleeperProperty {
             .description("The S3 readahead range - defaults to the value in the instance properties.")
             .propertyGroup(TablePropertyGroup.DATA_STORAGE)
             .build();
+    TableProperty QUERY_PARTITION_PARALLELISM = Index.propertyBuilder("sleeper.table.query.partition.parallelism")
+            .defaultValue("1")
+            .validationPredicate(Utils::isPositiveInteger)
+            .description("The number of leaf partitions to read at once when a query spanning several partitions is run " +
+                    "in a single process, e.g. from the query client. The results are still returned in the order of " +
+                    "the partitions. By default one partition is read at a time. If this is set higher, each partition " +
+                    "being read holds its own thread, separate from the threads that read files, and buffers records " +
+                    "read ahead of the consumer.")
+            .propertyGroup(TablePropertyGroup.DATA_STORAGE)
+            .build();
     TableProperty COMPRESSION_CODEC = Index.propertyBuilder("sleeper.table.compression.codec")
             .defaultProperty(DEFAULT_COMPRESSION_CODEC)
             .description("The compression codec to use for this table. Defaults to the value in the instance properties.\n" +
@@ -182,6 +203,36 @@ public interface TableProperty extends SleeperProperty {
                     "(NB This does not apply to splitting jobs which will run even if there is only 1 file.)")
             .propertyGroup(TablePropertyGroup.COMPACTION)
             .build();
+    TableProperty MERGE_IMPLEMENTATION = Index.propertyBuilder("sleeper.table.merge.implementation")
+            .defaultValue(MergeImplementation.PRIORITY_QUEUE.name().toLowerCase(Locale.ROOT))
+            .validationPredicate(MergeImplementation::isValid)
+            .description("The algorithm used to merge sorted files together, in compaction jobs and when reading " +
+                    "the files in a leaf partition for a query. The loser tree needs fewer comparisons per record " +
+                    "than the priority queue when many files are merged at once.\n" +
+                    "Valid values are: " + describeEnumValuesInLowerCase(MergeImplementation.class))
+            .propertyGroup(TablePropertyGroup.COMPACTION)
+            .build();
+    TableProperty COMPACTION_METHOD = Index.propertyBuilder("sleeper.table.compaction.method")
+            .defaultValue(CompactionMethod.RECORDS.name().toLowerCase(Locale.ROOT))
+            .validationPredicate(CompactionMethod::isValid)
+            .description("The method used to run compaction jobs. The records method reads each row into a record " +
+                    "and applies any iterator. The columnar method reads the input files a batch of rows at a time " +
+                    "into arrays for each column and merges them without creating records. The columnar method is " +
+                    "only used when no iterator is set and every field is an int, long, string or byte array, " +
+                    "otherwise the records method is used.\n" +
+                    "Valid values are: " + describeEnumValuesInLowerCase(CompactionMethod.class))
+            .propertyGroup(TablePropertyGroup.COMPACTION)
+            .build();
+    TableProperty COMPACTION_PIPELINE_QUEUE_BATCHES = Index.propertyBuilder("sleeper.table.compaction.pipeline.queue.batches")
+            .defaultValue("0")
+            .validationPredicate(Utils::isNonNegativeInteger)
+            .description("The number of batches of records to hold between the stages of a compaction job. If this is " +
+                    "set above 0, each input file is read ahead on its own thread, and the output file is encoded and " +
+                    "written on another thread, so that reading, merging and writing happen at the same time. A batch " +
+                    "holds 1000 records. The default of 0 reads, merges and writes on a single thread. This is not used " +
+                    "by the columnar compaction method.")
+            .propertyGroup(TablePropertyGroup.COMPACTION)
+            .build();
     TableProperty SIZE_RATIO_COMPACTION_STRATEGY_RATIO = Index.propertyBuilder("sleeper.table.compaction.strategy.sizeratio.ratio")
             .defaultProperty(DEFAULT_SIZERATIO_COMPACTION_STRATEGY_RATIO)
             .description("Used by the SizeRatioCompactionStrategy to decide if a group of files should be compacted.\n" +
@@ -197,7 +248,8 @@ public interface TableProperty extends SleeperProperty {
     TableProperty STATESTORE_CLASSNAME = Index.propertyBuilder("sleeper.table.statestore.classname")
             .defaultValue("sleeper.statestore.s3.S3StateStore")
             .description("The name of the class used for the metadata store. The default is S3StateStore. " +
-                    "An alternative option is the DynamoDBStateStore.")
+                    "Alternative options are the DynamoDBStateStore and the DynamoDBTransactionLogStateStore " +
+                    "(sleeper.statestore.transactionlog.DynamoDBTransactionLogStateStore).")
             .propertyGroup(TablePropertyGroup.METADATA)
             .editable(false).build();
     TableProperty DYNAMODB_STRONGLY_CONSISTENT_READS = Index.propertyBuilder("sleeper.table.metadata.dynamo.consistent.reads")
@@ -206,6 +258,14 @@ public interface TableProperty extends SleeperProperty {
                     "are strongly consistent.")
             .propertyGroup(TablePropertyGroup.METADATA)
             .build();
+    TableProperty TRANSACTION_LOG_SNAPSHOT_INTERVAL = Index.propertyBuilder("sleeper.table.metadata.transactionlog.snapshot.interval")
+            .defaultValue("100")
+            .description("Used by the DynamoDBTransactionLogStateStore. A snapshot of the state is written every time this " +
+                    "many transactions have been added to the transaction log. Transactions older than the previous " +
+                    "snapshot are then deleted from the log. Set to 0 to disable snapshots.")
+            .validationPredicate(Utils::isNonNegativeInteger)
+            .propertyGroup(TablePropertyGroup.METADATA)
+            .build();
     TableProperty BULK_IMPORT_EMR_INSTANCE_ARCHITECTURE = Index.propertyBuilder("sleeper.table.bulk.import.emr.instance.architecture")
             .defaultProperty(DEFAULT_BULK_IMPORT_EMR_INSTANCE_ARCHITECTURE)
             .description("(Non-persistent EMR mode only) Which architecture to be used for EC2 instance types " +
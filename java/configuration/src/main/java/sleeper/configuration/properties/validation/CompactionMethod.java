@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.configuration.properties.validation;
+
+import org.apache.commons.lang3.EnumUtils;
+
+/**
+ * The ways a compaction job can read, merge and write its files. The columnar method is only used when the table
+ * has no iterator and all fields have a primitive type, otherwise records are used.
+ */
+public enum CompactionMethod {
+    RECORDS,
+    COLUMNAR;
+
+    public static boolean isValid(String value) {
+        return EnumUtils.isValidEnumIgnoreCase(CompactionMethod.class, value);
+    }
+
+    public static CompactionMethod from(String value) {
+        return EnumUtils.getEnumIgnoreCase(CompactionMethod.class, value, RECORDS);
+    }
+}
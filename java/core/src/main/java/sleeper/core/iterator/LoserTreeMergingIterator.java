@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.iterator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.core.record.Record;
+import sleeper.core.record.RecordComparator;
+import sleeper.core.schema.Schema;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Given a {@link List} of sorted {@link CloseableIterator} of {@link Record}s,
+ * merges them together into one sorted {@link CloseableIterator} of
+ * {@link Record}s. This is done with a tournament tree of losers, so that
+ * retrieving each record takes one comparison per level of the tree, i.e.
+ * about log2(k) comparisons for k inputs. The tree is held in arrays which are
+ * reused for every record.
+ * <p>
+ * Records which compare as equal are returned in the order of the input
+ * iterators they came from.
+ * <p>
+ * Note: for performance reasons this does not check that the given iterators
+ * are sorted.
+ */
+public class LoserTreeMergingIterator implements CloseableIterator<Record> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoserTreeMergingIterator.class);
+
+    private final List<CloseableIterator<Record>> inputIterators;
+    private final RecordComparator comparator;
+    private final int numInputs;
+    /**
+     * The next record from each input, or null if the input is exhausted.
+     */
+    private final Record[] heads;
+    /**
+     * Internal nodes 1 to k-1 hold the index of the input that lost the match at that node. Position 0 holds the
+     * overall winner. Input i is a leaf at position k+i, so the parent of a node at position p is at p/2.
+     */
+    private final int[] tree;
+    private final long[] recordsReadPerInput;
+    private long recordsRead;
+
+    public LoserTreeMergingIterator(Schema schema, List<CloseableIterator<Record>> inputIterators) {
+        this.inputIterators = inputIterators;
+        this.comparator = new RecordComparator(schema);
+        this.numInputs = inputIterators.size();
+        this.heads = new Record[numInputs];
+        this.tree = new int[Math.max(1, numInputs)];
+        this.recordsReadPerInput = new long[numInputs];
+        this.recordsRead = 0L;
+        for (int i = 0; i < numInputs; i++) {
+            advance(i);
+        }
+        initialiseTree();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return numInputs > 0 && null != heads[tree[0]];
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int winner = tree[0];
+        Record record = heads[winner];
+        advance(winner);
+        replay(winner);
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (CloseableIterator<Record> iterator : inputIterators) {
+            iterator.close();
+        }
+    }
+
+    public long getNumberOfRecordsRead() {
+        return recordsRead;
+    }
+
+    /**
+     * Retrieves the number of records read from one of the input iterators. This includes the record currently held
+     * for that input, which may not have been returned by this iterator yet.
+     *
+     * @param  inputIndex the position of the input in the list of input iterators
+     * @return            the number of records read from that input
+     */
+    public long getNumberOfRecordsReadFromInput(int inputIndex) {
+        return recordsReadPerInput[inputIndex];
+    }
+
+    public long[] getNumberOfRecordsReadPerInput() {
+        return Arrays.copyOf(recordsReadPerInput, numInputs);
+    }
+
+    private void advance(int input) {
+        CloseableIterator<Record> iterator = inputIterators.get(input);
+        if (iterator.hasNext()) {
+            heads[input] = iterator.next();
+            recordsReadPerInput[input]++;
+            recordsRead++;
+            if (0 == recordsRead % 1_000_000) {
+                LOGGER.info("Read {} records", recordsRead);
+            }
+        } else {
+            heads[input] = null;
+        }
+    }
+
+    private void initialiseTree() {
+        if (numInputs == 0) {
+            return;
+        }
+        // Play every match bottom up, recording the winner of each node temporarily so that it can play at the
+        // parent node. Positions numInputs to 2*numInputs-1 are the leaves.
+        int[] winners = new int[2 * numInputs];
+        for (int i = 0; i < numInputs; i++) {
+            winners[numInputs + i] = i;
+        }
+        for (int node = numInputs - 1; node >= 1; node--) {
+            int left = winners[2 * node];
+            int right = winners[2 * node + 1];
+            if (beats(left, right)) {
+                winners[node] = left;
+                tree[node] = right;
+            } else {
+                winners[node] = right;
+                tree[node] = left;
+            }
+        }
+        tree[0] = numInputs == 1 ? 0 : winners[1];
+    }
+
+    private void replay(int input) {
+        int winner = input;
+        for (int node = (input + numInputs) / 2; node >= 1; node /= 2) {
+            int loser = tree[node];
+            if (beats(loser, winner)) {
+                tree[node] = winner;
+                winner = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    private boolean beats(int input1, int input2) {
+        Record record1 = heads[input1];
+        Record record2 = heads[input2];
+        if (null == record1) {
+            return false;
+        }
+        if (null == record2) {
+            return true;
+        }
+        int diff = comparator.compare(record1, record2);
+        return diff < 0 || (diff == 0 && input1 < input2);
+    }
+}
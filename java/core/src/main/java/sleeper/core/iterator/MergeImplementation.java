@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.iterator;
+
+import org.apache.commons.lang3.EnumUtils;
+
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+
+import java.util.List;
+
+/**
+ * The algorithms available to merge sorted iterators of records into one sorted iterator.
+ */
+public enum MergeImplementation {
+    PRIORITY_QUEUE,
+    LOSER_TREE;
+
+    public CloseableIterator<Record> createMergingIterator(Schema schema, List<CloseableIterator<Record>> inputIterators) {
+        switch (this) {
+            case LOSER_TREE:
+                return new LoserTreeMergingIterator(schema, inputIterators);
+            case PRIORITY_QUEUE:
+            default:
+                return new MergingIterator(schema, inputIterators);
+        }
+    }
+
+    public static boolean isValid(String value) {
+        return EnumUtils.isValidEnumIgnoreCase(MergeImplementation.class, value);
+    }
+
+    public static MergeImplementation from(String value) {
+        return EnumUtils.getEnumIgnoreCase(MergeImplementation.class, value, PRIORITY_QUEUE);
+    }
+}
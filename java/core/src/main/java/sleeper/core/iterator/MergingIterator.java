@@ -36,6 +36,9 @@ import java.util.PriorityQueue;
  * Note: for performance reasons this does not check that the given iterators
  * are sorted. As this closed is only used internally it should never be called
  * with non-sorted iterators.
+ * <p>
+ * See also {@link LoserTreeMergingIterator}, which needs fewer comparisons per
+ * record when merging many iterators.
  */
 public class MergingIterator implements CloseableIterator<Record> {
     private static final Logger LOGGER = LoggerFactory.getLogger(MergingIterator.class);
@@ -64,15 +67,17 @@ public class MergingIterator implements CloseableIterator<Record> {
     @Override
     public Record next() {
         RecordIteratorPair pair = queue.poll();
+        Record record = pair.record;
         if (pair.iterator.hasNext()) {
-            RecordIteratorPair newPair = new RecordIteratorPair(pair.iterator.next(), pair.iterator);
-            queue.add(newPair);
+            // Reuse the pair for the next record from the same iterator
+            pair.record = pair.iterator.next();
+            queue.add(pair);
             recordsRead++;
             if (0 == recordsRead % 1_000_000) {
                 LOGGER.info("Read {} records", recordsRead);
             }
         }
-        return pair.record;
+        return record;
     }
 
     @Override
@@ -87,7 +92,7 @@ public class MergingIterator implements CloseableIterator<Record> {
     }
 
     private static class RecordIteratorPair {
-        private final Record record;
+        private Record record;
         private final CloseableIterator<Record> iterator;
 
         RecordIteratorPair(Record record, CloseableIterator<Record> iterator) {
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.iterator;
+
+import sleeper.core.record.Record;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * Iterates through a list of iterator suppliers in order, like a {@link ConcatenatingIterator}, but reads ahead from
+ * several of them at once. Each supplier is created and read on the executor by a {@link ReadAheadIterator}, into a
+ * bounded buffer. The reading for a supplier waits when its buffer is full, so that a slow consumer holds back the
+ * readers rather than filling memory. A new supplier is started each time the consumer finishes with one, so that no
+ * more than the given number are read at once.
+ * <p>
+ * Each reader holds a thread of the executor until it is finished. If the suppliers also submit work to the same
+ * executor, the parallelism must be lower than the number of threads it can run.
+ */
+public class ParallelConcatenatingIterator implements CloseableIterator<Record> {
+    private final Iterator<Supplier<CloseableIterator<Record>>> suppliers;
+    private final Deque<CloseableIterator<Record>> started = new ArrayDeque<>();
+    private final ExecutorService executorService;
+    private final int parallelism;
+    private final int batchSize;
+    private final int queueBatches;
+    private int numStarted;
+
+    public ParallelConcatenatingIterator(List<Supplier<CloseableIterator<Record>>> suppliers, ExecutorService executorService,
+                                         int parallelism, int batchSize, int queueBatches) {
+        this.suppliers = suppliers.iterator();
+        this.executorService = executorService;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.queueBatches = queueBatches;
+        startUpToParallelism();
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!started.isEmpty()) {
+            if (started.getFirst().hasNext()) {
+                return true;
+            }
+            try {
+                started.removeFirst().close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close iterator", e);
+            }
+            startUpToParallelism();
+        }
+        return false;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return started.getFirst().next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        while (!started.isEmpty()) {
+            try {
+                started.removeFirst().close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    private void startUpToParallelism() {
+        while (started.size() < parallelism && suppliers.hasNext()) {
+            started.addLast(new ReadAheadIterator<>(new SuppliedIterator(suppliers.next()), executorService,
+                    "iterator " + numStarted, batchSize, queueBatches));
+            numStarted++;
+        }
+    }
+
+    /**
+     * Creates an iterator from its supplier when it is first used, so that this happens on the reading thread.
+     */
+    private static class SuppliedIterator implements CloseableIterator<Record> {
+        private final Supplier<CloseableIterator<Record>> supplier;
+        private CloseableIterator<Record> iterator;
+
+        SuppliedIterator(Supplier<CloseableIterator<Record>> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return getIterator().hasNext();
+        }
+
+        @Override
+        public Record next() {
+            return getIterator().next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (null != iterator) {
+                iterator.close();
+            }
+        }
+
+        private CloseableIterator<Record> getIterator() {
+            if (null == iterator) {
+                iterator = supplier.get();
+            }
+            return iterator;
+        }
+    }
+}
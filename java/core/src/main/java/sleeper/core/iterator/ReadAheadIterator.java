@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.iterator;
+
+import sleeper.core.util.InstrumentedQueue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads ahead from a {@link CloseableIterator} on another thread, so that the work of producing the next items can
+ * happen at the same time as the work of consuming them. Items are passed between the threads in batches, through an
+ * {@link InstrumentedQueue} holding a bounded number of batches.
+ * <p>
+ * The source iterator is only used by the reading thread until this is closed. Any exception or error thrown by the
+ * source iterator is rethrown when the consumer reaches the point where it happened, so that a failure is never seen as
+ * the end of the input.
+ *
+ * @param <T> the type of items in the iterator
+ */
+public class ReadAheadIterator<T> implements CloseableIterator<T> {
+    private static final List<?> END = Collections.emptyList();
+
+    private final CloseableIterator<T> source;
+    private final InstrumentedQueue<List<T>> queue;
+    private final int batchSize;
+    private final Future<?> reader;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+    private Iterator<T> currentBatch = Collections.emptyIterator();
+    private boolean finished;
+
+    public ReadAheadIterator(CloseableIterator<T> source, ExecutorService executorService,
+                             String name, int batchSize, int queueBatches) {
+        this.source = source;
+        this.queue = new InstrumentedQueue<>(name, queueBatches);
+        this.batchSize = batchSize;
+        this.reader = executorService.submit(this::readAhead);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentBatch.hasNext() && !finished) {
+            List<T> batch = takeBatch();
+            if (batch == END) {
+                finished = true;
+                if (null != failure) {
+                    throwFailure();
+                }
+            } else {
+                currentBatch = batch.iterator();
+            }
+        }
+        return currentBatch.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentBatch.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        // Make space in the queue in case the reading thread is waiting to add a batch
+        queue.clear();
+        try {
+            reader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Any failure reading has already been recorded for the consumer
+        } finally {
+            source.close();
+        }
+    }
+
+    public InstrumentedQueue<List<T>> getQueue() {
+        return queue;
+    }
+
+    private List<T> takeBatch() {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for records from " + queue.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readAhead() {
+        try {
+            while (!closed && source.hasNext()) {
+                List<T> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && source.hasNext()) {
+                    batch.add(source.next());
+                }
+                putBatch(batch);
+            }
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            putBatch((List<T>) END);
+        }
+    }
+
+    private void throwFailure() {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else {
+            throw new RuntimeException("Failed reading records from " + queue.getName(), failure);
+        }
+    }
+
+    private void putBatch(List<T> batch) {
+        try {
+            while (!closed) {
+                if (queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -24,15 +24,19 @@ import sleeper.core.schema.Schema;
  */
 public class CloneRecord {
     private final Schema schema;
+    private final RecordLayout layout;
 
     public CloneRecord(Schema schema) {
         this.schema = schema;
+        this.layout = RecordLayout.forSchema(schema);
     }
 
     public Record clone(Record record) {
-        Record clonedRecord = new Record();
+        Record clonedRecord = new Record(layout);
+        int position = 0;
         for (Field field : schema.getAllFields()) {
-            clonedRecord.put(field.getName(), record.get(field.getName()));
+            clonedRecord.put(position, record.get(field.getName()));
+            position++;
         }
         return clonedRecord;
     }
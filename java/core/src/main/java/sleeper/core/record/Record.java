@@ -22,23 +22,36 @@ import sleeper.core.schema.Schema;
 import sleeper.core.schema.type.ByteArrayType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
 /**
- * The fundamental data item. A {@link Record} consists of a {@link Map} from
- * {@link String} to {@link Object} where the object will be one of the supported
- * types.
+ * The fundamental data item. A {@link Record} maps from {@link String} field
+ * names to {@link Object}s, where the object will be one of the supported types.
+ * <p>
+ * A record may be bound to a {@link RecordLayout}, in which case the values of
+ * the fields in that layout are held in an array by position. This avoids
+ * hashing and map entries for every value when records are read and written in
+ * bulk. Values of any other fields are held in a map, as are all the values of
+ * a record created without a layout.
  */
 public class Record {
-    private final Map<String, Object> values;
+    private static final Object ABSENT = new Object();
+
+    private final RecordLayout layout;
+    private final Object[] slots;
+    private Map<String, Object> values;
 
     public Record() {
-        values = new HashMap<>();
+        this.layout = RecordLayout.EMPTY;
+        this.slots = new Object[0];
+        this.values = new HashMap<>();
     }
 
     public Record(Map<String, Object> map) {
@@ -47,46 +60,101 @@ public class Record {
     }
 
     public Record(Record record) {
-        this();
-        this.values.putAll(record.values);
+        this.layout = record.layout;
+        this.slots = record.slots.clone();
+        this.values = null == record.values ? null : new HashMap<>(record.values);
+    }
+
+    /**
+     * Creates an empty record which holds the values of the fields in the given layout by position.
+     *
+     * @param layout the layout
+     */
+    public Record(RecordLayout layout) {
+        this.layout = layout;
+        this.slots = new Object[layout.size()];
+        Arrays.fill(slots, ABSENT);
     }
 
     public Object get(String fieldName) {
-        return values.get(fieldName);
+        int position = layout.positionOf(fieldName);
+        if (position >= 0) {
+            return get(position);
+        }
+        return null == values ? null : values.get(fieldName);
+    }
+
+    /**
+     * Retrieves the value of a field by its position in the layout of this record.
+     *
+     * @param  position the position of the field in {@link #getLayout()}
+     * @return          the value, or null if it is not set
+     */
+    public Object get(int position) {
+        Object value = slots[position];
+        return value == ABSENT ? null : value;
     }
 
     public void remove(String fieldName) {
-        this.values.remove(fieldName);
+        int position = layout.positionOf(fieldName);
+        if (position >= 0) {
+            slots[position] = ABSENT;
+        } else if (null != values) {
+            values.remove(fieldName);
+        }
     }
 
     public void put(String fieldName, Object value) {
-        values.put(fieldName, value);
+        int position = layout.positionOf(fieldName);
+        if (position >= 0) {
+            slots[position] = value;
+        } else {
+            if (null == values) {
+                values = new HashMap<>();
+            }
+            values.put(fieldName, value);
+        }
+    }
+
+    /**
+     * Sets the value of a field by its position in the layout of this record.
+     *
+     * @param position the position of the field in {@link #getLayout()}
+     * @param value    the value
+     */
+    public void put(int position, Object value) {
+        slots[position] = value;
+    }
+
+    public RecordLayout getLayout() {
+        return layout;
     }
 
     public Set<String> getKeys() {
-        return Collections.unmodifiableSet(values.keySet());
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != ABSENT) {
+                keys.add(layout.getFieldName(i));
+            }
+        }
+        if (null != values) {
+            keys.addAll(values.keySet());
+        }
+        return Collections.unmodifiableSet(keys);
     }
 
     public List<Object> getValues(List<String> fieldNames) {
         List<Object> valuesList = new ArrayList<>();
         for (String fieldName : fieldNames) {
-            valuesList.add(values.get(fieldName));
+            valuesList.add(get(fieldName));
         }
         return valuesList;
     }
 
     @Override
     public int hashCode() {
-        Map<String, Object> cloneWithWrappedByteArray = new HashMap<>();
-        for (Map.Entry<String, Object> entry : values.entrySet()) {
-            if (entry.getValue() instanceof byte[]) {
-                cloneWithWrappedByteArray.put(entry.getKey(), ByteArray.wrap((byte[]) entry.getValue()));
-            } else {
-                cloneWithWrappedByteArray.put(entry.getKey(), entry.getValue());
-            }
-        }
         int hash = 7;
-        hash = 17 * hash + Objects.hashCode(cloneWithWrappedByteArray);
+        hash = 17 * hash + Objects.hashCode(cloneWithWrappedByteArray());
         return hash;
     }
 
@@ -102,37 +170,12 @@ public class Record {
             return false;
         }
         final Record other = (Record) obj;
-
-        Map<String, Object> cloneWithWrappedByteArray = new HashMap<>();
-        for (Map.Entry<String, Object> entry : values.entrySet()) {
-            if (entry.getValue() instanceof byte[]) {
-                cloneWithWrappedByteArray.put(entry.getKey(), ByteArray.wrap((byte[]) entry.getValue()));
-            } else {
-                cloneWithWrappedByteArray.put(entry.getKey(), entry.getValue());
-            }
-        }
-        Map<String, Object> otherClonedWithWrappedByteArray = new HashMap<>();
-        for (Map.Entry<String, Object> entry : other.values.entrySet()) {
-            if (entry.getValue() instanceof byte[]) {
-                otherClonedWithWrappedByteArray.put(entry.getKey(), ByteArray.wrap((byte[]) entry.getValue()));
-            } else {
-                otherClonedWithWrappedByteArray.put(entry.getKey(), entry.getValue());
-            }
-        }
-        return Objects.equals(cloneWithWrappedByteArray, otherClonedWithWrappedByteArray);
+        return Objects.equals(cloneWithWrappedByteArray(), other.cloneWithWrappedByteArray());
     }
 
     @Override
     public String toString() {
-        Map<String, Object> cloneWithWrappedByteArray = new HashMap<>();
-        for (Map.Entry<String, Object> entry : values.entrySet()) {
-            if (entry.getValue() instanceof byte[]) {
-                cloneWithWrappedByteArray.put(entry.getKey(), ByteArray.wrap((byte[]) entry.getValue()));
-            } else {
-                cloneWithWrappedByteArray.put(entry.getKey(), entry.getValue());
-            }
-        }
-        return "Record{" + "values=" + cloneWithWrappedByteArray + '}';
+        return "Record{" + "values=" + cloneWithWrappedByteArray() + '}';
     }
 
     public String toString(Schema schema) {
@@ -147,13 +190,36 @@ public class Record {
         return stringBuilder.toString();
     }
 
+    private Map<String, Object> cloneWithWrappedByteArray() {
+        Map<String, Object> cloneWithWrappedByteArray = new HashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != ABSENT) {
+                cloneWithWrappedByteArray.put(layout.getFieldName(i), wrapByteArray(slots[i]));
+            }
+        }
+        if (null != values) {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                cloneWithWrappedByteArray.put(entry.getKey(), wrapByteArray(entry.getValue()));
+            }
+        }
+        return cloneWithWrappedByteArray;
+    }
+
+    private static Object wrapByteArray(Object value) {
+        if (value instanceof byte[]) {
+            return ByteArray.wrap((byte[]) value);
+        } else {
+            return value;
+        }
+    }
+
     private void append(List<Field> fields, List<String> terms) {
         for (Field field : fields) {
             String term = field.getName() + "=";
             if (field.getType() instanceof ByteArrayType) {
-                term += ByteArray.wrap((byte[]) values.get(field.getName()));
+                term += ByteArray.wrap((byte[]) get(field.getName()));
             } else {
-                term += values.get(field.getName());
+                term += get(field.getName());
             }
             terms.add(term);
         }
@@ -15,40 +15,136 @@
  */
 package sleeper.core.record;
 
-import sleeper.core.key.Key;
+import sleeper.core.schema.Field;
 import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.ByteArrayType;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+import sleeper.core.schema.type.Type;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
 /**
- * Compares {@link Record}s by row keys then sort keys.
+ * Compares {@link Record}s by row keys then sort keys. The fields to compare and how to compare each of them are
+ * worked out once from the {@link Schema} when this is created, so that comparing two records reads the key fields
+ * directly without creating any objects. Records with a {@link RecordLayout} are read by position, which is looked
+ * up once for each layout seen.
+ * <p>
+ * Null values are ordered after all non-null values, consistent with {@link KeyComparator}.
  */
 public class RecordComparator implements Comparator<Record> {
-    private final List<String> rowKeyNames;
-    private final List<String> sortKeyNames;
-    private final KeyComparator rowKeyComparator;
-    private final KeyComparator sortKeyComparator;
+    private static final byte INT = 0;
+    private static final byte LONG = 1;
+    private static final byte STRING = 2;
+    private static final byte BYTE_ARRAY = 3;
+
+    private final List<String> fieldNameList;
+    private final String[] fieldNames;
+    private final byte[] fieldTypes;
+    private LayoutPositions lastLayoutPositions;
+    private LayoutPositions previousLayoutPositions;
 
     public RecordComparator(Schema schema) {
-        this.rowKeyNames = schema.getRowKeyFieldNames();
-        this.sortKeyNames = schema.getSortKeyFieldNames();
-        this.rowKeyComparator = new KeyComparator(schema.getRowKeyTypes());
-        this.sortKeyComparator = new KeyComparator(schema.getSortKeyTypes());
+        List<Field> fields = new ArrayList<>(schema.getRowKeyFields());
+        fields.addAll(schema.getSortKeyFields());
+        this.fieldNames = new String[fields.size()];
+        this.fieldTypes = new byte[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            fieldNames[i] = field.getName();
+            fieldTypes[i] = typeCode(field.getType());
+        }
+        this.fieldNameList = List.of(fieldNames);
+        this.lastLayoutPositions = new LayoutPositions(RecordLayout.EMPTY, RecordLayout.EMPTY.positionsOf(fieldNameList));
+        this.previousLayoutPositions = lastLayoutPositions;
     }
 
-    // TODO Optimise by avoiding creating lists of row keys and sort keys, and
-    // just do the comparison directly here?
     @Override
     public int compare(Record record1, Record record2) {
-        List<Object> record1Key = record1.getValues(rowKeyNames);
-        List<Object> record2Key = record2.getValues(rowKeyNames);
-        int keyComparison = rowKeyComparator.compare(Key.create(record1Key), Key.create(record2Key));
-        if (0 != keyComparison) {
-            return keyComparison;
-        }
-        List<Object> record1SortFields = record1.getValues(sortKeyNames);
-        List<Object> record2SortFields = record2.getValues(sortKeyNames);
-        return sortKeyComparator.compare(Key.create(record1SortFields), Key.create(record2SortFields));
+        int[] positions1 = positionsIn(record1.getLayout());
+        int[] positions2 = positionsIn(record2.getLayout());
+        for (int i = 0; i < fieldNames.length; i++) {
+            int diff = compareField(fieldTypes[i], valueAt(record1, positions1, i), valueAt(record2, positions2, i));
+            if (0 != diff) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private Object valueAt(Record record, int[] positions, int field) {
+        if (positions[field] >= 0) {
+            return record.get(positions[field]);
+        } else {
+            return record.get(fieldNames[field]);
+        }
+    }
+
+    private int[] positionsIn(RecordLayout layout) {
+        // The last two layouts are cached, as records being merged may come from two different sources.
+        // The cached objects are immutable, so it's safe if a race between threads replaces one.
+        LayoutPositions last = lastLayoutPositions;
+        if (last.layout == layout) {
+            return last.positions;
+        }
+        LayoutPositions previous = previousLayoutPositions;
+        if (previous.layout == layout) {
+            return previous.positions;
+        }
+        LayoutPositions created = new LayoutPositions(layout, layout.positionsOf(fieldNameList));
+        previousLayoutPositions = last;
+        lastLayoutPositions = created;
+        return created.positions;
+    }
+
+    private static int compareField(byte type, Object value1, Object value2) {
+        if (null == value1) {
+            return null == value2 ? 0 : 1;
+        }
+        if (null == value2) {
+            return -1;
+        }
+        switch (type) {
+            case INT:
+                return Integer.compare((int) value1, (int) value2);
+            case LONG:
+                return Long.compare((long) value1, (long) value2);
+            case STRING:
+                return ((String) value1).compareTo((String) value2);
+            case BYTE_ARRAY:
+                return Arrays.compare((byte[]) value1, (byte[]) value2);
+            default:
+                throw new IllegalStateException("Unknown type code " + type);
+        }
+    }
+
+    private static byte typeCode(Type type) {
+        if (type instanceof IntType) {
+            return INT;
+        }
+        if (type instanceof LongType) {
+            return LONG;
+        }
+        if (type instanceof StringType) {
+            return STRING;
+        }
+        if (type instanceof ByteArrayType) {
+            return BYTE_ARRAY;
+        }
+        throw new IllegalArgumentException("Cannot compare records by field of type " + type);
+    }
+
+    private static class LayoutPositions {
+        private final RecordLayout layout;
+        private final int[] positions;
+
+        LayoutPositions(RecordLayout layout, int[] positions) {
+            this.layout = layout;
+            this.positions = positions;
+        }
     }
 }
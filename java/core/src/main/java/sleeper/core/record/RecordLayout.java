@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.record;
+
+import sleeper.core.schema.Schema;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The positions of fields in a {@link Record} which holds its values in an array. There is a single instance for
+ * each list of field names, so records read with the same schema share a layout, and code which reads or writes
+ * many records can check that a record has the layout it expects by reference before using positional access.
+ * <p>
+ * Layouts are only held weakly, so that a long-running process which sees many schemas does not keep a layout for each
+ * of them. A layout is shared for as long as a record, reader or writer still refers to it.
+ */
+public final class RecordLayout {
+    private static final Map<List<String>, LayoutReference> LAYOUTS = new HashMap<>();
+    private static final ReferenceQueue<RecordLayout> UNUSED_LAYOUTS = new ReferenceQueue<>();
+
+    public static final RecordLayout EMPTY = forFieldNames(List.of());
+
+    private final List<String> fieldNames;
+    private final Map<String, Integer> fieldNameToPosition;
+
+    private RecordLayout(List<String> fieldNames) {
+        this.fieldNames = fieldNames;
+        this.fieldNameToPosition = new HashMap<>();
+        for (int i = 0; i < fieldNames.size(); i++) {
+            fieldNameToPosition.put(fieldNames.get(i), i);
+        }
+    }
+
+    /**
+     * Retrieves the layout of records with all the fields in a schema, in the order of
+     * {@link Schema#getAllFieldNames()}.
+     *
+     * @param  schema the schema
+     * @return        the layout
+     */
+    public static RecordLayout forSchema(Schema schema) {
+        return forFieldNames(schema.getAllFieldNames());
+    }
+
+    public static RecordLayout forFieldNames(List<String> fieldNames) {
+        List<String> key = List.copyOf(fieldNames);
+        synchronized (LAYOUTS) {
+            removeUnusedLayouts();
+            LayoutReference reference = LAYOUTS.get(key);
+            RecordLayout layout = null == reference ? null : reference.get();
+            if (null == layout) {
+                layout = new RecordLayout(key);
+                LAYOUTS.put(key, new LayoutReference(layout));
+            }
+            return layout;
+        }
+    }
+
+    static boolean isLayoutHeld(List<String> fieldNames) {
+        synchronized (LAYOUTS) {
+            removeUnusedLayouts();
+            return LAYOUTS.containsKey(fieldNames);
+        }
+    }
+
+    private static void removeUnusedLayouts() {
+        LayoutReference reference = (LayoutReference) UNUSED_LAYOUTS.poll();
+        while (null != reference) {
+            LAYOUTS.remove(reference.fieldNames, reference);
+            reference = (LayoutReference) UNUSED_LAYOUTS.poll();
+        }
+    }
+
+    /**
+     * Finds the position of a field in this layout.
+     *
+     * @param  fieldName the field name
+     * @return           the position of the field, or -1 if it is not in this layout
+     */
+    public int positionOf(String fieldName) {
+        Integer position = fieldNameToPosition.get(fieldName);
+        return null == position ? -1 : position;
+    }
+
+    public int[] positionsOf(List<String> fieldNames) {
+        int[] positions = new int[fieldNames.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = positionOf(fieldNames.get(i));
+        }
+        return positions;
+    }
+
+    public String getFieldName(int position) {
+        return fieldNames.get(position);
+    }
+
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    public int size() {
+        return fieldNames.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RecordLayout{" + fieldNames + "}";
+    }
+
+    /**
+     * A weak reference to a layout, which remembers its field names so that it can be removed once it is unused.
+     */
+    private static class LayoutReference extends WeakReference<RecordLayout> {
+        private final List<String> fieldNames;
+
+        LayoutReference(RecordLayout layout) {
+            super(layout, UNUSED_LAYOUTS);
+            this.fieldNames = layout.fieldNames;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A request to set the job ID on a set of files, when a compaction job is created for them.
+ */
+public class AssignJobIdRequest {
+    private final String jobId;
+    private final List<FileInfo> files;
+
+    private AssignJobIdRequest(String jobId, List<FileInfo> files) {
+        this.jobId = Objects.requireNonNull(jobId, "jobId must not be null");
+        this.files = Objects.requireNonNull(files, "files must not be null");
+    }
+
+    public static AssignJobIdRequest assignJobOnFiles(String jobId, List<FileInfo> files) {
+        return new AssignJobIdRequest(jobId, files);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public List<FileInfo> getFiles() {
+        return files;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AssignJobIdRequest)) {
+            return false;
+        }
+        AssignJobIdRequest that = (AssignJobIdRequest) o;
+        return Objects.equals(jobId, that.jobId) && Objects.equals(files, that.files);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobId, files);
+    }
+
+    @Override
+    public String toString() {
+        return "AssignJobIdRequest{" +
+                "jobId='" + jobId + '\'' +
+                ", files=" + files +
+                '}';
+    }
+}
@@ -56,6 +56,11 @@ public class DelegatingStateStore implements StateStore {
         fileInfoStore.atomicallyUpdateJobStatusOfFiles(jobId, fileInfos);
     }
 
+    @Override
+    public void atomicallyAssignJobIdsToFiles(List<AssignJobIdRequest> requests) throws StateStoreException {
+        fileInfoStore.atomicallyAssignJobIdsToFiles(requests);
+    }
+
     @Override
     public void deleteReadyForGCFile(FileInfo fileInfo) throws StateStoreException {
         fileInfoStore.deleteReadyForGCFile(fileInfo);
@@ -79,6 +79,21 @@ public interface FileInfoStore {
     void atomicallyUpdateJobStatusOfFiles(String jobId, List<FileInfo> fileInfos)
             throws StateStoreException;
 
+    /**
+     * Atomically updates the job field of the input files of many compaction jobs, as long as the job field of each
+     * file is currently null. The sets of files must not overlap. Implementations may apply all the requests in a
+     * single update, in which case either all the jobs are assigned or none are. The default implementation applies
+     * each request separately, in order.
+     *
+     * @param requests The job ids and the FileInfos to set them on
+     * @throws StateStoreException if update fails
+     */
+    default void atomicallyAssignJobIdsToFiles(List<AssignJobIdRequest> requests) throws StateStoreException {
+        for (AssignJobIdRequest request : requests) {
+            atomicallyUpdateJobStatusOfFiles(request.getJobId(), request.getFiles());
+        }
+    }
+
     /**
      * Deletes this file with the status of {@link FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION}.
      *
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.statestore.FileInfo;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Adds files to a Sleeper table, e.g. at the end of an ingest.
+ */
+public class AddFilesTransaction implements StateStoreTransaction<StateStoreFiles> {
+    private final List<FileInfo> files;
+
+    public AddFilesTransaction(List<FileInfo> files) {
+        this.files = files;
+    }
+
+    @Override
+    public void validate(StateStoreFiles state) {
+    }
+
+    @Override
+    public void apply(StateStoreFiles state) {
+        files.forEach(state::put);
+    }
+
+    public List<FileInfo> getFiles() {
+        return files;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AddFilesTransaction)) {
+            return false;
+        }
+        AddFilesTransaction that = (AddFilesTransaction) o;
+        return Objects.equals(files, that.files);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(files);
+    }
+
+    @Override
+    public String toString() {
+        return "AddFilesTransaction{files=" + files + '}';
+    }
+}
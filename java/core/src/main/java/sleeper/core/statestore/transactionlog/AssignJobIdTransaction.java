@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.statestore.AssignJobIdRequest;
+import sleeper.core.statestore.FileInfo;
+import sleeper.core.statestore.StateStoreException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sets the job ID on files which are not yet assigned to a job, when compaction jobs are created for them. Many jobs
+ * may be assigned in one transaction.
+ */
+public class AssignJobIdTransaction implements StateStoreTransaction<StateStoreFiles> {
+    private final List<JobFiles> jobs;
+    private final long updateTime;
+
+    public AssignJobIdTransaction(List<JobFiles> jobs, long updateTime) {
+        this.jobs = jobs;
+        this.updateTime = updateTime;
+    }
+
+    /**
+     * Creates a transaction to assign the given jobs.
+     *
+     * @param  requests   the jobs and their input files
+     * @param  updateTime the time of the update
+     * @return            the transaction
+     */
+    public static AssignJobIdTransaction from(List<AssignJobIdRequest> requests, long updateTime) {
+        return new AssignJobIdTransaction(requests.stream()
+                .map(request -> new JobFiles(request.getJobId(), request.getFiles().stream()
+                        .map(FileInfo::getFilename)
+                        .collect(Collectors.toUnmodifiableList())))
+                .collect(Collectors.toUnmodifiableList()), updateTime);
+    }
+
+    @Override
+    public void validate(StateStoreFiles state) throws StateStoreException {
+        Set<String> assignedFilenames = new HashSet<>();
+        for (JobFiles job : jobs) {
+            for (String filename : job.filenames) {
+                FileInfo file = state.get(filename);
+                if (null == file || null != file.getJobId() || !assignedFilenames.add(filename)) {
+                    throw new StateStoreException("Files should have a null job status: file " + filename + " doesn't meet this criteria");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void apply(StateStoreFiles state) {
+        for (JobFiles job : jobs) {
+            for (String filename : job.filenames) {
+                FileInfo file = state.get(filename);
+                if (null != file) {
+                    state.put(file.toBuilder()
+                            .jobId(job.jobId)
+                            .lastStateStoreUpdateTime(updateTime)
+                            .build());
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AssignJobIdTransaction)) {
+            return false;
+        }
+        AssignJobIdTransaction that = (AssignJobIdTransaction) o;
+        return updateTime == that.updateTime
+                && Objects.equals(jobs, that.jobs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(jobs, updateTime);
+    }
+
+    @Override
+    public String toString() {
+        return "AssignJobIdTransaction{" +
+                "jobs=" + jobs +
+                ", updateTime=" + updateTime +
+                '}';
+    }
+
+    /**
+     * The names of the files to assign to a job.
+     */
+    public static class JobFiles {
+        private final String jobId;
+        private final List<String> filenames;
+
+        public JobFiles(String jobId, List<String> filenames) {
+            this.jobId = jobId;
+            this.filenames = filenames;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof JobFiles)) {
+                return false;
+            }
+            JobFiles that = (JobFiles) o;
+            return Objects.equals(jobId, that.jobId) && Objects.equals(filenames, that.filenames);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(jobId, filenames);
+        }
+
+        @Override
+        public String toString() {
+            return "JobFiles{" +
+                    "jobId='" + jobId + '\'' +
+                    ", filenames=" + filenames +
+                    '}';
+        }
+    }
+}
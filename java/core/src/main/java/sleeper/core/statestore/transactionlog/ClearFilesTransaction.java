@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+/**
+ * Removes all files from a Sleeper table, when the file information is initialised.
+ */
+public class ClearFilesTransaction implements StateStoreTransaction<StateStoreFiles> {
+
+    @Override
+    public void validate(StateStoreFiles state) {
+    }
+
+    @Override
+    public void apply(StateStoreFiles state) {
+        state.clear();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ClearFilesTransaction;
+    }
+
+    @Override
+    public int hashCode() {
+        return ClearFilesTransaction.class.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ClearFilesTransaction{}";
+    }
+}
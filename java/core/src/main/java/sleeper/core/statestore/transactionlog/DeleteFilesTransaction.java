@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.statestore.FileInfo;
+import sleeper.core.statestore.StateStoreException;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Removes files which were ready for garbage collection, once they have been deleted.
+ */
+public class DeleteFilesTransaction implements StateStoreTransaction<StateStoreFiles> {
+    private final List<String> filenames;
+
+    public DeleteFilesTransaction(List<String> filenames) {
+        this.filenames = filenames;
+    }
+
+    @Override
+    public void validate(StateStoreFiles state) throws StateStoreException {
+        for (String filename : filenames) {
+            FileInfo file = state.get(filename);
+            if (null == file) {
+                throw new StateStoreException("File to be deleted should be marked as ready for GC, but was not found: " + filename);
+            }
+            if (FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION != file.getFileStatus()) {
+                throw new StateStoreException("File to be deleted should be marked as ready for GC, got " + file.getFileStatus());
+            }
+        }
+    }
+
+    @Override
+    public void apply(StateStoreFiles state) {
+        filenames.forEach(state::remove);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeleteFilesTransaction)) {
+            return false;
+        }
+        DeleteFilesTransaction that = (DeleteFilesTransaction) o;
+        return Objects.equals(filenames, that.filenames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filenames);
+    }
+
+    @Override
+    public String toString() {
+        return "DeleteFilesTransaction{filenames=" + filenames + '}';
+    }
+}
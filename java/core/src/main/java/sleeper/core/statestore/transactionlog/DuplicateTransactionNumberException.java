@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+/**
+ * Thrown when adding a transaction to a log when another transaction has already been added with the same number.
+ */
+public class DuplicateTransactionNumberException extends Exception {
+    private static final long serialVersionUID = 2087537632829311947L;
+
+    public DuplicateTransactionNumberException(long transactionNumber) {
+        super("Transaction number " + transactionNumber + " has already been used");
+    }
+
+    public DuplicateTransactionNumberException(long transactionNumber, Throwable cause) {
+        super("Transaction number " + transactionNumber + " has already been used", cause);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.partition.Partition;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Replaces all partitions in a Sleeper table, when the partitions are initialised.
+ */
+public class InitialisePartitionsTransaction implements StateStoreTransaction<StateStorePartitions> {
+    private final List<Partition> partitions;
+
+    public InitialisePartitionsTransaction(List<Partition> partitions) {
+        this.partitions = partitions;
+    }
+
+    @Override
+    public void validate(StateStorePartitions state) {
+    }
+
+    @Override
+    public void apply(StateStorePartitions state) {
+        state.clear();
+        partitions.forEach(state::put);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InitialisePartitionsTransaction)) {
+            return false;
+        }
+        InitialisePartitionsTransaction that = (InitialisePartitionsTransaction) o;
+        return Objects.equals(partitions, that.partitions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(partitions);
+    }
+
+    @Override
+    public String toString() {
+        return "InitialisePartitionsTransaction{partitions=" + partitions + '}';
+    }
+}
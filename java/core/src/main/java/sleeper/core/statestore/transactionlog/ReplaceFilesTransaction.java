@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.statestore.FileInfo;
+import sleeper.core.statestore.StateStoreException;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Marks active files as ready for garbage collection and adds new active files to replace them, e.g. at the end of a
+ * compaction.
+ */
+public class ReplaceFilesTransaction implements StateStoreTransaction<StateStoreFiles> {
+    private final List<String> filesToMarkReadyForGC;
+    private final List<FileInfo> newFiles;
+    private final long updateTime;
+
+    public ReplaceFilesTransaction(List<String> filesToMarkReadyForGC, List<FileInfo> newFiles, long updateTime) {
+        this.filesToMarkReadyForGC = filesToMarkReadyForGC;
+        this.newFiles = newFiles;
+        this.updateTime = updateTime;
+    }
+
+    @Override
+    public void validate(StateStoreFiles state) throws StateStoreException {
+        for (String filename : filesToMarkReadyForGC) {
+            FileInfo file = state.get(filename);
+            if (null == file || FileInfo.FileStatus.ACTIVE != file.getFileStatus()) {
+                throw new StateStoreException("Files in filesToBeMarkedReadyForGC should be active: file " + filename + " is not active");
+            }
+        }
+    }
+
+    @Override
+    public void apply(StateStoreFiles state) {
+        for (String filename : filesToMarkReadyForGC) {
+            FileInfo file = state.get(filename);
+            if (null != file) {
+                state.put(file.toBuilder()
+                        .fileStatus(FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION)
+                        .lastStateStoreUpdateTime(updateTime)
+                        .build());
+            }
+        }
+        newFiles.forEach(state::put);
+    }
+
+    public List<String> getFilesToMarkReadyForGC() {
+        return filesToMarkReadyForGC;
+    }
+
+    public List<FileInfo> getNewFiles() {
+        return newFiles;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReplaceFilesTransaction)) {
+            return false;
+        }
+        ReplaceFilesTransaction that = (ReplaceFilesTransaction) o;
+        return updateTime == that.updateTime
+                && Objects.equals(filesToMarkReadyForGC, that.filesToMarkReadyForGC)
+                && Objects.equals(newFiles, that.newFiles);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filesToMarkReadyForGC, newFiles, updateTime);
+    }
+
+    @Override
+    public String toString() {
+        return "ReplaceFilesTransaction{" +
+                "filesToMarkReadyForGC=" + filesToMarkReadyForGC +
+                ", newFiles=" + newFiles +
+                ", updateTime=" + updateTime +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.partition.Partition;
+import sleeper.core.statestore.StateStoreException;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Splits a leaf partition into two new leaf partitions.
+ */
+public class SplitPartitionTransaction implements StateStoreTransaction<StateStorePartitions> {
+    private final Partition splitPartition;
+    private final Partition newPartition1;
+    private final Partition newPartition2;
+
+    public SplitPartitionTransaction(Partition splitPartition, Partition newPartition1, Partition newPartition2) {
+        this.splitPartition = splitPartition;
+        this.newPartition1 = newPartition1;
+        this.newPartition2 = newPartition2;
+    }
+
+    @Override
+    public void validate(StateStorePartitions state) throws StateStoreException {
+        Partition existing = state.get(splitPartition.getId());
+        if (null == existing) {
+            throw new StateStoreException("splitPartition should be present");
+        }
+        if (!existing.isLeafPartition()) {
+            throw new StateStoreException("splitPartition should be a leaf partition");
+        }
+        if (state.contains(newPartition1.getId()) || state.contains(newPartition2.getId())) {
+            throw new StateStoreException("newPartition1 and newPartition2 should not be present");
+        }
+        if (!Set.copyOf(splitPartition.getChildPartitionIds()).equals(Set.of(newPartition1.getId(), newPartition2.getId()))) {
+            throw new StateStoreException("Children of splitPartition do not equal newPartition1 and new Partition2");
+        }
+        if (!splitPartition.getId().equals(newPartition1.getParentPartitionId())) {
+            throw new StateStoreException("Parent of newPartition1 does not equal splitPartition");
+        }
+        if (!splitPartition.getId().equals(newPartition2.getParentPartitionId())) {
+            throw new StateStoreException("Parent of newPartition2 does not equal splitPartition");
+        }
+        if (!newPartition1.isLeafPartition() || !newPartition2.isLeafPartition()) {
+            throw new StateStoreException("newPartition1 and newPartition2 should be leaf partitions");
+        }
+    }
+
+    @Override
+    public void apply(StateStorePartitions state) {
+        state.put(splitPartition);
+        state.put(newPartition1);
+        state.put(newPartition2);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SplitPartitionTransaction)) {
+            return false;
+        }
+        SplitPartitionTransaction that = (SplitPartitionTransaction) o;
+        return Objects.equals(splitPartition, that.splitPartition)
+                && Objects.equals(newPartition1, that.newPartition1)
+                && Objects.equals(newPartition2, that.newPartition2);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(splitPartition, newPartition1, newPartition2);
+    }
+
+    @Override
+    public String toString() {
+        return "SplitPartitionTransaction{" +
+                "splitPartition=" + splitPartition +
+                ", newPartition1=" + newPartition1 +
+                ", newPartition2=" + newPartition2 +
+                '}';
+    }
+}
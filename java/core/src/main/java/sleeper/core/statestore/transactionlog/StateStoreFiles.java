@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.statestore.FileInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The files in a Sleeper table, as built up by applying transactions from a transaction log.
+ */
+public final class StateStoreFiles {
+    private final Map<String, FileInfo> filenameToFile = new LinkedHashMap<>();
+
+    public StateStoreFiles() {
+    }
+
+    public StateStoreFiles(Collection<FileInfo> files) {
+        files.forEach(this::put);
+    }
+
+    public FileInfo get(String filename) {
+        return filenameToFile.get(filename);
+    }
+
+    public void put(FileInfo file) {
+        filenameToFile.put(file.getFilename(), file);
+    }
+
+    public void remove(String filename) {
+        filenameToFile.remove(filename);
+    }
+
+    public void clear() {
+        filenameToFile.clear();
+    }
+
+    public boolean isEmpty() {
+        return filenameToFile.isEmpty();
+    }
+
+    public List<FileInfo> getAll() {
+        return new ArrayList<>(filenameToFile.values());
+    }
+
+    public List<FileInfo> getActiveFiles() {
+        List<FileInfo> files = new ArrayList<>();
+        for (FileInfo file : filenameToFile.values()) {
+            if (FileInfo.FileStatus.ACTIVE == file.getFileStatus()) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    public List<FileInfo> getActiveFilesWithNoJobId() {
+        List<FileInfo> files = new ArrayList<>();
+        for (FileInfo file : filenameToFile.values()) {
+            if (FileInfo.FileStatus.ACTIVE == file.getFileStatus() && null == file.getJobId()) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    public List<FileInfo> getReadyForGCFilesUpdatedBefore(long maxUpdateTime) {
+        List<FileInfo> files = new ArrayList<>();
+        for (FileInfo file : filenameToFile.values()) {
+            if (FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION == file.getFileStatus()
+                    && file.getLastStateStoreUpdateTime() < maxUpdateTime) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    public Map<String, List<String>> getPartitionToActiveFilesMap() {
+        Map<String, List<String>> partitionToFiles = new HashMap<>();
+        for (FileInfo file : getActiveFiles()) {
+            partitionToFiles.computeIfAbsent(file.getPartitionId(), id -> new ArrayList<>())
+                    .add(file.getFilename());
+        }
+        return partitionToFiles;
+    }
+
+    /**
+     * Creates a copy of this state. The file information is immutable, so this is a shallow copy.
+     *
+     * @return the copy
+     */
+    public StateStoreFiles copy() {
+        return new StateStoreFiles(filenameToFile.values());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StateStoreFiles)) {
+            return false;
+        }
+        StateStoreFiles that = (StateStoreFiles) o;
+        return Objects.equals(filenameToFile, that.filenameToFile);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filenameToFile);
+    }
+
+    @Override
+    public String toString() {
+        return "StateStoreFiles{" + filenameToFile.values() + '}';
+    }
+}
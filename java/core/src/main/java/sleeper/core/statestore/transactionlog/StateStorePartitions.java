@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.partition.Partition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The partitions in a Sleeper table, as built up by applying transactions from a transaction log.
+ */
+public final class StateStorePartitions {
+    private final Map<String, Partition> idToPartition = new LinkedHashMap<>();
+
+    public StateStorePartitions() {
+    }
+
+    public StateStorePartitions(Collection<Partition> partitions) {
+        partitions.forEach(this::put);
+    }
+
+    public Partition get(String partitionId) {
+        return idToPartition.get(partitionId);
+    }
+
+    public boolean contains(String partitionId) {
+        return idToPartition.containsKey(partitionId);
+    }
+
+    public void put(Partition partition) {
+        idToPartition.put(partition.getId(), partition);
+    }
+
+    public void clear() {
+        idToPartition.clear();
+    }
+
+    public List<Partition> getAll() {
+        return new ArrayList<>(idToPartition.values());
+    }
+
+    public List<Partition> getLeafPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        for (Partition partition : idToPartition.values()) {
+            if (partition.isLeafPartition()) {
+                partitions.add(partition);
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Creates a copy of this state. Partitions are replaced rather than changed when transactions are applied, so
+     * this is a shallow copy.
+     *
+     * @return the copy
+     */
+    public StateStorePartitions copy() {
+        return new StateStorePartitions(idToPartition.values());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StateStorePartitions)) {
+            return false;
+        }
+        StateStorePartitions that = (StateStorePartitions) o;
+        return Objects.equals(idToPartition, that.idToPartition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idToPartition);
+    }
+
+    @Override
+    public String toString() {
+        return "StateStorePartitions{" + idToPartition.values() + '}';
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.statestore.StateStoreException;
+
+/**
+ * A change to the state of a Sleeper table, held in a transaction log. A transaction is validated against the state
+ * before it is added to the log. Once it is in the log it is applied by every reader of the log, so applying it must
+ * give the same result each time, and must not depend on the time it is applied.
+ *
+ * @param <T> the type of the state the transaction changes
+ */
+public interface StateStoreTransaction<T> {
+
+    /**
+     * Checks whether the transaction can be applied to the current state.
+     *
+     * @param  state               the state before the transaction
+     * @throws StateStoreException if the transaction is not valid for the state
+     */
+    void validate(T state) throws StateStoreException;
+
+    /**
+     * Applies the transaction to the state.
+     *
+     * @param state the state to update
+     */
+    void apply(T state);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A transaction held in a transaction log, with its position in the log.
+ */
+public class TransactionLogEntry {
+    private final long transactionNumber;
+    private final Instant updateTime;
+    private final StateStoreTransaction<?> transaction;
+
+    public TransactionLogEntry(long transactionNumber, Instant updateTime, StateStoreTransaction<?> transaction) {
+        this.transactionNumber = transactionNumber;
+        this.updateTime = updateTime;
+        this.transaction = transaction;
+    }
+
+    public long getTransactionNumber() {
+        return transactionNumber;
+    }
+
+    public Instant getUpdateTime() {
+        return updateTime;
+    }
+
+    public StateStoreTransaction<?> getTransaction() {
+        return transaction;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransactionLogEntry)) {
+            return false;
+        }
+        TransactionLogEntry that = (TransactionLogEntry) o;
+        return transactionNumber == that.transactionNumber
+                && Objects.equals(updateTime, that.updateTime)
+                && Objects.equals(transaction, that.transaction);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(transactionNumber, updateTime, transaction);
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionLogEntry{" +
+                "transactionNumber=" + transactionNumber +
+                ", updateTime=" + updateTime +
+                ", transaction=" + transaction +
+                '}';
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.statestore.AssignJobIdRequest;
+import sleeper.core.statestore.FileInfo;
+import sleeper.core.statestore.FileInfoStore;
+import sleeper.core.statestore.StateStoreException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Stores file information by adding transactions to a transaction log.
+ */
+class TransactionLogFileInfoStore implements FileInfoStore {
+    private final TransactionLogHead<StateStoreFiles> head;
+    private final int garbageCollectorDelayBeforeDeletionInMinutes;
+    private Clock clock = Clock.systemUTC();
+
+    TransactionLogFileInfoStore(TransactionLogHead<StateStoreFiles> head, int garbageCollectorDelayBeforeDeletionInMinutes) {
+        this.head = head;
+        this.garbageCollectorDelayBeforeDeletionInMinutes = garbageCollectorDelayBeforeDeletionInMinutes;
+    }
+
+    @Override
+    public void addFile(FileInfo fileInfo) throws StateStoreException {
+        addFiles(Collections.singletonList(fileInfo));
+    }
+
+    @Override
+    public void addFiles(List<FileInfo> fileInfos) throws StateStoreException {
+        for (FileInfo fileInfo : fileInfos) {
+            if (null == fileInfo.getFilename()
+                    || null == fileInfo.getFileStatus()
+                    || null == fileInfo.getPartitionId()
+                    || null == fileInfo.getNumberOfRecords()) {
+                throw new IllegalArgumentException("FileInfo needs non-null filename, status, partition id and number of records: got " + fileInfo);
+            }
+        }
+        Instant updateTime = clock.instant();
+        head.addTransaction(new AddFilesTransaction(setLastUpdateTimes(fileInfos, updateTime)), updateTime);
+    }
+
+    @Override
+    public void atomicallyUpdateFilesToReadyForGCAndCreateNewActiveFile(
+            List<FileInfo> filesToBeMarkedReadyForGC, FileInfo newActiveFile) throws StateStoreException {
+        replaceFiles(filesToBeMarkedReadyForGC, List.of(newActiveFile));
+    }
+
+    @Override
+    public void atomicallyUpdateFilesToReadyForGCAndCreateNewActiveFiles(
+            List<FileInfo> filesToBeMarkedReadyForGC, FileInfo leftFileInfo, FileInfo rightFileInfo) throws StateStoreException {
+        replaceFiles(filesToBeMarkedReadyForGC, List.of(leftFileInfo, rightFileInfo));
+    }
+
+    private void replaceFiles(List<FileInfo> filesToBeMarkedReadyForGC, List<FileInfo> newFiles) throws StateStoreException {
+        Instant updateTime = clock.instant();
+        head.addTransaction(new ReplaceFilesTransaction(filenames(filesToBeMarkedReadyForGC),
+                setLastUpdateTimes(newFiles, updateTime), updateTime.toEpochMilli()), updateTime);
+    }
+
+    @Override
+    public void atomicallyUpdateJobStatusOfFiles(String jobId, List<FileInfo> fileInfos) throws StateStoreException {
+        atomicallyAssignJobIdsToFiles(List.of(AssignJobIdRequest.assignJobOnFiles(jobId, fileInfos)));
+    }
+
+    @Override
+    public void atomicallyAssignJobIdsToFiles(List<AssignJobIdRequest> requests) throws StateStoreException {
+        Instant updateTime = clock.instant();
+        head.addTransaction(AssignJobIdTransaction.from(requests, updateTime.toEpochMilli()), updateTime);
+    }
+
+    @Override
+    public void deleteReadyForGCFile(FileInfo fileInfo) throws StateStoreException {
+        head.addTransaction(new DeleteFilesTransaction(List.of(fileInfo.getFilename())), clock.instant());
+    }
+
+    @Override
+    public List<FileInfo> getActiveFiles() throws StateStoreException {
+        return head.query(StateStoreFiles::getActiveFiles);
+    }
+
+    @Override
+    public Iterator<FileInfo> getReadyForGCFiles() throws StateStoreException {
+        long delayInMilliseconds = 1000L * 60L * garbageCollectorDelayBeforeDeletionInMinutes;
+        long deleteTime = clock.millis() - delayInMilliseconds;
+        return head.query(files -> files.getReadyForGCFilesUpdatedBefore(deleteTime)).iterator();
+    }
+
+    @Override
+    public List<FileInfo> getActiveFilesWithNoJobId() throws StateStoreException {
+        return head.query(StateStoreFiles::getActiveFilesWithNoJobId);
+    }
+
+    @Override
+    public Map<String, List<String>> getPartitionToActiveFilesMap() throws StateStoreException {
+        return head.query(StateStoreFiles::getPartitionToActiveFilesMap);
+    }
+
+    @Override
+    public void initialise() throws StateStoreException {
+        head.addTransaction(new ClearFilesTransaction(), clock.instant());
+    }
+
+    @Override
+    public boolean hasNoFiles() {
+        try {
+            return head.query(StateStoreFiles::isEmpty);
+        } catch (StateStoreException e) {
+            throw new RuntimeException("Failed loading files", e);
+        }
+    }
+
+    @Override
+    public void clearTable() {
+        try {
+            head.clear();
+        } catch (StateStoreException e) {
+            throw new RuntimeException("Failed clearing files", e);
+        }
+    }
+
+    @Override
+    public void fixTime(Instant now) {
+        clock = Clock.fixed(now, ZoneId.of("UTC"));
+    }
+
+    private static List<String> filenames(List<FileInfo> files) {
+        return files.stream().map(FileInfo::getFilename).collect(Collectors.toList());
+    }
+
+    private static List<FileInfo> setLastUpdateTimes(List<FileInfo> fileInfos, Instant updateTime) {
+        return fileInfos.stream()
+                .map(file -> file.toBuilder().lastStateStoreUpdateTime(updateTime.toEpochMilli()).build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.core.statestore.StateStoreException;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Tracks the state built up from a transaction log in this process, and adds transactions to the log. The state is
+ * brought up to date before each read or update by replaying any transactions added since it was last read. If
+ * another process adds a transaction with the same number first, the state is brought up to date and the new
+ * transaction is validated and added again with the next number.
+ *
+ * @param <T> the type of the state
+ */
+class TransactionLogHead<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionLogHead.class);
+
+    private final TransactionLogStore logStore;
+    private final TransactionLogSnapshotStore<T> snapshotStore;
+    private final Supplier<T> emptyState;
+    private final int maxAddTransactionAttempts;
+    private final RetryWait retryWait;
+    private final long snapshotInterval;
+    private final Executor snapshotExecutor;
+    private T state;
+    private long lastTransactionNumber;
+
+    TransactionLogHead(TransactionLogStore logStore, TransactionLogSnapshotStore<T> snapshotStore, Supplier<T> emptyState,
+                       int maxAddTransactionAttempts, RetryWait retryWait,
+                       long snapshotInterval, Executor snapshotExecutor) {
+        this.logStore = logStore;
+        this.snapshotStore = snapshotStore;
+        this.emptyState = emptyState;
+        this.maxAddTransactionAttempts = maxAddTransactionAttempts;
+        this.retryWait = retryWait;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotExecutor = snapshotExecutor;
+    }
+
+    synchronized <R> R query(Function<T, R> query) throws StateStoreException {
+        update();
+        return query.apply(state);
+    }
+
+    synchronized void addTransaction(StateStoreTransaction<T> transaction, Instant updateTime) throws StateStoreException {
+        for (int attempt = 1; attempt <= maxAddTransactionAttempts; attempt++) {
+            update();
+            transaction.validate(state);
+            long transactionNumber = lastTransactionNumber + 1;
+            try {
+                logStore.addTransaction(new TransactionLogEntry(transactionNumber, updateTime, transaction));
+            } catch (DuplicateTransactionNumberException e) {
+                LOGGER.info("Attempt number {} to add transaction {} failed as another process added it first, retrying",
+                        attempt, transactionNumber);
+                retryWait.waitBeforeRetry(attempt);
+                continue;
+            }
+            transaction.apply(state);
+            lastTransactionNumber = transactionNumber;
+            LOGGER.debug("Added transaction {}", transactionNumber);
+            if (snapshotInterval > 0 && transactionNumber % snapshotInterval == 0) {
+                snapshotExecutor.execute(this::createSnapshot);
+            }
+            return;
+        }
+        throw new StateStoreException("Failed adding transaction after " + maxAddTransactionAttempts + " attempts");
+    }
+
+    synchronized void clear() throws StateStoreException {
+        logStore.clear();
+        try {
+            snapshotStore.clear();
+        } catch (IOException e) {
+            throw new StateStoreException("Failed deleting snapshots", e);
+        }
+        state = null;
+        lastTransactionNumber = 0;
+    }
+
+    private void update() throws StateStoreException {
+        if (null == state) {
+            loadLatestSnapshot();
+        }
+        if (!applyTransactions(logStore.readTransactionsAfter(lastTransactionNumber))) {
+            // The transactions we need have been deleted, so there must be a newer snapshot including them
+            loadLatestSnapshot();
+            if (!applyTransactions(logStore.readTransactionsAfter(lastTransactionNumber))) {
+                throw new StateStoreException("Transactions missing from log after transaction " + lastTransactionNumber);
+            }
+        }
+    }
+
+    private void loadLatestSnapshot() throws StateStoreException {
+        Optional<TransactionLogSnapshot<T>> snapshot;
+        try {
+            snapshot = snapshotStore.loadLatestSnapshot();
+        } catch (IOException e) {
+            throw new StateStoreException("Failed loading snapshot", e);
+        }
+        if (snapshot.isPresent() && (null == state || snapshot.get().getTransactionNumber() > lastTransactionNumber)) {
+            state = snapshot.get().getState();
+            lastTransactionNumber = snapshot.get().getTransactionNumber();
+            LOGGER.debug("Loaded snapshot at transaction {}", lastTransactionNumber);
+        } else if (null == state) {
+            state = emptyState.get();
+            lastTransactionNumber = 0;
+        }
+    }
+
+    private boolean applyTransactions(Stream<TransactionLogEntry> entries) {
+        try (entries) {
+            long applied = applyTransactions(entries.iterator(), state, lastTransactionNumber);
+            if (applied < 0) {
+                return false;
+            }
+            lastTransactionNumber = applied;
+            return true;
+        }
+    }
+
+    private void createSnapshot() {
+        try {
+            new TransactionLogSnapshotCreator<>(logStore, snapshotStore, emptyState).createSnapshot();
+        } catch (StateStoreException | RuntimeException e) {
+            LOGGER.error("Failed creating transaction log snapshot", e);
+        }
+    }
+
+    /**
+     * Applies transactions from a log to a state, in order.
+     *
+     * @param  <T>                   the type of the state
+     * @param  entries               the transactions read from the log
+     * @param  state                 the state to update
+     * @param  lastTransactionNumber the number of the last transaction applied to the state
+     * @return                       the number of the last transaction applied, or -1 if the transaction after the
+     *                               given number was missing from the log, in which case nothing is applied
+     */
+    @SuppressWarnings("unchecked")
+    static <T> long applyTransactions(Iterator<TransactionLogEntry> entries, T state, long lastTransactionNumber) {
+        long last = lastTransactionNumber;
+        while (entries.hasNext()) {
+            TransactionLogEntry entry = entries.next();
+            if (entry.getTransactionNumber() != last + 1) {
+                if (last == lastTransactionNumber) {
+                    return -1;
+                }
+                throw new IllegalStateException("Expected transaction " + (last + 1) + ", found " + entry.getTransactionNumber());
+            }
+            ((StateStoreTransaction<T>) entry.getTransaction()).apply(state);
+            last = entry.getTransactionNumber();
+        }
+        return last;
+    }
+
+    /**
+     * Waits before retrying to add a transaction, after another process added a transaction first.
+     */
+    @FunctionalInterface
+    interface RetryWait {
+        void waitBeforeRetry(int attempt);
+
+        /**
+         * Waits for a random time up to a limit that grows with the number of attempts. This spreads out retries from
+         * processes that conflicted with each other.
+         *
+         * @param  maxWaitMillisPerAttempt the limit for the first retry
+         * @return                         the wait
+         */
+        static RetryWait withJitter(long maxWaitMillisPerAttempt) {
+            return attempt -> {
+                try {
+                    Thread.sleep((long) (Math.random() * maxWaitMillisPerAttempt * attempt));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.partition.Partition;
+import sleeper.core.partition.PartitionsFromSplitPoints;
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.PartitionStore;
+import sleeper.core.statestore.StateStoreException;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stores partitions by adding transactions to a transaction log.
+ */
+class TransactionLogPartitionStore implements PartitionStore {
+    private final TransactionLogHead<StateStorePartitions> head;
+    private final Schema schema;
+    private final Clock clock = Clock.systemUTC();
+
+    TransactionLogPartitionStore(TransactionLogHead<StateStorePartitions> head, Schema schema) {
+        this.head = head;
+        this.schema = schema;
+    }
+
+    @Override
+    public void atomicallyUpdatePartitionAndCreateNewOnes(
+            Partition splitPartition, Partition newPartition1, Partition newPartition2) throws StateStoreException {
+        head.addTransaction(new SplitPartitionTransaction(splitPartition, newPartition1, newPartition2), clock.instant());
+    }
+
+    @Override
+    public List<Partition> getAllPartitions() throws StateStoreException {
+        return head.query(StateStorePartitions::getAll);
+    }
+
+    @Override
+    public List<Partition> getLeafPartitions() throws StateStoreException {
+        return head.query(StateStorePartitions::getLeafPartitions);
+    }
+
+    @Override
+    public void initialise() throws StateStoreException {
+        initialise(new PartitionsFromSplitPoints(schema, Collections.emptyList()).construct());
+    }
+
+    @Override
+    public void initialise(List<Partition> partitions) throws StateStoreException {
+        if (null == partitions || partitions.isEmpty()) {
+            throw new StateStoreException("At least one partition must be provided");
+        }
+        head.addTransaction(new InitialisePartitionsTransaction(partitions), clock.instant());
+    }
+
+    @Override
+    public void clearTable() {
+        try {
+            head.clear();
+        } catch (StateStoreException e) {
+            throw new RuntimeException("Failed clearing partitions", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import java.util.Objects;
+
+/**
+ * The state built up from a transaction log, up to and including a given transaction.
+ *
+ * @param <T> the type of the state
+ */
+public class TransactionLogSnapshot<T> {
+    private final long transactionNumber;
+    private final T state;
+
+    public TransactionLogSnapshot(long transactionNumber, T state) {
+        this.transactionNumber = transactionNumber;
+        this.state = state;
+    }
+
+    public long getTransactionNumber() {
+        return transactionNumber;
+    }
+
+    public T getState() {
+        return state;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransactionLogSnapshot)) {
+            return false;
+        }
+        TransactionLogSnapshot<?> that = (TransactionLogSnapshot<?>) o;
+        return transactionNumber == that.transactionNumber && Objects.equals(state, that.state);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(transactionNumber, state);
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionLogSnapshot{" +
+                "transactionNumber=" + transactionNumber +
+                ", state=" + state +
+                '}';
+    }
+}
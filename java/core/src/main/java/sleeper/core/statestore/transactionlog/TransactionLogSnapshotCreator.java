@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.core.statestore.StateStoreException;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Compacts a transaction log by saving a snapshot of the state at the end of the log. Transactions are then deleted up
+ * to the previous snapshot, along with any snapshots older than that. The previous snapshot and the transactions since
+ * then are kept, so that a reader which is loading the previous snapshot can still catch up with the log.
+ *
+ * @param <T> the type of the state
+ */
+public class TransactionLogSnapshotCreator<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionLogSnapshotCreator.class);
+
+    private final TransactionLogStore logStore;
+    private final TransactionLogSnapshotStore<T> snapshotStore;
+    private final Supplier<T> emptyState;
+
+    public TransactionLogSnapshotCreator(TransactionLogStore logStore, TransactionLogSnapshotStore<T> snapshotStore, Supplier<T> emptyState) {
+        this.logStore = logStore;
+        this.snapshotStore = snapshotStore;
+        this.emptyState = emptyState;
+    }
+
+    /**
+     * Creates a snapshot if any transactions have been added since the latest snapshot.
+     *
+     * @return                     the new snapshot, if one was created
+     * @throws StateStoreException if the snapshot could not be loaded or saved
+     */
+    public Optional<TransactionLogSnapshot<T>> createSnapshot() throws StateStoreException {
+        try {
+            Optional<TransactionLogSnapshot<T>> previous = snapshotStore.loadLatestSnapshot();
+            long previousTransactionNumber = previous.map(TransactionLogSnapshot::getTransactionNumber).orElse(0L);
+            T state = previous.map(TransactionLogSnapshot::getState).orElseGet(emptyState);
+            long lastTransactionNumber;
+            try (Stream<TransactionLogEntry> entries = logStore.readTransactionsAfter(previousTransactionNumber)) {
+                lastTransactionNumber = TransactionLogHead.applyTransactions(entries.iterator(), state, previousTransactionNumber);
+            }
+            if (lastTransactionNumber < 0) {
+                throw new StateStoreException("Transactions missing from log after snapshot at transaction " + previousTransactionNumber);
+            }
+            if (lastTransactionNumber == previousTransactionNumber) {
+                LOGGER.debug("No transactions since snapshot at transaction {}", previousTransactionNumber);
+                return Optional.empty();
+            }
+            TransactionLogSnapshot<T> snapshot = new TransactionLogSnapshot<>(lastTransactionNumber, state);
+            snapshotStore.saveSnapshot(snapshot);
+            LOGGER.info("Saved snapshot at transaction {}", lastTransactionNumber);
+            if (previousTransactionNumber > 0) {
+                logStore.deleteTransactionsAtOrBefore(previousTransactionNumber);
+                LOGGER.info("Deleted transactions up to {}", previousTransactionNumber);
+                snapshotStore.deleteSnapshotsBefore(previousTransactionNumber);
+            }
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            throw new StateStoreException("Failed creating snapshot", e);
+        }
+    }
+}
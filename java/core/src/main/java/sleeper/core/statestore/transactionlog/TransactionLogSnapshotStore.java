@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Stores snapshots of the state built up from a transaction log, so that readers do not need to replay the whole log.
+ *
+ * @param <T> the type of the state
+ */
+public interface TransactionLogSnapshotStore<T> {
+
+    /**
+     * Loads the snapshot with the highest transaction number. The state is loaded into a new object each time, so
+     * the caller may change it.
+     *
+     * @return             the latest snapshot, if any snapshot has been saved
+     * @throws IOException if the snapshot could not be loaded
+     */
+    Optional<TransactionLogSnapshot<T>> loadLatestSnapshot() throws IOException;
+
+    /**
+     * Saves a snapshot.
+     *
+     * @param  snapshot    the snapshot
+     * @throws IOException if the snapshot could not be saved
+     */
+    void saveSnapshot(TransactionLogSnapshot<T> snapshot) throws IOException;
+
+    /**
+     * Deletes snapshots that have been superseded by a later snapshot.
+     *
+     * @param  transactionNumber the transaction number to delete snapshots before, exclusive
+     * @throws IOException       if the snapshots could not be deleted
+     */
+    void deleteSnapshotsBefore(long transactionNumber) throws IOException;
+
+    /**
+     * Deletes every snapshot.
+     *
+     * @throws IOException if the snapshots could not be deleted
+     */
+    void clear() throws IOException;
+}
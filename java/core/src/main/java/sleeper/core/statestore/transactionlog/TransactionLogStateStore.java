@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.DelegatingStateStore;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * An implementation of StateStore that holds each change as a transaction in an ordered log. Files and partitions are
+ * held in separate logs. Each update is validated against the state in this process, then added to the log with the
+ * next transaction number. The log only accepts each transaction number once, so if another process updated the
+ * table first, the state is brought up to date from the log and the update is retried.
+ * <p>
+ * The cost of an update scales with the size of the change rather than the size of the table. Readers load the latest
+ * snapshot of the state, then replay the transactions since then. Snapshots are created in the background after every
+ * few transactions.
+ */
+public class TransactionLogStateStore extends DelegatingStateStore {
+    public static final int DEFAULT_MAX_ADD_TRANSACTION_ATTEMPTS = 10;
+    public static final long DEFAULT_MAX_RETRY_WAIT_MILLIS_PER_ATTEMPT = 200;
+
+    private static final Executor BACKGROUND_SNAPSHOTS = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-log-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    protected TransactionLogStateStore(Builder builder) {
+        super(new TransactionLogFileInfoStore(head(builder, builder.filesLogStore, builder.filesSnapshotStore, StateStoreFiles::new),
+                        builder.garbageCollectorDelayBeforeDeletionInMinutes),
+                new TransactionLogPartitionStore(head(builder, builder.partitionsLogStore, builder.partitionsSnapshotStore, StateStorePartitions::new),
+                        Objects.requireNonNull(builder.schema, "schema must not be null")));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static <T> TransactionLogHead<T> head(
+            Builder builder, TransactionLogStore logStore, TransactionLogSnapshotStore<T> snapshotStore,
+            Supplier<T> emptyState) {
+        return new TransactionLogHead<>(
+                Objects.requireNonNull(logStore, "logStore must not be null"),
+                Objects.requireNonNull(snapshotStore, "snapshotStore must not be null"),
+                emptyState, builder.maxAddTransactionAttempts,
+                TransactionLogHead.RetryWait.withJitter(builder.maxRetryWaitMillisPerAttempt),
+                builder.snapshotInterval, builder.snapshotExecutor);
+    }
+
+    /**
+     * Builds a transaction log state store.
+     */
+    public static final class Builder {
+        private TransactionLogStore filesLogStore;
+        private TransactionLogStore partitionsLogStore;
+        private TransactionLogSnapshotStore<StateStoreFiles> filesSnapshotStore;
+        private TransactionLogSnapshotStore<StateStorePartitions> partitionsSnapshotStore;
+        private Schema schema;
+        private int garbageCollectorDelayBeforeDeletionInMinutes;
+        private int maxAddTransactionAttempts = DEFAULT_MAX_ADD_TRANSACTION_ATTEMPTS;
+        private long maxRetryWaitMillisPerAttempt = DEFAULT_MAX_RETRY_WAIT_MILLIS_PER_ATTEMPT;
+        private long snapshotInterval;
+        private Executor snapshotExecutor = BACKGROUND_SNAPSHOTS;
+
+        private Builder() {
+        }
+
+        public Builder filesLogStore(TransactionLogStore filesLogStore) {
+            this.filesLogStore = filesLogStore;
+            return this;
+        }
+
+        public Builder partitionsLogStore(TransactionLogStore partitionsLogStore) {
+            this.partitionsLogStore = partitionsLogStore;
+            return this;
+        }
+
+        public Builder filesSnapshotStore(TransactionLogSnapshotStore<StateStoreFiles> filesSnapshotStore) {
+            this.filesSnapshotStore = filesSnapshotStore;
+            return this;
+        }
+
+        public Builder partitionsSnapshotStore(TransactionLogSnapshotStore<StateStorePartitions> partitionsSnapshotStore) {
+            this.partitionsSnapshotStore = partitionsSnapshotStore;
+            return this;
+        }
+
+        public Builder schema(Schema schema) {
+            this.schema = schema;
+            return this;
+        }
+
+        public Builder garbageCollectorDelayBeforeDeletionInMinutes(int garbageCollectorDelayBeforeDeletionInMinutes) {
+            this.garbageCollectorDelayBeforeDeletionInMinutes = garbageCollectorDelayBeforeDeletionInMinutes;
+            return this;
+        }
+
+        public Builder maxAddTransactionAttempts(int maxAddTransactionAttempts) {
+            this.maxAddTransactionAttempts = maxAddTransactionAttempts;
+            return this;
+        }
+
+        public Builder maxRetryWaitMillisPerAttempt(long maxRetryWaitMillisPerAttempt) {
+            this.maxRetryWaitMillisPerAttempt = maxRetryWaitMillisPerAttempt;
+            return this;
+        }
+
+        /**
+         * Sets how often to create a snapshot. A snapshot is created after each transaction whose number is a
+         * multiple of this. If this is zero, no snapshots are created by the state store.
+         *
+         * @param  snapshotInterval the number of transactions between snapshots
+         * @return                  the builder
+         */
+        public Builder snapshotInterval(long snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+            return this;
+        }
+
+        public Builder snapshotExecutor(Executor snapshotExecutor) {
+            this.snapshotExecutor = snapshotExecutor;
+            return this;
+        }
+
+        public TransactionLogStateStore build() {
+            return new TransactionLogStateStore(this);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import java.util.stream.Stream;
+
+/**
+ * An ordered log of transactions against the state of a Sleeper table. Transactions are numbered from 1, and each
+ * number may only be used once, so that concurrent writers cannot both add the same transaction number.
+ */
+public interface TransactionLogStore {
+
+    /**
+     * Adds a transaction to the log, if no transaction has been added with the same number.
+     *
+     * @param  entry                               the transaction and its number
+     * @throws DuplicateTransactionNumberException if the transaction number has already been used
+     */
+    void addTransaction(TransactionLogEntry entry) throws DuplicateTransactionNumberException;
+
+    /**
+     * Reads transactions in order, starting after the given transaction number. Transactions may be missing from the
+     * start of the log if they have been deleted after a snapshot was taken.
+     *
+     * @param  lastTransactionNumber the number of the last transaction that has already been read
+     * @return                       the transactions after that number
+     */
+    Stream<TransactionLogEntry> readTransactionsAfter(long lastTransactionNumber);
+
+    /**
+     * Deletes transactions at the start of the log, which are included in a snapshot.
+     *
+     * @param transactionNumber the number of the last transaction to delete
+     */
+    void deleteTransactionsAtOrBefore(long transactionNumber);
+
+    /**
+     * Deletes every transaction in the log.
+     */
+    void clear();
+}
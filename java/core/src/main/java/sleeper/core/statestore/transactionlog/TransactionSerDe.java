@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import sleeper.core.partition.Partition;
+import sleeper.core.partition.PartitionSerDe.PartitionJsonSerDe;
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.FileInfo;
+
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Serialises transactions and snapshots of a transaction log to and from JSON.
+ */
+public class TransactionSerDe {
+    private static final Type FILES_TYPE = new TypeToken<List<FileInfo>>() {
+    }.getType();
+    private static final Type PARTITIONS_TYPE = new TypeToken<List<Partition>>() {
+    }.getType();
+
+    private final Gson gson;
+
+    public TransactionSerDe(Schema schema) {
+        this.gson = new GsonBuilder()
+                .registerTypeAdapter(Partition.class, new PartitionJsonSerDe(schema))
+                .serializeNulls()
+                .create();
+    }
+
+    public String toJson(StateStoreTransaction<?> transaction) {
+        return gson.toJson(transaction);
+    }
+
+    public StateStoreTransaction<?> toTransaction(TransactionType type, String json) {
+        return gson.fromJson(json, type.getType());
+    }
+
+    public void writeFiles(StateStoreFiles files, Appendable writer) {
+        gson.toJson(files.getAll(), FILES_TYPE, writer);
+    }
+
+    public StateStoreFiles readFiles(Reader reader) {
+        List<FileInfo> files = gson.fromJson(reader, FILES_TYPE);
+        return new StateStoreFiles(files);
+    }
+
+    public void writePartitions(StateStorePartitions partitions, Appendable writer) {
+        gson.toJson(partitions.getAll(), PARTITIONS_TYPE, writer);
+    }
+
+    public StateStorePartitions readPartitions(Reader reader) {
+        List<Partition> partitions = gson.fromJson(reader, PARTITIONS_TYPE);
+        return new StateStorePartitions(partitions);
+    }
+}
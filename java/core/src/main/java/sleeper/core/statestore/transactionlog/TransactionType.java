@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import java.util.stream.Stream;
+
+/**
+ * The types of transaction that can be held in a transaction log. This is stored with each transaction so that it can
+ * be read back as the right class.
+ */
+public enum TransactionType {
+    ADD_FILES(AddFilesTransaction.class),
+    REPLACE_FILES(ReplaceFilesTransaction.class),
+    ASSIGN_JOB_ID(AssignJobIdTransaction.class),
+    DELETE_FILES(DeleteFilesTransaction.class),
+    CLEAR_FILES(ClearFilesTransaction.class),
+    INITIALISE_PARTITIONS(InitialisePartitionsTransaction.class),
+    SPLIT_PARTITION(SplitPartitionTransaction.class);
+
+    private final Class<? extends StateStoreTransaction<?>> type;
+
+    TransactionType(Class<? extends StateStoreTransaction<?>> type) {
+        this.type = type;
+    }
+
+    public Class<? extends StateStoreTransaction<?>> getType() {
+        return type;
+    }
+
+    public static TransactionType getType(StateStoreTransaction<?> transaction) {
+        return Stream.of(values())
+                .filter(type -> type.type == transaction.getClass())
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unrecognised transaction class: " + transaction.getClass()));
+    }
+}
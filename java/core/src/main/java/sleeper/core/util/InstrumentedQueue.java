@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.util;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded queue passing items from one thread to another, which records how long each side spent waiting. When the
+ * producer spends a long time waiting for space, the consumer is the bottleneck. When the consumer spends a long time
+ * waiting for items, the producer is the bottleneck.
+ *
+ * @param <T> the type of items in the queue
+ */
+public class InstrumentedQueue<T> {
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private volatile long itemsPassed;
+    private volatile long producerWaitNanos;
+    private volatile long consumerWaitNanos;
+
+    public InstrumentedQueue(String name, int capacity) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Adds an item to the queue, waiting for space if necessary. Should only be called by the producing thread.
+     *
+     * @param  item                 the item
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    @SuppressFBWarnings("VO_VOLATILE_INCREMENT") // Only updated by one thread
+    public void put(T item) throws InterruptedException {
+        if (!queue.offer(item)) {
+            long startNanos = System.nanoTime();
+            queue.put(item);
+            producerWaitNanos += System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * Adds an item to the queue, waiting up to the given time for space. Should only be called by the producing
+     * thread.
+     *
+     * @param  item                 the item
+     * @param  timeout              how long to wait for space
+     * @param  unit                 the unit of the timeout
+     * @return                      true if the item was added, false if there was no space before the timeout
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    @SuppressFBWarnings("VO_VOLATILE_INCREMENT") // Only updated by one thread
+    public boolean offer(T item, long timeout, TimeUnit unit) throws InterruptedException {
+        if (queue.offer(item)) {
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        boolean added = queue.offer(item, timeout, unit);
+        producerWaitNanos += System.nanoTime() - startNanos;
+        return added;
+    }
+
+    /**
+     * Retrieves and removes the next item in the queue, waiting for one if necessary. Should only be called by the
+     * consuming thread.
+     *
+     * @return                      the item
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    @SuppressFBWarnings("VO_VOLATILE_INCREMENT") // Only updated by one thread
+    public T take() throws InterruptedException {
+        T item = queue.poll();
+        if (item == null) {
+            long startNanos = System.nanoTime();
+            item = queue.take();
+            consumerWaitNanos += System.nanoTime() - startNanos;
+        }
+        itemsPassed++;
+        return item;
+    }
+
+    /**
+     * Removes all items currently in the queue, so that a producer waiting for space can continue.
+     */
+    public void clear() {
+        queue.clear();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getItemsPassed() {
+        return itemsPassed;
+    }
+
+    public long getProducerWaitMillis() {
+        return producerWaitNanos / 1_000_000;
+    }
+
+    public long getConsumerWaitMillis() {
+        return consumerWaitNanos / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": passed " + itemsPassed + " items, producer waited " + getProducerWaitMillis()
+                + "ms for space, consumer waited " + getConsumerWaitMillis() + "ms for items";
+    }
+}
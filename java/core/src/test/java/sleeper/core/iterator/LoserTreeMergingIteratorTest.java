@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.iterator;
+
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.record.Record;
+import sleeper.core.record.RecordComparator;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoserTreeMergingIteratorTest {
+
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new LongType()))
+            .sortKeyFields(new Field("sort", new LongType()))
+            .valueFields(new Field("value", new StringType()))
+            .build();
+
+    @Test
+    public void shouldMergeSortedIterators() {
+        // Given
+        List<Record> list1 = List.of(record(1, 1, "a"), record(1, 2, "b"), record(3, 1, "c"));
+        List<Record> list2 = List.of(record(1, 1, "d"), record(2, 5, "e"), record(4, 5, "f"), record(5, 5, "g"));
+
+        // When
+        LoserTreeMergingIterator iterator = new LoserTreeMergingIterator(schema, List.of(
+                new WrappedIterator<>(list1.iterator()), new WrappedIterator<>(list2.iterator())));
+
+        // Then
+        assertThat(iterator).toIterable().containsExactly(
+                record(1, 1, "a"), record(1, 1, "d"), record(1, 2, "b"), record(2, 5, "e"),
+                record(3, 1, "c"), record(4, 5, "f"), record(5, 5, "g"));
+        assertThat(iterator.getNumberOfRecordsRead()).isEqualTo(7L);
+        assertThat(iterator.getNumberOfRecordsReadPerInput()).containsExactly(3L, 4L);
+    }
+
+    @Test
+    public void shouldReturnEqualRecordsInOrderOfInputs() {
+        // Given
+        List<CloseableIterator<Record>> inputs = List.of(
+                new WrappedIterator<>(List.of(record(1, 1, "c")).iterator()),
+                new WrappedIterator<>(List.of(record(1, 1, "b")).iterator()),
+                new WrappedIterator<>(List.of(record(1, 1, "a")).iterator()));
+
+        // When
+        LoserTreeMergingIterator iterator = new LoserTreeMergingIterator(schema, inputs);
+
+        // Then
+        assertThat(iterator).toIterable().containsExactly(
+                record(1, 1, "c"), record(1, 1, "b"), record(1, 1, "a"));
+    }
+
+    @Test
+    public void shouldMergeSingleIterator() {
+        // Given
+        List<Record> list = List.of(record(1, 1, "a"), record(2, 1, "b"));
+
+        // When
+        LoserTreeMergingIterator iterator = new LoserTreeMergingIterator(schema, List.of(new WrappedIterator<>(list.iterator())));
+
+        // Then
+        assertThat(iterator).toIterable().containsExactlyElementsOf(list);
+        assertThat(iterator.getNumberOfRecordsReadFromInput(0)).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldMergeNoIterators() {
+        // When
+        LoserTreeMergingIterator iterator = new LoserTreeMergingIterator(schema, List.of());
+
+        // Then
+        assertThat(iterator).toIterable().isEmpty();
+        assertThat(iterator.getNumberOfRecordsRead()).isZero();
+    }
+
+    @Test
+    public void shouldMergeEmptyAndNonEmptyIterators() {
+        // Given
+        List<CloseableIterator<Record>> inputs = List.of(
+                new WrappedIterator<>(Collections.emptyIterator()),
+                new WrappedIterator<>(List.of(record(2, 1, "b")).iterator()),
+                new WrappedIterator<>(Collections.emptyIterator()),
+                new WrappedIterator<>(List.of(record(1, 1, "a")).iterator()),
+                new WrappedIterator<>(Collections.emptyIterator()));
+
+        // When
+        LoserTreeMergingIterator iterator = new LoserTreeMergingIterator(schema, inputs);
+
+        // Then
+        assertThat(iterator).toIterable().containsExactly(record(1, 1, "a"), record(2, 1, "b"));
+        assertThat(iterator.getNumberOfRecordsReadPerInput()).containsExactly(0L, 1L, 0L, 1L, 0L);
+    }
+
+    @Test
+    public void shouldMergeSameAsPriorityQueueForManyRandomIterators() {
+        // Given
+        Random random = new Random(0);
+        List<List<Record>> lists = IntStream.range(0, 37)
+                .mapToObj(i -> randomSortedRecords(random, random.nextInt(50)))
+                .collect(Collectors.toList());
+
+        // When
+        List<Record> loserTreeOutput = new ArrayList<>();
+        new LoserTreeMergingIterator(schema, iterators(lists)).forEachRemaining(loserTreeOutput::add);
+        List<Record> priorityQueueOutput = new ArrayList<>();
+        new MergingIterator(schema, iterators(lists)).forEachRemaining(priorityQueueOutput::add);
+
+        // Then
+        assertThat(loserTreeOutput)
+                .isSortedAccordingTo(new RecordComparator(schema))
+                .containsExactlyInAnyOrderElementsOf(priorityQueueOutput);
+    }
+
+    private List<Record> randomSortedRecords(Random random, int numRecords) {
+        return IntStream.range(0, numRecords)
+                .mapToObj(i -> record(random.nextInt(100), random.nextInt(3), "value-" + random.nextInt()))
+                .sorted(new RecordComparator(schema))
+                .collect(Collectors.toList());
+    }
+
+    private static List<CloseableIterator<Record>> iterators(List<List<Record>> lists) {
+        return lists.stream()
+                .map(list -> new WrappedIterator<>(list.iterator()))
+                .collect(Collectors.toList());
+    }
+
+    private static Record record(long key, long sort, String value) {
+        Record record = new Record();
+        record.put("key", key);
+        record.put("sort", sort);
+        record.put("value", value);
+        return record;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.iterator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.record.Record;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ParallelConcatenatingIteratorTest {
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnRecordsFromEachSupplierInOrder() throws Exception {
+        // Given
+        List<List<Record>> partitions = List.of(records(0, 25), records(25, 30), records(30, 30), records(30, 52));
+
+        // When
+        try (ParallelConcatenatingIterator iterator = new ParallelConcatenatingIterator(
+                suppliers(partitions), executorService, 2, 5, 2)) {
+
+            // Then
+            assertThat(iterator).toIterable().containsExactlyElementsOf(records(0, 52));
+        }
+    }
+
+    @Test
+    public void shouldReadAheadFromSeveralSuppliersAtOnce() throws Exception {
+        // Given
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<Supplier<CloseableIterator<Record>>> suppliers = List.of(
+                awaitOthersThenSupply(bothStarted, records(0, 10)),
+                awaitOthersThenSupply(bothStarted, records(10, 20)));
+
+        // When
+        try (ParallelConcatenatingIterator iterator = new ParallelConcatenatingIterator(
+                suppliers, executorService, 2, 5, 2)) {
+
+            // Then
+            assertThat(iterator).toIterable().containsExactlyElementsOf(records(0, 20));
+        }
+    }
+
+    @Test
+    public void shouldRethrowFailureFromSupplier() throws Exception {
+        // Given
+        List<Supplier<CloseableIterator<Record>>> suppliers = List.of(
+                () -> new WrappedIterator<>(records(0, 3).iterator()),
+                () -> {
+                    throw new IllegalStateException("Failed creating iterator");
+                });
+
+        // When
+        try (ParallelConcatenatingIterator iterator = new ParallelConcatenatingIterator(
+                suppliers, executorService, 2, 5, 2)) {
+            List<Record> read = new ArrayList<>();
+            read.add(iterator.next());
+            read.add(iterator.next());
+            read.add(iterator.next());
+
+            // Then
+            assertThat(read).containsExactlyElementsOf(records(0, 3));
+            assertThatThrownBy(iterator::hasNext)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Failed creating iterator");
+        }
+    }
+
+    private static Supplier<CloseableIterator<Record>> awaitOthersThenSupply(CountDownLatch latch, List<Record> records) {
+        return () -> {
+            latch.countDown();
+            try {
+                if (!latch.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Suppliers were not read at the same time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return new WrappedIterator<>(records.iterator());
+        };
+    }
+
+    private static List<Supplier<CloseableIterator<Record>>> suppliers(List<List<Record>> partitions) {
+        return partitions.stream()
+                .<Supplier<CloseableIterator<Record>>>map(records -> () -> new WrappedIterator<>(records.iterator()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Record> records(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new Record(Map.of("key", i)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.iterator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReadAheadIteratorTest {
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnAllItemsInOrderAcrossBatches() throws Exception {
+        // Given
+        List<Integer> items = IntStream.range(0, 25).boxed().collect(Collectors.toList());
+
+        // When
+        try (ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(
+                new WrappedIterator<>(items.iterator()), executorService, "test", 10, 2)) {
+
+            // Then
+            assertThat(iterator).toIterable().containsExactlyElementsOf(items);
+        }
+    }
+
+    @Test
+    public void shouldReturnNoItemsFromEmptySource() throws Exception {
+        try (ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(
+                new WrappedIterator<>(List.<Integer>of().iterator()), executorService, "test", 10, 2)) {
+            assertThat(iterator).isExhausted();
+        }
+    }
+
+    @Test
+    public void shouldRethrowFailureAfterItemsReadBeforeIt() throws Exception {
+        // Given
+        Iterator<Integer> failing = new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if (next == 3) {
+                    throw new IllegalStateException("Failed reading");
+                }
+                return next++;
+            }
+        };
+
+        // When
+        try (ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(
+                new WrappedIterator<>(failing), executorService, "test", 2, 2)) {
+
+            // Then
+            assertThat(iterator.next()).isEqualTo(0);
+            assertThat(iterator.next()).isEqualTo(1);
+            assertThatThrownBy(iterator::hasNext)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Failed reading");
+        }
+    }
+
+    @Test
+    public void shouldRethrowErrorRatherThanEndingInput() throws Exception {
+        // Given
+        Iterator<Integer> failing = new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if (next == 3) {
+                    throw new Error("Failed reading");
+                }
+                return next++;
+            }
+        };
+
+        // When
+        try (ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(
+                new WrappedIterator<>(failing), executorService, "test", 2, 2)) {
+
+            // Then
+            assertThat(iterator.next()).isEqualTo(0);
+            assertThat(iterator.next()).isEqualTo(1);
+            assertThatThrownBy(iterator::hasNext)
+                    .isExactlyInstanceOf(Error.class)
+                    .hasMessage("Failed reading");
+        }
+    }
+
+    @Test
+    public void shouldCloseSourceWhenClosedBeforeAllItemsRead() throws Exception {
+        // Given
+        TrackingCloseIterator source = new TrackingCloseIterator(
+                IntStream.range(0, 1000).boxed().collect(Collectors.toList()).iterator());
+        ReadAheadIterator<Integer> iterator = new ReadAheadIterator<>(source, executorService, "test", 10, 1);
+        iterator.next();
+
+        // When
+        iterator.close();
+
+        // Then
+        assertThat(source.closed).isTrue();
+    }
+
+    private static class TrackingCloseIterator implements CloseableIterator<Integer> {
+        private final Iterator<Integer> iterator;
+        private boolean closed;
+
+        TrackingCloseIterator(Iterator<Integer> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+        }
+    }
+}
@@ -24,6 +24,8 @@ import sleeper.core.schema.type.IntType;
 import sleeper.core.schema.type.LongType;
 import sleeper.core.schema.type.StringType;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class RecordComparatorTest {
@@ -315,4 +317,124 @@ public class RecordComparatorTest {
         assertThat(comparison6).isGreaterThan(0);
         assertThat(comparison7).isZero();
     }
+
+    @Test
+    public void shouldCompareCorrectlyWithStringRowKeyAndLongSortKey() {
+        // Given
+        Schema schema = Schema.builder()
+                .rowKeyFields(new Field("key", new StringType()))
+                .sortKeyFields(new Field("sort", new LongType()))
+                .valueFields(new Field("value", new StringType()))
+                .build();
+        Record record1 = new Record();
+        record1.put("key", "A");
+        record1.put("sort", 10L);
+        record1.put("value", "value1");
+        Record record2 = new Record();
+        record2.put("key", "A");
+        record2.put("sort", 2L);
+        record2.put("value", "value2");
+        Record record3 = new Record();
+        record3.put("key", "B");
+        record3.put("sort", 1L);
+        record3.put("value", "value3");
+        RecordComparator comparator = new RecordComparator(schema);
+
+        // When
+        int comparison1 = comparator.compare(record1, record2);
+        int comparison2 = comparator.compare(record2, record3);
+        int comparison3 = comparator.compare(record1, record3);
+
+        // Then
+        assertThat(comparison1).isGreaterThan(0);
+        assertThat(comparison2).isLessThan(0);
+        assertThat(comparison3).isLessThan(0);
+    }
+
+    @Test
+    public void shouldOrderShorterByteArrayFirstWhenItIsAPrefix() {
+        // Given
+        Schema schema = Schema.builder()
+                .rowKeyFields(new Field("key", new ByteArrayType()))
+                .build();
+        Record record1 = new Record();
+        record1.put("key", new byte[]{1, 2});
+        Record record2 = new Record();
+        record2.put("key", new byte[]{1, 2, 0});
+        Record record3 = new Record();
+        record3.put("key", new byte[]{-1});
+        RecordComparator comparator = new RecordComparator(schema);
+
+        // When
+        int comparison1 = comparator.compare(record1, record2);
+        int comparison2 = comparator.compare(record3, record1);
+
+        // Then
+        assertThat(comparison1).isLessThan(0);
+        assertThat(comparison2).isLessThan(0);
+    }
+
+    @Test
+    public void shouldOrderNullSortKeyAfterNonNullSortKey() {
+        // Given
+        Schema schema = Schema.builder()
+                .rowKeyFields(new Field("key", new IntType()))
+                .sortKeyFields(new Field("sort1", new StringType()), new Field("sort2", new IntType()))
+                .build();
+        Record record1 = new Record();
+        record1.put("key", 1);
+        record1.put("sort1", null);
+        record1.put("sort2", 1);
+        Record record2 = new Record();
+        record2.put("key", 1);
+        record2.put("sort1", "A");
+        record2.put("sort2", 1);
+        Record record3 = new Record();
+        record3.put("key", 1);
+        record3.put("sort1", null);
+        record3.put("sort2", 2);
+        RecordComparator comparator = new RecordComparator(schema);
+
+        // When
+        int comparison1 = comparator.compare(record1, record2);
+        int comparison2 = comparator.compare(record1, record3);
+        int comparison3 = comparator.compare(record1, record1);
+
+        // Then
+        assertThat(comparison1).isGreaterThan(0);
+        assertThat(comparison2).isLessThan(0);
+        assertThat(comparison3).isZero();
+    }
+
+    @Test
+    public void shouldCompareRecordsWithDifferentLayouts() {
+        // Given
+        Schema schema = Schema.builder()
+                .rowKeyFields(new Field("key", new StringType()))
+                .sortKeyFields(new Field("sort", new LongType()))
+                .valueFields(new Field("value", new StringType()))
+                .build();
+        Record record1 = new Record(RecordLayout.forSchema(schema));
+        record1.put("key", "A");
+        record1.put("sort", 1L);
+        record1.put("value", "value1");
+        Record record2 = new Record(RecordLayout.forFieldNames(List.of("value", "sort", "key")));
+        record2.put("key", "A");
+        record2.put("sort", 2L);
+        record2.put("value", "value2");
+        Record record3 = new Record();
+        record3.put("key", "A");
+        record3.put("sort", 1L);
+        RecordComparator comparator = new RecordComparator(schema);
+
+        // When
+        int comparison1 = comparator.compare(record1, record2);
+        int comparison2 = comparator.compare(record2, record3);
+        int comparison3 = comparator.compare(record3, record1);
+
+        // Then
+        assertThat(comparison1).isLessThan(0);
+        assertThat(comparison2).isGreaterThan(0);
+        assertThat(comparison3).isZero();
+    }
 }
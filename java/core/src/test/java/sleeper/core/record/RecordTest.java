@@ -17,6 +17,10 @@ package sleeper.core.record;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.UUID;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class RecordTest {
@@ -99,4 +103,104 @@ public class RecordTest {
         assertThat(hashCode2).isEqualTo(hashCode1);
         assertThat(hashCode3).isNotEqualTo(hashCode1);
     }
+
+    @Test
+    public void shouldReadAndWriteFieldsInLayoutByNameOrPosition() {
+        // Given
+        RecordLayout layout = RecordLayout.forFieldNames(List.of("key", "value"));
+        Record record = new Record(layout);
+
+        // When
+        record.put("key", "A");
+        record.put(1, 10L);
+
+        // Then
+        assertThat(record.get(0)).isEqualTo("A");
+        assertThat(record.get("value")).isEqualTo(10L);
+        assertThat(record.getKeys()).containsExactly("key", "value");
+    }
+
+    @Test
+    public void shouldHoldFieldsOutsideLayout() {
+        // Given
+        Record record = new Record(RecordLayout.forFieldNames(List.of("key")));
+
+        // When
+        record.put("key", "A");
+        record.put("other", 1);
+
+        // Then
+        assertThat(record.get("other")).isEqualTo(1);
+        assertThat(record.getKeys()).containsExactlyInAnyOrder("key", "other");
+    }
+
+    @Test
+    public void shouldRemoveFieldInLayout() {
+        // Given
+        Record record = new Record(RecordLayout.forFieldNames(List.of("key", "value")));
+        record.put("key", "A");
+        record.put("value", "B");
+
+        // When
+        record.remove("value");
+
+        // Then
+        assertThat(record.get("value")).isNull();
+        assertThat(record.getKeys()).containsExactly("key");
+    }
+
+    @Test
+    public void shouldBeEqualToRecordWithoutLayoutWithSameValues() {
+        // Given
+        Record withLayout = new Record(RecordLayout.forFieldNames(List.of("key", "value")));
+        withLayout.put("key", new byte[]{1, 2});
+        withLayout.put("value", 1);
+        Record withoutLayout = new Record();
+        withoutLayout.put("key", new byte[]{1, 2});
+        withoutLayout.put("value", 1);
+
+        // When / Then
+        assertThat(withLayout).isEqualTo(withoutLayout);
+        assertThat(withLayout.hashCode()).isEqualTo(withoutLayout.hashCode());
+        assertThat(withLayout).hasToString(withoutLayout.toString());
+    }
+
+    @Test
+    public void shouldCopyRecordWithLayoutIndependently() {
+        // Given
+        Record record = new Record(RecordLayout.forFieldNames(List.of("key")));
+        record.put("key", "A");
+
+        // When
+        Record copy = new Record(record);
+        record.put("key", "B");
+
+        // Then
+        assertThat(copy.get("key")).isEqualTo("A");
+        assertThat(copy.getLayout()).isSameAs(record.getLayout());
+    }
+
+    @Test
+    public void shouldShareLayoutForSameFieldNames() {
+        assertThat(RecordLayout.forFieldNames(List.of("a", "b")))
+                .isSameAs(RecordLayout.forFieldNames(List.of("a", "b")))
+                .isNotSameAs(RecordLayout.forFieldNames(List.of("b", "a")));
+    }
+
+    @Test
+    public void shouldNotHoldLayoutWhichIsNoLongerUsed() throws Exception {
+        // Given
+        List<String> fieldNames = List.of(UUID.randomUUID().toString());
+        WeakReference<RecordLayout> layout = new WeakReference<>(RecordLayout.forFieldNames(fieldNames));
+
+        // When
+        for (int i = 0; i < 100 && RecordLayout.isLayoutHeld(fieldNames); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // Then
+        assertThat(layout.get()).isNull();
+        assertThat(RecordLayout.isLayoutHeld(fieldNames)).isFalse();
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+public class InMemoryTransactionLogSnapshotStore<T> implements TransactionLogSnapshotStore<T> {
+
+    private final UnaryOperator<T> copyState;
+    private final List<TransactionLogSnapshot<T>> snapshots = new ArrayList<>();
+
+    private InMemoryTransactionLogSnapshotStore(UnaryOperator<T> copyState) {
+        this.copyState = copyState;
+    }
+
+    public static InMemoryTransactionLogSnapshotStore<StateStoreFiles> files() {
+        return new InMemoryTransactionLogSnapshotStore<>(StateStoreFiles::copy);
+    }
+
+    public static InMemoryTransactionLogSnapshotStore<StateStorePartitions> partitions() {
+        return new InMemoryTransactionLogSnapshotStore<>(StateStorePartitions::copy);
+    }
+
+    @Override
+    public synchronized Optional<TransactionLogSnapshot<T>> loadLatestSnapshot() {
+        return snapshots.stream()
+                .reduce((first, second) -> second.getTransactionNumber() > first.getTransactionNumber() ? second : first)
+                .map(snapshot -> new TransactionLogSnapshot<>(snapshot.getTransactionNumber(), copyState.apply(snapshot.getState())));
+    }
+
+    @Override
+    public synchronized void saveSnapshot(TransactionLogSnapshot<T> snapshot) {
+        snapshots.add(new TransactionLogSnapshot<>(snapshot.getTransactionNumber(), copyState.apply(snapshot.getState())));
+    }
+
+    @Override
+    public synchronized void deleteSnapshotsBefore(long transactionNumber) {
+        snapshots.removeIf(snapshot -> snapshot.getTransactionNumber() < transactionNumber);
+    }
+
+    @Override
+    public synchronized void clear() {
+        snapshots.clear();
+    }
+
+    public synchronized List<Long> getSnapshotTransactionNumbers() {
+        List<Long> numbers = new ArrayList<>();
+        snapshots.forEach(snapshot -> numbers.add(snapshot.getTransactionNumber()));
+        return numbers;
+    }
+}
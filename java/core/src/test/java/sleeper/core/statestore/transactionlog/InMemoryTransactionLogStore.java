@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+public class InMemoryTransactionLogStore implements TransactionLogStore {
+
+    private final TreeMap<Long, TransactionLogEntry> transactions = new TreeMap<>();
+    private Runnable beforeNextAddTransaction = () -> {
+    };
+
+    @Override
+    public void addTransaction(TransactionLogEntry entry) throws DuplicateTransactionNumberException {
+        Runnable beforeAdd = beforeNextAddTransaction;
+        beforeNextAddTransaction = () -> {
+        };
+        beforeAdd.run();
+        synchronized (transactions) {
+            if (transactions.containsKey(entry.getTransactionNumber())) {
+                throw new DuplicateTransactionNumberException(entry.getTransactionNumber());
+            }
+            transactions.put(entry.getTransactionNumber(), entry);
+        }
+    }
+
+    @Override
+    public Stream<TransactionLogEntry> readTransactionsAfter(long lastTransactionNumber) {
+        synchronized (transactions) {
+            return new ArrayList<>(transactions.tailMap(lastTransactionNumber, false).values()).stream();
+        }
+    }
+
+    @Override
+    public void deleteTransactionsAtOrBefore(long transactionNumber) {
+        synchronized (transactions) {
+            transactions.headMap(transactionNumber, true).clear();
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (transactions) {
+            transactions.clear();
+        }
+    }
+
+    public List<TransactionLogEntry> getTransactions() {
+        synchronized (transactions) {
+            return new ArrayList<>(transactions.values());
+        }
+    }
+
+    /**
+     * Runs an action before the next transaction is added, e.g. to simulate another process adding a transaction
+     * at the same time.
+     *
+     * @param action the action
+     */
+    public void beforeNextAddTransaction(Runnable action) {
+        beforeNextAddTransaction = action;
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.partition.Partition;
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.FileInfo;
+import sleeper.core.statestore.FileInfoFactory;
+import sleeper.core.statestore.StateStore;
+import sleeper.core.statestore.StateStoreException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static sleeper.core.schema.SchemaTestHelper.schemaWithKey;
+import static sleeper.core.statestore.AssignJobIdRequest.assignJobOnFiles;
+
+public class TransactionLogStateStoreTest {
+
+    private static final Instant UPDATE_TIME = Instant.parse("2023-10-04T14:08:00Z");
+
+    private final Schema schema = schemaWithKey("key");
+    private final InMemoryTransactionLogStore filesLog = new InMemoryTransactionLogStore();
+    private final InMemoryTransactionLogStore partitionsLog = new InMemoryTransactionLogStore();
+    private final InMemoryTransactionLogSnapshotStore<StateStoreFiles> filesSnapshots = InMemoryTransactionLogSnapshotStore.files();
+    private final InMemoryTransactionLogSnapshotStore<StateStorePartitions> partitionsSnapshots = InMemoryTransactionLogSnapshotStore.partitions();
+    private final PartitionTree tree = new PartitionsBuilder(schema)
+            .rootFirst("root")
+            .splitToNewChildren("root", "L", "R", 100L)
+            .buildTree();
+    private final FileInfoFactory factory = FileInfoFactory.builder()
+            .schema(schema).partitionTree(tree).lastStateStoreUpdate(UPDATE_TIME).build();
+    private StateStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = createStore(0);
+        store.initialise(tree.getAllPartitions());
+    }
+
+    @Nested
+    class Files {
+
+        @Test
+        void shouldAddAndRetrieveActiveFiles() throws Exception {
+            // Given
+            FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+            FileInfo file2 = factory.partitionFile("R", "file2", 200L);
+
+            // When
+            store.addFiles(List.of(file1, file2));
+
+            // Then
+            assertThat(store.getActiveFiles()).containsExactly(file1, file2);
+            assertThat(store.getActiveFilesWithNoJobId()).containsExactly(file1, file2);
+            assertThat(store.getPartitionToActiveFilesMap()).isEqualTo(Map.of(
+                    "L", List.of("file1"), "R", List.of("file2")));
+            assertThat(store.hasNoFiles()).isFalse();
+        }
+
+        @Test
+        void shouldReplaceFilesAfterCompaction() throws Exception {
+            // Given
+            FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+            FileInfo file2 = factory.partitionFile("L", "file2", 200L);
+            FileInfo output = factory.partitionFile("L", "output", 300L);
+            store.addFiles(List.of(file1, file2));
+
+            // When
+            store.atomicallyUpdateFilesToReadyForGCAndCreateNewActiveFile(List.of(file1, file2), output);
+
+            // Then
+            store.fixTime(UPDATE_TIME.plus(Duration.ofMinutes(1)));
+            assertThat(store.getActiveFiles()).containsExactly(output);
+            assertThat(store.getReadyForGCFiles()).toIterable()
+                    .extracting(FileInfo::getFilename, FileInfo::getFileStatus)
+                    .containsExactly(
+                            tuple("file1", FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION),
+                            tuple("file2", FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION));
+        }
+
+        @Test
+        void shouldFailToReplaceFileWhichIsNotActive() throws Exception {
+            // Given
+            FileInfo file = factory.partitionFile("L", "file", 100L);
+            FileInfo output = factory.partitionFile("L", "output", 100L);
+            store.addFile(file);
+            store.atomicallyUpdateFilesToReadyForGCAndCreateNewActiveFile(List.of(file), output);
+            int transactionsBefore = filesLog.getTransactions().size();
+
+            // When / Then
+            assertThatThrownBy(() -> store.atomicallyUpdateFilesToReadyForGCAndCreateNewActiveFile(List.of(file), output))
+                    .isInstanceOf(StateStoreException.class);
+            assertThat(filesLog.getTransactions()).hasSize(transactionsBefore);
+        }
+
+        @Test
+        void shouldAssignJobIdOnlyOnce() throws Exception {
+            // Given
+            FileInfo file = factory.partitionFile("L", "file", 100L);
+            store.addFile(file);
+
+            // When
+            store.atomicallyUpdateJobStatusOfFiles("job1", List.of(file));
+
+            // Then
+            assertThat(store.getActiveFiles()).extracting(FileInfo::getJobId).containsExactly("job1");
+            assertThat(store.getActiveFilesWithNoJobId()).isEmpty();
+            assertThatThrownBy(() -> store.atomicallyUpdateJobStatusOfFiles("job2", List.of(file)))
+                    .isInstanceOf(StateStoreException.class);
+        }
+
+        @Test
+        void shouldAssignManyJobsInOneTransaction() throws Exception {
+            // Given
+            FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+            FileInfo file2 = factory.partitionFile("L", "file2", 100L);
+            FileInfo file3 = factory.partitionFile("R", "file3", 100L);
+            store.addFiles(List.of(file1, file2, file3));
+            int transactionsBefore = filesLog.getTransactions().size();
+
+            // When
+            store.atomicallyAssignJobIdsToFiles(List.of(
+                    assignJobOnFiles("job1", List.of(file1, file2)),
+                    assignJobOnFiles("job2", List.of(file3))));
+
+            // Then
+            assertThat(store.getActiveFiles())
+                    .extracting(FileInfo::getFilename, FileInfo::getJobId)
+                    .containsExactly(
+                            tuple("file1", "job1"),
+                            tuple("file2", "job1"),
+                            tuple("file3", "job2"));
+            assertThat(filesLog.getTransactions()).hasSize(transactionsBefore + 1);
+        }
+
+        @Test
+        void shouldFailToAssignSameFileToTwoJobs() throws Exception {
+            // Given
+            FileInfo file = factory.partitionFile("L", "file", 100L);
+            store.addFile(file);
+
+            // When / Then
+            assertThatThrownBy(() -> store.atomicallyAssignJobIdsToFiles(List.of(
+                    assignJobOnFiles("job1", List.of(file)),
+                    assignJobOnFiles("job2", List.of(file)))))
+                    .isInstanceOf(StateStoreException.class);
+            assertThat(store.getActiveFilesWithNoJobId()).containsExactly(file);
+        }
+
+        @Test
+        void shouldDeleteFileReadyForGC() throws Exception {
+            // Given
+            FileInfo file = factory.partitionFile("L", "file", 100L);
+            FileInfo output = factory.partitionFile("L", "output", 100L);
+            store.addFile(file);
+            store.atomicallyUpdateFilesToReadyForGCAndCreateNewActiveFile(List.of(file), output);
+
+            // When
+            store.deleteReadyForGCFile(file);
+
+            // Then
+            assertThat(store.getReadyForGCFiles()).isExhausted();
+            assertThatThrownBy(() -> store.deleteReadyForGCFile(output))
+                    .isInstanceOf(StateStoreException.class);
+        }
+    }
+
+    @Nested
+    class Partitions {
+
+        @Test
+        void shouldSplitLeafPartition() throws Exception {
+            // Given
+            PartitionTree splitTree = new PartitionsBuilder(schema)
+                    .rootFirst("root")
+                    .splitToNewChildren("root", "L", "R", 100L)
+                    .splitToNewChildren("L", "LL", "LR", 50L)
+                    .buildTree();
+
+            // When
+            store.atomicallyUpdatePartitionAndCreateNewOnes(
+                    splitTree.getPartition("L"), splitTree.getPartition("LL"), splitTree.getPartition("LR"));
+
+            // Then
+            assertThat(store.getAllPartitions()).containsExactlyInAnyOrderElementsOf(splitTree.getAllPartitions());
+            assertThat(store.getLeafPartitions()).extracting(Partition::getId)
+                    .containsExactlyInAnyOrder("LL", "LR", "R");
+        }
+
+        @Test
+        void shouldFailToSplitPartitionWhichIsNotALeaf() {
+            // Given
+            PartitionTree splitTree = new PartitionsBuilder(schema)
+                    .rootFirst("root")
+                    .splitToNewChildren("root", "A", "B", 100L)
+                    .buildTree();
+
+            // When / Then
+            assertThatThrownBy(() -> store.atomicallyUpdatePartitionAndCreateNewOnes(
+                    splitTree.getPartition("root"), splitTree.getPartition("A"), splitTree.getPartition("B")))
+                    .isInstanceOf(StateStoreException.class);
+        }
+    }
+
+    @Nested
+    class SharedLog {
+
+        @Test
+        void shouldSeeUpdatesFromAnotherProcess() throws Exception {
+            // Given
+            StateStore otherStore = createStore(0);
+            FileInfo file = factory.partitionFile("L", "file", 100L);
+            assertThat(store.getActiveFiles()).isEmpty();
+
+            // When
+            otherStore.addFile(file);
+
+            // Then
+            assertThat(store.getActiveFiles()).containsExactly(file);
+        }
+
+        @Test
+        void shouldRetryWhenAnotherProcessAddsTransactionFirst() throws Exception {
+            // Given
+            StateStore otherStore = createStore(0);
+            FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+            FileInfo file2 = factory.partitionFile("R", "file2", 100L);
+            store.getActiveFiles();
+            filesLog.beforeNextAddTransaction(() -> addFile(otherStore, file1));
+
+            // When
+            store.addFile(file2);
+
+            // Then
+            assertThat(store.getActiveFiles()).containsExactly(file1, file2);
+            assertThat(otherStore.getActiveFiles()).containsExactly(file1, file2);
+        }
+
+        @Test
+        void shouldNotApplyUpdateWhichIsInvalidAfterAnotherProcessUpdatedFirst() throws Exception {
+            // Given
+            StateStore otherStore = createStore(0);
+            FileInfo file = factory.partitionFile("L", "file", 100L);
+            store.addFile(file);
+            filesLog.beforeNextAddTransaction(() -> assignJob(otherStore, "job1", file));
+
+            // When / Then
+            assertThatThrownBy(() -> store.atomicallyUpdateJobStatusOfFiles("job2", List.of(file)))
+                    .isInstanceOf(StateStoreException.class);
+            assertThat(store.getActiveFiles()).extracting(FileInfo::getJobId).containsExactly("job1");
+        }
+    }
+
+    @Nested
+    class Snapshots {
+
+        @Test
+        void shouldCreateSnapshotsAndDeleteTransactionsBeforePreviousSnapshot() throws Exception {
+            // Given
+            StateStore snapshottingStore = createStore(2);
+            FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+            FileInfo file2 = factory.partitionFile("L", "file2", 100L);
+            FileInfo file3 = factory.partitionFile("L", "file3", 100L);
+
+            // When
+            snapshottingStore.addFile(file1);
+            snapshottingStore.addFile(file2);
+            snapshottingStore.addFile(file3);
+
+            // Then
+            assertThat(filesSnapshots.getSnapshotTransactionNumbers()).containsExactly(2L, 4L);
+            assertThat(filesLog.getTransactions())
+                    .extracting(TransactionLogEntry::getTransactionNumber)
+                    .containsExactly(3L, 4L);
+            assertThat(createStore(0).getActiveFiles()).containsExactly(file1, file2, file3);
+        }
+
+        @Test
+        void shouldLoadNewSnapshotWhenTransactionsWereDeletedSinceLastRead() throws Exception {
+            // Given
+            StateStore snapshottingStore = createStore(1);
+            FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+            FileInfo file2 = factory.partitionFile("L", "file2", 100L);
+            FileInfo file3 = factory.partitionFile("L", "file3", 100L);
+            snapshottingStore.addFile(file1);
+            assertThat(store.getActiveFiles()).containsExactly(file1);
+
+            // When
+            snapshottingStore.addFile(file2);
+            snapshottingStore.addFile(file3);
+
+            // Then
+            assertThat(filesLog.getTransactions())
+                    .extracting(TransactionLogEntry::getTransactionNumber)
+                    .containsExactly(4L);
+            assertThat(store.getActiveFiles()).containsExactly(file1, file2, file3);
+        }
+
+        @Test
+        void shouldDeleteSnapshotsBeforePreviousSnapshot() throws Exception {
+            // Given
+            TransactionLogSnapshotCreator<StateStoreFiles> creator = new TransactionLogSnapshotCreator<>(
+                    filesLog, filesSnapshots, StateStoreFiles::new);
+            FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+            FileInfo file2 = factory.partitionFile("L", "file2", 100L);
+            FileInfo file3 = factory.partitionFile("L", "file3", 100L);
+
+            // When
+            store.addFile(file1);
+            creator.createSnapshot();
+            store.addFile(file2);
+            creator.createSnapshot();
+            store.addFile(file3);
+            creator.createSnapshot();
+
+            // Then
+            assertThat(filesSnapshots.getSnapshotTransactionNumbers()).containsExactly(3L, 4L);
+            assertThat(createStore(0).getActiveFiles()).containsExactly(file1, file2, file3);
+        }
+
+        @Test
+        void shouldNotCreateSnapshotWhenNoTransactionsSinceLastSnapshot() throws Exception {
+            // Given
+            TransactionLogSnapshotCreator<StateStoreFiles> creator = new TransactionLogSnapshotCreator<>(
+                    filesLog, filesSnapshots, StateStoreFiles::new);
+            creator.createSnapshot();
+
+            // When / Then
+            assertThat(creator.createSnapshot()).isEmpty();
+            assertThat(filesSnapshots.getSnapshotTransactionNumbers()).containsExactly(1L);
+        }
+    }
+
+    private StateStore createStore(long snapshotInterval) {
+        StateStore stateStore = TransactionLogStateStore.builder()
+                .filesLogStore(filesLog)
+                .partitionsLogStore(partitionsLog)
+                .filesSnapshotStore(filesSnapshots)
+                .partitionsSnapshotStore(partitionsSnapshots)
+                .schema(schema)
+                .maxRetryWaitMillisPerAttempt(0)
+                .snapshotInterval(snapshotInterval)
+                .snapshotExecutor(Runnable::run)
+                .build();
+        stateStore.fixTime(UPDATE_TIME);
+        return stateStore;
+    }
+
+    private static void addFile(StateStore stateStore, FileInfo file) {
+        try {
+            stateStore.addFile(file);
+        } catch (StateStoreException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void assignJob(StateStore stateStore, String jobId, FileInfo file) {
+        try {
+            stateStore.atomicallyUpdateJobStatusOfFiles(jobId, List.of(file));
+        } catch (StateStoreException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
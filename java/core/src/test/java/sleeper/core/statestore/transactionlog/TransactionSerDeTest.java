@@ -0,0 +1,117 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.core.statestore.transactionlog;
+
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.FileInfo;
+import sleeper.core.statestore.FileInfoFactory;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.core.schema.SchemaTestHelper.schemaWithKey;
+
+public class TransactionSerDeTest {
+
+    private final Schema schema = schemaWithKey("key");
+    private final PartitionTree tree = new PartitionsBuilder(schema)
+            .rootFirst("root")
+            .splitToNewChildren("root", "L", "R", 100L)
+            .buildTree();
+    private final FileInfoFactory factory = FileInfoFactory.builder()
+            .schema(schema).partitionTree(tree)
+            .lastStateStoreUpdate(Instant.parse("2023-10-04T14:08:00Z"))
+            .build();
+    private final TransactionSerDe serDe = new TransactionSerDe(schema);
+
+    @Test
+    void shouldSerDeAddFilesTransaction() {
+        // Given
+        StateStoreTransaction<?> transaction = new AddFilesTransaction(List.of(
+                factory.partitionFile("L", "file1", 100L),
+                factory.partitionFile("R", "file2", 200L)));
+
+        // When
+        String json = serDe.toJson(transaction);
+
+        // Then
+        assertThat(serDe.toTransaction(TransactionType.getType(transaction), json)).isEqualTo(transaction);
+    }
+
+    @Test
+    void shouldSerDeReplaceFilesTransaction() {
+        // Given
+        StateStoreTransaction<?> transaction = new ReplaceFilesTransaction(
+                List.of("file1", "file2"), List.of(factory.partitionFile("L", "output", 300L)), 1234L);
+
+        // When
+        String json = serDe.toJson(transaction);
+
+        // Then
+        assertThat(serDe.toTransaction(TransactionType.REPLACE_FILES, json)).isEqualTo(transaction);
+    }
+
+    @Test
+    void shouldSerDeSplitPartitionTransaction() {
+        // Given
+        PartitionTree splitTree = new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "L", "R", 100L)
+                .splitToNewChildren("L", "LL", "LR", 50L)
+                .buildTree();
+        StateStoreTransaction<?> transaction = new SplitPartitionTransaction(
+                splitTree.getPartition("L"), splitTree.getPartition("LL"), splitTree.getPartition("LR"));
+
+        // When
+        String json = serDe.toJson(transaction);
+
+        // Then
+        assertThat(serDe.toTransaction(TransactionType.SPLIT_PARTITION, json)).isEqualTo(transaction);
+    }
+
+    @Test
+    void shouldSerDeFilesSnapshot() {
+        // Given
+        FileInfo file = factory.partitionFile("L", "file", 100L);
+        StateStoreFiles files = new StateStoreFiles(List.of(file));
+        StringBuilder json = new StringBuilder();
+
+        // When
+        serDe.writeFiles(files, json);
+
+        // Then
+        assertThat(serDe.readFiles(new StringReader(json.toString()))).isEqualTo(files);
+    }
+
+    @Test
+    void shouldSerDePartitionsSnapshot() {
+        // Given
+        StateStorePartitions partitions = new StateStorePartitions(tree.getAllPartitions());
+        StringBuilder json = new StringBuilder();
+
+        // When
+        serDe.writePartitions(partitions, json);
+
+        // Then
+        assertThat(serDe.readPartitions(new StringReader(json.toString()))).isEqualTo(partitions);
+    }
+}
@@ -34,14 +34,21 @@ import sleeper.ingest.IngestResult;
 import sleeper.ingest.impl.partitionfilewriter.PartitionFileWriterFactory;
 import sleeper.ingest.impl.recordbatch.RecordBatch;
 import sleeper.ingest.impl.recordbatch.RecordBatchFactory;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRow;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRowSource;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
+import static sleeper.configuration.properties.instance.IngestProperty.INGEST_MAX_BATCHES_IN_FLIGHT;
 import static sleeper.configuration.properties.instance.IngestProperty.INGEST_PARTITION_REFRESH_PERIOD_IN_SECONDS;
 import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CLASS_NAME;
 import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CONFIG;
@@ -57,6 +64,7 @@ import static sleeper.core.metrics.MetricsLogger.METRICS_LOGGER;
  *     <li>The sorted rows are passed to an {@link IngesterIntoPartitions} object, which uses {@link sleeper.ingest.impl.partitionfilewriter.PartitionFileWriter} objects to create the partition files in the appropriate file system, possibly asynchronously</li>
  *     <li>Once all of the partition files have been created, the Sleeper {@link StateStore} is updated to include the new partition files</li>
  *     <li>The {@link RecordBatch} is cleared, its resources freed, and a new one is created to accept more data</li>
+ *     <li>If a maximum number of batches in flight is set, the full {@link RecordBatch} is instead sorted and written to partition files on a background thread, and a new one is created straight away to accept more data. Writes wait if the maximum number of batches are already being written, or if there is not enough memory for a new batch</li>
  *     <li>So long as this {@link IngestCoordinator} remains open, more data can be supplied and more partition files will be created if required</li>
  *     <li>When this {@link IngestCoordinator} is closed, any remaining data is written to partition files and a {@link CompletableFuture} is returned that will complete once all of the files have been fully ingested and any intermediate files removed</li>
  * </ul>
@@ -79,8 +87,11 @@ public class IngestCoordinator<INCOMINGDATATYPE> implements AutoCloseable {
     private final RecordBatchFactory<INCOMINGDATATYPE> recordBatchFactory;
     private final PartitionFileWriterFactory partitionFileWriterFactory;
     private final IngesterIntoPartitions ingesterIntoPartitions;
+    private final int maxBatchesInFlight;
+    private final ExecutorService batchWriterExecutor;
 
     private final List<CompletableFuture<List<FileInfo>>> ingestFutures;
+    private final List<CompletableFuture<?>> batchesInFlight;
     private final long ingestCoordinatorCreationTime;
     protected RecordBatch<INCOMINGDATATYPE> currentRecordBatch;
     private long lastPartitionsUpdateTime;
@@ -99,11 +110,19 @@ public class IngestCoordinator<INCOMINGDATATYPE> implements AutoCloseable {
         this.sleeperIteratorConfig = builder.iteratorConfig;
         this.ingestPartitionRefreshFrequencyInSeconds = builder.ingestPartitionRefreshFrequencyInSeconds;
         this.recordBatchFactory = requireNonNull(builder.recordBatchFactory);
+        this.maxBatchesInFlight = builder.maxBatchesInFlight;
 
         // Other member variables
         this.ingestCoordinatorCreationTime = System.currentTimeMillis();
         this.lastPartitionsUpdateTime = PARTITIONS_NEVER_UPDATED_TIME;
         this.ingestFutures = new ArrayList<>();
+        this.batchesInFlight = new ArrayList<>();
+        // The number of threads is limited by waiting for batches in flight, so a cached pool cannot grow unbounded
+        this.batchWriterExecutor = maxBatchesInFlight > 0 ? Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ingest-batch-writer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
         this.partitionFileWriterFactory = requireNonNull(builder.partitionFileWriterFactory);
         this.ingesterIntoPartitions = new IngesterIntoPartitions(sleeperSchema, partitionFileWriterFactory::createPartitionFileWriter);
         this.currentRecordBatch = this.recordBatchFactory.createRecordBatch();
@@ -172,34 +191,149 @@ public class IngestCoordinator<INCOMINGDATATYPE> implements AutoCloseable {
         if (isClosing || currentRecordBatch.isFull()) {
             // Update view of partitions if necessary
             updatePartitionTreeIfNecessary();
-            // Apply the Sleeper iterator to the record batch, within a try-with-resources block. This will ensure that
-            // the iterators are closed in both success and failure
-            try (CloseableIterator<Record> orderedRecordIteratorFromBatch = currentRecordBatch.createOrderedRecordIterator();
-                 CloseableIterator<Record> recordIteratorWithSleeperIteratorApplied =
-                         new RecordIteratorWithSleeperIteratorApplied(
-                                 objectFactory,
-                                 sleeperSchema,
-                                 sleeperIteratorClassName,
-                                 sleeperIteratorConfig,
-                                 orderedRecordIteratorFromBatch)) {
-                // Create a future which completes once the partitions are created, the records ingested
-                // and the state store updated.
-                // Note that once initiateIngest() has been called, below, the record batch has been consumed and is no
-                // longer required.
-                CompletableFuture<List<FileInfo>> consumedFuture = ingesterIntoPartitions
-                        .initiateIngest(recordIteratorWithSleeperIteratorApplied, partitionTree)
-                        .thenApply(fileInfoList -> {
-                            updateStateStore(sleeperStateStore, fileInfoList);
-                            return fileInfoList;
-                        });
-                ingestFutures.add(consumedFuture);
+            if (maxBatchesInFlight > 0) {
+                initiateIngestInBackground(isClosing);
+                return;
             }
+            // Create a future which completes once the partitions are created, the records ingested
+            // and the state store updated.
+            // Note that once initiateIngestOfBatch() has returned, the record batch has been consumed and is no
+            // longer required.
+            CompletableFuture<List<FileInfo>> consumedFuture = initiateIngestOfBatch(currentRecordBatch, partitionTree)
+                    .thenApply(fileInfoList -> {
+                        updateStateStore(sleeperStateStore, fileInfoList);
+                        return fileInfoList;
+                    });
+            ingestFutures.add(consumedFuture);
             // The record batch has now been consumed and so close it.
             currentRecordBatch.close();
             currentRecordBatch = (isClosing) ? null : recordBatchFactory.createRecordBatch();
         }
     }
 
+    /**
+     * Passes the current {@link RecordBatch} to a background thread, which retrieves the records in sorted order,
+     * applies a Sleeper iterator if required and ingests them into partitions. Unless this is closing, a new record
+     * batch is created to accept more data in the meantime.
+     * <p>
+     * This waits for a batch in flight to finish if the maximum number are already being written, or if the record
+     * batch factory does not have enough memory for a new batch.
+     *
+     * @param  isClosing           Indicates that the {@link IngestCoordinator} is closing, so a new record batch is
+     *                             not needed
+     * @throws IOException         if a batch previously written in the background failed
+     * @throws IteratorException   if a batch previously written in the background failed
+     * @throws StateStoreException if a batch previously written in the background failed
+     */
+    private void initiateIngestInBackground(boolean isClosing)
+            throws StateStoreException, IteratorException, IOException {
+        waitForBatchesInFlight(() -> batchesInFlight.size() < maxBatchesInFlight);
+        RecordBatch<INCOMINGDATATYPE> fullRecordBatch = currentRecordBatch;
+        PartitionTree batchPartitionTree = partitionTree;
+        currentRecordBatch = null;
+        CompletableFuture<CompletableFuture<List<FileInfo>>> consumedFuture = CompletableFuture.supplyAsync(
+                () -> ingestBatchAndClose(fullRecordBatch, batchPartitionTree), batchWriterExecutor);
+        batchesInFlight.add(consumedFuture);
+        ingestFutures.add(consumedFuture
+                .thenCompose(filesFuture -> filesFuture)
+                .thenApply(fileInfoList -> {
+                    updateStateStore(sleeperStateStore, fileInfoList);
+                    return fileInfoList;
+                }));
+        if (!isClosing) {
+            waitForBatchesInFlight(recordBatchFactory::hasMemoryForNewBatch);
+            currentRecordBatch = recordBatchFactory.createRecordBatch();
+        }
+    }
+
+    private CompletableFuture<List<FileInfo>> ingestBatchAndClose(
+            RecordBatch<INCOMINGDATATYPE> recordBatch, PartitionTree partitionTree) {
+        try (recordBatch) {
+            return initiateIngestOfBatch(recordBatch, partitionTree);
+        } catch (IOException | IteratorException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Reads a {@link RecordBatch} in sorted order and initiates the ingest of its records into partitions. The batch
+     * is consumed when this returns, but is not closed.
+     * <p>
+     * If there is no Sleeper iterator to apply and the batch holds its data in Arrow vectors, the rows are passed
+     * straight from the vectors to the partition files, without creating {@link Record} objects. Otherwise, the
+     * Sleeper iterator is applied to the records from the batch.
+     *
+     * @param  recordBatch       the batch to ingest
+     * @param  partitionTree     the partitions to ingest into
+     * @return                   a future which completes with the files written to the partitions
+     * @throws IOException       if the batch could not be read or the files could not be written
+     * @throws IteratorException if the Sleeper iterator could not be created
+     */
+    private CompletableFuture<List<FileInfo>> initiateIngestOfBatch(
+            RecordBatch<INCOMINGDATATYPE> recordBatch, PartitionTree partitionTree) throws IOException, IteratorException {
+        if (null == sleeperIteratorClassName && recordBatch instanceof ArrowRowSource) {
+            try (CloseableIterator<ArrowRow> orderedRowIteratorFromBatch =
+                         ((ArrowRowSource) recordBatch).createOrderedArrowRowIterator()) {
+                return ingesterIntoPartitions.initiateIngestFromArrow(orderedRowIteratorFromBatch, partitionTree);
+            }
+        }
+        // Apply the Sleeper iterator to the record batch, within a try-with-resources block. This will ensure that
+        // the iterators are closed in both success and failure
+        try (CloseableIterator<Record> orderedRecordIteratorFromBatch = recordBatch.createOrderedRecordIterator();
+             CloseableIterator<Record> recordIteratorWithSleeperIteratorApplied =
+                     new RecordIteratorWithSleeperIteratorApplied(
+                             objectFactory,
+                             sleeperSchema,
+                             sleeperIteratorClassName,
+                             sleeperIteratorConfig,
+                             orderedRecordIteratorFromBatch)) {
+            return ingesterIntoPartitions.initiateIngest(recordIteratorWithSleeperIteratorApplied, partitionTree);
+        }
+    }
+
+    /**
+     * Waits for batches being written in the background to finish, until a condition is met or there are none left.
+     *
+     * @param  canContinue         the condition to wait for
+     * @throws IOException         if a batch written in the background failed
+     * @throws IteratorException   if a batch written in the background failed
+     * @throws StateStoreException if a batch written in the background failed
+     */
+    private void waitForBatchesInFlight(BooleanSupplier canContinue)
+            throws StateStoreException, IteratorException, IOException {
+        throwIfBackgroundIngestFailed();
+        batchesInFlight.removeIf(CompletableFuture::isDone);
+        while (!batchesInFlight.isEmpty() && !canContinue.getAsBoolean()) {
+            CompletableFuture.anyOf(batchesInFlight.toArray(new CompletableFuture[0]))
+                    .handle((result, e) -> null).join();
+            throwIfBackgroundIngestFailed();
+            batchesInFlight.removeIf(CompletableFuture::isDone);
+        }
+    }
+
+    private void throwIfBackgroundIngestFailed() throws StateStoreException, IteratorException, IOException {
+        for (CompletableFuture<List<FileInfo>> future : ingestFutures) {
+            if (!future.isCompletedExceptionally()) {
+                continue;
+            }
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof StateStoreException) {
+                    throw (StateStoreException) cause;
+                } else if (cause instanceof IteratorException) {
+                    throw (IteratorException) cause;
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw e;
+            }
+        }
+    }
+
     /**
      * Queries the Sleeper {@link StateStore} to retrieve the current partition tree, if too much time has elapsed since
      * the last refresh.
@@ -308,6 +442,12 @@ public class IngestCoordinator<INCOMINGDATATYPE> implements AutoCloseable {
      * Release internal data structures.
      */
     private void internalClose() {
+        // Batches being written in the background use resources held by the factories, so wait for them to finish
+        CompletableFuture.allOf(batchesInFlight.toArray(new CompletableFuture[0]))
+                .handle((result, e) -> null).join();
+        if (batchWriterExecutor != null) {
+            batchWriterExecutor.shutdown();
+        }
         if (currentRecordBatch != null) {
             try {
                 currentRecordBatch.close();
@@ -333,7 +473,8 @@ public class IngestCoordinator<INCOMINGDATATYPE> implements AutoCloseable {
      * <p>
      * When this method is called, it may initiate significant activity such as sorting the data that is held in memory
      * and flushing it to local disk, or merging local files and saving them as partition files on a remote file store.
-     * The amount of time taken by a call to this function varies significantly.
+     * The amount of time taken by a call to this function varies significantly. If a maximum number of batches in
+     * flight is set, most of this work is done on a background thread, and this only waits when that work falls behind.
      *
      * @param data The data to ingest
      * @throws StateStoreException -
@@ -360,6 +501,7 @@ public class IngestCoordinator<INCOMINGDATATYPE> implements AutoCloseable {
         private int ingestPartitionRefreshFrequencyInSeconds;
         private RecordBatchFactory<T> recordBatchFactory;
         private PartitionFileWriterFactory partitionFileWriterFactory;
+        private int maxBatchesInFlight;
 
         Builder() {
         }
@@ -452,9 +594,22 @@ public class IngestCoordinator<INCOMINGDATATYPE> implements AutoCloseable {
             return this;
         }
 
+        /**
+         * The maximum number of full record batches to sort and write to partition files in the background, while
+         * accepting more data into a new batch. If this is 0, writes wait while each batch is written.
+         *
+         * @param maxBatchesInFlight the maximum number of batches
+         * @return the builder for call chaining
+         */
+        public Builder<T> maxBatchesInFlight(int maxBatchesInFlight) {
+            this.maxBatchesInFlight = maxBatchesInFlight;
+            return this;
+        }
+
         public Builder<T> instanceProperties(InstanceProperties instanceProperties) {
             return ingestPartitionRefreshFrequencyInSeconds(
-                    instanceProperties.getInt(INGEST_PARTITION_REFRESH_PERIOD_IN_SECONDS));
+                    instanceProperties.getInt(INGEST_PARTITION_REFRESH_PERIOD_IN_SECONDS))
+                    .maxBatchesInFlight(instanceProperties.getInt(INGEST_MAX_BATCHES_IN_FLIGHT));
         }
 
         public Builder<T> tableProperties(TableProperties tableProperties) {
@@ -27,6 +27,7 @@ import sleeper.core.record.Record;
 import sleeper.core.schema.Schema;
 import sleeper.core.statestore.FileInfo;
 import sleeper.ingest.impl.partitionfilewriter.PartitionFileWriter;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRow;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -111,9 +112,33 @@ class IngesterIntoPartitions {
      */
     public CompletableFuture<List<FileInfo>> initiateIngest(
             CloseableIterator<Record> orderedRecordIterator, PartitionTree partitionTree) throws IOException {
-
         List<String> rowKeyNames = sleeperSchema.getRowKeyFieldNames();
-        String firstDimensionRowKey = rowKeyNames.get(0);
+        return initiateIngest(orderedRecordIterator, partitionTree,
+                record -> Key.create(record.getValues(rowKeyNames)), PartitionFileWriter::append);
+    }
+
+    /**
+     * Initiate the ingest of rows held in Arrow vectors, passed as a {@link CloseableIterator}. This behaves in the
+     * same way as {@link #initiateIngest(CloseableIterator, PartitionTree)}, but the rows are passed to the partition
+     * file writers without being converted to {@link Record} objects. Each row is only read before the next row is
+     * requested.
+     *
+     * @param orderedRowIterator The rows to write, passed in sort order
+     * @param partitionTree      The {@link PartitionTree} to used to determine which partition to place each row in
+     * @return A {@link CompletableFuture} which completes to return a list of {@link FileInfo} objects, one for each
+     * partition file that has been created
+     * @throws IOException -
+     */
+    public CompletableFuture<List<FileInfo>> initiateIngestFromArrow(
+            CloseableIterator<ArrowRow> orderedRowIterator, PartitionTree partitionTree) throws IOException {
+        return initiateIngest(orderedRowIterator, partitionTree, ArrowRow::getRowKey, PartitionFileWriter::append);
+    }
+
+    private <T> CompletableFuture<List<FileInfo>> initiateIngest(
+            CloseableIterator<T> orderedRecordIterator, PartitionTree partitionTree,
+            Function<T, Key> getRowKey, RowAppender<T> appender) throws IOException {
+
+        String firstDimensionRowKey = sleeperSchema.getRowKeyFieldNames().get(0);
         Map<String, PartitionFileWriter> partitionIdToFileWriterMap = new HashMap<>();
         Range currentFirstDimensionRange = null;
         // Set up various flags, counters and the like which will be updated as the write progresses
@@ -134,13 +159,13 @@ class IngesterIntoPartitions {
         // longer sit inside that first dimension range.
         try {
             while (orderedRecordIterator.hasNext()) {
-                Record record = orderedRecordIterator.next();
-                Key key = Key.create(record.getValues(rowKeyNames));
+                T row = orderedRecordIterator.next();
+                Key key = getRowKey.apply(row);
                 // Ensure that the current partition is the correct one for the new record
                 if (currentPartition == null || !currentPartition.isRowKeyInPartition(sleeperSchema, key)) {
                     // Close all of the current partition file writers if the first dimension has changed.
                     if (currentFirstDimensionRange != null &&
-                            !currentFirstDimensionRange.doesRangeContainObject(record.get(firstDimensionRowKey))) {
+                            !currentFirstDimensionRange.doesRangeContainObject(key.get(0))) {
                         completableFutures.addAll(closeMultiplePartitionFileWriters(partitionIdToFileWriterMap.values()));
                         partitionIdToFileWriterMap.clear();
                     }
@@ -153,7 +178,7 @@ class IngesterIntoPartitions {
                     currentPartitionFileWriter = partitionIdToFileWriterMap.get(currentPartition.getId());
                 }
                 // Write records to the current partition file writer
-                currentPartitionFileWriter.append(record);
+                appender.append(currentPartitionFileWriter, row);
             }
             completableFutures.addAll(closeMultiplePartitionFileWriters(partitionIdToFileWriterMap.values()));
         } catch (Exception e) {
@@ -168,4 +193,14 @@ class IngesterIntoPartitions {
                         .map(CompletableFuture::join)
                         .collect(Collectors.toList()));
     }
+
+    /**
+     * Appends a row to a partition file writer.
+     *
+     * @param <T> the type of the row
+     */
+    @FunctionalInterface
+    private interface RowAppender<T> {
+        void append(PartitionFileWriter writer, T row) throws IOException;
+    }
 }
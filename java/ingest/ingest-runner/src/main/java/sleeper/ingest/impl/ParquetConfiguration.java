@@ -21,6 +21,8 @@ import org.apache.parquet.hadoop.ParquetWriter;
 
 import sleeper.configuration.properties.table.TableProperties;
 import sleeper.core.record.Record;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRow;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRowWriteSupport;
 import sleeper.io.parquet.record.ParquetRecordWriterFactory;
 
 import java.io.IOException;
@@ -67,6 +69,20 @@ public class ParquetConfiguration {
         return ParquetRecordWriterFactory.createParquetRecordWriter(new Path(outputFile), tableProperties, hadoopConfiguration);
     }
 
+    /**
+     * Create a {@link ParquetWriter} to write rows straight from Arrow vectors, using the parameter values supplied
+     * during construction. The file is written in the same format as by {@link #createParquetWriter}. It is the
+     * responsibility of the caller to close the writer after use.
+     *
+     * @param outputFile The name of the Parquet file to write to
+     * @return The {@link ParquetWriter} object
+     * @throws IOException Thrown when the writer cannot be created
+     */
+    public ParquetWriter<ArrowRow> createArrowRowParquetWriter(String outputFile) throws IOException {
+        return ParquetRecordWriterFactory.parquetWriterBuilder(new Path(outputFile), tableProperties, ArrowRowWriteSupport::new)
+                .withConf(hadoopConfiguration).build();
+    }
+
     public static final class Builder {
         private Configuration hadoopConfiguration;
         private TableProperties tableProperties;
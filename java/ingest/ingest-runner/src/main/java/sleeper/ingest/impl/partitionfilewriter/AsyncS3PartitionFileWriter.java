@@ -18,7 +18,6 @@ package sleeper.ingest.impl.partitionfilewriter;
 import org.apache.datasketches.quantiles.ItemsSketch;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
-import org.apache.parquet.hadoop.ParquetWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.transfer.s3.S3TransferManager;
@@ -31,6 +30,7 @@ import sleeper.core.record.Record;
 import sleeper.core.schema.Schema;
 import sleeper.core.statestore.FileInfo;
 import sleeper.ingest.impl.ParquetConfiguration;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRow;
 import sleeper.sketches.Sketches;
 import sleeper.sketches.s3.SketchesSerDeToS3;
 
@@ -70,7 +70,7 @@ public class AsyncS3PartitionFileWriter implements PartitionFileWriter {
     private final String partitionParquetS3Key;
     private final String quantileSketchesLocalFileName;
     private final String quantileSketchesS3Key;
-    private final ParquetWriter<Record> parquetWriter;
+    private final PartitionParquetWriter parquetWriter;
     private final Map<String, ItemsSketch> keyFieldToSketchMap;
     private long recordsWrittenToCurrentPartition;
 
@@ -107,7 +107,7 @@ public class AsyncS3PartitionFileWriter implements PartitionFileWriter {
         this.quantileSketchesLocalFileName = String.format("%s/partition_%s_%s.sketches", localWorkingDirectory, partition.getId(), fileName);
         this.partitionParquetS3Key = TableUtils.constructPartitionParquetFilePath(filePathPrefix, partition, fileName);
         this.quantileSketchesS3Key = TableUtils.constructQuantileSketchesFilePath(filePathPrefix, partition, fileName);
-        this.parquetWriter = parquetConfiguration.createParquetWriter(partitionParquetLocalFileName);
+        this.parquetWriter = new PartitionParquetWriter(parquetConfiguration, partitionParquetLocalFileName);
         LOGGER.info("Created Parquet writer for partition {}", partition.getId());
         this.keyFieldToSketchMap = createQuantileSketchMap(sleeperSchema);
         this.recordsWrittenToCurrentPartition = 0L;
@@ -168,6 +168,23 @@ public class AsyncS3PartitionFileWriter implements PartitionFileWriter {
         }
     }
 
+    /**
+     * Append a row held in Arrow vectors to the partition, without converting it to a record. This writes the row to a
+     * local Parquet file and does not upload it to S3.
+     *
+     * @param row The row to append
+     * @throws IOException -
+     */
+    @Override
+    public void append(ArrowRow row) throws IOException {
+        parquetWriter.write(row);
+        updateQuantileSketchMap(sleeperSchema, keyFieldToSketchMap, row.getRowKey());
+        recordsWrittenToCurrentPartition++;
+        if (recordsWrittenToCurrentPartition % 1000000 == 0) {
+            LOGGER.info("Written {} rows to partition {}", recordsWrittenToCurrentPartition, partition.getId());
+        }
+    }
+
     /**
      * Close this partition writer. The local Parquet file is closed and then an asynchronous upload to S3 is initiated,
      * for both the Parquet file and for the associated quantiles sketch file. The local copies are deleted and then the
@@ -216,7 +233,7 @@ public class AsyncS3PartitionFileWriter implements PartitionFileWriter {
     @Override
     public void abort() {
         try {
-            parquetWriter.close();
+            parquetWriter.abort();
         } catch (Exception e) {
             LOGGER.error("Error aborting ParquetWriter", e);
         }
@@ -28,6 +28,7 @@ import sleeper.core.record.Record;
 import sleeper.core.schema.Schema;
 import sleeper.core.statestore.FileInfo;
 import sleeper.ingest.impl.ParquetConfiguration;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRow;
 import sleeper.sketches.Sketches;
 import sleeper.sketches.s3.SketchesSerDeToS3;
 
@@ -49,7 +50,7 @@ public class DirectPartitionFileWriter implements PartitionFileWriter {
     private final Configuration hadoopConfiguration;
     private final String partitionParquetFileName;
     private final String quantileSketchesFileName;
-    private final ParquetWriter<Record> parquetWriter;
+    private final PartitionParquetWriter parquetWriter;
     private final Map<String, ItemsSketch> keyFieldToSketchMap;
     private long recordsWrittenToCurrentPartition;
 
@@ -83,7 +84,7 @@ public class DirectPartitionFileWriter implements PartitionFileWriter {
         this.hadoopConfiguration = parquetConfiguration.getHadoopConfiguration();
         this.partitionParquetFileName = TableUtils.constructPartitionParquetFilePath(filePathPrefix, partition, fileName);
         this.quantileSketchesFileName = TableUtils.constructQuantileSketchesFilePath(filePathPrefix, partition, fileName);
-        this.parquetWriter = parquetConfiguration.createParquetWriter(this.partitionParquetFileName);
+        this.parquetWriter = new PartitionParquetWriter(parquetConfiguration, this.partitionParquetFileName);
         LOGGER.info("Created Parquet writer for partition {} to file {}", partition.getId(), partitionParquetFileName);
         this.keyFieldToSketchMap = PartitionFileWriterUtils.createQuantileSketchMap(sleeperSchema);
         this.recordsWrittenToCurrentPartition = 0L;
@@ -109,6 +110,25 @@ public class DirectPartitionFileWriter implements PartitionFileWriter {
         }
     }
 
+    /**
+     * Append a row held in Arrow vectors to the partition file, without converting it to a record.
+     *
+     * @param row The row to append
+     * @throws IOException -
+     */
+    @Override
+    public void append(ArrowRow row) throws IOException {
+        parquetWriter.write(row);
+        PartitionFileWriterUtils.updateQuantileSketchMap(
+                sleeperSchema,
+                keyFieldToSketchMap,
+                row.getRowKey());
+        recordsWrittenToCurrentPartition++;
+        if (recordsWrittenToCurrentPartition % 1000000 == 0) {
+            LOGGER.info("Written {} rows to partition {}", recordsWrittenToCurrentPartition, partition.getId());
+        }
+    }
+
     /**
      * Close the partition file. In this implementation, the file is closed synchronously and a completed future is
      * returned.
@@ -139,7 +159,7 @@ public class DirectPartitionFileWriter implements PartitionFileWriter {
     @Override
     public void abort() {
         try {
-            parquetWriter.close();
+            parquetWriter.abort();
         } catch (Exception e) {
             LOGGER.error("Error aborting ParquetWriter", e);
         }
@@ -17,6 +17,7 @@ package sleeper.ingest.impl.partitionfilewriter;
 
 import sleeper.core.record.Record;
 import sleeper.core.statestore.FileInfo;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRow;
 
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
@@ -36,6 +37,18 @@ public interface PartitionFileWriter {
      */
     void append(Record record) throws IOException;
 
+    /**
+     * Append a row held in Arrow vectors to the partition file. This method must always be called with rows increasing
+     * in sort order. Implementations may write the row without creating a {@link Record}, but by default it is
+     * converted to one.
+     *
+     * @param row The row to append
+     * @throws IOException -
+     */
+    default void append(ArrowRow row) throws IOException {
+        append(row.toRecord());
+    }
+
     /**
      * Close the file, possibly asynchronously. When the returned future completes, the partition file should be in its
      * final storage and any intermediate data should be cleared.
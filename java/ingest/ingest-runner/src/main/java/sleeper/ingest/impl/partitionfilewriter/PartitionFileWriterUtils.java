@@ -18,6 +18,7 @@ package sleeper.ingest.impl.partitionfilewriter;
 import com.facebook.collections.ByteArray;
 import org.apache.datasketches.quantiles.ItemsSketch;
 
+import sleeper.core.key.Key;
 import sleeper.core.record.Record;
 import sleeper.core.schema.Field;
 import sleeper.core.schema.Schema;
@@ -27,6 +28,7 @@ import sleeper.core.statestore.StateStore;
 
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -94,4 +96,26 @@ public class PartitionFileWriterUtils {
             }
         }
     }
+
+    /**
+     * Update every {@link ItemsSketch} in the supplied map with the corresponding values in the supplied row key. The
+     * map and sketches are updated in-place.
+     *
+     * @param sleeperSchema       -
+     * @param keyFieldToSketchMap The map to update
+     * @param rowKey              The row key to update with
+     */
+    public static void updateQuantileSketchMap(Schema sleeperSchema,
+                                               Map<String, ItemsSketch> keyFieldToSketchMap,
+                                               Key rowKey) {
+        List<Field> rowKeyFields = sleeperSchema.getRowKeyFields();
+        for (int i = 0; i < rowKeyFields.size(); i++) {
+            Field rowKeyField = rowKeyFields.get(i);
+            Object value = rowKey.get(i);
+            if (rowKeyField.getType() instanceof ByteArrayType) {
+                value = ByteArray.wrap((byte[]) value);
+            }
+            keyFieldToSketchMap.get(rowKeyField.getName()).update(value);
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.partitionfilewriter;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import sleeper.core.record.Record;
+import sleeper.ingest.impl.ParquetConfiguration;
+import sleeper.ingest.impl.recordbatch.arrow.ArrowRow;
+
+import java.io.IOException;
+
+/**
+ * Writes a Parquet partition file from either {@link Record}s or {@link ArrowRow}s. The underlying {@link
+ * ParquetWriter} is created when the first row is written, to suit the form of that row. Any Arrow rows written to a
+ * file which was started from records are converted to records.
+ */
+class PartitionParquetWriter {
+    private final ParquetConfiguration parquetConfiguration;
+    private final String fileName;
+    private ParquetWriter<Record> recordWriter;
+    private ParquetWriter<ArrowRow> arrowRowWriter;
+
+    PartitionParquetWriter(ParquetConfiguration parquetConfiguration, String fileName) {
+        this.parquetConfiguration = parquetConfiguration;
+        this.fileName = fileName;
+    }
+
+    void write(Record record) throws IOException {
+        if (null != arrowRowWriter) {
+            throw new IllegalStateException("Cannot write a Record to a file which was started from Arrow rows: " + fileName);
+        }
+        if (null == recordWriter) {
+            recordWriter = parquetConfiguration.createParquetWriter(fileName);
+        }
+        recordWriter.write(record);
+    }
+
+    void write(ArrowRow row) throws IOException {
+        if (null != recordWriter) {
+            recordWriter.write(row.toRecord());
+            return;
+        }
+        if (null == arrowRowWriter) {
+            arrowRowWriter = parquetConfiguration.createArrowRowParquetWriter(fileName);
+        }
+        arrowRowWriter.write(row);
+    }
+
+    /**
+     * Closes the file. If nothing was written, an empty file is still created.
+     *
+     * @throws IOException if the file could not be written
+     */
+    void close() throws IOException {
+        if (null != arrowRowWriter) {
+            arrowRowWriter.close();
+        } else {
+            if (null == recordWriter) {
+                recordWriter = parquetConfiguration.createParquetWriter(fileName);
+            }
+            recordWriter.close();
+        }
+    }
+
+    /**
+     * Closes the file if it was started, without creating it otherwise.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    void abort() throws IOException {
+        if (null != arrowRowWriter) {
+            arrowRowWriter.close();
+        }
+        if (null != recordWriter) {
+            recordWriter.close();
+        }
+    }
+}
@@ -20,6 +20,17 @@ public interface RecordBatchFactory<INCOMINGDATATYPE> extends AutoCloseable {
 
     RecordBatch<INCOMINGDATATYPE> createRecordBatch();
 
+    /**
+     * Checks whether there is enough free memory to create another record batch, while other batches from this factory
+     * are still open. This is used to wait for batches that are being written in the background before creating a new
+     * one.
+     *
+     * @return true if a new batch can be created without waiting for memory to be freed
+     */
+    default boolean hasMemoryForNewBatch() {
+        return true;
+    }
+
     @Override
     default void close() {
     }
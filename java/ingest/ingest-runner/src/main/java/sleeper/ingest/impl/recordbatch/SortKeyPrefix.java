@@ -0,0 +1,149 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch;
+
+/**
+ * Builds a normalised 64-bit prefix of the row keys and sort keys of a row. Comparing the prefixes of two rows as
+ * unsigned values gives the same order as comparing their keys, except that rows whose prefixes are equal must be
+ * compared by their full keys. Each key is written in turn with its bits adjusted so that the order is preserved, until
+ * the prefix is full.
+ * <p>
+ * The prefix is complete after a variable width value or a null, as a later key cannot be placed after those without
+ * breaking the order. This means only the first variable width key contributes to the prefix.
+ * <p>
+ * This is reused between rows to avoid creating objects, by calling {@link #reset()} before each row.
+ */
+public class SortKeyPrefix {
+    private long prefix;
+    private int bitsLeft;
+    private boolean complete;
+
+    public SortKeyPrefix() {
+        bitsLeft = Long.SIZE;
+    }
+
+    /**
+     * Clears the prefix to start a new row.
+     */
+    public void reset() {
+        prefix = 0L;
+        bitsLeft = Long.SIZE;
+        complete = false;
+    }
+
+    /**
+     * Checks whether any more bits can be added to the prefix. Keys appended after this will be ignored.
+     *
+     * @return true if the prefix is complete
+     */
+    public boolean isComplete() {
+        return complete || bitsLeft == 0;
+    }
+
+    /**
+     * Appends a signed int value.
+     *
+     * @param value the value
+     */
+    public void appendInt(int value) {
+        appendBits((value ^ Integer.MIN_VALUE) & 0xFFFFFFFFL, Integer.SIZE);
+    }
+
+    /**
+     * Appends a signed long value.
+     *
+     * @param value the value
+     */
+    public void appendLong(long value) {
+        appendBits(value ^ Long.MIN_VALUE, Long.SIZE);
+    }
+
+    /**
+     * Appends a byte of a variable width value, to be ordered as an unsigned byte. After the last byte of the value,
+     * {@link #endVariableWidth()} must be called.
+     *
+     * @param value the byte
+     */
+    public void appendUnsignedByte(byte value) {
+        appendBits(value & 0xFFL, Byte.SIZE);
+    }
+
+    /**
+     * Appends a byte of a variable width value, to be ordered as a signed byte. After the last byte of the value,
+     * {@link #endVariableWidth()} must be called.
+     *
+     * @param value the byte
+     */
+    public void appendSignedByte(byte value) {
+        appendBits((value ^ Byte.MIN_VALUE) & 0xFFL, Byte.SIZE);
+    }
+
+    /**
+     * Appends a character of a variable width value, to be ordered as in {@link String#compareTo}. After the last
+     * character of the value, {@link #endVariableWidth()} must be called.
+     *
+     * @param value the character
+     */
+    public void appendChar(char value) {
+        appendBits(value, Character.SIZE);
+    }
+
+    /**
+     * Ends a variable width value. The remaining bits are left as zero, so that a shorter value is ordered before a
+     * longer value that it is a prefix of. Rows that differ only in a shorter value may now have equal prefixes.
+     */
+    public void endVariableWidth() {
+        complete = true;
+    }
+
+    /**
+     * Appends a null value.
+     *
+     * @param nullsFirst true if nulls are ordered before all other values, false if they are ordered after
+     */
+    public void appendNull(boolean nullsFirst) {
+        if (isComplete()) {
+            return;
+        }
+        if (!nullsFirst) {
+            prefix |= bitsLeft == Long.SIZE ? -1L : (1L << bitsLeft) - 1;
+        }
+        complete = true;
+    }
+
+    /**
+     * Retrieves the prefix, to be compared as an unsigned value.
+     *
+     * @return the prefix
+     */
+    public long get() {
+        return prefix;
+    }
+
+    private void appendBits(long value, int width) {
+        if (isComplete()) {
+            return;
+        }
+        if (width > bitsLeft) {
+            // Keep the most significant bits
+            prefix |= value >>> (width - bitsLeft);
+            bitsLeft = 0;
+        } else {
+            bitsLeft -= width;
+            prefix |= value << bitsLeft;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Sorts the rows of a batch by their normalised sort key prefixes, as built by {@link SortKeyPrefix}. Most comparisons
+ * are made between the prefixes, which are held in a primitive array alongside the row indices. Only rows with equal
+ * prefixes are compared by their full keys.
+ * <p>
+ * This is a stable merge sort. It can be split across a fork-join pool, in which case the range of rows is split in
+ * half repeatedly until each piece is small enough to sort on one thread. The sorted pieces are then merged back
+ * together in pairs, with merges of separate pieces running in parallel. Comparators for the full keys may hold state
+ * while comparing, so each task creates its own.
+ */
+public class SortKeyPrefixSorter {
+    public static final int MIN_ROWS_PER_TASK = 16384;
+    private static final int INSERTION_SORT_ROWS = 16;
+
+    private final Supplier<IntBinaryOperator> tieBreakFactory;
+    private final int minRowsPerTask;
+    private final long[] keys;
+    private final int[] indices;
+    private final long[] keyBuffer;
+    private final int[] indexBuffer;
+
+    private SortKeyPrefixSorter(long[] prefixes, Supplier<IntBinaryOperator> tieBreakFactory, int minRowsPerTask) {
+        this.tieBreakFactory = tieBreakFactory;
+        this.minRowsPerTask = minRowsPerTask;
+        this.keys = prefixes;
+        this.indices = new int[prefixes.length];
+        this.keyBuffer = new long[prefixes.length];
+        this.indexBuffer = new int[prefixes.length];
+        for (int i = 0; i < prefixes.length; i++) {
+            // Flip the top bit so that the prefixes can be compared as signed values
+            keys[i] = prefixes[i] ^ Long.MIN_VALUE;
+            indices[i] = i;
+        }
+    }
+
+    /**
+     * Sorts the rows of a batch. The array of prefixes is modified during the sort.
+     *
+     * @param prefixes        the sort key prefix of each row, indexed by row number
+     * @param tieBreakFactory creates a comparator of rows by their full keys, given their row numbers
+     * @param pool            the pool to sort in parallel, or null to sort on the calling thread
+     * @return the row numbers in sorted order
+     */
+    public static int[] sort(long[] prefixes, Supplier<IntBinaryOperator> tieBreakFactory, ForkJoinPool pool) {
+        return sort(prefixes, tieBreakFactory, pool, MIN_ROWS_PER_TASK);
+    }
+
+    static int[] sort(long[] prefixes, Supplier<IntBinaryOperator> tieBreakFactory, ForkJoinPool pool, int minRowsPerTask) {
+        SortKeyPrefixSorter sorter = new SortKeyPrefixSorter(prefixes, tieBreakFactory, minRowsPerTask);
+        if (null == pool || pool.getParallelism() < 2 || prefixes.length < 2 * minRowsPerTask) {
+            sorter.mergeSort(tieBreakFactory.get(), 0, prefixes.length);
+        } else {
+            pool.invoke(sorter.new SortTask(0, prefixes.length));
+        }
+        return sorter.indices;
+    }
+
+    /**
+     * Sorts a range of rows, forking tasks for each half if the range is large enough. Fork-join tasks are
+     * serializable, but these are never serialized.
+     */
+    @SuppressFBWarnings({"SE_BAD_FIELD_INNER_CLASS", "SE_NO_SERIALVERSIONID"})
+    private class SortTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        SortTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= minRowsPerTask) {
+                mergeSort(tieBreakFactory.get(), from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(from, mid), new SortTask(mid, to));
+            merge(tieBreakFactory.get(), from, mid, to);
+        }
+    }
+
+    private void mergeSort(IntBinaryOperator tieBreak, int from, int to) {
+        if (to - from <= INSERTION_SORT_ROWS) {
+            insertionSort(tieBreak, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(tieBreak, from, mid);
+        mergeSort(tieBreak, mid, to);
+        merge(tieBreak, from, mid, to);
+    }
+
+    private void insertionSort(IntBinaryOperator tieBreak, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = keys[i];
+            int index = indices[i];
+            int j = i - 1;
+            while (j >= from && compare(tieBreak, keys[j], indices[j], key, index) > 0) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+
+    /**
+     * Merges two sorted, adjacent ranges of rows. Each range of the buffers is only used by one task at a time, as
+     * tasks for overlapping ranges never run at once.
+     *
+     * @param tieBreak the comparator for rows with equal prefixes
+     * @param from     the start of the first range
+     * @param mid      the end of the first range and the start of the second
+     * @param to       the end of the second range
+     */
+    private void merge(IntBinaryOperator tieBreak, int from, int mid, int to) {
+        if (compare(tieBreak, keys[mid - 1], indices[mid - 1], keys[mid], indices[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(keys, from, keyBuffer, from, to - from);
+        System.arraycopy(indices, from, indexBuffer, from, to - from);
+        int left = from;
+        int right = mid;
+        int out = from;
+        while (left < mid && right < to) {
+            if (compare(tieBreak, keyBuffer[right], indexBuffer[right], keyBuffer[left], indexBuffer[left]) < 0) {
+                keys[out] = keyBuffer[right];
+                indices[out++] = indexBuffer[right++];
+            } else {
+                keys[out] = keyBuffer[left];
+                indices[out++] = indexBuffer[left++];
+            }
+        }
+        int remaining = mid - left;
+        System.arraycopy(keyBuffer, left, keys, out, remaining);
+        System.arraycopy(indexBuffer, left, indices, out, remaining);
+        // Any rows remaining in the right range are already in place
+    }
+
+    private static int compare(IntBinaryOperator tieBreak, long key1, int index1, long key2, int index2) {
+        if (key1 != key2) {
+            return key1 < key2 ? -1 : 1;
+        }
+        return tieBreak.applyAsInt(index1, index2);
+    }
+}
@@ -27,9 +27,12 @@ import sleeper.core.iterator.CloseableIterator;
 import sleeper.core.iterator.MergingIterator;
 import sleeper.core.record.Record;
 import sleeper.core.record.RecordComparator;
+import sleeper.core.schema.Field;
 import sleeper.core.schema.Schema;
 import sleeper.ingest.impl.ParquetConfiguration;
 import sleeper.ingest.impl.recordbatch.RecordBatch;
+import sleeper.ingest.impl.recordbatch.SortKeyPrefix;
+import sleeper.ingest.impl.recordbatch.SortKeyPrefixSorter;
 import sleeper.io.parquet.record.ParquetReaderIterator;
 import sleeper.io.parquet.record.ParquetRecordReader;
 
@@ -37,6 +40,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
 
@@ -67,6 +71,7 @@ public class ArrayListRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOM
     private final UUID uniqueIdentifier;
     private final List<Record> inMemoryBatch;
     private final List<String> localFileNames;
+    private final String[] sortFieldNames;
     private long noOfRecordsInLocalStore;
     private CloseableIterator<Record> internalOrderedRecordIterator;
     private boolean isWriteable;
@@ -102,6 +107,10 @@ public class ArrayListRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOM
         this.noOfRecordsInLocalStore = 0L;
         this.batchNo = 0;
         this.localFileNames = new ArrayList<>();
+        this.sortFieldNames = Stream.of(sleeperSchema.getRowKeyFields(), sleeperSchema.getSortKeyFields())
+                .flatMap(List::stream)
+                .map(Field::getName)
+                .toArray(String[]::new);
     }
 
     /**
@@ -134,13 +143,13 @@ public class ArrayListRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOM
                     localWorkingDirectory,
                     uniqueIdentifier,
                     batchNo);
-            inMemoryBatch.sort(new RecordComparator(sleeperSchema));
+            int[] sortOrder = sortInMemoryBatch();
             long time2 = System.currentTimeMillis();
             // Write the records to a local Parquet file. The try-with-resources block ensures that the writer
             // is closed in both success and failure.
             try (ParquetWriter<Record> parquetWriter = parquetConfiguration.createParquetWriter(outputFileName)) {
-                for (Record record : inMemoryBatch) {
-                    parquetWriter.write(record);
+                for (int index : sortOrder) {
+                    parquetWriter.write(inMemoryBatch.get(index));
                 }
             }
             long time3 = System.currentTimeMillis();
@@ -160,6 +169,53 @@ public class ArrayListRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOM
         inMemoryBatch.clear();
     }
 
+    /**
+     * Sorts the in-memory batch by a normalised prefix of the keys of each record, comparing the full keys only when
+     * the prefixes are equal. This is consistent with {@link RecordComparator}.
+     *
+     * @return the indices of the records in the in-memory batch, in sorted order
+     */
+    private int[] sortInMemoryBatch() {
+        long[] prefixes = new long[inMemoryBatch.size()];
+        SortKeyPrefix prefix = new SortKeyPrefix();
+        for (int i = 0; i < prefixes.length; i++) {
+            Record record = inMemoryBatch.get(i);
+            prefix.reset();
+            for (int field = 0; field < sortFieldNames.length && !prefix.isComplete(); field++) {
+                appendToPrefix(prefix, record.get(sortFieldNames[field]));
+            }
+            prefixes[i] = prefix.get();
+        }
+        RecordComparator comparator = new RecordComparator(sleeperSchema);
+        return SortKeyPrefixSorter.sort(prefixes,
+                () -> (index1, index2) -> comparator.compare(inMemoryBatch.get(index1), inMemoryBatch.get(index2)),
+                null);
+    }
+
+    private static void appendToPrefix(SortKeyPrefix prefix, Object value) {
+        if (null == value) {
+            prefix.appendNull(false);
+        } else if (value instanceof Integer) {
+            prefix.appendInt((int) value);
+        } else if (value instanceof Long) {
+            prefix.appendLong((long) value);
+        } else if (value instanceof String) {
+            String string = (String) value;
+            for (int i = 0; i < string.length() && !prefix.isComplete(); i++) {
+                prefix.appendChar(string.charAt(i));
+            }
+            prefix.endVariableWidth();
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            for (int i = 0; i < bytes.length && !prefix.isComplete(); i++) {
+                prefix.appendSignedByte(bytes[i]);
+            }
+            prefix.endVariableWidth();
+        } else {
+            throw new IllegalArgumentException("Cannot sort records by value of type " + value.getClass().getName());
+        }
+    }
+
     @Override
     public void append(INCOMINGDATATYPE data) throws IOException {
         addRecordToBatch(recordMapper.map(data));
@@ -17,8 +17,8 @@ package sleeper.ingest.impl.recordbatch.arrow;
 
 import org.apache.arrow.algorithm.sort.CompositeVectorComparator;
 import org.apache.arrow.algorithm.sort.DefaultVectorComparators;
-import org.apache.arrow.algorithm.sort.IndexSorter;
 import org.apache.arrow.algorithm.sort.VectorValueComparator;
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.BigIntVector;
@@ -33,8 +33,11 @@ import sleeper.core.schema.type.IntType;
 import sleeper.core.schema.type.LongType;
 import sleeper.core.schema.type.StringType;
 import sleeper.core.schema.type.Type;
+import sleeper.ingest.impl.recordbatch.SortKeyPrefix;
+import sleeper.ingest.impl.recordbatch.SortKeyPrefixSorter;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -62,8 +65,110 @@ class ArrowIngestSupport {
     public static IntVector createSortOrderVector(BufferAllocator bufferAllocator,
                                                   sleeper.core.schema.Schema sleeperSchema,
                                                   VectorSchemaRoot vectorSchemaRoot) {
-        // Work out which field is to be used for the sort, where it is in the fields, and what type it is
+        return createSortOrderVector(bufferAllocator, sleeperSchema, vectorSchemaRoot, null);
+    }
+
+    /**
+     * Generate an {@link IntVector} which contains the indices of the rows of the {@link VectorSchemaRoot} in sorted
+     * order, as in {@link #createSortOrderVector(BufferAllocator, sleeper.core.schema.Schema, VectorSchemaRoot)}.
+     * <p>
+     * The rows are sorted by a normalised prefix of their keys, which is read directly from the vectors, and only
+     * compared by their full keys when their prefixes are equal. If a fork-join pool is supplied, large batches are
+     * sorted in parallel on that pool. This holds two arrays of prefixes and two arrays of indices on the heap while
+     * sorting, in addition to the sort order vector.
+     *
+     * @param bufferAllocator  allocator for the sort order vector
+     * @param sleeperSchema    schema to use to sort by its keys
+     * @param vectorSchemaRoot vector to sort
+     * @param sortPool         pool to sort in parallel, or null to sort on the calling thread
+     * @return the sort order
+     */
+    public static IntVector createSortOrderVector(BufferAllocator bufferAllocator,
+                                                  sleeper.core.schema.Schema sleeperSchema,
+                                                  VectorSchemaRoot vectorSchemaRoot,
+                                                  ForkJoinPool sortPool) {
         int vectorSize = vectorSchemaRoot.getRowCount();
+        // Create a vector to hold the row indices of the data once it has been sorted
+        IntVector sortOrderVector = new IntVector("Sort order vector", bufferAllocator);
+        try {
+            sortOrderVector.allocateNew(vectorSize);
+            sortOrderVector.setValueCount(vectorSize);
+            long[] prefixes = createSortKeyPrefixes(sleeperSchema, vectorSchemaRoot);
+            int[] sortOrder = SortKeyPrefixSorter.sort(prefixes, () -> {
+                // Each comparator is used by only one thread
+                CompositeVectorComparator comparator = createComparator(sleeperSchema, vectorSchemaRoot);
+                return comparator::compare;
+            }, sortPool);
+            for (int i = 0; i < vectorSize; i++) {
+                sortOrderVector.set(i, sortOrder[i]);
+            }
+            return sortOrderVector;
+        } catch (Exception e) {
+            sortOrderVector.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a normalised prefix of the row keys and sort keys of each row of a {@link VectorSchemaRoot}, ordered
+     * consistently with {@link #createComparator}. Nulls are ordered first, and variable width values are compared as
+     * unsigned bytes, as in the Arrow comparators.
+     *
+     * @param sleeperSchema    schema to use to sort by its keys
+     * @param vectorSchemaRoot vectors to read the keys from
+     * @return the prefix of each row
+     */
+    private static long[] createSortKeyPrefixes(sleeper.core.schema.Schema sleeperSchema,
+                                                VectorSchemaRoot vectorSchemaRoot) {
+        List<sleeper.core.schema.Field> allSleeperFields = sleeperSchema.getAllFields();
+        ValueVector[] keyVectors = Stream.of(sleeperSchema.getRowKeyFields(), sleeperSchema.getSortKeyFields())
+                .flatMap(List::stream)
+                .map(field -> vectorSchemaRoot.getVector(allSleeperFields.indexOf(field)))
+                .toArray(ValueVector[]::new);
+        int rowCount = vectorSchemaRoot.getRowCount();
+        long[] prefixes = new long[rowCount];
+        SortKeyPrefix prefix = new SortKeyPrefix();
+        for (int row = 0; row < rowCount; row++) {
+            prefix.reset();
+            for (int i = 0; i < keyVectors.length && !prefix.isComplete(); i++) {
+                appendToPrefix(prefix, keyVectors[i], row);
+            }
+            prefixes[row] = prefix.get();
+        }
+        return prefixes;
+    }
+
+    private static void appendToPrefix(SortKeyPrefix prefix, ValueVector vector, int row) {
+        if (vector.isNull(row)) {
+            prefix.appendNull(true);
+        } else if (vector instanceof IntVector) {
+            prefix.appendInt(((IntVector) vector).get(row));
+        } else if (vector instanceof BigIntVector) {
+            prefix.appendLong(((BigIntVector) vector).get(row));
+        } else if (vector instanceof BaseVariableWidthVector) {
+            BaseVariableWidthVector variableWidthVector = (BaseVariableWidthVector) vector;
+            ArrowBuf data = variableWidthVector.getDataBuffer();
+            int end = variableWidthVector.getEndOffset(row);
+            for (int i = variableWidthVector.getStartOffset(row); i < end && !prefix.isComplete(); i++) {
+                prefix.appendUnsignedByte(data.getByte(i));
+            }
+            prefix.endVariableWidth();
+        } else {
+            throw new UnsupportedOperationException("Arrow vector type " + vector.getClass().getSimpleName() + " is not handled");
+        }
+    }
+
+    /**
+     * Creates a comparator for rows of a {@link VectorSchemaRoot}, by the row keys and sort keys of a Sleeper schema.
+     * The comparator is attached to the vectors, and compares rows by their index.
+     *
+     * @param sleeperSchema    schema to use to sort by its keys
+     * @param vectorSchemaRoot vectors to compare rows of
+     * @return the comparator
+     */
+    private static CompositeVectorComparator createComparator(sleeper.core.schema.Schema sleeperSchema,
+                                                              VectorSchemaRoot vectorSchemaRoot) {
+        // Work out which fields are to be used for the sort, where they are in the fields, and what type they are
         List<sleeper.core.schema.Field> allSleeperFields = sleeperSchema.getAllFields();
         List<sleeper.core.schema.Field> sleeperSortOrderFieldsInOrder =
                 Stream.of(sleeperSchema.getRowKeyFields(), sleeperSchema.getSortKeyFields())
@@ -94,19 +199,8 @@ class ArrowIngestSupport {
                     }
                 }).collect(Collectors.toList());
         CompositeVectorComparator compositeVectorComparator = new CompositeVectorComparator(vectorValueComparatorsInOrder.toArray(new VectorValueComparator[0]));
-        // Create a vector to hold the row indices of the data before it has been sorted and populate it with the
-        // values 0...vectorSize. This will be sorted in the order specified by the CompositeVectorComparator
-        // and so we create a vector to hold the row indices of the data once it has been sorted
-        IntVector sortOrderVector = new IntVector("Sort order vector", bufferAllocator);
-        try {
-            sortOrderVector.allocateNew(vectorSize);
-            sortOrderVector.setValueCount(vectorSize);
-            IndexSorter<ValueVector> indexSorter = new IndexSorter<>();
-            indexSorter.sort(vectorSchemaRoot.getVector(0), sortOrderVector, compositeVectorComparator);
-            return sortOrderVector;
-        } catch (Exception e) {
-            sortOrderVector.close();
-            throw e;
-        }
+        // The composite comparator checks for nulls in the vector it is attached to before comparing each field
+        compositeVectorComparator.attachVector(vectorSchemaRoot.getVector(0));
+        return compositeVectorComparator;
     }
 }
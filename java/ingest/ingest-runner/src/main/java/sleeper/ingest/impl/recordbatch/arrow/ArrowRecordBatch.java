@@ -15,48 +15,54 @@
  */
 package sleeper.ingest.impl.recordbatch.arrow;
 
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.BaseFixedWidthVector;
 import org.apache.arrow.vector.IntVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.ipc.ArrowStreamReader;
 import org.apache.arrow.vector.ipc.ArrowStreamWriter;
-import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
 
+import sleeper.arrow.RecordIteratorFromArrowStreamReader;
+import sleeper.configuration.properties.validation.ArrowSpillCompressionCodec;
 import sleeper.core.iterator.CloseableIterator;
 import sleeper.core.iterator.MergingIterator;
 import sleeper.core.record.Record;
 import sleeper.core.schema.Field;
 import sleeper.core.schema.Schema;
-import sleeper.core.schema.type.ByteArrayType;
-import sleeper.core.schema.type.IntType;
 import sleeper.core.schema.type.ListType;
-import sleeper.core.schema.type.LongType;
 import sleeper.core.schema.type.MapType;
-import sleeper.core.schema.type.StringType;
-import sleeper.core.schema.type.Type;
 import sleeper.ingest.impl.recordbatch.RecordBatch;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.util.Objects.requireNonNull;
+import static sleeper.arrow.ArrowSchemaConverter.convertSleeperSchemaToArrowSchema;
 
 /**
  * This class stores data in Arrow format, in-memory where possible and then spilling to disk once the memory is full.
@@ -82,11 +88,12 @@ import static java.util.Objects.requireNonNull;
  *
  * @param <INCOMINGDATATYPE> The type of data that can be appended to this record batch
  */
-public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGDATATYPE> {
+public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGDATATYPE>, ArrowRowSource {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArrowRecordBatch.class);
-    public static final String MAP_KEY_FIELD_NAME = "key";
-    public static final String MAP_VALUE_FIELD_NAME = "value";
     private static final int INITIAL_ARROW_VECTOR_CAPACITY = 1024;
+    private static final int COMPRESSED_LOCAL_FILE_BUFFER_BYTES = 1024 * 1024;
+    private static final int MIN_COMPRESSED_LOCAL_FILE_READ_BUFFER_BYTES = 64 * 1024;
+    private static final int COMPRESSED_LOCAL_FILES_READ_BUFFER_TOTAL_BYTES = 32 * 1024 * 1024;
 
     protected final VectorSchemaRoot vectorSchemaRoot;
     private final ArrowRecordWriter<INCOMINGDATATYPE> recordMapper;
@@ -99,10 +106,12 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
     protected final List<String> localArrowFileNames;
     protected final String uniqueIdentifier;
     protected final long maxNoOfBytesToWriteLocally;
+    private final ForkJoinPool sortPool;
+    private final ArrowSpillCompressionCodec spillCompressionCodec;
     protected int currentInsertIndex;
     protected long noOfBytesInLocalFiles;
     protected int currentBatchNo;
-    protected CloseableIterator<Record> internalSortedRecordIterator;
+    protected CloseableIterator<?> internalSortedRecordIterator;
     protected boolean isWriteable;
 
     /**
@@ -121,10 +130,14 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
      *                                               may be shared with other processes and so the data may be flushed
      *                                               to local disk before this object has entirely filled it
      * @param maxNoOfBytesToWriteLocally             The maximum number of bytes to write to a local disk before this
-     *                                               batch is considered full (approximate only)
+     *                                               batch is considered full (approximate only). If the local files
+     *                                               are compressed, this applies to the compressed size
      * @param maxNoOfRecordsToWriteToArrowFileAtOnce The Arrow file writing process writes multiple small batches of
      *                                               data of this size into a single file, to reduced the memory
      *                                               footprint
+     * @param sortPool                               A pool to sort large batches in parallel before they are written
+     *                                               to local files, or null to sort them on the calling thread
+     * @param spillCompressionCodec                  The codec to compress the local Arrow files with
      */
     @SuppressFBWarnings("MC_OVERRIDABLE_METHOD_CALL_IN_CONSTRUCTOR")
     public ArrowRecordBatch(BufferAllocator arrowBufferAllocator,
@@ -135,7 +148,9 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
                             long minBatchArrowBufferAllocatorBytes,
                             long maxBatchArrowBufferAllocatorBytes,
                             long maxNoOfBytesToWriteLocally,
-                            int maxNoOfRecordsToWriteToArrowFileAtOnce) {
+                            int maxNoOfRecordsToWriteToArrowFileAtOnce,
+                            ForkJoinPool sortPool,
+                            ArrowSpillCompressionCodec spillCompressionCodec) {
         requireNonNull(arrowBufferAllocator);
         this.sleeperSchema = requireNonNull(sleeperSchema);
         this.recordMapper = requireNonNull(recordMapper);
@@ -143,6 +158,8 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
         this.localWorkingDirectory = requireNonNull(localWorkingDirectory);
         this.maxNoOfBytesToWriteLocally = maxNoOfBytesToWriteLocally;
         this.maxNoOfRecordsToWriteToArrowFileAtOnce = maxNoOfRecordsToWriteToArrowFileAtOnce;
+        this.sortPool = sortPool;
+        this.spillCompressionCodec = requireNonNull(spillCompressionCodec);
         this.currentBatchNo = 0;
         this.currentInsertIndex = 0;
         this.noOfBytesInLocalFiles = 0L;
@@ -187,16 +204,18 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
         LOGGER.info("Created ArrowRecordBatchBase with:\n"
                         + "\tschema of {}\n\tlocalWorkingDirectory of {}\n\tworkingArrowBufferAllocatorBytes of {}\n"
                         + "\tminBatchArrowBufferAllocatorBytes of {}\n\tmaxBatchArrowBufferAllocatorBytes of {}\n"
-                        + "\tmaxNoOfBytesToWriteLocally of {}\n\tmaxNoOfRecordsToWriteToArrowFileAtOnce of {}",
+                        + "\tmaxNoOfBytesToWriteLocally of {}\n\tmaxNoOfRecordsToWriteToArrowFileAtOnce of {}\n"
+                        + "\tspillCompressionCodec of {}",
                 this.sleeperSchema, this.localWorkingDirectory, workingArrowBufferAllocatorBytes,
                 minBatchArrowBufferAllocatorBytes, maxBatchArrowBufferAllocatorBytes,
-                this.maxNoOfBytesToWriteLocally, this.maxNoOfRecordsToWriteToArrowFileAtOnce);
+                this.maxNoOfBytesToWriteLocally, this.maxNoOfRecordsToWriteToArrowFileAtOnce,
+                this.spillCompressionCodec);
     }
 
     /**
      * Sort a {@link VectorSchemaRoot} according to the single row key specified in the {@link Schema} and then write
      * the sorted rows out to an Arrow file. The rows are written out in small batches to minimise the amount of
-     * additional memory that is required.
+     * additional memory that is required. Each small batch is gathered one column at a time.
      *
      * @param temporaryBufferAllocator               The buffer allocator to use for working memory
      * @param sleeperSchema                          The Sleeper {@link Schema} of the rows to be sorted
@@ -205,7 +224,9 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
      * @param maxNoOfRecordsToWriteToArrowFileAtOnce The Arrow file writing process writes multiple small batches of
      *                                               data of this size into a single file, to reduce the memory
      *                                               footprint
-     * @return Number of bytes written
+     * @param sortPool                               A pool to sort in parallel, or null to sort on this thread
+     * @param spillCompressionCodec                  The codec to compress the Arrow file with
+     * @return Number of bytes in the file on disk, after any compression
      * @throws IOException -
      */
     @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
@@ -213,7 +234,9 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
                                                      Schema sleeperSchema,
                                                      VectorSchemaRoot sourceVectorSchemaRoot,
                                                      String localArrowFileName,
-                                                     int maxNoOfRecordsToWriteToArrowFileAtOnce) throws IOException {
+                                                     int maxNoOfRecordsToWriteToArrowFileAtOnce,
+                                                     ForkJoinPool sortPool,
+                                                     ArrowSpillCompressionCodec spillCompressionCodec) throws IOException {
         int sourceVectorSize = sourceVectorSchemaRoot.getRowCount();
         List<Field> allSleeperFields = sleeperSchema.getAllFields();
         // Determine the order in which the rows are to be written to the Arrow file
@@ -225,10 +248,10 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
         Path arrowFileParent = Objects.requireNonNull(arrowFilePath.getParent());
         Files.createDirectories(arrowFileParent);
         LOGGER.debug("Determining sort order and opening local arrow file");
-        try (IntVector wholeFileSortOrderVector = ArrowIngestSupport.createSortOrderVector(temporaryBufferAllocator, sleeperSchema, sourceVectorSchemaRoot);
+        try (IntVector wholeFileSortOrderVector = ArrowIngestSupport.createSortOrderVector(temporaryBufferAllocator, sleeperSchema, sourceVectorSchemaRoot, sortPool);
              VectorSchemaRoot smallBatchVectorSchemaRoot = VectorSchemaRoot.create(sourceVectorSchemaRoot.getSchema(), temporaryBufferAllocator);
-             FileChannel outputFileChannel = FileChannel.open(arrowFilePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
-             ArrowStreamWriter arrowStreamWriter = new ArrowStreamWriter(smallBatchVectorSchemaRoot, null, outputFileChannel)) {
+             WritableByteChannel outputChannel = openLocalArrowFileForWrite(arrowFilePath, spillCompressionCodec);
+             ArrowStreamWriter arrowStreamWriter = new ArrowStreamWriter(smallBatchVectorSchemaRoot, null, outputChannel)) {
             // Allocate memory in the vectors underlying the VectorSchemaRoot and start the writer
             smallBatchVectorSchemaRoot.getFieldVectors().forEach(fieldVector -> fieldVector.setInitialCapacity(maxNoOfRecordsToWriteToArrowFileAtOnce));
             smallBatchVectorSchemaRoot.allocateNew();
@@ -248,15 +271,11 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
                 int sliceLength = sliceEnd - sliceStart;
                 // Populate the smallBatchVectorSchemaRoot from the sourceVectorSchemaRoot,
                 // taking the sort order into account
-                for (int sliceIndex = 0; sliceIndex < sliceLength; sliceIndex++) {
-                    int readIndex = wholeFileSortOrderVector.get(sliceStart + sliceIndex);
-                    for (int fieldNo = 0; fieldNo < allSleeperFields.size(); fieldNo++) {
-                        ValueVector srcVector = sourceVectorSchemaRoot.getVector(fieldNo);
-                        ValueVector dstVector = smallBatchVectorSchemaRoot.getVector(fieldNo);
-                        dstVector.copyFromSafe(readIndex, sliceIndex, srcVector);
-                    }
-                    smallBatchVectorSchemaRoot.setRowCount(sliceIndex + 1);
+                for (int fieldNo = 0; fieldNo < allSleeperFields.size(); fieldNo++) {
+                    gatherColumn(sourceVectorSchemaRoot.getVector(fieldNo), smallBatchVectorSchemaRoot.getVector(fieldNo),
+                            wholeFileSortOrderVector, sliceStart, sliceLength);
                 }
+                smallBatchVectorSchemaRoot.setRowCount(sliceLength);
                 // Write the batch
                 arrowStreamWriter.writeBatch();
                 // Prepare for the next batch
@@ -267,106 +286,138 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
             bytesWritten = arrowStreamWriter.bytesWritten();
             // The sort vector, smallBatchVectorSchemaRoot, channel and writer are auto-closed at the end of the try block
         }
-        LOGGER.debug(String.format("Written %09d bytes", bytesWritten));
-        return bytesWritten;
+        long bytesOnDisk = Files.size(arrowFilePath);
+        LOGGER.debug(String.format("Written %09d bytes, %09d bytes on disk", bytesWritten, bytesOnDisk));
+        return bytesOnDisk;
     }
 
     /**
-     * Create a {@link CloseableIterator} of {@link Record} objects which reads the rows from the named Arrow file.
-     * <p>
-     * The {@link CloseableIterator} should be closed by the caller when it is no longer needed.
+     * Open a local Arrow file to write to, compressing the data with the given codec. Compressed data is buffered in
+     * large blocks either side of the compressor, as the Arrow writer makes many small writes.
      *
-     * @param bufferAllocator    The Arrow {@link BufferAllocator} to use as a working buffer during file-reading
-     * @param localArrowFileName The Arrow file to read
-     * @return An iterator of records read from the Arrow file
+     * @param arrowFilePath         The file to create
+     * @param spillCompressionCodec The codec to compress the data with
+     * @return A channel to write the Arrow stream to, which closes the file when it is closed
      * @throws IOException -
      */
-    private static CloseableIterator<Record> createCloseableRecordIteratorForArrowFile(BufferAllocator bufferAllocator,
-                                                                                       String localArrowFileName)
-            throws IOException {
-        FileChannel inputFileChannel = FileChannel.open(Paths.get(localArrowFileName), StandardOpenOption.READ);
-        ArrowStreamReader arrowStreamReader = new ArrowStreamReader(inputFileChannel, bufferAllocator);
-        return new RecordIteratorFromArrowStreamReader(arrowStreamReader);
+    @SuppressFBWarnings("OS_OPEN_STREAM")
+    private static WritableByteChannel openLocalArrowFileForWrite(Path arrowFilePath,
+                                                                  ArrowSpillCompressionCodec spillCompressionCodec) throws IOException {
+        FileChannel fileChannel = FileChannel.open(arrowFilePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        if (spillCompressionCodec == ArrowSpillCompressionCodec.NONE) {
+            return fileChannel;
+        }
+        try {
+            OutputStream fileStream = new BufferedOutputStream(Channels.newOutputStream(fileChannel), COMPRESSED_LOCAL_FILE_BUFFER_BYTES);
+            OutputStream compressingStream;
+            if (spillCompressionCodec == ArrowSpillCompressionCodec.ZSTD) {
+                compressingStream = new ZstdOutputStream(fileStream).setChecksum(true);
+            } else {
+                compressingStream = new SnappyFramedOutputStream(fileStream);
+            }
+            return Channels.newChannel(new BufferedOutputStream(compressingStream, COMPRESSED_LOCAL_FILE_BUFFER_BYTES));
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
     }
 
     /**
-     * Create an Arrow Schema from a Sleeper Schema. The order of the fields in each Schema is retained.
+     * Open a local Arrow file to read from, which was written by
+     * {@link #openLocalArrowFileForWrite(Path, ArrowSpillCompressionCodec)}. The checksums in the compressed data
+     * are verified as it is read.
      *
-     * @param sleeperSchema The Sleeper {@link Schema}
-     * @return The Arrow {@link org.apache.arrow.vector.types.pojo.Schema}
+     * @param arrowFilePath         The file to read
+     * @param spillCompressionCodec The codec that the data was compressed with
+     * @param readBufferBytes       The size of each buffer either side of the decompressor
+     * @return A stream of the uncompressed data, which closes the file when it is closed
+     * @throws IOException -
      */
-    private static org.apache.arrow.vector.types.pojo.Schema convertSleeperSchemaToArrowSchema(Schema sleeperSchema) {
-        List<org.apache.arrow.vector.types.pojo.Field> arrowFields =
-                sleeperSchema.getAllFields().stream()
-                        .map(ArrowRecordBatch::convertSleeperFieldToArrowField)
-                        .collect(Collectors.toList());
-        return new org.apache.arrow.vector.types.pojo.Schema(arrowFields);
+    private static InputStream openCompressedLocalArrowFileForRead(Path arrowFilePath,
+                                                                   ArrowSpillCompressionCodec spillCompressionCodec,
+                                                                   int readBufferBytes) throws IOException {
+        FileChannel fileChannel = FileChannel.open(arrowFilePath, StandardOpenOption.READ);
+        try {
+            InputStream fileStream = new BufferedInputStream(Channels.newInputStream(fileChannel), readBufferBytes);
+            InputStream decompressingStream;
+            if (spillCompressionCodec == ArrowSpillCompressionCodec.ZSTD) {
+                decompressingStream = new ZstdInputStream(fileStream);
+            } else {
+                decompressingStream = new SnappyFramedInputStream(fileStream);
+            }
+            return new BufferedInputStream(decompressingStream, readBufferBytes);
+        } catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
     }
 
-    private static org.apache.arrow.vector.types.pojo.Field convertSleeperFieldToArrowField(Field sleeperField) {
-        String fieldName = sleeperField.getName();
-        Type sleeperType = sleeperField.getType();
-        if (sleeperType instanceof IntType ||
-                sleeperType instanceof LongType ||
-                sleeperType instanceof StringType ||
-                sleeperType instanceof ByteArrayType) {
-            // Where the Sleeper field type is a straightforward primitive type, the corresponding Arrow type is used
-            return convertSleeperPrimitiveFieldToArrowField(sleeperField);
-        } else if (sleeperType instanceof ListType) {
-            // Where the Sleeper field type is a list, the Arrow field type is also a list. The elements of the
-            // Arrow list are chosen to match the (primitive) type of the elements in the Sleeper list
-            Type elementSleeperType = ((ListType) sleeperType).getElementType();
-            Field elementSleeperField = new Field("element", elementSleeperType);
-            org.apache.arrow.vector.types.pojo.Field elementArrowField = convertSleeperPrimitiveFieldToArrowField(elementSleeperField);
-            return new org.apache.arrow.vector.types.pojo.Field(
-                    fieldName,
-                    new org.apache.arrow.vector.types.pojo.FieldType(false, new ArrowType.List(), null),
-                    Collections.singletonList(elementArrowField));
-        } else if (sleeperType instanceof MapType) {
-            // Where the Sleeper field type is a map, the Arrow field type is a list. Each element of the list is an
-            // Arrow struct with two members: key and value. The types of the key and value are chosen to match the
-            // (primitive) type of the elements in the Sleeper list.
-            // This implementation does not use the Arrow 'map' field type, as we were unable to make this approach work
-            // in our experiments.
-            Type keySleeperType = ((MapType) sleeperType).getKeyType();
-            Type valueSleeperType = ((MapType) sleeperType).getValueType();
-            Field keySleeperField = new Field(MAP_KEY_FIELD_NAME, keySleeperType);
-            Field valueSleeperField = new Field(MAP_VALUE_FIELD_NAME, valueSleeperType);
-            org.apache.arrow.vector.types.pojo.Field keyArrowField = convertSleeperPrimitiveFieldToArrowField(keySleeperField);
-            org.apache.arrow.vector.types.pojo.Field valueArrowField = convertSleeperPrimitiveFieldToArrowField(valueSleeperField);
-            org.apache.arrow.vector.types.pojo.Field elementArrowStructField = new org.apache.arrow.vector.types.pojo.Field(
-                    fieldName + "-key-value-struct",
-                    new org.apache.arrow.vector.types.pojo.FieldType(false, new ArrowType.Struct(), null),
-                    Stream.of(keyArrowField, valueArrowField).collect(Collectors.toList()));
-            return new org.apache.arrow.vector.types.pojo.Field(
-                    fieldName,
-                    new org.apache.arrow.vector.types.pojo.FieldType(false, new ArrowType.List(), null),
-                    Collections.singletonList(elementArrowStructField));
+    /**
+     * Choose the size of the buffers used to read each compressed local file when they are all merged at once. Each
+     * file has two buffers, so these are made smaller when there are many files, to limit the heap used by the merge.
+     *
+     * @param numberOfFiles The number of files that will be read at once
+     * @return The size of each buffer
+     */
+    static int readBufferBytesForFiles(int numberOfFiles) {
+        int bytes = COMPRESSED_LOCAL_FILES_READ_BUFFER_TOTAL_BYTES / (2 * Math.max(1, numberOfFiles));
+        return Math.max(MIN_COMPRESSED_LOCAL_FILE_READ_BUFFER_BYTES, Math.min(COMPRESSED_LOCAL_FILE_BUFFER_BYTES, bytes));
+    }
+
+    /**
+     * Copy values from one column into another, in the order given by a range of a sort order vector. Fixed width
+     * vectors always have capacity for a whole slice, as they are allocated with that capacity and their buffers are
+     * kept between slices. Other vectors may need to grow to fit the values.
+     *
+     * @param srcVector   The vector to copy from
+     * @param dstVector   The vector to copy into, starting at index 0
+     * @param sortOrder   The indices of the rows in the source vector, in sorted order
+     * @param sliceStart  The position in the sort order to start at
+     * @param sliceLength The number of values to copy
+     */
+    private static void gatherColumn(ValueVector srcVector, ValueVector dstVector,
+                                     IntVector sortOrder, int sliceStart, int sliceLength) {
+        if (dstVector instanceof BaseFixedWidthVector && dstVector.getValueCapacity() >= sliceLength) {
+            for (int sliceIndex = 0; sliceIndex < sliceLength; sliceIndex++) {
+                dstVector.copyFrom(sortOrder.get(sliceStart + sliceIndex), sliceIndex, srcVector);
+            }
         } else {
-            throw new UnsupportedOperationException("Sleeper column type " + sleeperType.toString() + " is not handled");
+            for (int sliceIndex = 0; sliceIndex < sliceLength; sliceIndex++) {
+                dstVector.copyFromSafe(sortOrder.get(sliceStart + sliceIndex), sliceIndex, srcVector);
+            }
         }
     }
 
     /**
-     * Convert a primitive Sleeper field into an Arrow field.
+     * Create a {@link CloseableIterator} of {@link Record} objects which reads the rows from the named Arrow file.
+     * <p>
+     * The {@link CloseableIterator} should be closed by the caller when it is no longer needed.
      *
-     * @param sleeperField The Sleeper field to be converted
-     * @return The corresponding Arrow field
+     * @param bufferAllocator       The Arrow {@link BufferAllocator} to use as a working buffer during file-reading
+     * @param localArrowFileName    The Arrow file to read
+     * @param spillCompressionCodec The codec that the Arrow file was compressed with
+     * @param readBufferBytes       The size of the buffers to read a compressed file with
+     * @return An iterator of records read from the Arrow file
+     * @throws IOException -
      */
-    private static org.apache.arrow.vector.types.pojo.Field convertSleeperPrimitiveFieldToArrowField(Field sleeperField) {
-        String fieldName = sleeperField.getName();
-        Type sleeperType = sleeperField.getType();
-        if (sleeperType instanceof IntType) {
-            return org.apache.arrow.vector.types.pojo.Field.notNullable(fieldName, new ArrowType.Int(32, true));
-        } else if (sleeperType instanceof LongType) {
-            return org.apache.arrow.vector.types.pojo.Field.notNullable(fieldName, new ArrowType.Int(64, true));
-        } else if (sleeperType instanceof StringType) {
-            return org.apache.arrow.vector.types.pojo.Field.notNullable(fieldName, new ArrowType.Utf8());
-        } else if (sleeperType instanceof ByteArrayType) {
-            return org.apache.arrow.vector.types.pojo.Field.notNullable(fieldName, new ArrowType.Binary());
-        } else {
-            throw new AssertionError("Sleeper column type " + sleeperType.toString() + " is not a primitive inside convertSleeperPrimitiveFieldToArrowField()");
+    private static CloseableIterator<Record> createCloseableRecordIteratorForArrowFile(BufferAllocator bufferAllocator,
+                                                                                       String localArrowFileName,
+                                                                                       ArrowSpillCompressionCodec spillCompressionCodec,
+                                                                                       int readBufferBytes)
+            throws IOException {
+        return new RecordIteratorFromArrowStreamReader(createArrowStreamReader(bufferAllocator, localArrowFileName, spillCompressionCodec, readBufferBytes));
+    }
+
+    private static ArrowStreamReader createArrowStreamReader(BufferAllocator bufferAllocator,
+                                                             String localArrowFileName,
+                                                             ArrowSpillCompressionCodec spillCompressionCodec,
+                                                             int readBufferBytes) throws IOException {
+        Path arrowFilePath = Paths.get(localArrowFileName);
+        if (spillCompressionCodec == ArrowSpillCompressionCodec.NONE) {
+            FileChannel inputFileChannel = FileChannel.open(arrowFilePath, StandardOpenOption.READ);
+            return new ArrowStreamReader(inputFileChannel, bufferAllocator);
         }
+        return new ArrowStreamReader(openCompressedLocalArrowFileForRead(arrowFilePath, spillCompressionCodec, readBufferBytes), bufferAllocator);
     }
 
     /**
@@ -436,7 +487,9 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
                     sleeperSchema,
                     vectorSchemaRoot,
                     localFileName,
-                    maxNoOfRecordsToWriteToArrowFileAtOnce);
+                    maxNoOfRecordsToWriteToArrowFileAtOnce,
+                    sortPool,
+                    spillCompressionCodec);
         } catch (Exception e) {
             LOGGER.warn("An exception occurred during sortArrowAndWriteToLocalFile", e);
             throw e;
@@ -472,13 +525,32 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
      */
     @Override
     public CloseableIterator<Record> createOrderedRecordIterator() throws IOException {
+        CloseableIterator<Record> iterator = createOrderedIterator(this::createSortedRecordIterator);
+        internalSortedRecordIterator = iterator;
+        return iterator;
+    }
+
+    /**
+     * Create an iterator of the rows in this batch in sort order, held in Arrow vectors. This behaves in the same way
+     * as {@link #createOrderedRecordIterator()}, but the local Arrow files are merged by reading their key vectors
+     * directly, and the rows are not converted to {@link Record} objects.
+     *
+     * @return An iterator to iterate through all of the rows in sorted order.
+     */
+    @Override
+    public CloseableIterator<ArrowRow> createOrderedArrowRowIterator() throws IOException {
+        CloseableIterator<ArrowRow> iterator = createOrderedIterator(this::createSortedArrowRowIterator);
+        internalSortedRecordIterator = iterator;
+        return iterator;
+    }
+
+    private <T> CloseableIterator<T> createOrderedIterator(SortedIteratorFactory<T> factory) throws IOException {
         if (!isWriteable || (internalSortedRecordIterator != null)) {
             throw new AssertionError("Attempt to create an iterator where an iterator has already been created");
         }
         isWriteable = false;
         try {
-            internalSortedRecordIterator = createSortedRecordIterator();
-            return internalSortedRecordIterator;
+            return factory.create();
         } catch (Exception e1) {
             try {
                 close();
@@ -498,24 +570,15 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
      * @throws IOException -
      */
     private CloseableIterator<Record> createSortedRecordIterator() throws IOException {
-        if (currentInsertIndex > 0) {
-            LOGGER.debug("Creating an iterator: flushing memory to disk");
-            flushToLocalArrowFileThenClear();
-        }
-        // Log this action
-        LOGGER.info("Starting merge-sort of {} local files", localArrowFileNames.size());
-        if (localArrowFileNames.size() > 0) {
-            LOGGER.debug("First file: {} last file: {}",
-                    localArrowFileNames.get(0),
-                    localArrowFileNames.get(localArrowFileNames.size() - 1));
-        }
+        prepareLocalFilesForMerge();
         // Create the variables for the iterators here so that they can be closed if an error occurs
         List<CloseableIterator<Record>> sortedRecordIteratorsToMerge = new ArrayList<>(localArrowFileNames.size());
+        int readBufferBytes = readBufferBytesForFiles(localArrowFileNames.size());
         try {
             // Create an iterator from each local file
             localArrowFileNames.forEach(localFileName -> {
                 try {
-                    sortedRecordIteratorsToMerge.add(createCloseableRecordIteratorForArrowFile(workingBufferAllocator, localFileName));
+                    sortedRecordIteratorsToMerge.add(createCloseableRecordIteratorForArrowFile(workingBufferAllocator, localFileName, spillCompressionCodec, readBufferBytes));
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -535,6 +598,59 @@ public class ArrowRecordBatch<INCOMINGDATATYPE> implements RecordBatch<INCOMINGD
         }
     }
 
+    /**
+     * Create an iterator to iterate through all of the rows in this batch, in sort order, held in Arrow vectors. This
+     * merges the local Arrow files in the same way as {@link #createSortedRecordIterator()}.
+     *
+     * @return An iterator to iterate through all of the rows in sorted order.
+     * @throws IOException -
+     */
+    private CloseableIterator<ArrowRow> createSortedArrowRowIterator() throws IOException {
+        prepareLocalFilesForMerge();
+        List<ArrowStreamReader> readers = new ArrayList<>(localArrowFileNames.size());
+        int readBufferBytes = readBufferBytesForFiles(localArrowFileNames.size());
+        try {
+            for (String localFileName : localArrowFileNames) {
+                readers.add(createArrowStreamReader(workingBufferAllocator, localFileName, spillCompressionCodec, readBufferBytes));
+            }
+        } catch (Exception e1) {
+            // Clean up carefully if something went wrong during the creation of the readers
+            readers.forEach(reader -> {
+                try {
+                    reader.close();
+                } catch (Exception e2) {
+                    e1.addSuppressed(e2);
+                }
+            });
+            throw e1;
+        }
+        return new ArrowRowMergingIterator(sleeperSchema, readers);
+    }
+
+    private void prepareLocalFilesForMerge() throws IOException {
+        if (currentInsertIndex > 0) {
+            LOGGER.debug("Creating an iterator: flushing memory to disk");
+            flushToLocalArrowFileThenClear();
+        }
+        // Log this action
+        LOGGER.info("Starting merge-sort of {} local files", localArrowFileNames.size());
+        if (localArrowFileNames.size() > 0) {
+            LOGGER.debug("First file: {} last file: {}",
+                    localArrowFileNames.get(0),
+                    localArrowFileNames.get(localArrowFileNames.size() - 1));
+        }
+    }
+
+    /**
+     * Creates a sorted iterator over the local files.
+     *
+     * @param <T> the type of the items in the iterator
+     */
+    @FunctionalInterface
+    private interface SortedIteratorFactory<T> {
+        CloseableIterator<T> create() throws IOException;
+    }
+
     @Override
     public void append(INCOMINGDATATYPE data) throws IOException {
         if (!isWriteable) {
@@ -22,17 +22,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.validation.ArrowSpillCompressionCodec;
 import sleeper.core.record.Record;
 import sleeper.core.schema.Schema;
 import sleeper.ingest.impl.recordbatch.RecordBatch;
 import sleeper.ingest.impl.recordbatch.RecordBatchFactory;
 
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 import static sleeper.configuration.properties.instance.ArrowIngestProperty.ARROW_INGEST_BATCH_BUFFER_BYTES;
 import static sleeper.configuration.properties.instance.ArrowIngestProperty.ARROW_INGEST_MAX_LOCAL_STORE_BYTES;
 import static sleeper.configuration.properties.instance.ArrowIngestProperty.ARROW_INGEST_MAX_SINGLE_WRITE_TO_FILE_RECORDS;
+import static sleeper.configuration.properties.instance.ArrowIngestProperty.ARROW_INGEST_SORT_THREADS;
+import static sleeper.configuration.properties.instance.ArrowIngestProperty.ARROW_INGEST_SPILL_COMPRESSION_CODEC;
 import static sleeper.configuration.properties.instance.ArrowIngestProperty.ARROW_INGEST_WORKING_BUFFER_BYTES;
+import static sleeper.configuration.properties.instance.IngestProperty.INGEST_MAX_BATCHES_IN_FLIGHT;
 
 public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFactory<INCOMINGDATATYPE> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArrowRecordBatchFactory.class);
@@ -44,6 +49,10 @@ public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFac
     private final long maxBatchBufferAllocatorBytes;
     private final long maxNoOfBytesToWriteLocally;
     private final int maxNoOfRecordsToWriteToArrowFileAtOnce;
+    private final int maxBatchesInFlight;
+    private final int sortThreads;
+    private final ForkJoinPool sortPool;
+    private final ArrowSpillCompressionCodec spillCompressionCodec;
     private final ArrowRecordWriter<INCOMINGDATATYPE> recordWriter;
     private final BufferAllocator bufferAllocator;
     private final boolean closeBufferAllocator;
@@ -64,15 +73,26 @@ public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFac
         if (builder.maxNoOfRecordsToWriteToArrowFileAtOnce < 1) {
             throw new IllegalArgumentException("maxNoOfRecordsToWriteToArrowFileAtOnce must be positive");
         }
+        if (builder.sortThreads < 1) {
+            throw new IllegalArgumentException("sortThreads must be positive");
+        }
+        if (builder.maxBatchesInFlight < 0) {
+            throw new IllegalArgumentException("maxBatchesInFlight must not be negative");
+        }
         this.workingBufferAllocatorBytes = builder.workingBufferAllocatorBytes;
         this.minBatchBufferAllocatorBytes = builder.minBatchBufferAllocatorBytes;
         this.maxBatchBufferAllocatorBytes = builder.maxBatchBufferAllocatorBytes;
         this.maxNoOfBytesToWriteLocally = builder.maxNoOfBytesToWriteLocally;
         this.maxNoOfRecordsToWriteToArrowFileAtOnce = builder.maxNoOfRecordsToWriteToArrowFileAtOnce;
+        this.maxBatchesInFlight = builder.maxBatchesInFlight;
+        this.sortThreads = builder.sortThreads;
+        this.sortPool = sortThreads > 1 ? new ForkJoinPool(sortThreads) : null;
+        this.spillCompressionCodec = Objects.requireNonNull(builder.spillCompressionCodec, "spillCompressionCodec must not be null");
         this.recordWriter = Objects.requireNonNull(builder.recordWriter, "recordWriter must not be null");
         if (builder.bufferAllocator == null) {
             this.closeBufferAllocator = true;
-            this.bufferAllocator = new RootAllocator(workingBufferAllocatorBytes + maxBatchBufferAllocatorBytes);
+            // Each batch being written in the background holds its memory until it is closed
+            this.bufferAllocator = new RootAllocator((workingBufferAllocatorBytes + maxBatchBufferAllocatorBytes) * (maxBatchesInFlight + 1));
         } else {
             this.closeBufferAllocator = false;
             this.bufferAllocator = builder.bufferAllocator;
@@ -84,10 +104,14 @@ public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFac
                         "\tmaxBatchBufferAllocatorBytes of {}\n" +
                         "\tmaxNoOfBytesToWriteLocally of {}\n" +
                         "\tmaxNoOfRecordsToWriteToArrowFileAtOnce of {}\n" +
+                        "\tmaxBatchesInFlight of {}\n" +
+                        "\tsortThreads of {}\n" +
+                        "\tspillCompressionCodec of {}\n" +
                         "\trecordWriter of type {}",
                 this.schema, this.localWorkingDirectory, this.workingBufferAllocatorBytes,
                 this.maxBatchBufferAllocatorBytes, this.maxNoOfBytesToWriteLocally,
-                this.maxNoOfRecordsToWriteToArrowFileAtOnce, recordWriter.getClass().getSimpleName());
+                this.maxNoOfRecordsToWriteToArrowFileAtOnce, this.maxBatchesInFlight, this.sortThreads,
+                this.spillCompressionCodec, recordWriter.getClass().getSimpleName());
     }
 
     public static Builder<?> builder() {
@@ -109,11 +133,21 @@ public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFac
                 minBatchBufferAllocatorBytes,
                 maxBatchBufferAllocatorBytes,
                 maxNoOfBytesToWriteLocally,
-                maxNoOfRecordsToWriteToArrowFileAtOnce);
+                maxNoOfRecordsToWriteToArrowFileAtOnce,
+                sortPool,
+                spillCompressionCodec);
+    }
+
+    @Override
+    public boolean hasMemoryForNewBatch() {
+        return bufferAllocator.getHeadroom() >= workingBufferAllocatorBytes + minBatchBufferAllocatorBytes;
     }
 
     @Override
     public void close() {
+        if (sortPool != null) {
+            sortPool.shutdown();
+        }
         if (closeBufferAllocator) {
             bufferAllocator.close();
         }
@@ -127,6 +161,9 @@ public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFac
         private long maxBatchBufferAllocatorBytes;
         private long maxNoOfBytesToWriteLocally;
         private int maxNoOfRecordsToWriteToArrowFileAtOnce;
+        private int maxBatchesInFlight;
+        private int sortThreads = 1;
+        private ArrowSpillCompressionCodec spillCompressionCodec = ArrowSpillCompressionCodec.NONE;
         private BufferAllocator bufferAllocator;
         private ArrowRecordWriter<T> recordWriter;
 
@@ -173,6 +210,21 @@ public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFac
             return this;
         }
 
+        public Builder<T> maxBatchesInFlight(int maxBatchesInFlight) {
+            this.maxBatchesInFlight = maxBatchesInFlight;
+            return this;
+        }
+
+        public Builder<T> sortThreads(int sortThreads) {
+            this.sortThreads = sortThreads;
+            return this;
+        }
+
+        public Builder<T> spillCompressionCodec(ArrowSpillCompressionCodec spillCompressionCodec) {
+            this.spillCompressionCodec = spillCompressionCodec;
+            return this;
+        }
+
         public Builder<T> bufferAllocator(BufferAllocator bufferAllocator) {
             this.bufferAllocator = bufferAllocator;
             return this;
@@ -183,7 +235,10 @@ public class ArrowRecordBatchFactory<INCOMINGDATATYPE> implements RecordBatchFac
                     .workingBufferAllocatorBytes(instanceProperties.getLong(ARROW_INGEST_WORKING_BUFFER_BYTES))
                     .minBatchBufferAllocatorBytes(instanceProperties.getLong(ARROW_INGEST_BATCH_BUFFER_BYTES))
                     .maxBatchBufferAllocatorBytes(instanceProperties.getLong(ARROW_INGEST_BATCH_BUFFER_BYTES))
-                    .maxNoOfBytesToWriteLocally(instanceProperties.getLong(ARROW_INGEST_MAX_LOCAL_STORE_BYTES));
+                    .maxNoOfBytesToWriteLocally(instanceProperties.getLong(ARROW_INGEST_MAX_LOCAL_STORE_BYTES))
+                    .maxBatchesInFlight(instanceProperties.getInt(INGEST_MAX_BATCHES_IN_FLIGHT))
+                    .sortThreads(instanceProperties.getInt(ARROW_INGEST_SORT_THREADS))
+                    .spillCompressionCodec(ArrowSpillCompressionCodec.from(instanceProperties.get(ARROW_INGEST_SPILL_COMPRESSION_CODEC)));
         }
 
         public <INCOMINGDATATYPE> Builder<INCOMINGDATATYPE> recordWriter(ArrowRecordWriter<INCOMINGDATATYPE> recordWriter) {
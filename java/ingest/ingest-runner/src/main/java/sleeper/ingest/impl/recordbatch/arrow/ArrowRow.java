@@ -0,0 +1,111 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+
+import sleeper.arrow.ArrowToRecordConversionUtils;
+import sleeper.core.key.Key;
+import sleeper.core.record.Record;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reference to a single row held in a {@link VectorSchemaRoot}, whose fields are in the order of the Sleeper schema.
+ * This allows a row to be passed on without creating a {@link Record}. The same object is moved from row to row, so it
+ * is only valid until it is next moved.
+ */
+public class ArrowRow {
+    private final int numRowKeys;
+    private VectorSchemaRoot vectorSchemaRoot;
+    private int rowNo;
+    private Key rowKey;
+
+    public ArrowRow(int numRowKeys) {
+        this.numRowKeys = numRowKeys;
+    }
+
+    /**
+     * Moves this reference to another row.
+     *
+     * @param vectorSchemaRoot the vectors holding the row
+     * @param rowNo            the index of the row in the vectors
+     */
+    public void moveTo(VectorSchemaRoot vectorSchemaRoot, int rowNo) {
+        this.vectorSchemaRoot = vectorSchemaRoot;
+        this.rowNo = rowNo;
+        this.rowKey = null;
+    }
+
+    public VectorSchemaRoot getVectorSchemaRoot() {
+        return vectorSchemaRoot;
+    }
+
+    public int getRowNo() {
+        return rowNo;
+    }
+
+    /**
+     * Reads the row key of this row. This is the only part of the row which is read into objects, and it is read at
+     * most once for each row.
+     *
+     * @return the row key
+     */
+    @SuppressFBWarnings("UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+    public Key getRowKey() {
+        if (null == rowKey) {
+            List<Object> values = new ArrayList<>(numRowKeys);
+            for (int i = 0; i < numRowKeys; i++) {
+                values.add(readKeyValue(vectorSchemaRoot.getVector(i), rowNo));
+            }
+            rowKey = Key.create(values);
+        }
+        return rowKey;
+    }
+
+    /**
+     * Creates a {@link Record} holding the values of this row.
+     *
+     * @return the record
+     */
+    public Record toRecord() {
+        return ArrowToRecordConversionUtils.convertVectorSchemaRootToRecord(vectorSchemaRoot, rowNo);
+    }
+
+    private static Object readKeyValue(FieldVector vector, int rowNo) {
+        if (vector.isNull(rowNo)) {
+            return null;
+        } else if (vector instanceof IntVector) {
+            return ((IntVector) vector).get(rowNo);
+        } else if (vector instanceof BigIntVector) {
+            return ((BigIntVector) vector).get(rowNo);
+        } else if (vector instanceof VarCharVector) {
+            return new String(((VarCharVector) vector).get(rowNo), StandardCharsets.UTF_8);
+        } else if (vector instanceof VarBinaryVector) {
+            return ((VarBinaryVector) vector).get(rowNo);
+        } else {
+            throw new UnsupportedOperationException("Arrow vector type " + vector.getClass().getSimpleName() + " is not handled");
+        }
+    }
+}
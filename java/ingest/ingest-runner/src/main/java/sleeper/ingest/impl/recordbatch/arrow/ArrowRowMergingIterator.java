@@ -0,0 +1,215 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import org.apache.arrow.memory.util.ByteFunctionHelpers;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.schema.Schema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted Arrow streams into a single sorted iterator of {@link ArrowRow}s. Rows are compared by reading their
+ * row keys and sort keys directly from the vectors, and no other fields are read. Each stream is read in the small
+ * batches that it was written in.
+ * <p>
+ * The returned {@link ArrowRow} is reused, and refers to the vectors of the stream it was read from. It is only valid
+ * until the next call to {@link #hasNext()} or {@link #next()}, as that may load the next batch of the stream into the
+ * same vectors.
+ */
+public class ArrowRowMergingIterator implements CloseableIterator<ArrowRow> {
+    private final List<ArrowStreamReader> readers;
+    private final PriorityQueue<Source> queue;
+    private final int numKeyFields;
+    private final ArrowRow row;
+    private Source lastReadSource;
+
+    /**
+     * Creates an iterator merging the given streams. The readers are closed when this is closed, or if this fails to
+     * be created.
+     *
+     * @param sleeperSchema the Sleeper schema of the rows in the streams
+     * @param readers       the readers of the streams, each of which must be in sorted order
+     * @throws IOException if the first batch of a stream could not be read
+     */
+    public ArrowRowMergingIterator(Schema sleeperSchema, List<ArrowStreamReader> readers) throws IOException {
+        this.numKeyFields = sleeperSchema.getRowKeyFields().size() + sleeperSchema.getSortKeyFields().size();
+        this.row = new ArrowRow(sleeperSchema.getRowKeyFields().size());
+        this.readers = new ArrayList<>(readers);
+        this.queue = new PriorityQueue<>(Math.max(1, readers.size()), this::compare);
+        try {
+            for (int i = 0; i < readers.size(); i++) {
+                Source source = new Source(i, readers.get(i), numKeyFields);
+                if (source.loadNextNonEmptyBatch()) {
+                    queue.add(source);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeAfterFailure(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        advanceLastReadSource();
+        return !queue.isEmpty();
+    }
+
+    @Override
+    public ArrowRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Source source = queue.poll();
+        row.moveTo(source.vectorSchemaRoot, source.rowNo);
+        // The source is advanced when the next row is requested, so that the returned row remains valid until then
+        lastReadSource = source;
+        return row;
+    }
+
+    private void advanceLastReadSource() {
+        if (null == lastReadSource) {
+            return;
+        }
+        Source source = lastReadSource;
+        lastReadSource = null;
+        try {
+            if (source.advance()) {
+                queue.add(source);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int compare(Source source1, Source source2) {
+        for (int i = 0; i < numKeyFields; i++) {
+            int diff = compareValues(source1.keyVectors[i], source1.rowNo, source2.keyVectors[i], source2.rowNo);
+            if (0 != diff) {
+                return diff;
+            }
+        }
+        // Keep rows with equal keys in the order of their streams
+        return Integer.compare(source1.index, source2.index);
+    }
+
+    /**
+     * Compares values in the same way as the Arrow comparators used to sort each stream, with nulls first and variable
+     * width values compared as unsigned bytes.
+     *
+     * @param vector1 the vector holding the first value
+     * @param rowNo1  the index of the first value
+     * @param vector2 the vector holding the second value
+     * @param rowNo2  the index of the second value
+     * @return the result of the comparison
+     */
+    private static int compareValues(FieldVector vector1, int rowNo1, FieldVector vector2, int rowNo2) {
+        boolean isNull1 = vector1.isNull(rowNo1);
+        boolean isNull2 = vector2.isNull(rowNo2);
+        if (isNull1 || isNull2) {
+            return Boolean.compare(isNull2, isNull1);
+        }
+        if (vector1 instanceof IntVector) {
+            return Integer.compare(((IntVector) vector1).get(rowNo1), ((IntVector) vector2).get(rowNo2));
+        } else if (vector1 instanceof BigIntVector) {
+            return Long.compare(((BigIntVector) vector1).get(rowNo1), ((BigIntVector) vector2).get(rowNo2));
+        } else if (vector1 instanceof BaseVariableWidthVector) {
+            BaseVariableWidthVector variableWidth1 = (BaseVariableWidthVector) vector1;
+            BaseVariableWidthVector variableWidth2 = (BaseVariableWidthVector) vector2;
+            return ByteFunctionHelpers.compare(
+                    variableWidth1.getDataBuffer(), variableWidth1.getStartOffset(rowNo1), variableWidth1.getEndOffset(rowNo1),
+                    variableWidth2.getDataBuffer(), variableWidth2.getStartOffset(rowNo2), variableWidth2.getEndOffset(rowNo2));
+        } else {
+            throw new UnsupportedOperationException("Arrow vector type " + vector1.getClass().getSimpleName() + " is not handled");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (ArrowStreamReader reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                if (null == failure) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (null != failure) {
+            throw failure;
+        }
+    }
+
+    private void closeAfterFailure(Exception e) {
+        try {
+            close();
+        } catch (IOException closeFailure) {
+            e.addSuppressed(closeFailure);
+        }
+    }
+
+    /**
+     * The current position in one of the streams being merged.
+     */
+    private static class Source {
+        private final int index;
+        private final ArrowStreamReader reader;
+        private final VectorSchemaRoot vectorSchemaRoot;
+        private final FieldVector[] keyVectors;
+        private int rowNo;
+
+        Source(int index, ArrowStreamReader reader, int numKeyFields) throws IOException {
+            this.index = index;
+            this.reader = reader;
+            this.vectorSchemaRoot = reader.getVectorSchemaRoot();
+            // The vectors are reused for each batch, so they only need to be found once
+            this.keyVectors = new FieldVector[numKeyFields];
+            for (int i = 0; i < numKeyFields; i++) {
+                keyVectors[i] = vectorSchemaRoot.getVector(i);
+            }
+        }
+
+        boolean advance() throws IOException {
+            rowNo++;
+            return rowNo < vectorSchemaRoot.getRowCount() || loadNextNonEmptyBatch();
+        }
+
+        boolean loadNextNonEmptyBatch() throws IOException {
+            rowNo = 0;
+            while (reader.loadNextBatch()) {
+                if (vectorSchemaRoot.getRowCount() > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.ingest.impl.recordbatch.RecordBatch;
+
+import java.io.IOException;
+
+/**
+ * A {@link RecordBatch} which holds its data in Arrow vectors, and so can be read as rows in those vectors without
+ * creating {@link Record} objects.
+ */
+public interface ArrowRowSource {
+    /**
+     * Generate an iterator which returns the rows in sort-order, held in Arrow vectors rather than as {@link Record}
+     * objects. Each row is only valid until the next row is requested. It is the responsibility of the caller to close
+     * the iterator. Only one of this method and {@link RecordBatch#createOrderedRecordIterator()} may be called, once
+     * per batch.
+     *
+     * @return the iterator
+     * @throws IOException -
+     */
+    CloseableIterator<ArrowRow> createOrderedArrowRowIterator() throws IOException;
+}
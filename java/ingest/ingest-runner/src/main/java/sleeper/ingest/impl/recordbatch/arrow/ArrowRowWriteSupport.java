@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.StructVector;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+
+import sleeper.arrow.ArrowSchemaConverter;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.ListType;
+import sleeper.core.schema.type.MapType;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A {@link WriteSupport} for {@link ArrowRow}s. Each value is passed to Parquet straight from the Arrow vectors, so
+ * no {@link sleeper.core.record.Record} or boxed values are created. The file is laid out in the same way as when
+ * writing records with {@link sleeper.io.parquet.record.RecordWriteSupport}.
+ * <p>
+ * Variable width values are passed to Parquet as views of the Arrow buffers, marked as reused so that Parquet copies
+ * any values that it holds on to. This is needed because the buffers are overwritten as more rows are read.
+ */
+public class ArrowRowWriteSupport extends WriteSupport<ArrowRow> {
+    private final MessageType messageType;
+    private final List<Field> fields;
+    private RecordConsumer recordConsumer;
+
+    public ArrowRowWriteSupport(MessageType messageType, Schema schema) {
+        this.messageType = messageType;
+        this.fields = schema.getAllFields();
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        return new WriteContext(messageType, new HashMap<>());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+        this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    @SuppressFBWarnings("UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+    public void write(ArrowRow row) {
+        VectorSchemaRoot vectorSchemaRoot = row.getVectorSchemaRoot();
+        int rowNo = row.getRowNo();
+        recordConsumer.startMessage();
+        for (int fieldNo = 0; fieldNo < fields.size(); fieldNo++) {
+            Field field = fields.get(fieldNo);
+            String name = field.getName();
+            FieldVector vector = vectorSchemaRoot.getVector(fieldNo);
+            recordConsumer.startField(name, fieldNo);
+            if (field.getType() instanceof MapType) {
+                addMap((ListVector) vector, rowNo);
+            } else if (field.getType() instanceof ListType) {
+                addList((ListVector) vector, rowNo);
+            } else {
+                addPrimitive(vector, rowNo);
+            }
+            recordConsumer.endField(name, fieldNo);
+        }
+        recordConsumer.endMessage();
+    }
+
+    private void addList(ListVector listVector, int rowNo) {
+        int start = listVector.getElementStartIndex(rowNo);
+        int end = listVector.getElementEndIndex(rowNo);
+        recordConsumer.startGroup();
+        if (end > start) {
+            recordConsumer.startField("list", 0);
+            recordConsumer.startGroup();
+            recordConsumer.startField("element", 0);
+            addPrimitives(listVector.getDataVector(), start, end);
+            recordConsumer.endField("element", 0);
+            recordConsumer.endGroup();
+            recordConsumer.endField("list", 0);
+        }
+        recordConsumer.endGroup();
+    }
+
+    private void addMap(ListVector listVector, int rowNo) {
+        int start = listVector.getElementStartIndex(rowNo);
+        int end = listVector.getElementEndIndex(rowNo);
+        StructVector entries = (StructVector) listVector.getDataVector();
+        recordConsumer.startGroup();
+        if (end > start) {
+            recordConsumer.startField("key_value", 0);
+            recordConsumer.startGroup();
+            recordConsumer.startField("key", 0);
+            addPrimitives(entries.getChild(ArrowSchemaConverter.MAP_KEY_FIELD_NAME), start, end);
+            recordConsumer.endField("key", 0);
+            recordConsumer.startField("value", 1);
+            addPrimitives(entries.getChild(ArrowSchemaConverter.MAP_VALUE_FIELD_NAME), start, end);
+            recordConsumer.endField("value", 1);
+            recordConsumer.endGroup();
+            recordConsumer.endField("key_value", 0);
+        }
+        recordConsumer.endGroup();
+    }
+
+    private void addPrimitives(ValueVector vector, int start, int end) {
+        for (int i = start; i < end; i++) {
+            addPrimitive(vector, i);
+        }
+    }
+
+    private void addPrimitive(ValueVector vector, int index) {
+        if (vector instanceof IntVector) {
+            recordConsumer.addInteger(((IntVector) vector).get(index));
+        } else if (vector instanceof BigIntVector) {
+            recordConsumer.addLong(((BigIntVector) vector).get(index));
+        } else if (vector instanceof BaseVariableWidthVector) {
+            BaseVariableWidthVector variableWidthVector = (BaseVariableWidthVector) vector;
+            int start = variableWidthVector.getStartOffset(index);
+            int length = variableWidthVector.getEndOffset(index) - start;
+            recordConsumer.addBinary(Binary.fromReusedByteBuffer(
+                    variableWidthVector.getDataBuffer().nioBuffer(start, length)));
+        } else {
+            throw new UnsupportedOperationException("Arrow vector type " + vector.getClass().getSimpleName() + " is not handled");
+        }
+    }
+}
@@ -17,13 +17,17 @@ package sleeper.ingest.impl;
 
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import sleeper.configuration.properties.validation.ArrowSpillCompressionCodec;
 import sleeper.core.partition.PartitionTree;
 import sleeper.core.partition.PartitionsBuilder;
 import sleeper.core.record.Record;
 import sleeper.core.schema.type.LongType;
 import sleeper.core.statestore.FileInfo;
 import sleeper.core.statestore.StateStore;
+import sleeper.ingest.impl.partitionfilewriter.DirectPartitionFileWriterFactory;
 import sleeper.ingest.impl.recordbatch.arrow.ArrowRecordBatchFactory;
 import sleeper.ingest.testutils.IngestCoordinatorTestParameters;
 import sleeper.ingest.testutils.RecordGenerator;
@@ -31,9 +35,11 @@ import sleeper.ingest.testutils.ResultVerifier;
 import sleeper.ingest.testutils.TestFilesAndRecords;
 import sleeper.ingest.testutils.TestIngestType;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
@@ -43,6 +49,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.tuple;
 import static sleeper.core.statestore.inmemory.StateStoreTestHelper.inMemoryStateStoreWithFixedPartitions;
+import static sleeper.ingest.testutils.IngestCoordinatorTestHelper.parquetConfiguration;
+import static sleeper.ingest.testutils.IngestCoordinatorTestHelper.standardIngestCoordinatorBuilder;
 import static sleeper.ingest.testutils.TestIngestType.directWriteBackedByArrowWriteToLocalFile;
 
 class IngestCoordinatorUsingDirectWriteBackedByArrowIT extends DirectWriteBackedByArrowTestBase {
@@ -160,6 +168,102 @@ class IngestCoordinatorUsingDirectWriteBackedByArrowIT extends DirectWriteBacked
         );
     }
 
+    @ParameterizedTest
+    @EnumSource(value = ArrowSpillCompressionCodec.class, names = {"SNAPPY", "ZSTD"})
+    void shouldWriteRecordsWhenLocalFilesAreCompressed(ArrowSpillCompressionCodec codec) throws Exception {
+        // Given
+        RecordGenerator.RecordListAndSchema recordListAndSchema = RecordGenerator.genericKey1D(
+                new LongType(),
+                LongStream.range(-10000, 10000).boxed().collect(Collectors.toList()));
+        PartitionTree tree = new PartitionsBuilder(recordListAndSchema.sleeperSchema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 0L)
+                .buildTree();
+        StateStore stateStore = inMemoryStateStoreWithFixedPartitions(tree.getAllPartitions());
+        String ingestLocalWorkingDirectory = createTempDirectory(temporaryFolder, null).toString();
+        IngestCoordinatorTestParameters parameters = createTestParameterBuilder()
+                .fileNames(List.of("file1", "file2", "file3", "file4"))
+                .stateStore(stateStore)
+                .schema(recordListAndSchema.sleeperSchema)
+                .workingDir(ingestLocalWorkingDirectory)
+                .build();
+
+        // When
+        ingestRecords(recordListAndSchema, parameters, arrowConfig -> arrowConfig
+                .workingBufferAllocatorBytes(16 * 1024 * 1024L)
+                .batchBufferAllocatorBytes(4 * 1024 * 1024L)
+                .maxNoOfBytesToWriteLocally(16 * 1024 * 1024L)
+                .spillCompressionCodec(codec));
+
+        // Then
+        TestFilesAndRecords actualActiveData = TestFilesAndRecords.loadActiveFiles(stateStore, recordListAndSchema.sleeperSchema, configuration);
+
+        assertThat(actualActiveData.getSetOfAllRecords())
+                .isEqualTo(new HashSet<>(recordListAndSchema.recordList));
+        assertThat(actualActiveData.getPartitionData("left"))
+                .satisfies(data -> assertThat(data.getFiles()).allSatisfy(file ->
+                        assertThatRecordsHaveFieldValuesThatAllAppearInRangeInSameOrder(
+                                data.getRecordsInFile(file),
+                                "key0", LongStream.range(-10_000, 0))))
+                .satisfies(data -> assertThat(data.getNumRecords()).isEqualTo(10_000));
+        assertThat(actualActiveData.getPartitionData("right"))
+                .satisfies(data -> assertThat(data.getFiles()).allSatisfy(file ->
+                        assertThatRecordsHaveFieldValuesThatAllAppearInRangeInSameOrder(
+                                data.getRecordsInFile(file),
+                                "key0", LongStream.range(0, 10_000))))
+                .satisfies(data -> assertThat(data.getNumRecords()).isEqualTo(10_000));
+    }
+
+    @Test
+    void shouldWriteRecordsWhenBatchesAreWrittenInTheBackground() throws Exception {
+        // Given
+        RecordGenerator.RecordListAndSchema recordListAndSchema = RecordGenerator.genericKey1D(
+                new LongType(),
+                LongStream.range(-10000, 10000).boxed().collect(Collectors.toList()));
+        PartitionTree tree = new PartitionsBuilder(recordListAndSchema.sleeperSchema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 0L)
+                .buildTree();
+        StateStore stateStore = inMemoryStateStoreWithFixedPartitions(tree.getAllPartitions());
+        String ingestLocalWorkingDirectory = createTempDirectory(temporaryFolder, null).toString();
+        IngestCoordinatorTestParameters parameters = createTestParameterBuilder()
+                .stateStore(stateStore)
+                .schema(recordListAndSchema.sleeperSchema)
+                .workingDir(ingestLocalWorkingDirectory)
+                .build();
+        ParquetConfiguration parquetConfiguration = parquetConfiguration(parameters);
+
+        // When
+        try (IngestCoordinator<Record> ingestCoordinator = standardIngestCoordinatorBuilder(parameters,
+                ArrowRecordBatchFactory.builder()
+                        .schema(recordListAndSchema.sleeperSchema)
+                        .maxNoOfRecordsToWriteToArrowFileAtOnce(128)
+                        .workingBufferAllocatorBytes(16 * 1024 * 1024L)
+                        .batchBufferAllocatorBytes(4 * 1024 * 1024L)
+                        .maxNoOfBytesToWriteLocally(16 * 1024 * 1024L)
+                        .maxBatchesInFlight(1)
+                        .localWorkingDirectory(ingestLocalWorkingDirectory)
+                        .buildAcceptingRecords(),
+                DirectPartitionFileWriterFactory.from(parquetConfiguration, parameters.getLocalFilePrefix(),
+                        () -> UUID.randomUUID().toString()))
+                .maxBatchesInFlight(1)
+                .build()) {
+            for (Record record : recordListAndSchema.recordList) {
+                ingestCoordinator.write(record);
+            }
+        }
+
+        // Then
+        TestFilesAndRecords actualActiveData = TestFilesAndRecords.loadActiveFiles(stateStore, recordListAndSchema.sleeperSchema, configuration);
+
+        assertThat(actualActiveData.getFiles())
+                .extracting(FileInfo::getPartitionId)
+                .containsExactlyInAnyOrder("left", "left", "right", "right");
+        assertThat(actualActiveData.getSetOfAllRecords())
+                .isEqualTo(new HashSet<>(recordListAndSchema.recordList));
+        assertThat(Path.of(ingestLocalWorkingDirectory)).isEmptyDirectory();
+    }
+
     @Test
     void shouldErrorWhenBatchBufferAndWorkingBufferAreSmall() throws Exception {
         // Given
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SortKeyPrefixSorterTest {
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldSortPrefixesAsUnsignedStablyAcrossManyTasks() {
+        // Given
+        long[] values = new Random(0).longs(1000, -50, 50).toArray();
+
+        // When
+        int[] sortOrder = SortKeyPrefixSorter.sort(values.clone(), () -> (index1, index2) -> 0, pool, 10);
+
+        // Then
+        assertThat(sortOrder).containsExactly(IntStream.range(0, values.length).boxed()
+                .sorted((i, j) -> Long.compareUnsigned(values[i], values[j]))
+                .mapToInt(Integer::intValue).toArray());
+    }
+
+    @Test
+    void shouldCompareFullKeysWhenPrefixesAreEqual() {
+        // Given
+        List<String> strings = List.of("ccccccccc", "b", "aaaaaaaaab", "aaaaaaaaaa", "", "aaaa");
+        long[] prefixes = prefixes(strings, SortKeyPrefixSorterTest::stringPrefix);
+
+        // When
+        int[] sortOrder = SortKeyPrefixSorter.sort(prefixes,
+                () -> (index1, index2) -> strings.get(index1).compareTo(strings.get(index2)), null);
+
+        // Then
+        assertThat(IntStream.of(sortOrder).mapToObj(strings::get))
+                .containsExactly("", "aaaa", "aaaaaaaaaa", "aaaaaaaaab", "b", "ccccccccc");
+    }
+
+    @Test
+    void shouldOrderPrefixesOfLongsThenNullsLast() {
+        // Given
+        List<Long> values = Arrays.asList(5L, null, Long.MIN_VALUE, -1L, Long.MAX_VALUE, 0L);
+        Comparator<Long> comparator = Comparator.nullsLast(Comparator.naturalOrder());
+        long[] prefixes = prefixes(values, SortKeyPrefixSorterTest::longPrefix);
+
+        // When
+        int[] sortOrder = SortKeyPrefixSorter.sort(prefixes,
+                () -> (index1, index2) -> comparator.compare(values.get(index1), values.get(index2)), null);
+
+        // Then
+        assertThat(IntStream.of(sortOrder).mapToObj(values::get))
+                .containsExactlyElementsOf(values.stream().sorted(comparator).collect(Collectors.toList()));
+    }
+
+    private static <T> long[] prefixes(List<T> values, ToLongFunction<T> prefixFn) {
+        return values.stream().mapToLong(prefixFn).toArray();
+    }
+
+    private static long stringPrefix(String value) {
+        SortKeyPrefix prefix = new SortKeyPrefix();
+        for (int i = 0; i < value.length() && !prefix.isComplete(); i++) {
+            prefix.appendChar(value.charAt(i));
+        }
+        prefix.endVariableWidth();
+        return prefix.get();
+    }
+
+    private static long longPrefix(Long value) {
+        SortKeyPrefix prefix = new SortKeyPrefix();
+        prefix.appendInt(1);
+        if (null == value) {
+            prefix.appendNull(false);
+        } else {
+            prefix.appendLong(value);
+        }
+        return prefix.get();
+    }
+}
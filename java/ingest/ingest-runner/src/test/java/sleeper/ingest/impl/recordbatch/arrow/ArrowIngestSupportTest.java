@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+import sleeper.ingest.impl.recordbatch.SortKeyPrefixSorter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.arrow.ArrowSchemaConverter.convertSleeperSchemaToArrowSchema;
+
+public class ArrowIngestSupportTest {
+    private final BufferAllocator allocator = new RootAllocator();
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+        allocator.close();
+    }
+
+    @Test
+    void shouldSortByStringKeyThenSortKeyWhenPrefixesAreEqual() {
+        // Given
+        Schema schema = Schema.builder()
+                .rowKeyFields(new Field("key", new StringType()))
+                .sortKeyFields(new Field("sort", new LongType()))
+                .build();
+        List<String> keys = List.of("bbbbbbbbbb", "aaaaaaaaab", "aaaaaaaaaa", "aaaaaaaaab", "é", "z");
+        List<Long> sortKeys = List.of(1L, 2L, 3L, 1L, 4L, 5L);
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(convertSleeperSchemaToArrowSchema(schema), allocator)) {
+            root.allocateNew();
+            VarCharVector keyVector = (VarCharVector) root.getVector(0);
+            BigIntVector sortVector = (BigIntVector) root.getVector(1);
+            for (int i = 0; i < keys.size(); i++) {
+                keyVector.setSafe(i, keys.get(i).getBytes(StandardCharsets.UTF_8));
+                sortVector.setSafe(i, sortKeys.get(i));
+            }
+            root.setRowCount(keys.size());
+
+            // When
+            try (IntVector sortOrder = ArrowIngestSupport.createSortOrderVector(allocator, schema, root)) {
+
+                // Then
+                assertThat(IntStream.range(0, keys.size()).map(sortOrder::get))
+                        .containsExactly(2, 3, 1, 0, 5, 4);
+            }
+        }
+    }
+
+    @Test
+    void shouldCreateSameSortOrderInParallelAsOnOneThread() {
+        // Given
+        Schema schema = Schema.builder()
+                .rowKeyFields(new Field("key", new LongType()))
+                .sortKeyFields(new Field("sort", new LongType()))
+                .build();
+        int rowCount = 3 * SortKeyPrefixSorter.MIN_ROWS_PER_TASK;
+        Random random = new Random(0);
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(convertSleeperSchemaToArrowSchema(schema), allocator)) {
+            root.allocateNew();
+            BigIntVector keys = (BigIntVector) root.getVector(0);
+            BigIntVector sortKeys = (BigIntVector) root.getVector(1);
+            for (int i = 0; i < rowCount; i++) {
+                keys.setSafe(i, random.nextInt(1000));
+                sortKeys.setSafe(i, i);
+            }
+            root.setRowCount(rowCount);
+
+            // When
+            try (IntVector parallelOrder = ArrowIngestSupport.createSortOrderVector(allocator, schema, root, pool);
+                 IntVector singleThreadOrder = ArrowIngestSupport.createSortOrderVector(allocator, schema, root)) {
+
+                // Then
+                assertThat(IntStream.range(0, rowCount).map(parallelOrder::get))
+                        .containsExactlyElementsOf(IntStream.range(0, rowCount).map(singleThreadOrder::get).boxed()::iterator);
+            }
+        }
+    }
+}
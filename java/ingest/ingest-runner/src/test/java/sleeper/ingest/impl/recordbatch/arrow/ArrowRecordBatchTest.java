@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import sleeper.configuration.properties.validation.ArrowSpillCompressionCodec;
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.ingest.impl.recordbatch.RecordBatch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArrowRecordBatchTest {
+    @TempDir
+    private Path tempDir;
+    private final Schema schema = Schema.builder().rowKeyFields(new Field("key", new LongType())).build();
+
+    @ParameterizedTest
+    @EnumSource(value = ArrowSpillCompressionCodec.class, names = {"SNAPPY", "ZSTD"})
+    void shouldFailWithIOExceptionWhenLocalFileIsCorrupted(ArrowSpillCompressionCodec codec) throws Exception {
+        try (ArrowRecordBatchFactory<Record> factory = ArrowRecordBatchFactory.builder()
+                .schema(schema)
+                .localWorkingDirectory(tempDir.toString())
+                .workingBufferAllocatorBytes(16 * 1024 * 1024L)
+                .batchBufferAllocatorBytes(1024 * 1024L)
+                .maxNoOfBytesToWriteLocally(16 * 1024 * 1024L)
+                .maxNoOfRecordsToWriteToArrowFileAtOnce(128)
+                .spillCompressionCodec(codec)
+                .buildAcceptingRecords();
+             RecordBatch<Record> batch = factory.createRecordBatch()) {
+            // Given
+            for (long key = 0; listLocalFiles().isEmpty(); key++) {
+                batch.append(new Record(Map.of("key", key)));
+            }
+            Path localFile = listLocalFiles().get(0);
+            flipByteInMiddle(localFile);
+
+            // When / Then
+            assertThatThrownBy(() -> readAll(batch))
+                    .satisfies(e -> assertThat(causeChain(e)).hasAtLeastOneElementOfType(IOException.class));
+        }
+    }
+
+    @Test
+    void shouldReduceReadBuffersWhenMergingManyLocalFiles() {
+        assertThat(List.of(1, 16, 64, 256, 1000).stream()
+                .map(ArrowRecordBatch::readBufferBytesForFiles))
+                .containsExactly(1024 * 1024, 1024 * 1024, 256 * 1024, 64 * 1024, 64 * 1024);
+    }
+
+    private List<Path> listLocalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.toString().endsWith(".arrow"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void flipByteInMiddle(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= (byte) 0xFF;
+        Files.write(file, bytes);
+    }
+
+    private static void readAll(RecordBatch<Record> batch) throws IOException {
+        try (CloseableIterator<Record> iterator = batch.createOrderedRecordIterator()) {
+            iterator.forEachRemaining(record -> {
+            });
+        }
+    }
+
+    private static List<Throwable> causeChain(Throwable e) {
+        return Stream.iterate(e, cause -> cause != null, Throwable::getCause)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.arrow.ArrowSchemaConverter.convertSleeperSchemaToArrowSchema;
+
+public class ArrowRowMergingIteratorTest {
+    private final BufferAllocator allocator = new RootAllocator();
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new LongType()))
+            .sortKeyFields(new Field("sort", new StringType()))
+            .valueFields(new Field("value", new IntType()))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    @Test
+    void shouldMergeStreamsByRowKeyThenSortKey() throws Exception {
+        // Given
+        List<ArrowStreamReader> readers = List.of(
+                streamOf(List.of(row(1, "b", 1), row(3, "a", 2), row(3, "c", 3)), 2),
+                streamOf(List.of(), 2),
+                streamOf(List.of(row(2, "a", 4), row(3, "b", 5), row(4, "a", 6)), 1));
+
+        // When
+        List<Record> merged = new ArrayList<>();
+        try (ArrowRowMergingIterator iterator = new ArrowRowMergingIterator(schema, readers)) {
+            iterator.forEachRemaining(row -> merged.add(row.toRecord()));
+        }
+
+        // Then
+        assertThat(merged).containsExactly(
+                row(1, "b", 1), row(2, "a", 4), row(3, "a", 2),
+                row(3, "b", 5), row(3, "c", 3), row(4, "a", 6));
+    }
+
+    @Test
+    void shouldReadRowKeyOfEachRow() throws Exception {
+        // Given
+        List<ArrowStreamReader> readers = List.of(
+                streamOf(List.of(row(2, "a", 1)), 1),
+                streamOf(List.of(row(1, "a", 2)), 1));
+
+        // When
+        List<Object> rowKeys = new ArrayList<>();
+        try (ArrowRowMergingIterator iterator = new ArrowRowMergingIterator(schema, readers)) {
+            iterator.forEachRemaining(row -> rowKeys.add(row.getRowKey().get(0)));
+        }
+
+        // Then
+        assertThat(rowKeys).containsExactly(1L, 2L);
+    }
+
+    private static Record row(long key, String sort, int value) {
+        Record record = new Record();
+        record.put("key", key);
+        record.put("sort", sort);
+        record.put("value", value);
+        return record;
+    }
+
+    private ArrowStreamReader streamOf(List<Record> records, int rowsPerBatch) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(convertSleeperSchemaToArrowSchema(schema), allocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null, output)) {
+            writer.start();
+            for (int start = 0; start < records.size(); start += rowsPerBatch) {
+                List<Record> batch = records.subList(start, Math.min(records.size(), start + rowsPerBatch));
+                root.allocateNew();
+                for (int i = 0; i < batch.size(); i++) {
+                    Record record = batch.get(i);
+                    ((BigIntVector) root.getVector(0)).setSafe(i, (long) record.get("key"));
+                    ((VarCharVector) root.getVector(1)).setSafe(i, ((String) record.get("sort")).getBytes(StandardCharsets.UTF_8));
+                    ((IntVector) root.getVector(2)).setSafe(i, (int) record.get("value"));
+                }
+                root.setRowCount(batch.size());
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+        return new ArrowStreamReader(new ByteArrayInputStream(output.toByteArray()), allocator);
+    }
+}
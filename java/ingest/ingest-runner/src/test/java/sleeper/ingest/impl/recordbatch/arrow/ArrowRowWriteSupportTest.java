@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.ingest.impl.recordbatch.arrow;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.ByteArrayType;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.ListType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.MapType;
+import sleeper.core.schema.type.StringType;
+import sleeper.io.parquet.record.ParquetReaderIterator;
+import sleeper.io.parquet.record.ParquetRecordReader;
+import sleeper.io.parquet.record.ParquetRecordWriterFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.arrow.ArrowSchemaConverter.convertSleeperSchemaToArrowSchema;
+import static sleeper.arrow.RecordToArrowConversionUtils.writeRecord;
+
+public class ArrowRowWriteSupportTest {
+    private final BufferAllocator allocator = new RootAllocator();
+    private final Configuration conf = new Configuration();
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new LongType()))
+            .sortKeyFields(new Field("sort", new ByteArrayType()))
+            .valueFields(
+                    new Field("bytes", new ByteArrayType()),
+                    new Field("list", new ListType(new StringType())),
+                    new Field("map", new MapType(new StringType(), new IntType())))
+            .build();
+    private final TableProperties tableProperties = createTableProperties();
+
+    @TempDir
+    public java.nio.file.Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    @Test
+    void shouldWriteSameFileAsRecordWriter() throws Exception {
+        // Given
+        List<Record> records = List.of(
+                record(1L, new byte[]{1, 2}, new byte[]{3}, List.of("a", "b"), Map.of("x", 1, "y", 2)),
+                record(2L, new byte[]{}, new byte[]{4, 5, 6}, List.of(), Map.of()),
+                record(3L, new byte[]{7}, new byte[]{}, List.of("c"), Map.of("z", 3)));
+        Path recordFile = new Path(tempDir.resolve("records.parquet").toString());
+        Path arrowFile = new Path(tempDir.resolve("arrow.parquet").toString());
+
+        // When
+        writeWithRecordWriter(recordFile, records);
+        writeWithArrowRowWriter(arrowFile, records);
+
+        // Then
+        assertThat(readRecords(arrowFile))
+                .containsExactlyElementsOf(readRecords(recordFile))
+                .containsExactlyElementsOf(records);
+        assertThat(readParquetSchema(arrowFile))
+                .isEqualTo(readParquetSchema(recordFile));
+    }
+
+    private void writeWithRecordWriter(Path path, List<Record> records) throws IOException {
+        try (ParquetWriter<Record> writer = ParquetRecordWriterFactory.createParquetRecordWriter(path, tableProperties, conf)) {
+            for (Record record : records) {
+                writer.write(record);
+            }
+        }
+    }
+
+    private void writeWithArrowRowWriter(Path path, List<Record> records) throws IOException {
+        List<Field> allFields = schema.getAllFields();
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(convertSleeperSchemaToArrowSchema(schema), allocator);
+             ParquetWriter<ArrowRow> writer = ParquetRecordWriterFactory.parquetWriterBuilder(
+                     path, tableProperties, ArrowRowWriteSupport::new).withConf(conf).build()) {
+            root.allocateNew();
+            for (int i = 0; i < records.size(); i++) {
+                writeRecord(allFields, root, records.get(i), i);
+            }
+            root.setRowCount(records.size());
+            ArrowRow row = new ArrowRow(schema.getRowKeyFields().size());
+            for (int i = 0; i < records.size(); i++) {
+                row.moveTo(root, i);
+                writer.write(row);
+            }
+        }
+    }
+
+    private List<Record> readRecords(Path path) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (ParquetReader<Record> reader = new ParquetRecordReader.Builder(path, schema).withConf(conf).build();
+             ParquetReaderIterator iterator = new ParquetReaderIterator(reader)) {
+            iterator.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    private MessageType readParquetSchema(Path path) throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, conf))) {
+            return reader.getFooter().getFileMetaData().getSchema();
+        }
+    }
+
+    private TableProperties createTableProperties() {
+        TableProperties properties = new TableProperties(new InstanceProperties());
+        properties.setSchema(schema);
+        return properties;
+    }
+
+    private static Record record(long key, byte[] sort, byte[] bytes, List<String> list, Map<String, Integer> map) {
+        Record record = new Record();
+        record.put("key", key);
+        record.put("sort", sort);
+        record.put("bytes", bytes);
+        record.put("list", list);
+        record.put("map", map);
+        return record;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.cache;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.hadoop.metadata.IndexReference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The bytes at the end of a Parquet file, held in memory. This covers the footer, and where they fit in the cache, the
+ * page indexes and bloom filters that are written between the last row group and the footer.
+ */
+class CachedTail {
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final int FOOTER_LENGTH_AND_MAGIC_SIZE = 8;
+
+    private final FileStatus status;
+    private final long tailStart;
+    private final byte[] bytes;
+
+    private CachedTail(FileStatus status, long tailStart, byte[] bytes) {
+        this.status = status;
+        this.tailStart = tailStart;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Reads the tail of a Parquet file. The page indexes and bloom filters are only included if the whole tail would
+     * fit in the given maximum size.
+     *
+     * @param  status      the status of the file
+     * @param  stream      an open stream for the file
+     * @param  maxBytes    the maximum size of tail to read including the indexes
+     * @return             the tail, or null if the file is not an unencrypted Parquet file
+     * @throws IOException if the file could not be read
+     */
+    static CachedTail read(FileStatus status, FSDataInputStream stream, long maxBytes) throws IOException {
+        long length = status.getLen();
+        if (length < MAGIC.length + FOOTER_LENGTH_AND_MAGIC_SIZE) {
+            return null;
+        }
+        byte[] footerLengthAndMagic = new byte[FOOTER_LENGTH_AND_MAGIC_SIZE];
+        stream.readFully(length - FOOTER_LENGTH_AND_MAGIC_SIZE, footerLengthAndMagic);
+        if (!Arrays.equals(MAGIC, 0, MAGIC.length, footerLengthAndMagic, 4, FOOTER_LENGTH_AND_MAGIC_SIZE)) {
+            return null;
+        }
+        int footerLength = (footerLengthAndMagic[0] & 0xff)
+                | (footerLengthAndMagic[1] & 0xff) << 8
+                | (footerLengthAndMagic[2] & 0xff) << 16
+                | (footerLengthAndMagic[3] & 0xff) << 24;
+        long footerStart = length - FOOTER_LENGTH_AND_MAGIC_SIZE - footerLength;
+        if (footerLength < 0 || footerStart < MAGIC.length) {
+            return null;
+        }
+        byte[] footer = new byte[footerLength];
+        stream.readFully(footerStart, footer);
+        ParquetMetadata metadata = new ParquetMetadataConverter()
+                .readParquetMetadata(new ByteArrayInputStream(footer), ParquetMetadataConverter.NO_FILTER);
+
+        long tailStart = Math.max(MAGIC.length, Math.min(footerStart, findIndexesStart(metadata)));
+        if (length - tailStart > maxBytes || length - tailStart > Integer.MAX_VALUE) {
+            tailStart = footerStart;
+        }
+        int indexesLength = (int) (footerStart - tailStart);
+        byte[] bytes = new byte[(int) (length - tailStart)];
+        stream.readFully(tailStart, bytes, 0, indexesLength);
+        System.arraycopy(footer, 0, bytes, indexesLength, footerLength);
+        System.arraycopy(footerLengthAndMagic, 0, bytes, indexesLength + footerLength, FOOTER_LENGTH_AND_MAGIC_SIZE);
+        return new CachedTail(status, tailStart, bytes);
+    }
+
+    private static long findIndexesStart(ParquetMetadata metadata) {
+        long start = Long.MAX_VALUE;
+        for (BlockMetaData block : metadata.getBlocks()) {
+            for (ColumnChunkMetaData column : block.getColumns()) {
+                start = Math.min(start, offsetOf(column.getColumnIndexReference()));
+                start = Math.min(start, offsetOf(column.getOffsetIndexReference()));
+                if (column.getBloomFilterOffset() >= 0) {
+                    start = Math.min(start, column.getBloomFilterOffset());
+                }
+            }
+        }
+        return start;
+    }
+
+    private static long offsetOf(IndexReference reference) {
+        if (reference == null) {
+            return Long.MAX_VALUE;
+        }
+        return reference.getOffset();
+    }
+
+    FileStatus getStatus() {
+        return status;
+    }
+
+    long getLength() {
+        return status.getLen();
+    }
+
+    long getTailStart() {
+        return tailStart;
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    int getSize() {
+        return bytes.length;
+    }
+}
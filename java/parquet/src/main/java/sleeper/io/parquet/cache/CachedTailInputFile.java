@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.cache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.functional.FutureIO;
+import org.apache.parquet.hadoop.util.HadoopStreams;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+
+import java.io.IOException;
+
+/**
+ * A Parquet input file that reads its footer and page indexes from a {@link ParquetFileTailCache}. Nothing is read
+ * until a stream is opened, so that this can be created up front and opened in parallel with other files.
+ */
+class CachedTailInputFile implements InputFile {
+
+    private final ParquetFileTailCache cache;
+    private final Path path;
+    private final Configuration conf;
+    private Long length;
+
+    CachedTailInputFile(ParquetFileTailCache cache, Path path, Configuration conf) {
+        this.cache = cache;
+        this.path = path;
+        this.conf = conf;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        if (length == null) {
+            CachedTail tail = cache.get(path.toString());
+            if (tail != null) {
+                length = tail.getLength();
+            } else {
+                length = path.getFileSystem(conf).getFileStatus(path).getLen();
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public SeekableInputStream newStream() throws IOException {
+        String key = path.toString();
+        CachedTail cached = cache.get(key);
+        if (cached != null) {
+            length = cached.getLength();
+            return new CachedTailInputStream(cached, () -> openData(cached.getStatus()));
+        }
+        FileSystem fs = path.getFileSystem(conf);
+        FileStatus status = fs.getFileStatus(path);
+        length = status.getLen();
+        FSDataInputStream stream = open(fs, status);
+        try {
+            CachedTail tail = CachedTail.read(status, stream, cache.getMaxBytes());
+            if (tail == null) {
+                return HadoopStreams.wrap(stream);
+            }
+            cache.put(key, tail);
+            return new CachedTailInputStream(tail, () -> HadoopStreams.wrap(stream));
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    private SeekableInputStream openData(FileStatus status) throws IOException {
+        return HadoopStreams.wrap(open(status.getPath().getFileSystem(conf), status));
+    }
+
+    private static FSDataInputStream open(FileSystem fs, FileStatus status) throws IOException {
+        // Passing the status avoids another request to the object store to find the file length.
+        return FutureIO.awaitFuture(fs.openFile(status.getPath()).withFileStatus(status).build());
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
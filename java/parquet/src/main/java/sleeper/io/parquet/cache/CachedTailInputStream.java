@@ -0,0 +1,187 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.cache;
+
+import org.apache.parquet.io.SeekableInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a Parquet file, serving reads of the cached tail from memory. The underlying file is only opened when data
+ * before the tail is read.
+ */
+class CachedTailInputStream extends SeekableInputStream {
+
+    private final CachedTail tail;
+    private final DataStreamOpener opener;
+    private SeekableInputStream data;
+    private long pos;
+
+    CachedTailInputStream(CachedTail tail, DataStreamOpener opener) {
+        this.tail = tail;
+        this.opener = opener;
+    }
+
+    @Override
+    public long getPos() {
+        return pos;
+    }
+
+    @Override
+    public void seek(long newPos) {
+        pos = newPos;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos >= tail.getLength()) {
+            return -1;
+        } else if (pos >= tail.getTailStart()) {
+            return tail.getBytes()[tailIndex(pos++)] & 0xff;
+        } else {
+            int value = dataAtPos().read();
+            if (value >= 0) {
+                pos++;
+            }
+            return value;
+        }
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        } else if (pos >= tail.getLength()) {
+            return -1;
+        } else if (pos >= tail.getTailStart()) {
+            int read = (int) Math.min(length, tail.getLength() - pos);
+            System.arraycopy(tail.getBytes(), tailIndex(pos), buffer, offset, read);
+            pos += read;
+            return read;
+        } else {
+            int read = dataAtPos().read(buffer, offset, (int) Math.min(length, tail.getTailStart() - pos));
+            if (read > 0) {
+                pos += read;
+            }
+            return read;
+        }
+    }
+
+    @Override
+    public void readFully(byte[] buffer) throws IOException {
+        readFully(buffer, 0, buffer.length);
+    }
+
+    @Override
+    public void readFully(byte[] buffer, int offset, int length) throws IOException {
+        checkRemaining(length);
+        int remaining = length;
+        if (pos < tail.getTailStart()) {
+            int fromData = (int) Math.min(remaining, tail.getTailStart() - pos);
+            dataAtPos().readFully(buffer, offset, fromData);
+            pos += fromData;
+            remaining -= fromData;
+        }
+        if (remaining > 0) {
+            System.arraycopy(tail.getBytes(), tailIndex(pos), buffer, offset + length - remaining, remaining);
+            pos += remaining;
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            return 0;
+        } else if (pos >= tail.getLength()) {
+            return -1;
+        } else if (pos >= tail.getTailStart()) {
+            int read = (int) Math.min(buffer.remaining(), tail.getLength() - pos);
+            buffer.put(tail.getBytes(), tailIndex(pos), read);
+            pos += read;
+            return read;
+        } else {
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + (int) Math.min(buffer.remaining(), tail.getTailStart() - pos));
+            try {
+                int read = dataAtPos().read(buffer);
+                if (read > 0) {
+                    pos += read;
+                }
+                return read;
+            } finally {
+                buffer.limit(limit);
+            }
+        }
+    }
+
+    @Override
+    public void readFully(ByteBuffer buffer) throws IOException {
+        checkRemaining(buffer.remaining());
+        if (pos < tail.getTailStart()) {
+            int fromData = (int) Math.min(buffer.remaining(), tail.getTailStart() - pos);
+            int limit = buffer.limit();
+            buffer.limit(buffer.position() + fromData);
+            try {
+                dataAtPos().readFully(buffer);
+            } finally {
+                buffer.limit(limit);
+            }
+            pos += fromData;
+        }
+        int remaining = buffer.remaining();
+        if (remaining > 0) {
+            buffer.put(tail.getBytes(), tailIndex(pos), remaining);
+            pos += remaining;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (data != null) {
+            data.close();
+        }
+    }
+
+    private SeekableInputStream dataAtPos() throws IOException {
+        if (data == null) {
+            data = opener.open();
+        }
+        if (data.getPos() != pos) {
+            data.seek(pos);
+        }
+        return data;
+    }
+
+    private void checkRemaining(int length) throws EOFException {
+        if (pos + length > tail.getLength()) {
+            throw new EOFException("Reached the end of stream with " + (pos + length - tail.getLength()) + " bytes left to read");
+        }
+    }
+
+    private int tailIndex(long position) {
+        return (int) (position - tail.getTailStart());
+    }
+
+    /**
+     * Opens the underlying file to read data that is not cached.
+     */
+    @FunctionalInterface
+    interface DataStreamOpener {
+        SeekableInputStream open() throws IOException;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.cache;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.InputFile;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the footers and page indexes of Parquet files in memory, so that they do not need to be fetched again when
+ * the same file is read repeatedly, e.g. by separate queries against the same table. Files in Sleeper are never
+ * modified once written, so an entry for a file never needs to be invalidated. The least recently used entries are
+ * evicted when the cache grows beyond its maximum size in bytes.
+ */
+public class ParquetFileTailCache {
+    public static final String CACHE_SIZE_BYTES_KEY = "sleeper.parquet.metadata.cache.bytes";
+    public static final long DEFAULT_CACHE_SIZE_BYTES = 64L * 1024 * 1024;
+
+    private static ParquetFileTailCache shared;
+
+    private final long maxBytes;
+    private final Map<String, CachedTail> tailByFilename = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public ParquetFileTailCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Retrieves the cache shared by all readers in this JVM. The size of the cache is set from the first configuration
+     * it is retrieved with.
+     *
+     * @param  conf the Hadoop configuration
+     * @return      the shared cache
+     */
+    @SuppressFBWarnings("MS_EXPOSE_REP") // The cache is deliberately shared
+    public static synchronized ParquetFileTailCache getShared(Configuration conf) {
+        if (shared == null) {
+            shared = new ParquetFileTailCache(conf.getLong(CACHE_SIZE_BYTES_KEY, DEFAULT_CACHE_SIZE_BYTES));
+        }
+        return shared;
+    }
+
+    /**
+     * Creates an input file to read a Parquet file through this cache.
+     *
+     * @param  filename    the full path to the file
+     * @param  conf        the Hadoop configuration
+     * @return             the input file
+     * @throws IOException if the cache is disabled and the file could not be found
+     */
+    public InputFile inputFile(String filename, Configuration conf) throws IOException {
+        Path path = new Path(filename);
+        if (maxBytes <= 0) {
+            return HadoopInputFile.fromPath(path, conf);
+        }
+        return new CachedTailInputFile(this, path, conf);
+    }
+
+    public synchronized boolean isCached(String filename) {
+        return tailByFilename.containsKey(new Path(filename).toString());
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    long getMaxBytes() {
+        return maxBytes;
+    }
+
+    synchronized CachedTail get(String key) {
+        return tailByFilename.get(key);
+    }
+
+    synchronized void put(String key, CachedTail tail) {
+        if (tail.getSize() > maxBytes || tailByFilename.containsKey(key)) {
+            return;
+        }
+        tailByFilename.put(key, tail);
+        cachedBytes += tail.getSize();
+        Iterator<CachedTail> leastRecentlyUsed = tailByFilename.values().iterator();
+        while (cachedBytes > maxBytes) {
+            cachedBytes -= leastRecentlyUsed.next().getSize();
+            leastRecentlyUsed.remove();
+        }
+    }
+}
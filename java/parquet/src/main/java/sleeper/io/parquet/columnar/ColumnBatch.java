@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.columnar;
+
+import com.facebook.collections.ByteArray;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.io.api.Binary;
+
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.ByteArrayType;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+import sleeper.core.schema.type.Type;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A batch of rows from a Parquet file held column by column, in arrays of primitives or Parquet {@link Binary}
+ * values. The values of string and byte array key fields are also held decoded, so that rows can be compared by
+ * their keys. Only schemas where every field is an int, long, string or byte array can be held in a batch.
+ */
+public class ColumnBatch {
+    private final List<Field> fields;
+    private final Object[] columns;
+    private final Object[] decodedKeyColumns;
+    private final int[] keyColumns;
+    private final int capacity;
+    private int size;
+
+    public ColumnBatch(Schema schema, int capacity) {
+        if (!isSupported(schema)) {
+            throw new IllegalArgumentException("Schema contains a field type which cannot be read by column: " + schema);
+        }
+        this.fields = schema.getAllFields();
+        this.capacity = capacity;
+        this.columns = new Object[fields.size()];
+        this.decodedKeyColumns = new Object[fields.size()];
+        Set<String> keyFieldNames = new HashSet<>(schema.getRowKeyFieldNames());
+        keyFieldNames.addAll(schema.getSortKeyFieldNames());
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            Type type = field.getType();
+            if (type instanceof IntType) {
+                columns[i] = new int[capacity];
+            } else if (type instanceof LongType) {
+                columns[i] = new long[capacity];
+            } else {
+                columns[i] = new Binary[capacity];
+                if (keyFieldNames.contains(field.getName())) {
+                    decodedKeyColumns[i] = type instanceof StringType ? new String[capacity] : new byte[capacity][];
+                }
+            }
+        }
+        List<String> allFieldNames = schema.getAllFieldNames();
+        int[] rowKeyColumns = schema.getRowKeyFieldNames().stream().mapToInt(allFieldNames::indexOf).toArray();
+        int[] sortKeyColumns = schema.getSortKeyFieldNames().stream().mapToInt(allFieldNames::indexOf).toArray();
+        this.keyColumns = new int[rowKeyColumns.length + sortKeyColumns.length];
+        System.arraycopy(rowKeyColumns, 0, keyColumns, 0, rowKeyColumns.length);
+        System.arraycopy(sortKeyColumns, 0, keyColumns, rowKeyColumns.length, sortKeyColumns.length);
+    }
+
+    /**
+     * Checks whether records with the given schema can be read into a batch.
+     *
+     * @param  schema the schema
+     * @return        true if all fields are of a primitive type which can be read by column
+     */
+    public static boolean isSupported(Schema schema) {
+        return schema.streamAllFields()
+                .map(Field::getType)
+                .allMatch(type -> type instanceof IntType || type instanceof LongType
+                        || type instanceof StringType || type instanceof ByteArrayType);
+    }
+
+    /**
+     * Compares the keys of two rows, first by row keys then by sort keys. Both batches must have the same schema.
+     *
+     * @param  batch1 the batch containing the first row
+     * @param  row1   the index of the first row in its batch
+     * @param  batch2 the batch containing the second row
+     * @param  row2   the index of the second row in its batch
+     * @return        a negative integer, zero, or a positive integer as the first row is less than, equal to, or
+     *                greater than the second
+     */
+    public static int compareKeys(ColumnBatch batch1, int row1, ColumnBatch batch2, int row2) {
+        for (int column : batch1.keyColumns) {
+            int diff;
+            Object values1 = batch1.columns[column];
+            if (values1 instanceof int[]) {
+                diff = Integer.compare(((int[]) values1)[row1], ((int[]) batch2.columns[column])[row2]);
+            } else if (values1 instanceof long[]) {
+                diff = Long.compare(((long[]) values1)[row1], ((long[]) batch2.columns[column])[row2]);
+            } else {
+                Object decoded1 = batch1.decodedKeyColumns[column];
+                if (decoded1 instanceof String[]) {
+                    diff = ((String[]) decoded1)[row1].compareTo(((String[]) batch2.decodedKeyColumns[column])[row2]);
+                } else {
+                    diff = Arrays.compare(((byte[][]) decoded1)[row1], ((byte[][]) batch2.decodedKeyColumns[column])[row2]);
+                }
+            }
+            if (0 != diff) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds values read from the given column readers to the end of this batch, one column at a time.
+     *
+     * @param readers the readers for each field, in the order of {@link Schema#getAllFields()}
+     * @param numRows the number of rows to read, which must fit in the remaining capacity
+     */
+    void appendFrom(ColumnReader[] readers, int numRows) {
+        int start = size;
+        int end = start + numRows;
+        for (int column = 0; column < columns.length; column++) {
+            ColumnReader reader = readers[column];
+            Object values = columns[column];
+            if (values instanceof int[]) {
+                int[] ints = (int[]) values;
+                for (int row = start; row < end; row++) {
+                    ints[row] = reader.getInteger();
+                    reader.consume();
+                }
+            } else if (values instanceof long[]) {
+                long[] longs = (long[]) values;
+                for (int row = start; row < end; row++) {
+                    longs[row] = reader.getLong();
+                    reader.consume();
+                }
+            } else {
+                Binary[] binaries = (Binary[]) values;
+                for (int row = start; row < end; row++) {
+                    // Copy in case the reader reuses the bytes behind the value
+                    binaries[row] = reader.getBinary().copy();
+                    reader.consume();
+                }
+                decodeKeys(column, start, end);
+            }
+        }
+        size = end;
+    }
+
+    private void decodeKeys(int column, int start, int end) {
+        Object decoded = decodedKeyColumns[column];
+        Binary[] binaries = (Binary[]) columns[column];
+        if (decoded instanceof String[]) {
+            String[] strings = (String[]) decoded;
+            for (int row = start; row < end; row++) {
+                strings[row] = binaries[row].toStringUsingUTF8();
+            }
+        } else if (decoded instanceof byte[][]) {
+            byte[][] bytes = (byte[][]) decoded;
+            for (int row = start; row < end; row++) {
+                bytes[row] = binaries[row].getBytes();
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int getNumColumns() {
+        return columns.length;
+    }
+
+    public Field getField(int column) {
+        return fields.get(column);
+    }
+
+    public int getInt(int column, int row) {
+        return ((int[]) columns[column])[row];
+    }
+
+    public long getLong(int column, int row) {
+        return ((long[]) columns[column])[row];
+    }
+
+    public Binary getBinary(int column, int row) {
+        return ((Binary[]) columns[column])[row];
+    }
+
+    /**
+     * Retrieves the value of a key field as it would be held in a record, except that byte arrays are wrapped in
+     * {@link ByteArray} so that they can be compared.
+     *
+     * @param  column the index of the key field in the schema
+     * @param  row    the index of the row
+     * @return        the value
+     */
+    public Object getComparableKey(int column, int row) {
+        Object values = columns[column];
+        if (values instanceof int[]) {
+            return ((int[]) values)[row];
+        } else if (values instanceof long[]) {
+            return ((long[]) values)[row];
+        }
+        Object decoded = decodedKeyColumns[column];
+        if (decoded instanceof String[]) {
+            return ((String[]) decoded)[row];
+        } else if (decoded instanceof byte[][]) {
+            return ByteArray.wrap(((byte[][]) decoded)[row]);
+        }
+        throw new IllegalArgumentException("Column " + column + " is not a key field");
+    }
+}
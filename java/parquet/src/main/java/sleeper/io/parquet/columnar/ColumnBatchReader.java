@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.columnar;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.MessageType;
+
+import sleeper.core.schema.Schema;
+import sleeper.io.parquet.record.SchemaConverter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads a Parquet file written with a Sleeper schema into {@link ColumnBatch}es, decoding each page of values
+ * directly into the arrays of the batch rather than assembling records.
+ */
+public class ColumnBatchReader implements Closeable {
+    private final ParquetFileReader reader;
+    private final MessageType messageType;
+    private final List<ColumnDescriptor> columnDescriptors;
+    private final String createdBy;
+    private final ColumnReader[] columnReaders;
+    private long rowsRemainingInRowGroup;
+    private long rowsRead;
+
+    public ColumnBatchReader(Path path, Schema schema, Configuration conf) throws IOException {
+        this.reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, conf));
+        this.messageType = SchemaConverter.getSchema(schema);
+        this.reader.setRequestedSchema(messageType);
+        this.columnDescriptors = messageType.getColumns();
+        this.createdBy = reader.getFooter().getFileMetaData().getCreatedBy();
+        this.columnReaders = new ColumnReader[columnDescriptors.size()];
+    }
+
+    /**
+     * Reads the next rows of the file into the given batch, replacing its contents. The batch is filled to its
+     * capacity unless the end of the file is reached.
+     *
+     * @param  batch       the batch to read into
+     * @return             true if any rows were read, false if the end of the file was reached
+     * @throws IOException if the file could not be read
+     */
+    public boolean readBatch(ColumnBatch batch) throws IOException {
+        batch.clear();
+        while (batch.size() < batch.capacity()) {
+            if (rowsRemainingInRowGroup == 0 && !nextRowGroup()) {
+                break;
+            }
+            int numRows = (int) Math.min(rowsRemainingInRowGroup, batch.capacity() - batch.size());
+            batch.appendFrom(columnReaders, numRows);
+            rowsRemainingInRowGroup -= numRows;
+            rowsRead += numRows;
+        }
+        return batch.size() > 0;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean nextRowGroup() throws IOException {
+        PageReadStore pages = reader.readNextRowGroup();
+        while (pages != null && pages.getRowCount() == 0) {
+            pages = reader.readNextRowGroup();
+        }
+        if (pages == null) {
+            return false;
+        }
+        ColumnReadStoreImpl readStore = new ColumnReadStoreImpl(pages, new NoConversion(), messageType, createdBy);
+        for (int i = 0; i < columnReaders.length; i++) {
+            columnReaders[i] = readStore.getColumnReader(columnDescriptors.get(i));
+        }
+        rowsRemainingInRowGroup = pages.getRowCount();
+        return true;
+    }
+
+    /**
+     * Values are read from the column readers directly, so the converters which would assemble records are never
+     * called. The column read store still requires one for each field.
+     */
+    private static class NoConversion extends GroupConverter {
+        private final PrimitiveConverter primitive = new NoPrimitiveConversion();
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return primitive;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+
+    private static class NoPrimitiveConversion extends PrimitiveConverter {
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.columnar;
+
+/**
+ * A reference to one row of a {@link ColumnBatch}. This is moved from row to row as values are written, so that
+ * rows can be passed to a Parquet writer without creating an object per row.
+ */
+public class ColumnBatchRow {
+    private ColumnBatch batch;
+    private int row;
+
+    /**
+     * Moves this reference to a row.
+     *
+     * @param  batch the batch holding the row
+     * @param  row   the index of the row in the batch
+     * @return       this object
+     */
+    public ColumnBatchRow set(ColumnBatch batch, int row) {
+        this.batch = batch;
+        this.row = row;
+        return this;
+    }
+
+    public ColumnBatch getBatch() {
+        return batch;
+    }
+
+    public int getRow() {
+        return row;
+    }
+}
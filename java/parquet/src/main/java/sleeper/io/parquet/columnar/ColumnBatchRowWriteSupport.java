@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.columnar;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.Type;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A {@link WriteSupport} for rows of a {@link ColumnBatch}. Values are passed to Parquet straight from the arrays of
+ * the batch, without creating a record.
+ */
+public class ColumnBatchRowWriteSupport extends WriteSupport<ColumnBatchRow> {
+    private static final byte INT = 0;
+    private static final byte LONG = 1;
+    private static final byte BINARY = 2;
+
+    private final MessageType messageType;
+    private final String[] fieldNames;
+    private final byte[] fieldTypes;
+    private RecordConsumer recordConsumer;
+
+    public ColumnBatchRowWriteSupport(MessageType messageType, Schema schema) {
+        this.messageType = messageType;
+        List<Field> fields = schema.getAllFields();
+        this.fieldNames = new String[fields.size()];
+        this.fieldTypes = new byte[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            fieldNames[i] = fields.get(i).getName();
+            Type type = fields.get(i).getType();
+            if (type instanceof IntType) {
+                fieldTypes[i] = INT;
+            } else if (type instanceof LongType) {
+                fieldTypes[i] = LONG;
+            } else {
+                fieldTypes[i] = BINARY;
+            }
+        }
+    }
+
+    @Override
+    public WriteContext init(Configuration configuration) {
+        return new WriteContext(messageType, new HashMap<>());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer) {
+        this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    @SuppressFBWarnings("UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+    public void write(ColumnBatchRow row) {
+        ColumnBatch batch = row.getBatch();
+        int index = row.getRow();
+        recordConsumer.startMessage();
+        for (int column = 0; column < fieldNames.length; column++) {
+            recordConsumer.startField(fieldNames[column], column);
+            switch (fieldTypes[column]) {
+                case INT:
+                    recordConsumer.addInteger(batch.getInt(column, index));
+                    break;
+                case LONG:
+                    recordConsumer.addLong(batch.getLong(column, index));
+                    break;
+                default:
+                    recordConsumer.addBinary(batch.getBinary(column, index));
+                    break;
+            }
+            recordConsumer.endField(fieldNames[column], column);
+        }
+        recordConsumer.endMessage();
+    }
+}
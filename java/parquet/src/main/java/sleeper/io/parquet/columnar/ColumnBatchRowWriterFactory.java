@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.columnar;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.io.parquet.record.ParquetRecordWriterFactory;
+
+import java.io.IOException;
+
+/**
+ * Creates Parquet writers for rows of a {@link ColumnBatch}, with the same settings from the table properties as
+ * {@link ParquetRecordWriterFactory} uses for records.
+ */
+public class ColumnBatchRowWriterFactory {
+
+    private ColumnBatchRowWriterFactory() {
+    }
+
+    public static ParquetWriter<ColumnBatchRow> createColumnBatchRowWriter(
+            Path path, TableProperties tableProperties, Configuration conf) throws IOException {
+        return ParquetRecordWriterFactory.parquetWriterBuilder(path, tableProperties, ColumnBatchRowWriteSupport::new)
+                .withConf(conf)
+                .build();
+    }
+}
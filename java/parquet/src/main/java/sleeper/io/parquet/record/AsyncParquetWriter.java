@@ -0,0 +1,176 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.record;
+
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import sleeper.core.util.InstrumentedQueue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes to a {@link ParquetWriter} on another thread, so that encoding, compressing and uploading the output can
+ * happen at the same time as producing the items to write. Items are passed to the writing thread in batches, through
+ * an {@link InstrumentedQueue} holding a bounded number of batches. The items must not be changed after they are
+ * passed to this writer.
+ * <p>
+ * The Parquet writer is closed on the writing thread when this is closed. If writing fails, the failure is rethrown
+ * by the next call to this writer. If writing fails or the writing thread is interrupted, the Parquet writer is left
+ * open, so that a partial file is not finalised at the output path. If the queue is set to hold no batches, items are
+ * written straight away on the calling thread instead.
+ *
+ * @param <T> the type of items to write
+ */
+public class AsyncParquetWriter<T> implements Closeable {
+    private static final List<?> END = List.of();
+
+    private final ParquetWriter<T> writer;
+    private final InstrumentedQueue<List<T>> queue;
+    private final int batchSize;
+    private final Future<Void> writing;
+    private volatile Exception failure;
+    private List<T> batch;
+    private boolean closed;
+
+    public AsyncParquetWriter(ParquetWriter<T> writer, ExecutorService executorService,
+                              String name, int batchSize, int queueBatches) {
+        this.writer = writer;
+        this.queue = new InstrumentedQueue<>(name, Math.max(1, queueBatches));
+        this.batchSize = batchSize;
+        this.batch = new ArrayList<>(batchSize);
+        this.writing = queueBatches > 0 ? executorService.submit(this::writeBatches) : null;
+    }
+
+    /**
+     * Adds an item to be written.
+     *
+     * @param  item        the item
+     * @throws IOException if writing has failed
+     */
+    public void write(T item) throws IOException {
+        if (null == writing) {
+            writer.write(item);
+            return;
+        }
+        batch.add(item);
+        if (batch.size() >= batchSize) {
+            putBatch(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (null == writing) {
+            writer.close();
+            return;
+        }
+        if (!batch.isEmpty()) {
+            putBatch(batch);
+        }
+        putBatch((List<T>) END);
+        try {
+            writing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + queue.getName() + " to finish");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed writing in " + queue.getName(), e.getCause());
+        }
+        throwIfFailed();
+    }
+
+    public InstrumentedQueue<List<T>> getQueue() {
+        return queue;
+    }
+
+    private void putBatch(List<T> items) throws IOException {
+        throwIfFailed();
+        try {
+            // Check the writing thread is still running, so the producer is not left waiting if it has died
+            while (!queue.offer(items, 100, TimeUnit.MILLISECONDS)) {
+                if (writing.isDone()) {
+                    throwWritingStopped();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for space in " + queue.getName());
+        }
+    }
+
+    private void throwIfFailed() throws IOException {
+        Exception e = failure;
+        if (null != e) {
+            throw new IOException("Failed writing in " + queue.getName(), e);
+        }
+    }
+
+    private void throwWritingStopped() throws IOException {
+        try {
+            writing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + queue.getName() + " to finish");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed writing in " + queue.getName(), e.getCause());
+        } catch (CancellationException e) {
+            throw new IOException("Cancelled writing in " + queue.getName(), e);
+        }
+        throw new IOException("Stopped writing in " + queue.getName());
+    }
+
+    private Void writeBatches() throws IOException, InterruptedException {
+        while (true) {
+            List<T> items = queue.take();
+            if (items == END) {
+                // Only finalise the file if every item was written
+                if (null == failure) {
+                    writer.close();
+                }
+                return null;
+            }
+            // After a failure, keep taking batches so that the producer is not left waiting for space
+            if (null == failure) {
+                writeOrRecordFailure(items);
+            }
+        }
+    }
+
+    private void writeOrRecordFailure(List<T> items) {
+        try {
+            for (T item : items) {
+                writer.write(item);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+    }
+}
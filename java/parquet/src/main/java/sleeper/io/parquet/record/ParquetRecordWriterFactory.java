@@ -30,7 +30,9 @@ import sleeper.core.schema.Schema;
 import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.BiFunction;
 
+import static sleeper.configuration.properties.table.TableProperty.BLOOM_FILTER_FOR_ROW_KEY_FIELDS;
 import static sleeper.configuration.properties.table.TableProperty.COLUMN_INDEX_TRUNCATE_LENGTH;
 import static sleeper.configuration.properties.table.TableProperty.COMPRESSION_CODEC;
 import static sleeper.configuration.properties.table.TableProperty.DICTIONARY_ENCODING_FOR_ROW_KEY_FIELDS;
@@ -60,61 +62,87 @@ public class ParquetRecordWriterFactory {
                 .withConf(conf).build();
     }
 
-    public static Builder parquetRecordWriterBuilder(Path path, TableProperties tableProperties) {
-        return new Builder(path, tableProperties.getSchema())
+    public static Builder<Record> parquetRecordWriterBuilder(Path path, TableProperties tableProperties) {
+        return parquetWriterBuilder(path, tableProperties, RecordWriteSupport::new);
+    }
+
+    /**
+     * Creates a builder for a Parquet writer of rows of any type, configured from the table properties in the same way
+     * as a writer of {@link Record}s.
+     *
+     * @param  <T>                 the type of the rows to write
+     * @param  path                the path of the file to write
+     * @param  tableProperties     the table properties
+     * @param  writeSupportFactory creates the write support for the rows, given the Parquet and Sleeper schemas
+     * @return                     the builder
+     */
+    public static <T> Builder<T> parquetWriterBuilder(
+            Path path, TableProperties tableProperties,
+            BiFunction<MessageType, Schema, WriteSupport<T>> writeSupportFactory) {
+        return new Builder<>(path, tableProperties.getSchema(), writeSupportFactory)
                 .withCompressionCodec(tableProperties.get(COMPRESSION_CODEC))
                 .withRowGroupSize(tableProperties.getLong(ROW_GROUP_SIZE))
                 .withPageSize(tableProperties.getInt(PAGE_SIZE))
                 .withDictionaryEncodingForRowKeyFields(tableProperties.getBoolean(DICTIONARY_ENCODING_FOR_ROW_KEY_FIELDS))
                 .withDictionaryEncodingForSortKeyFields(tableProperties.getBoolean(DICTIONARY_ENCODING_FOR_SORT_KEY_FIELDS))
                 .withDictionaryEncodingForValueFields(tableProperties.getBoolean(DICTIONARY_ENCODING_FOR_VALUE_FIELDS))
+                .withBloomFilterForRowKeyFields(tableProperties.getBoolean(BLOOM_FILTER_FOR_ROW_KEY_FIELDS))
                 .withColumnIndexTruncateLength(tableProperties.getInt(COLUMN_INDEX_TRUNCATE_LENGTH))
                 .withStatisticsTruncateLength(tableProperties.getInt(STATISTICS_TRUNCATE_LENGTH));
     }
 
-    public static class Builder extends ParquetWriter.Builder<Record, Builder> {
+    public static class Builder<T> extends ParquetWriter.Builder<T, Builder<T>> {
         private final MessageType messageType;
         private final Schema schema;
+        private final BiFunction<MessageType, Schema, WriteSupport<T>> writeSupportFactory;
 
-        private Builder(Path path, Schema schema) {
+        private Builder(Path path, Schema schema, BiFunction<MessageType, Schema, WriteSupport<T>> writeSupportFactory) {
             super(path);
             this.messageType = SchemaConverter.getSchema(schema);
             this.schema = schema;
+            this.writeSupportFactory = writeSupportFactory;
         }
 
         @Override
-        protected WriteSupport<Record> getWriteSupport(Configuration conf) {
-            return new RecordWriteSupport(messageType, schema);
+        protected WriteSupport<T> getWriteSupport(Configuration conf) {
+            return writeSupportFactory.apply(messageType, schema);
         }
 
         @Override
-        protected Builder self() {
+        protected Builder<T> self() {
             return this;
         }
 
-        public Builder withCompressionCodec(String compressionCodec) {
+        public Builder<T> withCompressionCodec(String compressionCodec) {
             return withCompressionCodec(CompressionCodecName.fromConf(compressionCodec.toUpperCase(Locale.ROOT)));
         }
 
-        public Builder withDictionaryEncodingForRowKeyFields(boolean dictionaryEncodingForRowKeyFields) {
+        public Builder<T> withDictionaryEncodingForRowKeyFields(boolean dictionaryEncodingForRowKeyFields) {
             setDictionaryEncoding(this, schema.getRowKeyFieldNames(), dictionaryEncodingForRowKeyFields);
             return this;
         }
 
-        public Builder withDictionaryEncodingForSortKeyFields(boolean dictionaryEncodingForSortKeyFields) {
+        public Builder<T> withDictionaryEncodingForSortKeyFields(boolean dictionaryEncodingForSortKeyFields) {
             setDictionaryEncoding(this, schema.getSortKeyFieldNames(), dictionaryEncodingForSortKeyFields);
             return this;
         }
 
-        public Builder withDictionaryEncodingForValueFields(boolean dictionaryEncodingForValueFields) {
+        public Builder<T> withDictionaryEncodingForValueFields(boolean dictionaryEncodingForValueFields) {
             setDictionaryEncoding(this, schema.getValueFieldNames(), dictionaryEncodingForValueFields);
             return this;
         }
+
+        public Builder<T> withBloomFilterForRowKeyFields(boolean bloomFilterForRowKeyFields) {
+            for (String fieldName : schema.getRowKeyFieldNames()) {
+                withBloomFilterEnabled(fieldName, bloomFilterForRowKeyFields);
+            }
+            return this;
+        }
     }
 
-    private static void setDictionaryEncoding(Builder builder, List<String> fieldNames, boolean dictionaryEncodingEnabled) {
+    private static void setDictionaryEncoding(Builder<?> builder, List<String> fieldNames, boolean dictionaryEncodingEnabled) {
         for (String fieldName : fieldNames) {
-            builder = builder.withDictionaryEncoding(fieldName, dictionaryEncodingEnabled);
+            builder.withDictionaryEncoding(fieldName, dictionaryEncodingEnabled);
         }
     }
 }
@@ -23,10 +23,12 @@ import org.apache.hadoop.conf.Configuration;
 
 import sleeper.configuration.properties.instance.InstanceProperties;
 import sleeper.configuration.properties.table.TableProperties;
+import sleeper.io.parquet.cache.ParquetFileTailCache;
 
 import static sleeper.configuration.properties.instance.CommonProperty.MAXIMUM_CONNECTIONS_TO_S3;
 import static sleeper.configuration.properties.instance.CommonProperty.S3_UPLOAD_BLOCK_SIZE;
 import static sleeper.configuration.properties.instance.QueryProperty.MAXIMUM_CONNECTIONS_TO_S3_FOR_QUERIES;
+import static sleeper.configuration.properties.instance.QueryProperty.QUERY_PARQUET_METADATA_CACHE_SIZE_IN_BYTES;
 import static sleeper.configuration.properties.table.TableProperty.S3A_READAHEAD_RANGE;
 
 public class HadoopConfigurationProvider {
@@ -37,6 +39,7 @@ public class HadoopConfigurationProvider {
     public static Configuration getConfigurationForClient(InstanceProperties instanceProperties) {
         Configuration conf = new Configuration();
         conf.set("fs.s3a.connection.maximum", instanceProperties.get(MAXIMUM_CONNECTIONS_TO_S3_FOR_QUERIES));
+        conf.set(ParquetFileTailCache.CACHE_SIZE_BYTES_KEY, instanceProperties.get(QUERY_PARQUET_METADATA_CACHE_SIZE_IN_BYTES));
         if (System.getenv("AWS_ENDPOINT_URL") != null) {
             setLocalStackConfiguration(conf);
         } else {
@@ -60,6 +63,7 @@ public class HadoopConfigurationProvider {
     public static Configuration getConfigurationForQueryLambdas(InstanceProperties instanceProperties, TableProperties tableProperties) {
         Configuration conf = new Configuration();
         conf.set("fs.s3a.connection.maximum", instanceProperties.get(MAXIMUM_CONNECTIONS_TO_S3_FOR_QUERIES));
+        conf.set(ParquetFileTailCache.CACHE_SIZE_BYTES_KEY, instanceProperties.get(QUERY_PARQUET_METADATA_CACHE_SIZE_IN_BYTES));
         conf.set("fs.s3a.readahead.range", tableProperties.get(S3A_READAHEAD_RANGE));
         if (System.getenv("AWS_ENDPOINT_URL") != null) {
             setLocalStackConfiguration(conf);
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.cache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+import sleeper.io.parquet.record.ParquetReaderIterator;
+import sleeper.io.parquet.record.ParquetRecordReader;
+import sleeper.io.parquet.record.ParquetRecordWriterFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParquetFileTailCacheIT {
+    @TempDir
+    public java.nio.file.Path folder;
+
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new LongType()))
+            .valueFields(new Field("value", new StringType()))
+            .build();
+    private final Configuration conf = new Configuration();
+
+    @Test
+    void shouldReadFileThroughCache() throws IOException {
+        // Given
+        String file = folder.resolve("file.parquet").toString();
+        List<Record> records = createRecords(1000);
+        writeRecords(file, records);
+        ParquetFileTailCache cache = new ParquetFileTailCache(1024 * 1024);
+
+        // When
+        List<Record> firstRead = readRecords(cache, file, FilterCompat.NOOP);
+        List<Record> secondRead = readRecords(cache, file, FilterCompat.NOOP);
+
+        // Then
+        assertThat(firstRead).isEqualTo(records);
+        assertThat(secondRead).isEqualTo(records);
+        assertThat(cache.isCached(file)).isTrue();
+        assertThat(cache.getCachedBytes()).isPositive();
+    }
+
+    @Test
+    void shouldApplyFilterUsingCachedPageIndexes() throws IOException {
+        // Given
+        String file = folder.resolve("file.parquet").toString();
+        List<Record> records = createRecords(1000);
+        writeRecords(file, records);
+        ParquetFileTailCache cache = new ParquetFileTailCache(1024 * 1024);
+        FilterPredicate filter = FilterApi.and(
+                FilterApi.gtEq(FilterApi.longColumn("key"), 100L),
+                FilterApi.lt(FilterApi.longColumn("key"), 110L));
+
+        // When
+        List<Record> firstRead = readRecords(cache, file, FilterCompat.get(filter));
+        List<Record> secondRead = readRecords(cache, file, FilterCompat.get(filter));
+
+        // Then
+        assertThat(firstRead).isEqualTo(records.subList(100, 110));
+        assertThat(secondRead).isEqualTo(records.subList(100, 110));
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedFileWhenFull() throws IOException {
+        // Given
+        String file1 = folder.resolve("file1.parquet").toString();
+        String file2 = folder.resolve("file2.parquet").toString();
+        String file3 = folder.resolve("file3.parquet").toString();
+        writeRecords(file1, createRecords(100));
+        writeRecords(file2, createRecords(100));
+        writeRecords(file3, createRecords(100));
+        ParquetFileTailCache measure = new ParquetFileTailCache(1024 * 1024);
+        readRecords(measure, file1, FilterCompat.NOOP);
+        ParquetFileTailCache cache = new ParquetFileTailCache(measure.getCachedBytes() * 2);
+
+        // When
+        readRecords(cache, file1, FilterCompat.NOOP);
+        readRecords(cache, file2, FilterCompat.NOOP);
+        readRecords(cache, file1, FilterCompat.NOOP);
+        readRecords(cache, file3, FilterCompat.NOOP);
+
+        // Then
+        assertThat(cache.isCached(file1)).isTrue();
+        assertThat(cache.isCached(file2)).isFalse();
+        assertThat(cache.isCached(file3)).isTrue();
+        assertThat(cache.getCachedBytes()).isEqualTo(measure.getCachedBytes() * 2);
+    }
+
+    @Test
+    void shouldReadDirectlyWhenCacheIsDisabled() throws IOException {
+        // Given
+        String file = folder.resolve("file.parquet").toString();
+        List<Record> records = createRecords(100);
+        writeRecords(file, records);
+        ParquetFileTailCache cache = new ParquetFileTailCache(0);
+
+        // When
+        List<Record> read = readRecords(cache, file, FilterCompat.NOOP);
+
+        // Then
+        assertThat(read).isEqualTo(records);
+        assertThat(cache.isCached(file)).isFalse();
+        assertThat(cache.getCachedBytes()).isZero();
+    }
+
+    private List<Record> createRecords(int numRecords) {
+        return IntStream.range(0, numRecords)
+                .mapToObj(i -> new Record(Map.of("key", (long) i, "value", "value-" + i)))
+                .collect(Collectors.toList());
+    }
+
+    private void writeRecords(String file, List<Record> records) throws IOException {
+        TableProperties tableProperties = new TableProperties(new InstanceProperties());
+        tableProperties.setSchema(schema);
+        try (ParquetWriter<Record> writer = ParquetRecordWriterFactory.parquetRecordWriterBuilder(new Path(file), tableProperties)
+                .withRowGroupSize(4096)
+                .withPageSize(512)
+                .build()) {
+            for (Record record : records) {
+                writer.write(record);
+            }
+        }
+    }
+
+    private List<Record> readRecords(ParquetFileTailCache cache, String file, FilterCompat.Filter filter) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (ParquetReader<Record> reader = new ParquetRecordReader.Builder(cache.inputFile(file, conf), schema)
+                .withConf(conf)
+                .withFilter(filter)
+                .build();
+             ParquetReaderIterator iterator = new ParquetReaderIterator(reader)) {
+            iterator.forEachRemaining(records::add);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.parquet.columnar;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.ByteArrayType;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.MapType;
+import sleeper.core.schema.type.StringType;
+import sleeper.io.parquet.record.ParquetReaderIterator;
+import sleeper.io.parquet.record.ParquetRecordReader;
+import sleeper.io.parquet.record.ParquetRecordWriterFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnBatchReaderIT {
+    @TempDir
+    public java.nio.file.Path folder;
+
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new StringType()))
+            .sortKeyFields(new Field("sort", new LongType()))
+            .valueFields(new Field("int", new IntType()), new Field("bytes", new ByteArrayType()))
+            .build();
+    private final TableProperties tableProperties = createTableProperties();
+
+    @Test
+    void shouldReadBatchesAcrossRowGroups() throws IOException {
+        // Given
+        Path path = new Path(folder.toString() + "/file.parquet");
+        List<Record> records = createRecords(1000);
+        writeRecords(path, records);
+
+        // When
+        List<Record> read = new ArrayList<>();
+        int batches = 0;
+        long rowsRead;
+        try (ColumnBatchReader reader = new ColumnBatchReader(path, schema, new Configuration())) {
+            ColumnBatch batch = new ColumnBatch(schema, 7);
+            while (reader.readBatch(batch)) {
+                batches++;
+                for (int row = 0; row < batch.size(); row++) {
+                    read.add(toRecord(batch, row));
+                }
+            }
+            rowsRead = reader.getRowsRead();
+        }
+
+        // Then
+        assertThat(read).isEqualTo(records);
+        assertThat(batches).isEqualTo(143);
+        assertThat(rowsRead).isEqualTo(1000L);
+    }
+
+    @Test
+    void shouldWriteRowsOfBatchesToParquet() throws IOException {
+        // Given
+        Path inputPath = new Path(folder.toString() + "/input.parquet");
+        Path outputPath = new Path(folder.toString() + "/output.parquet");
+        List<Record> records = createRecords(100);
+        writeRecords(inputPath, records);
+
+        // When
+        try (ColumnBatchReader reader = new ColumnBatchReader(inputPath, schema, new Configuration());
+             ParquetWriter<ColumnBatchRow> writer = ColumnBatchRowWriterFactory.createColumnBatchRowWriter(
+                     outputPath, tableProperties, new Configuration())) {
+            ColumnBatch batch = new ColumnBatch(schema, 30);
+            ColumnBatchRow row = new ColumnBatchRow();
+            while (reader.readBatch(batch)) {
+                for (int i = 0; i < batch.size(); i++) {
+                    writer.write(row.set(batch, i));
+                }
+            }
+        }
+
+        // Then
+        assertThat(readRecords(outputPath)).isEqualTo(records);
+    }
+
+    @Test
+    void shouldCompareRowsByRowKeyThenSortKey() throws IOException {
+        // Given
+        Path path = new Path(folder.toString() + "/file.parquet");
+        writeRecords(path, createRecords(4));
+        ColumnBatch batch1 = new ColumnBatch(schema, 4);
+        ColumnBatch batch2 = new ColumnBatch(schema, 4);
+        try (ColumnBatchReader reader1 = new ColumnBatchReader(path, schema, new Configuration());
+             ColumnBatchReader reader2 = new ColumnBatchReader(path, schema, new Configuration())) {
+            reader1.readBatch(batch1);
+            reader2.readBatch(batch2);
+        }
+
+        // When / Then
+        assertThat(ColumnBatch.compareKeys(batch1, 0, batch2, 1)).isNegative();
+        assertThat(ColumnBatch.compareKeys(batch1, 2, batch2, 1)).isPositive();
+        assertThat(ColumnBatch.compareKeys(batch1, 3, batch2, 3)).isZero();
+    }
+
+    @Test
+    void shouldRefuseSchemaWithMapField() {
+        // Given
+        Schema mapSchema = Schema.builder()
+                .rowKeyFields(new Field("key", new StringType()))
+                .valueFields(new Field("map", new MapType(new StringType(), new LongType())))
+                .build();
+
+        // When / Then
+        assertThat(ColumnBatch.isSupported(mapSchema)).isFalse();
+        assertThatThrownBy(() -> new ColumnBatch(mapSchema, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<Record> createRecords(int numRecords) {
+        return IntStream.range(0, numRecords)
+                .mapToObj(i -> {
+                    Record record = new Record();
+                    record.put("key", String.format("key-%04d", i / 2));
+                    record.put("sort", (long) (i % 2));
+                    record.put("int", i);
+                    record.put("bytes", new byte[]{(byte) i, (byte) (i / 256)});
+                    return record;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private Record toRecord(ColumnBatch batch, int row) {
+        Record record = new Record();
+        record.put("key", batch.getComparableKey(0, row));
+        record.put("sort", batch.getComparableKey(1, row));
+        record.put("int", batch.getInt(2, row));
+        record.put("bytes", batch.getBinary(3, row).getBytes());
+        return record;
+    }
+
+    private void writeRecords(Path path, List<Record> records) throws IOException {
+        try (ParquetWriter<Record> writer = ParquetRecordWriterFactory.parquetRecordWriterBuilder(path, tableProperties)
+                .withRowGroupSize(1024)
+                .withPageSize(256)
+                .build()) {
+            for (Record record : records) {
+                writer.write(record);
+            }
+        }
+    }
+
+    private List<Record> readRecords(Path path) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (ParquetReader<Record> reader = new ParquetRecordReader.Builder(path, schema).build();
+             ParquetReaderIterator iterator = new ParquetReaderIterator(reader)) {
+            iterator.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    private TableProperties createTableProperties() {
+        TableProperties properties = new TableProperties(new InstanceProperties());
+        properties.setSchema(schema);
+        return properties;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.io.record;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.io.parquet.record.AsyncParquetWriter;
+import sleeper.io.parquet.record.ParquetReaderIterator;
+import sleeper.io.parquet.record.ParquetRecordReader;
+import sleeper.io.parquet.record.ParquetRecordWriterFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncParquetWriterIT {
+    @TempDir
+    public java.nio.file.Path folder;
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new LongType()))
+            .valueFields(new Field("value", new LongType()))
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void shouldWriteRecordsOnAnotherThread() throws IOException {
+        // Given
+        Path path = new Path(folder.toString() + "/file.parquet");
+        List<Record> records = createRecords(2500);
+
+        // When
+        try (AsyncParquetWriter<Record> writer = new AsyncParquetWriter<>(
+                ParquetRecordWriterFactory.createParquetRecordWriter(path, schema), executorService, "test", 100, 2)) {
+            for (Record record : records) {
+                writer.write(record);
+            }
+        }
+
+        // Then
+        assertThat(readRecords(path)).isEqualTo(records);
+    }
+
+    @Test
+    void shouldWriteRecordsOnCallingThreadWhenQueueHoldsNoBatches() throws IOException {
+        // Given
+        Path path = new Path(folder.toString() + "/file.parquet");
+        List<Record> records = createRecords(10);
+
+        // When
+        try (AsyncParquetWriter<Record> writer = new AsyncParquetWriter<>(
+                ParquetRecordWriterFactory.createParquetRecordWriter(path, schema), null, "test", 100, 0)) {
+            for (Record record : records) {
+                writer.write(record);
+            }
+        }
+
+        // Then
+        assertThat(readRecords(path)).isEqualTo(records);
+    }
+
+    private List<Record> createRecords(long numRecords) {
+        return LongStream.range(0, numRecords)
+                .mapToObj(i -> {
+                    Record record = new Record();
+                    record.put("key", i);
+                    record.put("value", i * 2);
+                    return record;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private List<Record> readRecords(Path path) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (ParquetReader<Record> reader = new ParquetRecordReader.Builder(path, schema).build();
+             ParquetReaderIterator iterator = new ParquetReaderIterator(reader)) {
+            iterator.forEachRemaining(records::add);
+        }
+        return records;
+    }
+}
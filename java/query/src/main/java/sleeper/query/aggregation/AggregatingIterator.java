@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.aggregation;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+import sleeper.query.model.QueryAggregations;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Computes aggregations over records sorted by row key, returning one result for each group. Since the records are
+ * grouped by the first few row key fields, the records in each group are next to each other. This means only one
+ * group needs to be held at a time.
+ */
+public class AggregatingIterator implements CloseableIterator<Record> {
+    private final Aggregator aggregator;
+    private final CloseableIterator<Record> input;
+    private Record nextInput;
+
+    public AggregatingIterator(QueryAggregations aggregations, Schema tableSchema, CloseableIterator<Record> input) {
+        this.aggregator = new Aggregator(aggregations, tableSchema);
+        this.input = input;
+        this.nextInput = input.hasNext() ? input.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return null != nextInput;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Aggregator.Group group = aggregator.newGroup(nextInput);
+        aggregator.addRecord(group, nextInput);
+        nextInput = null;
+        while (input.hasNext()) {
+            Record record = input.next();
+            if (aggregator.getGroupKeyComparator().compare(group.getGroupKey(), aggregator.getGroupKey(record)) != 0) {
+                nextInput = record;
+                break;
+            }
+            aggregator.addRecord(group, record);
+        }
+        return aggregator.toRecord(group);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
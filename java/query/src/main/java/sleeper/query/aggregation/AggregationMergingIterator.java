@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.aggregation;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.iterator.MergingIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+import sleeper.query.model.QueryAggregations;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges partial results of aggregations, e.g. from each leaf partition of a query, into one result for each group.
+ * A group may have partial results from several leaf partitions, e.g. if the table is split on a row key field that is
+ * not grouped by. Each input must be sorted by row key, as returned by {@link AggregatingIterator}. The inputs are
+ * merged in order of row key, which brings the partial results for each group together, since the fields grouped by are
+ * the first row key fields. This means only one group needs to be held at a time.
+ * <p>
+ * If the results are not grouped and there are no partial results, e.g. because no records were found, a single
+ * result is returned if the aggregations have an identity, e.g. a count of 0.
+ */
+public class AggregationMergingIterator implements CloseableIterator<Record> {
+    private final Aggregator aggregator;
+    private final CloseableIterator<Record> partialResults;
+    private Record nextPartialResult;
+    private boolean identityPending;
+
+    public AggregationMergingIterator(QueryAggregations aggregations, Schema tableSchema, List<CloseableIterator<Record>> partialResults) {
+        this.aggregator = new Aggregator(aggregations, tableSchema);
+        this.partialResults = new MergingIterator(aggregations.getResultSchema(tableSchema), partialResults);
+        this.nextPartialResult = this.partialResults.hasNext() ? this.partialResults.next() : null;
+        this.identityPending = null == nextPartialResult && aggregator.hasIdentity();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return null != nextPartialResult || identityPending;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (null == nextPartialResult) {
+            identityPending = false;
+            return aggregator.identityRecord();
+        }
+        Aggregator.Group group = aggregator.newGroup(nextPartialResult);
+        aggregator.addPartialResult(group, nextPartialResult);
+        nextPartialResult = null;
+        while (partialResults.hasNext()) {
+            Record partialResult = partialResults.next();
+            if (aggregator.getGroupKeyComparator().compare(group.getGroupKey(), aggregator.getGroupKey(partialResult)) != 0) {
+                nextPartialResult = partialResult;
+                break;
+            }
+            aggregator.addPartialResult(group, partialResult);
+        }
+        return aggregator.toRecord(group);
+    }
+
+    @Override
+    public void close() throws IOException {
+        partialResults.close();
+    }
+}
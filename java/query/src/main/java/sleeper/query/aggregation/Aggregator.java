@@ -0,0 +1,200 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.aggregation;
+
+import sleeper.core.key.Key;
+import sleeper.core.record.KeyComparator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.ByteArrayType;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.PrimitiveType;
+import sleeper.core.schema.type.StringType;
+import sleeper.core.schema.type.Type;
+import sleeper.query.model.QueryAggregation;
+import sleeper.query.model.QueryAggregations;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the aggregations for a query over a group of records. This can add records read from the table, or partial
+ * results that have already been aggregated, e.g. from another leaf partition.
+ */
+class Aggregator {
+    private final List<String> rowKeyFieldNames;
+    private final List<PrimitiveType> rowKeyTypes;
+    private final List<String> groupByFieldNames;
+    private final List<QueryAggregation> aggregations;
+    private final List<KeyComparator> valueComparators;
+    private final KeyComparator rowKeyComparator;
+    private final KeyComparator groupKeyComparator;
+
+    Aggregator(QueryAggregations spec, Schema tableSchema) {
+        Schema resultSchema = spec.getResultSchema(tableSchema);
+        rowKeyFieldNames = tableSchema.getRowKeyFieldNames();
+        rowKeyTypes = tableSchema.getRowKeyTypes();
+        groupByFieldNames = rowKeyFieldNames.subList(0, spec.getGroupByRowKeyFields());
+        aggregations = spec.getAggregations();
+        valueComparators = resultSchema.getValueFields().stream()
+                .map(Field::getType)
+                .map(type -> new KeyComparator((PrimitiveType) type))
+                .collect(Collectors.toUnmodifiableList());
+        rowKeyComparator = new KeyComparator(tableSchema.getRowKeyTypes());
+        groupKeyComparator = new KeyComparator(tableSchema.getRowKeyTypes().subList(0, spec.getGroupByRowKeyFields()));
+    }
+
+    KeyComparator getGroupKeyComparator() {
+        return groupKeyComparator;
+    }
+
+    Key getGroupKey(Record record) {
+        return Key.create(record.getValues(groupByFieldNames));
+    }
+
+    Group newGroup(Record record) {
+        return new Group(getGroupKey(record), Key.create(record.getValues(rowKeyFieldNames)), new Object[aggregations.size()]);
+    }
+
+    void addRecord(Group group, Record record) {
+        for (int i = 0; i < aggregations.size(); i++) {
+            QueryAggregation aggregation = aggregations.get(i);
+            if (aggregation.getOperation() == QueryAggregation.Operation.COUNT) {
+                combine(group, i, 1L);
+            } else {
+                combine(group, i, record.get(aggregation.getField()));
+            }
+        }
+    }
+
+    void addPartialResult(Group group, Record partialResult) {
+        Key rowKey = Key.create(partialResult.getValues(rowKeyFieldNames));
+        if (rowKeyComparator.compare(rowKey, group.rowKey) < 0) {
+            group.rowKey = rowKey;
+        }
+        for (int i = 0; i < aggregations.size(); i++) {
+            combine(group, i, partialResult.get(aggregations.get(i).getResultFieldName()));
+        }
+    }
+
+    /**
+     * Checks whether there should be a result when there are no records. This is the case when the results are not
+     * grouped and every aggregation has an identity, e.g. a count of no records is 0. A minimum or maximum of no records
+     * has no value, so there is no result.
+     *
+     * @return true if {@link #identityRecord()} should be returned when there are no records
+     */
+    boolean hasIdentity() {
+        return groupByFieldNames.isEmpty() && aggregations.stream()
+                .allMatch(aggregation -> aggregation.getOperation() == QueryAggregation.Operation.COUNT
+                        || aggregation.getOperation() == QueryAggregation.Operation.SUM);
+    }
+
+    /**
+     * Creates the result of the aggregations over no records. The row key is set to the lowest possible value, as
+     * there is no first record.
+     *
+     * @return the result
+     */
+    Record identityRecord() {
+        Record record = new Record();
+        for (int i = 0; i < rowKeyFieldNames.size(); i++) {
+            record.put(rowKeyFieldNames.get(i), getMinimum(rowKeyTypes.get(i)));
+        }
+        for (QueryAggregation aggregation : aggregations) {
+            record.put(aggregation.getResultFieldName(), 0L);
+        }
+        return record;
+    }
+
+    Record toRecord(Group group) {
+        Record record = new Record();
+        for (int i = 0; i < rowKeyFieldNames.size(); i++) {
+            record.put(rowKeyFieldNames.get(i), group.rowKey.get(i));
+        }
+        for (int i = 0; i < aggregations.size(); i++) {
+            record.put(aggregations.get(i).getResultFieldName(), group.values[i]);
+        }
+        return record;
+    }
+
+    private void combine(Group group, int index, Object value) {
+        if (null == value) {
+            return;
+        }
+        Object current = group.values[index];
+        switch (aggregations.get(index).getOperation()) {
+            case COUNT:
+            case SUM:
+                long sum = null == current ? 0L : (long) current;
+                group.values[index] = sum + ((Number) value).longValue();
+                break;
+            case MIN:
+                if (null == current || compare(index, value, current) < 0) {
+                    group.values[index] = value;
+                }
+                break;
+            case MAX:
+                if (null == current || compare(index, value, current) > 0) {
+                    group.values[index] = value;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognised aggregation operation: " + aggregations.get(index).getOperation());
+        }
+    }
+
+    private static Object getMinimum(Type type) {
+        if (type instanceof IntType) {
+            return Integer.MIN_VALUE;
+        }
+        if (type instanceof LongType) {
+            return Long.MIN_VALUE;
+        }
+        if (type instanceof StringType) {
+            return "";
+        }
+        if (type instanceof ByteArrayType) {
+            return new byte[]{};
+        }
+        throw new IllegalArgumentException("Unknown key type " + type);
+    }
+
+    private int compare(int index, Object value1, Object value2) {
+        return valueComparators.get(index).compare(Key.create(value1), Key.create(value2));
+    }
+
+    /**
+     * The state of the aggregations for a group of records.
+     */
+    static class Group {
+        private final Key groupKey;
+        private Key rowKey;
+        private final Object[] values;
+
+        private Group(Key groupKey, Key rowKey, Object[] values) {
+            this.groupKey = groupKey;
+            this.rowKey = rowKey;
+            this.values = values;
+        }
+
+        Key getGroupKey() {
+            return groupKey;
+        }
+    }
+}
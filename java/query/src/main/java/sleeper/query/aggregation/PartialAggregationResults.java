@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.aggregation;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+import sleeper.io.parquet.record.ParquetReaderIterator;
+import sleeper.io.parquet.record.ParquetRecordReader;
+import sleeper.query.model.LeafPartitionQuery;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.QUERY_RESULTS_BUCKET;
+import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
+import static sleeper.io.parquet.record.ParquetRecordWriterFactory.parquetRecordWriterBuilder;
+
+/**
+ * Holds partial results of aggregations from each sub query of a query, when the sub queries are run separately. The
+ * partial results of each sub query are written to a Parquet file in the query results bucket, next to the query they
+ * are for. Once every sub query has finished, they can be read back and merged with an
+ * {@link AggregationMergingIterator}.
+ */
+public class PartialAggregationResults {
+    private static final String QUERY_FILE = "query.json";
+    private static final String SUFFIX = ".parquet";
+
+    private final String directory;
+    private final Configuration conf;
+
+    public PartialAggregationResults(InstanceProperties instanceProperties, Configuration conf) {
+        this.directory = instanceProperties.get(FILE_SYSTEM) + instanceProperties.get(QUERY_RESULTS_BUCKET) + "/partial-aggregations";
+        this.conf = conf;
+    }
+
+    /**
+     * Saves the query that the partial results are for, so that it can be used when they are merged.
+     *
+     * @param  queryId     the query ID
+     * @param  queryJson   the query, serialised as JSON
+     * @throws IOException if the query could not be written
+     */
+    public void saveQuery(String queryId, String queryJson) throws IOException {
+        Path path = new Path(getQueryDirectory(queryId), QUERY_FILE);
+        try (FSDataOutputStream out = path.getFileSystem(conf).create(path, true)) {
+            out.write(queryJson.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Loads the query that the partial results are for.
+     *
+     * @param  queryId     the query ID
+     * @return             the query, serialised as JSON
+     * @throws IOException if the query could not be read
+     */
+    public String loadQuery(String queryId) throws IOException {
+        Path path = new Path(getQueryDirectory(queryId), QUERY_FILE);
+        try (FSDataInputStream in = path.getFileSystem(conf).open(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Saves the partial results of a sub query. If the sub query is run again, its previous partial results are
+     * replaced.
+     *
+     * @param  leafQuery              the sub query
+     * @param  resultsTableProperties the table properties, with the schema of the results of the aggregations
+     * @param  results                the partial results, sorted by row key
+     * @return                        the number of partial results
+     * @throws IOException            if the results could not be written
+     */
+    public long savePartialResults(LeafPartitionQuery leafQuery, TableProperties resultsTableProperties, CloseableIterator<Record> results) throws IOException {
+        Path path = new Path(getQueryDirectory(leafQuery.getQueryId()), leafQuery.getSubQueryId() + SUFFIX);
+        long count = 0;
+        try (ParquetWriter<Record> writer = parquetRecordWriterBuilder(path, resultsTableProperties)
+                .withConf(conf)
+                .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+                .build()) {
+            while (results.hasNext()) {
+                writer.write(results.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Opens the partial results of every sub query of a query.
+     *
+     * @param  queryId      the query ID
+     * @param  resultSchema the schema of the results of the aggregations
+     * @return              an iterator for the partial results of each sub query
+     * @throws IOException  if the results could not be opened
+     */
+    public List<CloseableIterator<Record>> readPartialResults(String queryId, Schema resultSchema) throws IOException {
+        Path queryDirectory = getQueryDirectory(queryId);
+        FileSystem fs = queryDirectory.getFileSystem(conf);
+        List<CloseableIterator<Record>> iterators = new ArrayList<>();
+        for (FileStatus status : fs.listStatus(queryDirectory)) {
+            if (status.getPath().getName().endsWith(SUFFIX)) {
+                iterators.add(new ParquetReaderIterator(
+                        new ParquetRecordReader.Builder(status.getPath(), resultSchema).withConf(conf).build()));
+            }
+        }
+        return iterators;
+    }
+
+    /**
+     * Deletes the query and the partial results once they have been merged.
+     *
+     * @param  queryId     the query ID
+     * @throws IOException if the files could not be deleted
+     */
+    public void delete(String queryId) throws IOException {
+        Path queryDirectory = getQueryDirectory(queryId);
+        queryDirectory.getFileSystem(conf).delete(queryDirectory, true);
+    }
+
+    private Path getQueryDirectory(String queryId) {
+        return new Path(directory, queryId);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.cache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.iterator.WrappedIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+import sleeper.io.parquet.record.ParquetReaderIterator;
+import sleeper.io.parquet.record.ParquetRecordReader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The results of a query held in a {@link QueryResultsCache}, either in memory or in a Parquet file.
+ */
+class CachedQueryResults {
+    private final List<Record> records;
+    private final String file;
+    private final long recordCount;
+
+    private CachedQueryResults(List<Record> records, String file, long recordCount) {
+        this.records = records;
+        this.file = file;
+        this.recordCount = recordCount;
+    }
+
+    static CachedQueryResults inMemory(List<Record> records) {
+        return new CachedQueryResults(records, null, records.size());
+    }
+
+    static CachedQueryResults inFile(String file, long recordCount) {
+        return new CachedQueryResults(null, file, recordCount);
+    }
+
+    CloseableIterator<Record> read(Schema schema, Configuration conf) throws IOException {
+        if (null != records) {
+            return new WrappedIterator<>(records.iterator());
+        }
+        return new ParquetReaderIterator(new ParquetRecordReader.Builder(new Path(file), schema).withConf(conf).build());
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.cache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+import sleeper.io.parquet.record.ParquetRecordWriterFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Passes through the results of a query, and adds them to a {@link QueryResultsCache} once they have all been read.
+ * Results are held in memory until there are too many, at which point they are written to a file instead.
+ */
+class CachingResultsIterator implements CloseableIterator<Record> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingResultsIterator.class);
+
+    private final QueryResultsCache cache;
+    private final QueryResultsCacheKey key;
+    private final CloseableIterator<Record> results;
+    private final Schema schema;
+    private final Configuration conf;
+    private List<Record> records = new ArrayList<>();
+    private String file;
+    private ParquetWriter<Record> writer;
+    private long recordCount;
+    private boolean finished;
+    private boolean failed;
+
+    CachingResultsIterator(QueryResultsCache cache, QueryResultsCacheKey key, CloseableIterator<Record> results,
+                           Schema schema, Configuration conf) {
+        this.cache = cache;
+        this.key = key;
+        this.results = results;
+        this.schema = schema;
+        this.conf = conf;
+    }
+
+    @Override
+    public boolean hasNext() {
+        boolean hasNext = results.hasNext();
+        if (!hasNext) {
+            finished = true;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public Record next() {
+        Record record = results.next();
+        if (!failed) {
+            try {
+                cacheRecord(record);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Failed caching query results, the query will not be cached", e);
+                failed = true;
+                records = null;
+            }
+        }
+        return record;
+    }
+
+    private void cacheRecord(Record record) throws IOException {
+        recordCount++;
+        if (null != writer) {
+            writer.write(record);
+            return;
+        }
+        records.add(record);
+        if (records.size() > cache.getMaxRecordsInMemory()) {
+            file = cache.getFileDirectory() + "/" + UUID.randomUUID() + ".parquet";
+            LOGGER.info("Query results too large to cache in memory, writing to {}", file);
+            writer = ParquetRecordWriterFactory.createParquetRecordWriter(new Path(file), schema, conf);
+            for (Record cachedRecord : records) {
+                writer.write(cachedRecord);
+            }
+            records = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        results.close();
+        if (null != writer) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed writing cached query results", e);
+                failed = true;
+            }
+            writer = null;
+        }
+        if (finished && !failed) {
+            if (null != file) {
+                cache.put(key, CachedQueryResults.inFile(file, recordCount));
+            } else {
+                cache.put(key, CachedQueryResults.inMemory(records));
+            }
+        } else if (null != file) {
+            Path path = new Path(file);
+            path.getFileSystem(conf).delete(path, false);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.cache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+import sleeper.query.QueryException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.QUERY_RESULTS_BUCKET;
+import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
+import static sleeper.configuration.properties.instance.QueryProperty.QUERY_RESULTS_CACHE_MAX_ENTRIES;
+import static sleeper.configuration.properties.instance.QueryProperty.QUERY_RESULTS_CACHE_MAX_RECORDS_IN_MEMORY;
+
+/**
+ * Caches the results of queries, so that an identical query against the same files does not need to be executed
+ * again. Small results are held in memory, and larger results are written to a file. The least recently used results
+ * are evicted when the cache holds more than its maximum number of entries.
+ * <p>
+ * Results are only cached once they have been read in full, so a query that fails part way through is not cached.
+ */
+public class QueryResultsCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryResultsCache.class);
+
+    private final int maxEntries;
+    private final long maxRecordsInMemory;
+    private final String fileDirectory;
+    private final Map<QueryResultsCacheKey, CachedQueryResults> resultsByKey = new LinkedHashMap<>(16, 0.75f, true);
+
+    public QueryResultsCache(int maxEntries, long maxRecordsInMemory, String fileDirectory) {
+        this.maxEntries = maxEntries;
+        this.maxRecordsInMemory = maxRecordsInMemory;
+        this.fileDirectory = fileDirectory;
+    }
+
+    /**
+     * Creates a cache configured from the instance properties. Results too large to hold in memory are written to the
+     * query results bucket.
+     *
+     * @param  instanceProperties the instance properties
+     * @return                    the cache
+     */
+    public static QueryResultsCache from(InstanceProperties instanceProperties) {
+        return new QueryResultsCache(
+                instanceProperties.getInt(QUERY_RESULTS_CACHE_MAX_ENTRIES),
+                instanceProperties.getLong(QUERY_RESULTS_CACHE_MAX_RECORDS_IN_MEMORY),
+                instanceProperties.get(FILE_SYSTEM) + instanceProperties.get(QUERY_RESULTS_BUCKET) + "/results-cache");
+    }
+
+    /**
+     * Retrieves the results of a query from the cache, or executes the query if its results are not cached. Results
+     * read from the query will be cached once they have all been read.
+     *
+     * @param  key            the key identifying the query
+     * @param  schema         the schema of the results
+     * @param  conf           the Hadoop configuration to read and write cached files
+     * @param  query          executes the query, if its results are not cached
+     * @return                the results
+     * @throws QueryException if the query failed
+     */
+    public CloseableIterator<Record> getResults(
+            QueryResultsCacheKey key, Schema schema, Configuration conf, QueryResultsSupplier query) throws QueryException {
+        if (maxEntries <= 0) {
+            return query.getResults();
+        }
+        CachedQueryResults cached = get(key);
+        if (null != cached) {
+            try {
+                LOGGER.info("Reading {} cached results for files with fingerprint {}", cached.getRecordCount(), key.getFilesFingerprint());
+                return cached.read(schema, conf);
+            } catch (IOException e) {
+                LOGGER.warn("Failed reading cached results, executing query", e);
+                remove(key);
+            }
+        }
+        return new CachingResultsIterator(this, key, query.getResults(), schema, conf);
+    }
+
+    public synchronized boolean isCached(QueryResultsCacheKey key) {
+        return resultsByKey.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return resultsByKey.size();
+    }
+
+    long getMaxRecordsInMemory() {
+        return maxRecordsInMemory;
+    }
+
+    String getFileDirectory() {
+        return fileDirectory;
+    }
+
+    synchronized CachedQueryResults get(QueryResultsCacheKey key) {
+        return resultsByKey.get(key);
+    }
+
+    synchronized void put(QueryResultsCacheKey key, CachedQueryResults results) {
+        resultsByKey.put(key, results);
+        while (resultsByKey.size() > maxEntries) {
+            QueryResultsCacheKey leastRecentlyUsed = resultsByKey.keySet().iterator().next();
+            resultsByKey.remove(leastRecentlyUsed);
+        }
+    }
+
+    synchronized void remove(QueryResultsCacheKey key) {
+        resultsByKey.remove(key);
+    }
+
+    /**
+     * Executes a query to retrieve its results.
+     */
+    @FunctionalInterface
+    public interface QueryResultsSupplier {
+        CloseableIterator<Record> getResults() throws QueryException;
+    }
+}
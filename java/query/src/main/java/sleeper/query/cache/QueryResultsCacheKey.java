@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.cache;
+
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.range.Region;
+import sleeper.query.model.LeafPartitionQuery;
+import sleeper.query.model.Query;
+import sleeper.query.model.QueryAggregations;
+import sleeper.query.model.QueryProcessingConfig;
+import sleeper.query.model.QueryProjection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CLASS_NAME;
+import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CONFIG;
+import static sleeper.configuration.properties.table.TableProperty.TABLE_ID;
+
+/**
+ * Identifies the results of a query for caching. This includes everything that affects the results of the query, and a
+ * fingerprint of the files it would be read from. Files are never modified once written, so cached results are valid
+ * for as long as the same files are chosen for the query.
+ */
+public class QueryResultsCacheKey {
+    private final String tableId;
+    private final String leafPartitionId;
+    private final List<Region> regions;
+    private final String queryTimeIteratorClassName;
+    private final String queryTimeIteratorConfig;
+    private final List<String> requestedValueFields;
+    private final QueryAggregations aggregations;
+    private final QueryProjection projection;
+    private final String tableIteratorClassName;
+    private final String tableIteratorConfig;
+    private final String filesFingerprint;
+
+    private QueryResultsCacheKey(TableProperties tableProperties, String leafPartitionId, List<Region> regions,
+                                 QueryProcessingConfig processingConfig, List<LeafPartitionQuery> leafQueries) {
+        this.tableId = tableProperties.get(TABLE_ID);
+        this.leafPartitionId = leafPartitionId;
+        this.regions = regions;
+        this.queryTimeIteratorClassName = processingConfig.getQueryTimeIteratorClassName();
+        this.queryTimeIteratorConfig = processingConfig.getQueryTimeIteratorConfig();
+        this.requestedValueFields = processingConfig.getRequestedValueFields();
+        this.aggregations = processingConfig.getAggregations();
+        this.projection = processingConfig.getProjection();
+        this.tableIteratorClassName = tableProperties.get(ITERATOR_CLASS_NAME);
+        this.tableIteratorConfig = tableProperties.get(ITERATOR_CONFIG);
+        this.filesFingerprint = fingerprintFiles(leafQueries);
+    }
+
+    /**
+     * Creates a key for a query which will be run against the given leaf partition queries.
+     *
+     * @param  query           the query
+     * @param  leafQueries     the leaf partition queries the query was split into
+     * @param  tableProperties the properties of the table being queried
+     * @return                 the key
+     */
+    public static QueryResultsCacheKey forQuery(Query query, List<LeafPartitionQuery> leafQueries, TableProperties tableProperties) {
+        return new QueryResultsCacheKey(tableProperties, null, query.getRegions(), query.getProcessingConfig(), leafQueries);
+    }
+
+    /**
+     * Creates a key for a query against a single leaf partition.
+     *
+     * @param  leafQuery       the leaf partition query
+     * @param  tableProperties the properties of the table being queried
+     * @return                 the key
+     */
+    public static QueryResultsCacheKey forLeafQuery(LeafPartitionQuery leafQuery, TableProperties tableProperties) {
+        return new QueryResultsCacheKey(tableProperties, leafQuery.getLeafPartitionId(), leafQuery.getRegions(),
+                leafQuery.getProcessingConfig(), List.of(leafQuery));
+    }
+
+    public String getFilesFingerprint() {
+        return filesFingerprint;
+    }
+
+    private static String fingerprintFiles(List<LeafPartitionQuery> leafQueries) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        List<String> partitionFiles = leafQueries.stream()
+                .flatMap(leafQuery -> leafQuery.getFiles().stream()
+                        .map(file -> leafQuery.getLeafPartitionId() + "\t" + file))
+                .sorted()
+                .collect(Collectors.toList());
+        for (String partitionFile : partitionFiles) {
+            digest.update(partitionFile.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        StringBuilder fingerprint = new StringBuilder();
+        for (byte b : digest.digest()) {
+            fingerprint.append(String.format("%02x", b));
+        }
+        return fingerprint.toString();
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        QueryResultsCacheKey that = (QueryResultsCacheKey) object;
+        return Objects.equals(tableId, that.tableId)
+                && Objects.equals(leafPartitionId, that.leafPartitionId)
+                && Objects.equals(regions, that.regions)
+                && Objects.equals(queryTimeIteratorClassName, that.queryTimeIteratorClassName)
+                && Objects.equals(queryTimeIteratorConfig, that.queryTimeIteratorConfig)
+                && Objects.equals(requestedValueFields, that.requestedValueFields)
+                && Objects.equals(aggregations, that.aggregations)
+                && projection == that.projection
+                && Objects.equals(tableIteratorClassName, that.tableIteratorClassName)
+                && Objects.equals(tableIteratorConfig, that.tableIteratorConfig)
+                && Objects.equals(filesFingerprint, that.filesFingerprint);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tableId, leafPartitionId, regions, queryTimeIteratorClassName, queryTimeIteratorConfig,
+                requestedValueFields, aggregations, projection, tableIteratorClassName, tableIteratorConfig, filesFingerprint);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryResultsCacheKey{" +
+                "tableId='" + tableId + '\'' +
+                ", leafPartitionId='" + leafPartitionId + '\'' +
+                ", regions=" + regions +
+                ", queryTimeIteratorClassName='" + queryTimeIteratorClassName + '\'' +
+                ", queryTimeIteratorConfig='" + queryTimeIteratorConfig + '\'' +
+                ", requestedValueFields=" + requestedValueFields +
+                ", aggregations=" + aggregations +
+                ", projection=" + projection +
+                ", tableIteratorClassName='" + tableIteratorClassName + '\'' +
+                ", tableIteratorConfig='" + tableIteratorConfig + '\'' +
+                ", filesFingerprint='" + filesFingerprint + '\'' +
+                '}';
+    }
+}
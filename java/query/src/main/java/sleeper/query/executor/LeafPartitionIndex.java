@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.executor;
+
+import sleeper.core.key.Key;
+import sleeper.core.partition.Partition;
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.range.Region;
+import sleeper.core.record.KeyComparator;
+import sleeper.core.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An index over a partition tree, to find the leaf partitions that a query needs to read and the files in each of
+ * them. Regions are routed by descending the tree only into partitions that overlap them, rather than checking every
+ * leaf partition. The files for each leaf partition, including those in its ancestors, are computed when the files
+ * are set, rather than for each query.
+ * <p>
+ * An index is immutable, so queries can keep reading it while a new index is built from updated partitions or files.
+ */
+public class LeafPartitionIndex {
+    private final Set<Partition> partitions;
+    private final PartitionTree tree;
+    private final List<Partition> leafPartitions;
+    private final Map<String, Integer> leafIdToOrder;
+    private final Map<String, List<String>> partitionToFiles;
+    private final Map<String, List<String>> leafIdToFiles;
+
+    public LeafPartitionIndex(Schema schema, List<Partition> partitions) {
+        this.partitions = new HashSet<>(partitions);
+        this.tree = new PartitionTree(schema, partitions);
+        this.leafPartitions = partitions.stream()
+                .filter(Partition::isLeafPartition)
+                .sorted(partitionOrder(schema))
+                .collect(Collectors.toUnmodifiableList());
+        this.leafIdToOrder = new HashMap<>();
+        for (int i = 0; i < leafPartitions.size(); i++) {
+            leafIdToOrder.put(leafPartitions.get(i).getId(), i);
+        }
+        this.partitionToFiles = Map.of();
+        this.leafIdToFiles = Map.of();
+    }
+
+    private LeafPartitionIndex(LeafPartitionIndex index, Map<String, List<String>> partitionToFiles) {
+        this.partitions = index.partitions;
+        this.tree = index.tree;
+        this.leafPartitions = index.leafPartitions;
+        this.leafIdToOrder = index.leafIdToOrder;
+        this.partitionToFiles = partitionToFiles;
+        this.leafIdToFiles = new HashMap<>();
+        addLeafFiles(tree.getRootPartition(), List.of(), partitionToFiles, leafIdToFiles);
+    }
+
+    /**
+     * Checks whether this index was built from the given partitions, in which case it does not need to be rebuilt.
+     *
+     * @param  partitions the partitions
+     * @return            true if the partitions are the same as those in this index
+     */
+    public boolean hasPartitions(List<Partition> partitions) {
+        return this.partitions.size() == partitions.size() && this.partitions.containsAll(partitions);
+    }
+
+    /**
+     * Creates an index over the same partitions with the given files in each partition. The files for each leaf
+     * partition are only computed if the files have changed.
+     *
+     * @param  partitionToFiles a map from partition ID to the files in that partition
+     * @return                  an index with the given files
+     */
+    public LeafPartitionIndex withFiles(Map<String, List<String>> partitionToFiles) {
+        if (partitionToFiles.equals(this.partitionToFiles)) {
+            return this;
+        }
+        return new LeafPartitionIndex(this, partitionToFiles);
+    }
+
+    /**
+     * Finds the leaf partitions which overlap any of the given regions.
+     *
+     * @param  regions the regions
+     * @return         a map from each overlapping leaf partition to the regions that overlap it, in the order of the
+     *                 leaf partitions
+     */
+    public Map<Partition, List<Region>> getLeafPartitionsOverlapping(List<Region> regions) {
+        Map<String, List<Region>> leafIdToRegions = new HashMap<>();
+        for (Region region : regions) {
+            addOverlappingLeaves(tree.getRootPartition(), region, leafIdToRegions);
+        }
+        Map<Partition, List<Region>> result = new LinkedHashMap<>();
+        leafIdToRegions.keySet().stream()
+                .sorted(Comparator.comparing(leafIdToOrder::get))
+                .forEach(id -> result.put(tree.getPartition(id), leafIdToRegions.get(id)));
+        return result;
+    }
+
+    /**
+     * Retrieves the files that need to be read for a leaf partition. This includes files in the leaf partition, then
+     * in each of its ancestors up to the root.
+     *
+     * @param  leafPartition the leaf partition
+     * @return               the files
+     */
+    public List<String> getFiles(Partition leafPartition) {
+        return leafIdToFiles.getOrDefault(leafPartition.getId(), List.of());
+    }
+
+    public List<Partition> getLeafPartitions() {
+        return leafPartitions;
+    }
+
+    private void addOverlappingLeaves(Partition partition, Region region, Map<String, List<Region>> leafIdToRegions) {
+        if (!partition.doesRegionOverlapPartition(region)) {
+            return;
+        }
+        if (partition.isLeafPartition()) {
+            leafIdToRegions.computeIfAbsent(partition.getId(), id -> new ArrayList<>()).add(region);
+            return;
+        }
+        for (String childId : partition.getChildPartitionIds()) {
+            Partition child = tree.getPartition(childId);
+            if (null != child) {
+                addOverlappingLeaves(child, region, leafIdToRegions);
+            }
+        }
+    }
+
+    private void addLeafFiles(Partition partition, List<String> ancestorFiles,
+                              Map<String, List<String>> partitionToFiles, Map<String, List<String>> leafToFiles) {
+        List<String> files = new ArrayList<>(partitionToFiles.getOrDefault(partition.getId(), List.of()));
+        files.addAll(ancestorFiles);
+        if (partition.isLeafPartition()) {
+            leafToFiles.put(partition.getId(), Collections.unmodifiableList(files));
+            return;
+        }
+        for (String childId : partition.getChildPartitionIds()) {
+            Partition child = tree.getPartition(childId);
+            if (null != child) {
+                addLeafFiles(child, files, partitionToFiles, leafToFiles);
+            }
+        }
+    }
+
+    private static Comparator<Partition> partitionOrder(Schema schema) {
+        KeyComparator keyComparator = new KeyComparator(schema.getRowKeyTypes());
+        return Comparator.comparing(partition -> Key.create(schema.getRowKeyFieldNames().stream()
+                .map(field -> partition.getRegion().getRange(field).getMin())
+                .collect(Collectors.toList())), keyComparator);
+    }
+}
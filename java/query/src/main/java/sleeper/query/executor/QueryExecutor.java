@@ -23,29 +23,34 @@ import sleeper.configuration.jars.ObjectFactory;
 import sleeper.configuration.properties.table.TableProperties;
 import sleeper.core.iterator.CloseableIterator;
 import sleeper.core.iterator.ConcatenatingIterator;
+import sleeper.core.iterator.ParallelConcatenatingIterator;
+import sleeper.core.iterator.WrappedIterator;
 import sleeper.core.partition.Partition;
-import sleeper.core.partition.PartitionTree;
 import sleeper.core.range.Region;
 import sleeper.core.record.Record;
 import sleeper.core.schema.Schema;
 import sleeper.core.statestore.StateStore;
 import sleeper.core.statestore.StateStoreException;
 import sleeper.query.QueryException;
+import sleeper.query.aggregation.AggregationMergingIterator;
 import sleeper.query.model.LeafPartitionQuery;
 import sleeper.query.model.Query;
+import sleeper.query.model.QueryAggregations;
 import sleeper.query.recordretrieval.LeafPartitionQueryExecutor;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CLASS_NAME;
 import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CONFIG;
+import static sleeper.configuration.properties.table.TableProperty.QUERY_PARTITION_PARALLELISM;
 import static sleeper.configuration.properties.table.TableProperty.TABLE_ID;
 
 /**
@@ -53,6 +58,22 @@ import static sleeper.configuration.properties.table.TableProperty.TABLE_ID;
  */
 public class QueryExecutor {
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryExecutor.class);
+    private static final int READ_AHEAD_BATCH_SIZE = 100;
+    private static final int READ_AHEAD_QUEUE_BATCHES = 10;
+    /**
+     * The number of leaf partitions to open at once when merging grouped partial results of aggregations.
+     */
+    static final int MAX_AGGREGATION_PARTITIONS_OPEN = 16;
+    /**
+     * Reads leaf partitions in parallel. A reader waits for its files to be opened on the executor service passed to
+     * the query executor, so readers run on their own threads. This ensures readers from concurrent queries can never
+     * hold every thread of that executor service while waiting for work queued behind them.
+     */
+    private static final ExecutorService PARTITION_READERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "query-partition-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final ObjectFactory objectFactory;
     private final StateStore stateStore;
@@ -60,9 +81,7 @@ public class QueryExecutor {
     private final ExecutorService executorService;
     private final TableProperties tableProperties;
     private final Configuration configuration;
-    private List<Partition> leafPartitions;
-    private PartitionTree partitionTree;
-    private Map<String, List<String>> partitionToFiles;
+    private volatile LeafPartitionIndex leafPartitionIndex;
 
     public QueryExecutor(ObjectFactory objectFactory,
                          StateStore stateStore,
@@ -96,6 +115,9 @@ public class QueryExecutor {
      * a balance between having an up-to-date view of the data and the cost of
      * frequently extracting all the information about the files and the partitions
      * from the state store.
+     * <p>
+     * This may be called while queries are running. Each query reads from a snapshot of the partitions and files,
+     * which is replaced once the new state has been retrieved.
      *
      * @throws StateStoreException if the statestore can't be accessed.
      */
@@ -107,12 +129,12 @@ public class QueryExecutor {
         init(partitions, partitionToFileMapping);
     }
 
-    public void init(List<Partition> partitions, Map<String, List<String>> partitionToFileMapping) {
-        this.leafPartitions = partitions.stream()
-                .filter(Partition::isLeafPartition)
-                .collect(Collectors.toList());
-        this.partitionTree = new PartitionTree(this.schema, partitions);
-        this.partitionToFiles = partitionToFileMapping;
+    public synchronized void init(List<Partition> partitions, Map<String, List<String>> partitionToFileMapping) {
+        LeafPartitionIndex index = leafPartitionIndex;
+        if (null == index || !index.hasPartitions(partitions)) {
+            index = new LeafPartitionIndex(schema, partitions);
+        }
+        leafPartitionIndex = index.withFiles(partitionToFileMapping);
     }
 
     /**
@@ -123,17 +145,58 @@ public class QueryExecutor {
      * initialisation of the readers requires reading the footers of the file
      * which takes a little time. If a query spanned many leaf partitions and
      * each leaf partition had many active files, then the initialisation time
-     * could be high. Using suppliers ensures that only files for a single
-     * leaf partition are opened at a time.
+     * could be high. Using suppliers ensures that only files for a limited
+     * number of leaf partitions are opened at a time.
+     * <p>
+     * Leaf partitions are returned in the order of their regions. Several
+     * leaf partitions may be read at once, as set in the table property
+     * {@link sleeper.configuration.properties.table.TableProperty#QUERY_PARTITION_PARALLELISM}.
+     * <p>
+     * If the query has aggregations, the partial results from each leaf
+     * partition are merged into one result for each group. If the results are
+     * not grouped, the leaf partitions are read one at a time. Otherwise, up to
+     * {@link #MAX_AGGREGATION_PARTITIONS_OPEN} leaf partitions are read at once
+     * and merged in order.
      *
      * @param query the query
      * @return An iterator containing the relevant records
      * @throws QueryException if it errors.
      */
     public CloseableIterator<Record> execute(Query query) throws QueryException {
-        List<LeafPartitionQuery> leafPartitionQueries = splitIntoLeafPartitionQueries(query);
+        return execute(query, splitIntoLeafPartitionQueries(query));
+    }
+
+    /**
+     * Executes a query which has already been split into {@link LeafPartitionQuery}s. This ensures the query reads the
+     * same files that were found when it was split, even if the partitions and files are refreshed in the meantime.
+     *
+     * @param  query                the query
+     * @param  leafPartitionQueries the leaf partition queries from {@link #splitIntoLeafPartitionQueries(Query)}
+     * @return                      an iterator containing the relevant records
+     * @throws QueryException       if it errors
+     */
+    public CloseableIterator<Record> execute(Query query, List<LeafPartitionQuery> leafPartitionQueries) throws QueryException {
+        if (null != query.getAggregations()) {
+            try {
+                query.getAggregations().getResultSchema(schema);
+            } catch (IllegalArgumentException e) {
+                throw new QueryException("Invalid aggregations for query", e);
+            }
+        }
         List<Supplier<CloseableIterator<Record>>> iteratorSuppliers = createRecordIteratorSuppliers(leafPartitionQueries);
-        return new ConcatenatingIterator(iteratorSuppliers);
+        if (null != query.getAggregations()) {
+            return mergePartialResults(query.getAggregations(), iteratorSuppliers);
+        }
+        CloseableIterator<Record> iterator;
+        int parallelism = tableProperties.getInt(QUERY_PARTITION_PARALLELISM);
+        if (parallelism > 1 && iteratorSuppliers.size() > 1) {
+            LOGGER.debug("Reading up to {} leaf partitions at once", parallelism);
+            iterator = new ParallelConcatenatingIterator(iteratorSuppliers, PARTITION_READERS,
+                    parallelism, READ_AHEAD_BATCH_SIZE, READ_AHEAD_QUEUE_BATCHES);
+        } else {
+            iterator = new ConcatenatingIterator(iteratorSuppliers);
+        }
+        return iterator;
     }
 
     public CloseableIterator<Record> execute(LeafPartitionQuery query) throws QueryException {
@@ -142,7 +205,7 @@ public class QueryExecutor {
 
     /**
      * Splits up a {@link Query} into multiple {@link LeafPartitionQuery}s using the
-     * {@code getRelevantLeafPartitions()} method. For each leaf partition, it
+     * current snapshot of the partitions and files. For each leaf partition, it
      * finds the parent partitions in the tree and adds any files still belonging
      * to the parent to the sub query.
      *
@@ -153,14 +216,15 @@ public class QueryExecutor {
         // Get mapping from leaf partitions to ranges from the query that overlap
         // that partition. Only leaf partitions that do overlap one of the ranges
         // from the query are contained in the map.
-        Map<Partition, List<Region>> relevantLeafPartitions = getRelevantLeafPartitions(query);
+        LeafPartitionIndex index = leafPartitionIndex;
+        Map<Partition, List<Region>> relevantLeafPartitions = index.getLeafPartitionsOverlapping(query.getRegions());
         LOGGER.debug("There are {} relevant leaf partitions", relevantLeafPartitions.size());
 
         List<LeafPartitionQuery> leafPartitionQueriesList = new ArrayList<>();
         for (Map.Entry<Partition, List<Region>> entry : relevantLeafPartitions.entrySet()) {
             Partition partition = entry.getKey();
             List<Region> regions = entry.getValue();
-            List<String> files = getFiles(partition);
+            List<String> files = index.getFiles(partition);
 
             if (files.isEmpty()) {
                 LOGGER.info("No files for partition {}", entry.getKey());
@@ -189,6 +253,46 @@ public class QueryExecutor {
         return leafPartitionQueriesList;
     }
 
+    /**
+     * Merges the partial results of aggregations from each leaf partition, with a limited number of leaf partitions
+     * open at once. If the results are not grouped, each leaf partition has at most one partial result, so the leaf
+     * partitions are read one after the other. Otherwise, the leaf partitions are merged in sets of up to
+     * {@link #MAX_AGGREGATION_PARTITIONS_OPEN}, and the result for each set is held in memory until they are all merged.
+     *
+     * @param  aggregations   the aggregations
+     * @param  partialResults the suppliers of partial results for each leaf partition
+     * @return                the results of the aggregations
+     * @throws QueryException if the partial results could not be read
+     */
+    private CloseableIterator<Record> mergePartialResults(
+            QueryAggregations aggregations, List<Supplier<CloseableIterator<Record>>> partialResults) throws QueryException {
+        if (aggregations.getGroupByRowKeyFields() == 0) {
+            return new AggregationMergingIterator(aggregations, schema, List.of(new ConcatenatingIterator(partialResults)));
+        }
+        if (partialResults.size() <= MAX_AGGREGATION_PARTITIONS_OPEN) {
+            return new AggregationMergingIterator(aggregations, schema, open(partialResults));
+        }
+        List<CloseableIterator<Record>> mergedSets = new ArrayList<>();
+        for (int start = 0; start < partialResults.size(); start += MAX_AGGREGATION_PARTITIONS_OPEN) {
+            int end = Math.min(partialResults.size(), start + MAX_AGGREGATION_PARTITIONS_OPEN);
+            List<Record> merged = new ArrayList<>();
+            try (CloseableIterator<Record> iterator = new AggregationMergingIterator(
+                    aggregations, schema, open(partialResults.subList(start, end)))) {
+                iterator.forEachRemaining(merged::add);
+            } catch (IOException e) {
+                throw new QueryException("Exception merging partial results of aggregations", e);
+            }
+            mergedSets.add(new WrappedIterator<>(merged.iterator()));
+        }
+        return new AggregationMergingIterator(aggregations, schema, mergedSets);
+    }
+
+    private static List<CloseableIterator<Record>> open(List<Supplier<CloseableIterator<Record>>> suppliers) {
+        return suppliers.stream()
+                .map(Supplier::get)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
     private List<Supplier<CloseableIterator<Record>>> createRecordIteratorSuppliers(List<LeafPartitionQuery> leafPartitionQueries) {
         List<Supplier<CloseableIterator<Record>>> iterators = new ArrayList<>();
 
@@ -204,45 +308,4 @@ public class QueryExecutor {
         }
         return iterators;
     }
-
-    /**
-     * Gets the leaf partitions which are relevant to a query. This method is
-     * called by the default implementation of {@code getPartitionFiles()} If
-     * you overwrite getPartitionFiles() then you may make this method a no-op.
-     *
-     * @param query the query
-     * @return the relevant leaf partitions
-     */
-    private Map<Partition, List<Region>> getRelevantLeafPartitions(Query query) {
-        Map<Partition, List<Region>> leafPartitionToOverlappingRegions = new HashMap<>();
-        leafPartitions.forEach(partition -> {
-            leafPartitionToOverlappingRegions.put(partition, new ArrayList<>());
-            for (Region region : query.getRegions()) {
-                if (partition.doesRegionOverlapPartition(region)) {
-                    leafPartitionToOverlappingRegions.get(partition).add(region);
-                }
-            }
-            if (leafPartitionToOverlappingRegions.get(partition).isEmpty()) {
-                leafPartitionToOverlappingRegions.remove(partition);
-            }
-        });
-        return leafPartitionToOverlappingRegions;
-    }
-
-    protected List<String> getFiles(Partition partition) {
-        // Get all partitions up to the root of the tree
-        List<String> relevantPartitions = new ArrayList<>();
-        relevantPartitions.add(partition.getId());
-        relevantPartitions.addAll(partitionTree.getAllAncestorIds(partition.getId()));
-
-        // Get relevant files
-        List<String> files = new ArrayList<>();
-        for (String partitionId : relevantPartitions) {
-            List<String> filesForPartition = partitionToFiles.get(partitionId);
-            if (null != filesForPartition) {
-                files.addAll(partitionToFiles.get(partitionId));
-            }
-        }
-        return files;
-    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.lambda;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.statestore.StateStoreException;
+import sleeper.query.executor.QueryExecutor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static sleeper.configuration.properties.table.TableProperty.TABLE_NAME;
+
+/**
+ * Holds a query executor for each table, with its partitions and files. Before an executor is used, its partitions
+ * and files are reloaded if they are older than the refresh period. The executor is recreated if the table properties
+ * have changed since it was created.
+ * <p>
+ * The partitions and files may also be refreshed on a background thread, so that queries rarely need to wait for the
+ * state store. This is not relied on to keep the state up to date, as the background thread does not run while a
+ * lambda is frozen between invocations.
+ */
+public class QueryExecutorCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryExecutorCache.class);
+
+    private final Function<TableProperties, QueryExecutor> createExecutor;
+    private final Duration refreshPeriod;
+    private final Supplier<Instant> timeSupplier;
+    private final ScheduledExecutorService backgroundRefresher;
+    private final Map<String, Entry> entryByTableName = new HashMap<>();
+
+    /**
+     * Creates the cache.
+     *
+     * @param createExecutor      creates an executor for a table, before its partitions and files are loaded
+     * @param refreshPeriod       the maximum age of the partitions and files used for a query
+     * @param timeSupplier        supplies the current time
+     * @param backgroundRefresher refreshes the partitions and files in the background, or null to only refresh them
+     *                            when an executor is retrieved
+     */
+    public QueryExecutorCache(Function<TableProperties, QueryExecutor> createExecutor, Duration refreshPeriod,
+                              Supplier<Instant> timeSupplier, ScheduledExecutorService backgroundRefresher) {
+        this.createExecutor = createExecutor;
+        this.refreshPeriod = refreshPeriod;
+        this.timeSupplier = timeSupplier;
+        this.backgroundRefresher = backgroundRefresher;
+    }
+
+    /**
+     * Retrieves the executor for a table. The executor will be created if it does not exist or was created with
+     * different table properties, and its partitions and files will be reloaded if they are older than the refresh
+     * period.
+     *
+     * @param  tableProperties     the current properties of the table
+     * @return                     the executor, with partitions and files no older than the refresh period
+     * @throws StateStoreException if the partitions and files could not be loaded
+     */
+    public QueryExecutor getExecutor(TableProperties tableProperties) throws StateStoreException {
+        String tableName = tableProperties.get(TABLE_NAME);
+        Entry entry = entryByTableName.get(tableName);
+        if (null != entry && !entry.tableProperties.equals(tableProperties)) {
+            LOGGER.info("Properties changed for table {}, so recreating query executor", tableName);
+            entry.close();
+            entryByTableName.remove(tableName);
+            entry = null;
+        }
+        if (null == entry) {
+            entry = new Entry(tableProperties, createExecutor.apply(tableProperties));
+            entry.refresh();
+            entry.scheduleBackgroundRefresh(tableName);
+            entryByTableName.put(tableName, entry);
+        } else {
+            entry.refreshIfOlderThan(timeSupplier.get().minus(refreshPeriod));
+        }
+        return entry.queryExecutor;
+    }
+
+    /**
+     * Stops refreshing all executors in the background.
+     */
+    public void close() {
+        entryByTableName.values().forEach(Entry::close);
+        entryByTableName.clear();
+    }
+
+    /**
+     * An executor for a table, and when its partitions and files were last loaded.
+     */
+    private class Entry {
+        private final TableProperties tableProperties;
+        private final QueryExecutor queryExecutor;
+        private Instant lastRefreshTime = Instant.MIN;
+        private ScheduledFuture<?> backgroundRefresh;
+
+        Entry(TableProperties tableProperties, QueryExecutor queryExecutor) {
+            this.tableProperties = tableProperties;
+            this.queryExecutor = queryExecutor;
+        }
+
+        synchronized void refresh() throws StateStoreException {
+            Instant startTime = timeSupplier.get();
+            queryExecutor.init();
+            lastRefreshTime = startTime;
+        }
+
+        synchronized void refreshIfOlderThan(Instant minRefreshTime) throws StateStoreException {
+            if (lastRefreshTime.isBefore(minRefreshTime)) {
+                LOGGER.info("Partitions and files for table {} were loaded at {}, so reloading before query",
+                        tableProperties.get(TABLE_NAME), lastRefreshTime);
+                refresh();
+            }
+        }
+
+        void scheduleBackgroundRefresh(String tableName) {
+            if (null == backgroundRefresher) {
+                return;
+            }
+            // Refresh more often than the period, so that a query only waits if this thread has been frozen
+            long delayMillis = Math.max(1, refreshPeriod.toMillis() / 2);
+            backgroundRefresh = backgroundRefresher.scheduleWithFixedDelay(() -> {
+                try {
+                    refresh();
+                    LOGGER.info("Refreshed partitions and files for table {}", tableName);
+                } catch (StateStoreException | RuntimeException e) {
+                    LOGGER.error("Failed refreshing partitions and files for table {}", tableName, e);
+                }
+            }, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        void close() {
+            if (null != backgroundRefresh) {
+                backgroundRefresh.cancel(false);
+            }
+        }
+    }
+}
@@ -30,20 +30,28 @@ import sleeper.configuration.properties.table.TableProperties;
 import sleeper.configuration.properties.table.TablePropertiesProvider;
 import sleeper.core.iterator.CloseableIterator;
 import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
 import sleeper.core.statestore.StateStore;
 import sleeper.core.statestore.StateStoreException;
 import sleeper.query.QueryException;
+import sleeper.query.aggregation.AggregationMergingIterator;
+import sleeper.query.aggregation.PartialAggregationResults;
+import sleeper.query.cache.QueryResultsCache;
+import sleeper.query.cache.QueryResultsCacheKey;
 import sleeper.query.executor.QueryExecutor;
 import sleeper.query.model.LeafPartitionQuery;
 import sleeper.query.model.Query;
 import sleeper.query.model.QueryOrLeafPartitionQuery;
+import sleeper.query.model.QueryProcessingConfig;
 import sleeper.query.model.QuerySerDe;
+import sleeper.query.model.output.ArrowResultsOutput;
 import sleeper.query.model.output.ResultsOutput;
 import sleeper.query.model.output.ResultsOutputConstants;
 import sleeper.query.model.output.ResultsOutputInfo;
 import sleeper.query.model.output.S3ResultsOutput;
 import sleeper.query.model.output.SQSResultsOutput;
 import sleeper.query.model.output.WebSocketResultsOutput;
+import sleeper.query.recordretrieval.FileOpenScheduler;
 import sleeper.query.recordretrieval.LeafPartitionQueryExecutor;
 import sleeper.query.tracker.DynamoDBQueryTracker;
 import sleeper.query.tracker.QueryStatusReportListeners;
@@ -51,14 +59,20 @@ import sleeper.statestore.StateStoreProvider;
 import sleeper.utils.HadoopConfigurationProvider;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.QUERY_QUEUE_URL;
+import static sleeper.configuration.properties.instance.QueryProperty.QUERY_PROCESSING_LAMBDA_STATE_REFRESHING_PERIOD_IN_SECONDS;
+import static sleeper.configuration.properties.instance.QueryProperty.QUERY_PROCESSOR_FILE_OPEN_DEDICATED_THREADS;
+import static sleeper.configuration.properties.instance.QueryProperty.QUERY_PROCESSOR_FILE_OPEN_MAX_CONCURRENCY;
 import static sleeper.configuration.properties.instance.QueryProperty.QUERY_PROCESSOR_LAMBDA_RECORD_RETRIEVAL_THREADS;
 import static sleeper.configuration.properties.table.TableProperty.TABLE_NAME;
 
@@ -67,32 +81,53 @@ public class SqsQueryProcessor {
     private static final UserDefinedInstanceProperty EXECUTOR_POOL_THREADS = QUERY_PROCESSOR_LAMBDA_RECORD_RETRIEVAL_THREADS;
 
     private final ExecutorService executorService;
+    private final ScheduledExecutorService stateRefresher;
     private final InstanceProperties instanceProperties;
     private final AmazonSQS sqsClient;
     private final TablePropertiesProvider tablePropertiesProvider;
     private final StateStoreProvider stateStoreProvider;
     private final ObjectFactory objectFactory;
     private final DynamoDBQueryTracker queryTracker;
-    private final Map<String, QueryExecutor> queryExecutorCache = new HashMap<>();
-    private final Map<String, Configuration> configurationCache = new HashMap<>();
+    private final QueryExecutorCache queryExecutorCache;
+    private final Map<String, TableConfiguration> configurationCache = new HashMap<>();
+    private final QueryResultsCache resultsCache;
 
     private SqsQueryProcessor(Builder builder) throws ObjectFactoryException {
         sqsClient = builder.sqsClient;
         instanceProperties = builder.instanceProperties;
         tablePropertiesProvider = builder.tablePropertiesProvider;
         executorService = Executors.newFixedThreadPool(instanceProperties.getInt(EXECUTOR_POOL_THREADS));
+        stateRefresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-state-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
         objectFactory = new ObjectFactory(instanceProperties, builder.s3Client, "/tmp");
         queryTracker = new DynamoDBQueryTracker(instanceProperties, builder.dynamoClient);
+        resultsCache = QueryResultsCache.from(instanceProperties);
         // The following Configuration is only used in StateStoreProvider for reading from S3 if the S3StateStore is used,
         // so use the standard Configuration rather than the one for query lambdas which is specific to the table.
         Configuration confForStateStore = HadoopConfigurationProvider.getConfigurationForLambdas(instanceProperties);
         stateStoreProvider = new StateStoreProvider(builder.dynamoClient, instanceProperties, confForStateStore);
+        queryExecutorCache = new QueryExecutorCache(this::createQueryExecutor,
+                Duration.ofSeconds(instanceProperties.getLong(QUERY_PROCESSING_LAMBDA_STATE_REFRESHING_PERIOD_IN_SECONDS)),
+                Instant::now, stateRefresher);
     }
 
     public static Builder builder() {
         return new Builder();
     }
 
+    /**
+     * Stops the threads used to execute queries and refresh their state. This should only be called when no queries
+     * are running.
+     */
+    public void close() {
+        queryExecutorCache.close();
+        stateRefresher.shutdownNow();
+        executorService.shutdown();
+    }
+
     public void processQuery(QueryOrLeafPartitionQuery query) {
         QueryStatusReportListeners queryTrackers = QueryStatusReportListeners.fromConfig(
                 query.getProcessingConfig().getStatusReportDestinations());
@@ -101,7 +136,10 @@ public class SqsQueryProcessor {
         CloseableIterator<Record> results;
         try {
             TableProperties tableProperties = query.getTableProperties(tablePropertiesProvider);
-            if (query.isLeafQuery()) {
+            if (query.isLeafQuery() && null != query.getProcessingConfig().getAggregations()) {
+                processPartialAggregation(query.asLeafQuery(), tableProperties, queryTrackers);
+                results = null;
+            } else if (query.isLeafQuery()) {
                 LeafPartitionQuery leafQuery = query.asLeafQuery();
                 queryTrackers.queryInProgress(leafQuery);
                 results = processLeafPartitionQuery(leafQuery, tableProperties);
@@ -113,36 +151,39 @@ public class SqsQueryProcessor {
             if (null != results) {
                 publishResults(results, query, tableProperties, queryTrackers);
             }
-        } catch (StateStoreException | QueryException e) {
+        } catch (StateStoreException | QueryException | IOException e) {
             LOGGER.error("Exception thrown executing query", e);
             query.reportFailed(queryTrackers, e);
         }
     }
 
-    private CloseableIterator<Record> processRangeQuery(Query query, TableProperties tableProperties, QueryStatusReportListeners queryTrackers) throws StateStoreException, QueryException {
+    private CloseableIterator<Record> processRangeQuery(Query query, TableProperties tableProperties, QueryStatusReportListeners queryTrackers) throws StateStoreException, QueryException, IOException {
         // Split query over leaf partitions
-        if (!queryExecutorCache.containsKey(query.getTableName())) {
-            StateStore stateStore = stateStoreProvider.getStateStore(tableProperties);
-            Configuration conf = getConfiguration(tableProperties);
-            QueryExecutor queryExecutor = new QueryExecutor(objectFactory, tableProperties, stateStore, conf, executorService);
-            queryExecutor.init();
-            queryExecutorCache.put(query.getTableName(), queryExecutor);
-        }
-        QueryExecutor queryExecutor = queryExecutorCache.get(query.getTableName());
+        QueryExecutor queryExecutor = queryExecutorCache.getExecutor(tableProperties);
         List<LeafPartitionQuery> subQueries = queryExecutor.splitIntoLeafPartitionQueries(query);
 
         if (subQueries.size() > 1) {
+            QuerySerDe serDe = new QuerySerDe(tablePropertiesProvider);
+            if (null != query.getAggregations()) {
+                // Each subquery saves its partial results, and the last one to finish merges them. This must be set
+                // up before the subqueries are sent.
+                new PartialAggregationResults(instanceProperties, getConfiguration(tableProperties))
+                        .saveQuery(query.getQueryId(), serDe.toJson(query));
+                queryTracker.partialResultsExpected(query, subQueries.size());
+            }
             // Put these subqueries back onto the queue so that they
             // can be processed independently
             String sqsQueryQueueURL = instanceProperties.get(QUERY_QUEUE_URL);
             for (LeafPartitionQuery subQuery : subQueries) {
-                String serialisedQuery = new QuerySerDe(tablePropertiesProvider).toJson(subQuery);
+                String serialisedQuery = serDe.toJson(subQuery);
                 sqsClient.sendMessage(sqsQueryQueueURL, serialisedQuery);
             }
-            queryTrackers.subQueriesCreated(query, subQueries);
+            if (null == query.getAggregations()) {
+                queryTrackers.subQueriesCreated(query, subQueries);
+            }
             LOGGER.info("Submitted {} subqueries to queue", subQueries.size());
             return null;
-        } else if (subQueries.isEmpty()) {
+        } else if (subQueries.isEmpty() && null == query.getAggregations()) {
             LOGGER.error("Query led to no sub queries");
             /*
              * Not setting the state to failed because the table may not have contained any data.
@@ -150,30 +191,107 @@ public class SqsQueryProcessor {
             queryTrackers.queryCompleted(query, new ResultsOutputInfo(0, Collections.emptyList()));
             return null;
         } else {
-            // If only 1 subquery then execute now
-            return queryExecutor.execute(query);
+            // If only 1 subquery then execute now. Aggregations with no subqueries are also executed now, as they may
+            // have a result even when there are no records, e.g. a count of 0.
+            return resultsCache.getResults(QueryResultsCacheKey.forQuery(query, subQueries, tableProperties),
+                    getResultsSchema(query.getProcessingConfig(), tableProperties), getConfiguration(tableProperties),
+                    () -> queryExecutor.execute(query, subQueries));
         }
     }
 
+    /**
+     * Runs a subquery of a query with aggregations. The partial results are saved rather than published. The subquery
+     * that finishes last merges the partial results from every subquery, and publishes them as the results of the
+     * query. The subqueries are not reported individually, as the partial results are not useful on their own.
+     * <p>
+     * Each subquery is recorded by its ID in the query tracker, so a subquery received more than once is only counted
+     * once. Once the results are merged, any repeat of a subquery is ignored.
+     *
+     * @param leafQuery       the subquery
+     * @param tableProperties the table properties
+     * @param queryTrackers   the listeners to report the outcome of the query to
+     */
+    private void processPartialAggregation(LeafPartitionQuery leafQuery, TableProperties tableProperties, QueryStatusReportListeners queryTrackers) {
+        try {
+            if (queryTracker.isPartialResultsMerged(leafQuery.getQueryId())) {
+                LOGGER.info("Partial results of query {} were already merged, ignoring subquery {}", leafQuery.getQueryId(), leafQuery.getSubQueryId());
+                return;
+            }
+            TableProperties resultsTableProperties = getResultsTableProperties(new QueryOrLeafPartitionQuery(leafQuery), tableProperties);
+            PartialAggregationResults partialResults = new PartialAggregationResults(instanceProperties, getConfiguration(tableProperties));
+            long count;
+            try (CloseableIterator<Record> results = processLeafPartitionQuery(leafQuery, tableProperties)) {
+                count = partialResults.savePartialResults(leafQuery, resultsTableProperties, results);
+            }
+            LOGGER.info("Saved {} partial results for subquery {} of query {}", count, leafQuery.getSubQueryId(), leafQuery.getQueryId());
+            if (!queryTracker.partialResultsReceived(leafQuery)) {
+                return;
+            }
+            LOGGER.info("Merging partial results from every subquery of query {}", leafQuery.getQueryId());
+            Query query = new QuerySerDe(tablePropertiesProvider).fromJson(partialResults.loadQuery(leafQuery.getQueryId()));
+            CloseableIterator<Record> merged = new AggregationMergingIterator(query.getAggregations(), tableProperties.getSchema(),
+                    partialResults.readPartialResults(query.getQueryId(), resultsTableProperties.getSchema()));
+            publishResults(merged, new QueryOrLeafPartitionQuery(query), tableProperties, queryTrackers);
+            queryTracker.partialResultsMerged(query);
+            partialResults.delete(query.getQueryId());
+        } catch (QueryException | IOException e) {
+            LOGGER.error("Exception thrown computing partial results of aggregations", e);
+            queryTrackers.queryFailed(leafQuery.getQueryId(), e);
+        }
+    }
+
+    private QueryExecutor createQueryExecutor(TableProperties tableProperties) {
+        StateStore stateStore = stateStoreProvider.getStateStore(tableProperties);
+        Configuration conf = getConfiguration(tableProperties);
+        return new QueryExecutor(objectFactory, tableProperties, stateStore, conf, executorService);
+    }
+
     private CloseableIterator<Record> processLeafPartitionQuery(LeafPartitionQuery leafPartitionQuery, TableProperties tableProperties) throws QueryException {
         Configuration conf = getConfiguration(tableProperties);
         LeafPartitionQueryExecutor leafPartitionQueryExecutor = new LeafPartitionQueryExecutor(executorService, objectFactory, conf, tableProperties);
-        return leafPartitionQueryExecutor.getRecords(leafPartitionQuery);
+        return resultsCache.getResults(QueryResultsCacheKey.forLeafQuery(leafPartitionQuery, tableProperties),
+                getResultsSchema(leafPartitionQuery.getProcessingConfig(), tableProperties), conf,
+                () -> leafPartitionQueryExecutor.getRecords(leafPartitionQuery));
+    }
+
+    private static Schema getResultsSchema(QueryProcessingConfig processingConfig, TableProperties tableProperties) throws QueryException {
+        try {
+            return processingConfig.getResultsSchema(tableProperties.getSchema());
+        } catch (IllegalArgumentException e) {
+            throw new QueryException("Invalid aggregations or projection for query", e);
+        }
     }
 
     private Configuration getConfiguration(TableProperties tableProperties) {
         String tableName = tableProperties.get(TABLE_NAME);
-        if (!configurationCache.containsKey(tableName)) {
+        TableConfiguration tableConf = configurationCache.get(tableName);
+        if (null == tableConf || !tableConf.tableProperties.equals(tableProperties)) {
             Configuration conf = HadoopConfigurationProvider.getConfigurationForQueryLambdas(instanceProperties, tableProperties);
-            configurationCache.put(tableName, conf);
+            conf.setInt(FileOpenScheduler.MAX_CONCURRENCY_KEY, instanceProperties.getInt(QUERY_PROCESSOR_FILE_OPEN_MAX_CONCURRENCY));
+            conf.setBoolean(FileOpenScheduler.DEDICATED_THREADS_KEY, instanceProperties.getBoolean(QUERY_PROCESSOR_FILE_OPEN_DEDICATED_THREADS));
+            tableConf = new TableConfiguration(tableProperties, conf);
+            configurationCache.put(tableName, tableConf);
+        }
+        return tableConf.conf;
+    }
+
+    /**
+     * A Hadoop configuration for a table, and the table properties it was created from.
+     */
+    private static class TableConfiguration {
+        private final TableProperties tableProperties;
+        private final Configuration conf;
+
+        TableConfiguration(TableProperties tableProperties, Configuration conf) {
+            this.tableProperties = tableProperties;
+            this.conf = conf;
         }
-        return configurationCache.get(tableName);
     }
 
     private void publishResults(CloseableIterator<Record> results, QueryOrLeafPartitionQuery query, TableProperties tableProperties, QueryStatusReportListeners queryTrackers) {
         try {
             Map<String, String> resultsPublisherConfig = query.getProcessingConfig().getResultsPublisherConfig();
-            ResultsOutputInfo outputInfo = getResultsOutput(tableProperties, resultsPublisherConfig)
+            ResultsOutputInfo outputInfo = getResultsOutput(getResultsTableProperties(query, tableProperties), resultsPublisherConfig)
                     .publish(query, results);
 
             query.reportCompleted(queryTrackers, outputInfo);
@@ -183,6 +301,16 @@ public class SqsQueryProcessor {
         }
     }
 
+    private TableProperties getResultsTableProperties(QueryOrLeafPartitionQuery query, TableProperties tableProperties) {
+        QueryProcessingConfig processingConfig = query.getProcessingConfig();
+        if (processingConfig.isReturningTableRecords()) {
+            return tableProperties;
+        }
+        TableProperties resultsTableProperties = TableProperties.copyOf(tableProperties);
+        resultsTableProperties.setSchema(processingConfig.getResultsSchema(tableProperties.getSchema()));
+        return resultsTableProperties;
+    }
+
     private ResultsOutput getResultsOutput(TableProperties tableProperties, Map<String, String> resultsPublisherConfig) {
         if (null == resultsPublisherConfig || resultsPublisherConfig.isEmpty()) {
             return new S3ResultsOutput(instanceProperties, tableProperties, new HashMap<>());
@@ -194,6 +322,8 @@ public class SqsQueryProcessor {
             return new S3ResultsOutput(instanceProperties, tableProperties, resultsPublisherConfig);
         } else if (WebSocketResultsOutput.DESTINATION_NAME.equals(destination)) {
             return new WebSocketResultsOutput(resultsPublisherConfig);
+        } else if (ArrowResultsOutput.DESTINATION_NAME.equals(destination)) {
+            return new ArrowResultsOutput(instanceProperties, tableProperties.getSchema(), resultsPublisherConfig);
         } else {
             LOGGER.info("Unknown results publisher from config {}", resultsPublisherConfig);
             return (query, results) -> new ResultsOutputInfo(0, Collections.emptyList(),
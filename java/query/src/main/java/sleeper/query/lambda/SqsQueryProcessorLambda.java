@@ -40,7 +40,10 @@ import static sleeper.configuration.properties.instance.QueryProperty.QUERY_PROC
  * A lambda that is triggered when a serialised query arrives on an SQS queue. A processor executes the request using a
  * {@link sleeper.query.executor.QueryExecutor} and publishes the results to either SQS or S3 based on the configuration of the query.
  * The processor contains a cache that includes mappings from partitions to files in those partitions. This is reused by
- * subsequent calls to the lambda if the AWS runtime chooses to reuse the instance.
+ * subsequent calls to the lambda if the AWS runtime chooses to reuse the instance. It is refreshed in the background,
+ * and before a query if it is older than the refresh period, as the background thread does not run between invocations.
+ * The processor is only recreated if the instance properties change, or if properties are set to be reloaded on every
+ * invocation.
  */
 @SuppressWarnings("unused")
 public class SqsQueryProcessorLambda implements RequestHandler<SQSEvent, Void> {
@@ -88,7 +91,7 @@ public class SqsQueryProcessorLambda implements RequestHandler<SQSEvent, Void> {
         double timeSinceLastUpdatedInSeconds = (System.currentTimeMillis() - lastUpdateTime) / 1000.0;
         int stateRefreshingPeriod = instanceProperties.getInt(QUERY_PROCESSING_LAMBDA_STATE_REFRESHING_PERIOD_IN_SECONDS);
         if (timeSinceLastUpdatedInSeconds > stateRefreshingPeriod || instanceProperties.getBoolean(FORCE_RELOAD_PROPERTIES)) {
-            LOGGER.info("Mapping of partition to files was last updated {} seconds ago, so refreshing", timeSinceLastUpdatedInSeconds);
+            LOGGER.info("Instance properties were last loaded {} seconds ago, so refreshing", timeSinceLastUpdatedInSeconds);
             updateProperties(instanceProperties.get(CONFIG_BUCKET));
         }
     }
@@ -99,14 +102,22 @@ public class SqsQueryProcessorLambda implements RequestHandler<SQSEvent, Void> {
             LOGGER.error("Config Bucket was null. Was an environment variable missing?");
             throw new RuntimeException("Error: can't find S3 bucket from environment variable");
         }
-        instanceProperties = loadInstanceProperties(s3Client, configBucket);
+        InstanceProperties newInstanceProperties = loadInstanceProperties(s3Client, configBucket);
+        lastUpdateTime = System.currentTimeMillis();
+        if (null != processor && newInstanceProperties.equals(instanceProperties)
+                && !newInstanceProperties.getBoolean(FORCE_RELOAD_PROPERTIES)) {
+            return;
+        }
+        if (null != processor) {
+            processor.close();
+        }
+        instanceProperties = newInstanceProperties;
         TablePropertiesProvider tablePropertiesProvider = new TablePropertiesProvider(instanceProperties, s3Client, dynamoClient);
         messageHandler = new QueryMessageHandler(tablePropertiesProvider, new DynamoDBQueryTracker(instanceProperties, dynamoClient));
         processor = SqsQueryProcessor.builder()
                 .sqsClient(sqsClient).s3Client(s3Client).dynamoClient(dynamoClient)
                 .instanceProperties(instanceProperties).tablePropertiesProvider(tablePropertiesProvider)
                 .build();
-        lastUpdateTime = System.currentTimeMillis();
     }
 
     private static InstanceProperties loadInstanceProperties(AmazonS3 s3Client, String configBucket) {
@@ -37,6 +37,7 @@ import sleeper.configuration.properties.instance.InstanceProperties;
 import sleeper.configuration.properties.table.TablePropertiesProvider;
 import sleeper.query.model.Query;
 import sleeper.query.model.QuerySerDe;
+import sleeper.query.model.output.ArrowResultsOutput;
 import sleeper.query.model.output.ResultsOutputConstants;
 import sleeper.query.model.output.WebSocketResultsOutput;
 import sleeper.query.tracker.QueryStatusReportListener;
@@ -125,6 +126,12 @@ public class WebSocketQueryProcessorLambda implements RequestHandler<APIGatewayV
                     query.getResultsPublisherConfig().put(ResultsOutputConstants.DESTINATION, WebSocketResultsOutput.DESTINATION_NAME);
                     query.getResultsPublisherConfig().put(WebSocketResultsOutput.ENDPOINT, endpoint);
                     query.getResultsPublisherConfig().put(WebSocketResultsOutput.CONNECTION_ID, event.getRequestContext().getConnectionId());
+                } else if (
+                        query.getResultsPublisherConfig().get(ResultsOutputConstants.DESTINATION).equals(ArrowResultsOutput.DESTINATION_NAME) &&
+                                ArrowResultsOutput.SINK_WEBSOCKET.equals(query.getResultsPublisherConfig().get(ArrowResultsOutput.SINK))
+                ) {
+                    query.getResultsPublisherConfig().put(WebSocketResultsOutput.ENDPOINT, endpoint);
+                    query.getResultsPublisherConfig().put(WebSocketResultsOutput.CONNECTION_ID, event.getRequestContext().getConnectionId());
                 }
 
                 LOGGER.info("Query to be processed: {}", query);
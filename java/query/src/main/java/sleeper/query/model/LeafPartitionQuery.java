@@ -85,6 +85,14 @@ public class LeafPartitionQuery {
         return processingConfig.getRequestedValueFields();
     }
 
+    public QueryAggregations getAggregations() {
+        return processingConfig.getAggregations();
+    }
+
+    public QueryProjection getProjection() {
+        return processingConfig.getProjection();
+    }
+
     public String getSubQueryId() {
         return subQueryId;
     }
@@ -82,6 +82,14 @@ public class Query {
         return processingConfig.getRequestedValueFields();
     }
 
+    public QueryAggregations getAggregations() {
+        return processingConfig.getAggregations();
+    }
+
+    public QueryProjection getProjection() {
+        return processingConfig.getProjection();
+    }
+
     public List<Map<String, String>> getStatusReportDestinations() {
         return processingConfig.getStatusReportDestinations();
     }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sleeper.query.model;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * An aggregation to compute over the records in a query, e.g. the sum of a field. A count does not need a field.
+ */
+public class QueryAggregation {
+
+    /**
+     * The operation to aggregate with.
+     */
+    public enum Operation {
+        COUNT, SUM, MIN, MAX
+    }
+
+    private final Operation operation;
+    private final String field;
+
+    private QueryAggregation(Operation operation, String field) {
+        this.operation = Objects.requireNonNull(operation, "operation must not be null");
+        this.field = field;
+    }
+
+    public static QueryAggregation count() {
+        return new QueryAggregation(Operation.COUNT, null);
+    }
+
+    public static QueryAggregation sum(String field) {
+        return new QueryAggregation(Operation.SUM, Objects.requireNonNull(field, "field must not be null"));
+    }
+
+    public static QueryAggregation min(String field) {
+        return new QueryAggregation(Operation.MIN, Objects.requireNonNull(field, "field must not be null"));
+    }
+
+    public static QueryAggregation max(String field) {
+        return new QueryAggregation(Operation.MAX, Objects.requireNonNull(field, "field must not be null"));
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Retrieves the name of the field holding the result of this aggregation, e.g. "count" or "sum_value".
+     *
+     * @return the field name
+     */
+    public String getResultFieldName() {
+        String operationName = operation.name().toLowerCase(Locale.ROOT);
+        if (null == field) {
+            return operationName;
+        }
+        return operationName + "_" + field;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        QueryAggregation that = (QueryAggregation) object;
+        return operation == that.operation && Objects.equals(field, that.field);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operation, field);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryAggregation{" +
+                "operation=" + operation +
+                ", field='" + field + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package sleeper.query.model;
+
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.PrimitiveType;
+import sleeper.core.schema.type.Type;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Declares aggregations to compute over the records in a query, instead of returning the records. The records may be
+ * grouped by the first few row key fields, in which case one result is returned for each group. Otherwise one result
+ * is returned for all the records in the query.
+ * <p>
+ * Each result has the row key fields of the table, holding the row key of the first record in its group. This is
+ * followed by a field for each aggregation. Counts and sums are returned as longs, and the minimum or maximum of a
+ * field has the same type as that field. No results are returned if the query finds no records.
+ */
+public class QueryAggregations {
+    private final int groupByRowKeyFields;
+    private final List<QueryAggregation> aggregations;
+
+    private QueryAggregations(Builder builder) {
+        groupByRowKeyFields = builder.groupByRowKeyFields;
+        aggregations = Objects.requireNonNull(builder.aggregations, "aggregations must not be null");
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getGroupByRowKeyFields() {
+        return groupByRowKeyFields;
+    }
+
+    public List<QueryAggregation> getAggregations() {
+        return aggregations;
+    }
+
+    /**
+     * Retrieves the fields that must be read to compute the aggregations.
+     *
+     * @return the field names
+     */
+    public List<String> getFieldsToRead() {
+        return aggregations.stream()
+                .map(QueryAggregation::getField)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Creates the schema of the results of the aggregations, checking that they are valid for the table.
+     *
+     * @param  tableSchema              the schema of the table being queried
+     * @return                          the schema of the results
+     * @throws IllegalArgumentException if the aggregations are not valid for the table
+     */
+    public Schema getResultSchema(Schema tableSchema) {
+        if (aggregations.isEmpty()) {
+            throw new IllegalArgumentException("At least one aggregation must be provided");
+        }
+        if (groupByRowKeyFields < 0 || groupByRowKeyFields > tableSchema.getRowKeyFields().size()) {
+            throw new IllegalArgumentException("Cannot group by " + groupByRowKeyFields + " row key fields, table has "
+                    + tableSchema.getRowKeyFields().size());
+        }
+        return Schema.builder()
+                .rowKeyFields(tableSchema.getRowKeyFields())
+                .valueFields(aggregations.stream()
+                        .map(aggregation -> new Field(aggregation.getResultFieldName(), getResultType(aggregation, tableSchema)))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private static Type getResultType(QueryAggregation aggregation, Schema tableSchema) {
+        if (aggregation.getOperation() == QueryAggregation.Operation.COUNT) {
+            return new LongType();
+        }
+        Type fieldType = tableSchema.getField(aggregation.getField())
+                .orElseThrow(() -> new IllegalArgumentException("Field not found in table: " + aggregation.getField()))
+                .getType();
+        if (aggregation.getOperation() == QueryAggregation.Operation.SUM) {
+            if (!(fieldType instanceof IntType || fieldType instanceof LongType)) {
+                throw new IllegalArgumentException("Cannot sum field of type " + fieldType + ": " + aggregation.getField());
+            }
+            return new LongType();
+        }
+        if (!(fieldType instanceof PrimitiveType)) {
+            throw new IllegalArgumentException("Cannot find " + aggregation.getOperation() + " of field of type " + fieldType + ": " + aggregation.getField());
+        }
+        return fieldType;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        QueryAggregations that = (QueryAggregations) object;
+        return groupByRowKeyFields == that.groupByRowKeyFields && Objects.equals(aggregations, that.aggregations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupByRowKeyFields, aggregations);
+    }
+
+    @Override
+    public String toString() {
+        return "QueryAggregations{" +
+                "groupByRowKeyFields=" + groupByRowKeyFields +
+                ", aggregations=" + aggregations +
+                '}';
+    }
+
+    public static final class Builder {
+        private int groupByRowKeyFields;
+        private List<QueryAggregation> aggregations;
+
+        private Builder() {
+        }
+
+        public Builder groupByRowKeyFields(int groupByRowKeyFields) {
+            this.groupByRowKeyFields = groupByRowKeyFields;
+            return this;
+        }
+
+        public Builder aggregations(List<QueryAggregation> aggregations) {
+            this.aggregations = aggregations;
+            return this;
+        }
+
+        public Builder aggregations(QueryAggregation... aggregations) {
+            return aggregations(List.of(aggregations));
+        }
+
+        public QueryAggregations build() {
+            return new QueryAggregations(this);
+        }
+    }
+}
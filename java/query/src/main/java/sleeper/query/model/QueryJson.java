@@ -33,6 +33,8 @@ class QueryJson {
     private final String type;
     private final List<JsonElement> regions;
     private final List<String> requestedValueFields;
+    private final QueryAggregations aggregations;
+    private final QueryProjection projection;
     private final String queryTimeIteratorClassName;
     private final String queryTimeIteratorConfig;
     private final Map<String, String> resultsPublisherConfig;
@@ -49,6 +51,8 @@ class QueryJson {
         type = builder.type;
         regions = builder.regions;
         requestedValueFields = builder.requestedValueFields;
+        aggregations = builder.aggregations;
+        projection = builder.projection;
         queryTimeIteratorClassName = builder.queryTimeIteratorClassName;
         queryTimeIteratorConfig = builder.queryTimeIteratorConfig;
         resultsPublisherConfig = builder.resultsPublisherConfig;
@@ -113,12 +117,17 @@ class QueryJson {
     }
 
     private QueryProcessingConfig readQueryProcessingConfig() {
+        if (aggregations != null && aggregations.getAggregations() == null) {
+            throw new QueryValidationException(queryId, statusReportDestinations, "aggregations field must include a list of aggregations");
+        }
         return QueryProcessingConfig.builder()
                 .queryTimeIteratorClassName(queryTimeIteratorClassName)
                 .queryTimeIteratorConfig(queryTimeIteratorConfig)
                 .resultsPublisherConfig(Objects.requireNonNullElseGet(resultsPublisherConfig, Map::of))
                 .statusReportDestinations(Objects.requireNonNullElseGet(statusReportDestinations, List::of))
                 .requestedValueFields(requestedValueFields)
+                .aggregations(aggregations)
+                .projection(projection)
                 .build();
     }
 
@@ -200,6 +209,8 @@ class QueryJson {
         private String type;
         private List<JsonElement> regions;
         private List<String> requestedValueFields;
+        private QueryAggregations aggregations;
+        private QueryProjection projection;
         private String queryTimeIteratorClassName;
         private String queryTimeIteratorConfig;
         private Map<String, String> resultsPublisherConfig;
@@ -239,6 +250,8 @@ class QueryJson {
 
         public Builder processingConfig(QueryProcessingConfig processingConfig) {
             return requestedValueFields(processingConfig.getRequestedValueFields())
+                    .aggregations(processingConfig.getAggregations())
+                    .projection(processingConfig.getProjection())
                     .queryTimeIteratorClassName(processingConfig.getQueryTimeIteratorClassName())
                     .queryTimeIteratorConfig(processingConfig.getQueryTimeIteratorConfig())
                     .resultsPublisherConfig(processingConfig.getResultsPublisherConfig())
@@ -250,6 +263,16 @@ class QueryJson {
             return this;
         }
 
+        public Builder aggregations(QueryAggregations aggregations) {
+            this.aggregations = aggregations;
+            return this;
+        }
+
+        public Builder projection(QueryProjection projection) {
+            this.projection = projection;
+            return this;
+        }
+
         public Builder queryTimeIteratorClassName(String queryTimeIteratorClassName) {
             this.queryTimeIteratorClassName = queryTimeIteratorClassName;
             return this;
@@ -16,6 +16,8 @@
 
 package sleeper.query.model;
 
+import sleeper.core.schema.Schema;
+
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,6 +37,8 @@ public class QueryProcessingConfig {
     private final Map<String, String> resultsPublisherConfig;
     private final List<Map<String, String>> statusReportDestinations;
     private final List<String> requestedValueFields;
+    private final QueryAggregations aggregations;
+    private final QueryProjection projection;
 
     private QueryProcessingConfig(Builder builder) {
         queryTimeIteratorClassName = builder.queryTimeIteratorClassName;
@@ -42,6 +46,8 @@ public class QueryProcessingConfig {
         resultsPublisherConfig = Objects.requireNonNull(builder.resultsPublisherConfig, "resultsPublisherConfig must not be null");
         statusReportDestinations = Objects.requireNonNull(builder.statusReportDestinations, "statusReportDestinations must not be null");
         requestedValueFields = builder.requestedValueFields;
+        aggregations = builder.aggregations;
+        projection = builder.projection;
     }
 
     public static Builder builder() {
@@ -72,6 +78,64 @@ public class QueryProcessingConfig {
         return requestedValueFields;
     }
 
+    public QueryAggregations getAggregations() {
+        return aggregations;
+    }
+
+    public QueryProjection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Checks whether the query will return records in the schema of the table, possibly with only some of the value
+     * fields. If not, the results will have a schema derived from the aggregations or the projection.
+     *
+     * @return true if the query returns records from the table
+     */
+    public boolean isReturningTableRecords() {
+        return null == aggregations && (null == projection || QueryProjection.RECORDS == projection);
+    }
+
+    /**
+     * Creates the schema of the results of the query, checking that this configuration is valid for the table.
+     *
+     * @param  tableSchema              the schema of the table being queried
+     * @return                          the schema of the results
+     * @throws IllegalArgumentException if this configuration is not valid for the table
+     */
+    public Schema getResultsSchema(Schema tableSchema) {
+        QueryProjection resultsProjection = Objects.requireNonNullElse(projection, QueryProjection.RECORDS);
+        if (null != aggregations) {
+            if (QueryProjection.RECORDS != resultsProjection) {
+                throw new IllegalArgumentException("Aggregations cannot be combined with projection " + resultsProjection);
+            }
+            return aggregations.getResultSchema(tableSchema);
+        }
+        switch (resultsProjection) {
+            case KEYS:
+                return Schema.builder()
+                        .rowKeyFields(tableSchema.getRowKeyFields())
+                        .sortKeyFields(tableSchema.getSortKeyFields())
+                        .build();
+            case EXISTENCE:
+                return Schema.builder()
+                        .rowKeyFields(tableSchema.getRowKeyFields())
+                        .build();
+            case RECORDS:
+            default:
+                if (null == requestedValueFields) {
+                    return tableSchema;
+                }
+                return Schema.builder()
+                        .rowKeyFields(tableSchema.getRowKeyFields())
+                        .sortKeyFields(tableSchema.getSortKeyFields())
+                        .valueFields(tableSchema.getValueFields().stream()
+                                .filter(field -> requestedValueFields.contains(field.getName()))
+                                .collect(Collectors.toList()))
+                        .build();
+        }
+    }
+
     public QueryProcessingConfig withRequestedValueFields(List<String> requestedValueFields) {
         return toBuilder()
                 .requestedValueFields(requestedValueFields)
@@ -98,7 +162,9 @@ public class QueryProcessingConfig {
                 .queryTimeIteratorConfig(queryTimeIteratorConfig)
                 .resultsPublisherConfig(resultsPublisherConfig)
                 .statusReportDestinations(statusReportDestinations)
-                .requestedValueFields(requestedValueFields);
+                .requestedValueFields(requestedValueFields)
+                .aggregations(aggregations)
+                .projection(projection);
     }
 
     @Override
@@ -114,12 +180,14 @@ public class QueryProcessingConfig {
                 && Objects.equals(queryTimeIteratorConfig, that.queryTimeIteratorConfig)
                 && Objects.equals(resultsPublisherConfig, that.resultsPublisherConfig)
                 && Objects.equals(statusReportDestinations, that.statusReportDestinations)
-                && Objects.equals(requestedValueFields, that.requestedValueFields);
+                && Objects.equals(requestedValueFields, that.requestedValueFields)
+                && Objects.equals(aggregations, that.aggregations)
+                && projection == that.projection;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(queryTimeIteratorClassName, queryTimeIteratorConfig, resultsPublisherConfig, statusReportDestinations, requestedValueFields);
+        return Objects.hash(queryTimeIteratorClassName, queryTimeIteratorConfig, resultsPublisherConfig, statusReportDestinations, requestedValueFields, aggregations, projection);
     }
 
     @Override
@@ -130,6 +198,8 @@ public class QueryProcessingConfig {
                 ", resultsPublisherConfig=" + resultsPublisherConfig +
                 ", statusReportDestinations=" + statusReportDestinations +
                 ", requestedValueFields=" + requestedValueFields +
+                ", aggregations=" + aggregations +
+                ", projection=" + projection +
                 '}';
     }
 
@@ -139,6 +209,8 @@ public class QueryProcessingConfig {
         private Map<String, String> resultsPublisherConfig = Map.of();
         private List<Map<String, String>> statusReportDestinations = List.of();
         private List<String> requestedValueFields;
+        private QueryAggregations aggregations;
+        private QueryProjection projection;
 
         private Builder() {
         }
@@ -168,6 +240,16 @@ public class QueryProcessingConfig {
             return this;
         }
 
+        public Builder aggregations(QueryAggregations aggregations) {
+            this.aggregations = aggregations;
+            return this;
+        }
+
+        public Builder projection(QueryProjection projection) {
+            this.projection = projection;
+            return this;
+        }
+
         public QueryProcessingConfig build() {
             return new QueryProcessingConfig(this);
         }
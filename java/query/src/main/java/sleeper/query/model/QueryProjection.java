@@ -0,0 +1,36 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.model;
+
+/**
+ * Which parts of each record to return from a query. When only keys are returned, value fields are not read from the
+ * data files, unless they are required by an iterator.
+ */
+public enum QueryProjection {
+    /**
+     * Returns whole records, or the requested value fields along with the keys.
+     */
+    RECORDS,
+    /**
+     * Returns only the row key and sort key fields of each record.
+     */
+    KEYS,
+    /**
+     * Returns the row key fields once for each row key that exists in the query. Sort key fields are not read unless
+     * they are required by an iterator.
+     */
+    EXISTENCE
+}
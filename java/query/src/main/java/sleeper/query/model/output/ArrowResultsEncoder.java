@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.model.output;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.WriteChannel;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+
+import static sleeper.arrow.ArrowSchemaConverter.convertSleeperSchemaToArrowSchema;
+import static sleeper.arrow.RecordToArrowConversionUtils.writeRecord;
+
+/**
+ * Encodes batches of records in the Arrow IPC format, either as a whole stream or as separate messages. The same
+ * vectors are reused for each batch.
+ */
+class ArrowResultsEncoder implements AutoCloseable {
+    private final List<Field> allFields;
+    private final BufferAllocator bufferAllocator;
+    private final VectorSchemaRoot vectorSchemaRoot;
+
+    ArrowResultsEncoder(Schema schema) {
+        allFields = schema.getAllFields();
+        bufferAllocator = new RootAllocator();
+        vectorSchemaRoot = VectorSchemaRoot.create(convertSleeperSchemaToArrowSchema(schema), bufferAllocator);
+    }
+
+    /**
+     * Starts a stream, writing the schema to the output. Closing the writer closes the output.
+     *
+     * @param  output      the output stream
+     * @return             the writer to write batches to
+     * @throws IOException if the schema could not be written
+     */
+    ArrowStreamWriter startStream(OutputStream output) throws IOException {
+        ArrowStreamWriter writer = new ArrowStreamWriter(vectorSchemaRoot, null, Channels.newChannel(output));
+        writer.start();
+        return writer;
+    }
+
+    /**
+     * Writes a batch of records to a stream.
+     *
+     * @param  writer      the writer for the stream
+     * @param  records     the records
+     * @throws IOException if the batch could not be written
+     */
+    void writeBatch(ArrowStreamWriter writer, List<Record> records) throws IOException {
+        loadRecords(records);
+        writer.writeBatch();
+    }
+
+    /**
+     * Encodes the schema as a single Arrow IPC message. This must be read before any batch messages.
+     *
+     * @return             the schema message
+     * @throws IOException if the schema could not be written
+     */
+    byte[] encodeSchemaMessage() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MessageSerializer.serialize(new WriteChannel(Channels.newChannel(output)), vectorSchemaRoot.getSchema());
+        return output.toByteArray();
+    }
+
+    /**
+     * Encodes a batch of records as a single Arrow IPC record batch message, without the schema.
+     *
+     * @param  records     the records
+     * @return             the record batch message
+     * @throws IOException if the batch could not be written
+     */
+    byte[] encodeBatchMessage(List<Record> records) throws IOException {
+        loadRecords(records);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ArrowRecordBatch batch = new VectorUnloader(vectorSchemaRoot).getRecordBatch()) {
+            MessageSerializer.serialize(new WriteChannel(Channels.newChannel(output)), batch);
+        }
+        return output.toByteArray();
+    }
+
+    private void loadRecords(List<Record> records) {
+        vectorSchemaRoot.clear();
+        vectorSchemaRoot.allocateNew();
+        for (int rowNo = 0; rowNo < records.size(); rowNo++) {
+            writeRecord(allFields, vectorSchemaRoot, records.get(rowNo), rowNo);
+        }
+        vectorSchemaRoot.setRowCount(records.size());
+    }
+
+    @Override
+    public void close() {
+        vectorSchemaRoot.close();
+        bufferAllocator.close();
+    }
+}
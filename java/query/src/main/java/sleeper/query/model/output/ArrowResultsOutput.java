@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.model.output;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.arrow.RecordIteratorFromArrowStreamReader;
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+import sleeper.query.model.QueryOrLeafPartitionQuery;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.QUERY_RESULTS_BUCKET;
+import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
+
+/**
+ * An implementation of {@link ResultsOutput} that streams results as record batches in the Arrow IPC streaming format.
+ * This avoids encoding each record as JSON, and is more compact. The batches can be written to a file in S3, or sent
+ * to a client connected via a WebSocket API Gateway.
+ * <p>
+ * A file in S3 holds a single stream of batches. Over a WebSocket, the schema is sent once in the first binary message,
+ * and each later binary message holds a single record batch, as read by {@link ArrowWebSocketResultsReader}. The size
+ * of each batch is reduced if needed to fit within the maximum size of a message.
+ */
+public class ArrowResultsOutput implements ResultsOutput {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArrowResultsOutput.class);
+
+    public static final String DESTINATION_NAME = "ARROW";
+    public static final String SINK = "arrowSink";
+    public static final String SINK_S3 = S3ResultsOutput.S3;
+    public static final String SINK_WEBSOCKET = WebSocketOutput.DESTINATION_NAME;
+    public static final String BATCH_SIZE = "arrowBatchSize";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final InstanceProperties instanceProperties;
+    private final Schema schema;
+    private final Map<String, String> config;
+    private final int batchSize;
+
+    public ArrowResultsOutput(InstanceProperties instanceProperties, Schema schema, Map<String, String> config) {
+        this.instanceProperties = instanceProperties;
+        this.schema = schema;
+        this.config = config;
+        String batchSizeString = config.get(BATCH_SIZE);
+        this.batchSize = batchSizeString != null && !batchSizeString.isEmpty() ? Integer.parseInt(batchSizeString) : DEFAULT_BATCH_SIZE;
+    }
+
+    @Override
+    public ResultsOutputInfo publish(QueryOrLeafPartitionQuery query, CloseableIterator<Record> results) {
+        Schema resultsSchema = getResultsSchema(query);
+        String sink = config.getOrDefault(SINK, SINK_S3);
+        try {
+            if (SINK_WEBSOCKET.equals(sink)) {
+                return publishToWebSocket(query, resultsSchema, results);
+            } else if (SINK_S3.equals(sink)) {
+                return publishToS3(query, resultsSchema, results);
+            } else {
+                return new ResultsOutputInfo(0, List.of(), new IOException("Unknown Arrow results sink: " + sink));
+            }
+        } finally {
+            try {
+                results.close();
+            } catch (IOException e) {
+                LOGGER.error("IOException closing results of query", e);
+            }
+        }
+    }
+
+    /**
+     * Reads records from a stream in the Arrow IPC streaming format, as sent to a WebSocket client.
+     *
+     * @param  stream      the stream
+     * @return             the records
+     * @throws IOException if the stream could not be read
+     */
+    public static List<Record> readRecords(byte[] stream) throws IOException {
+        List<Record> records = new ArrayList<>();
+        try (BufferAllocator bufferAllocator = new RootAllocator();
+             RecordIteratorFromArrowStreamReader iterator = new RecordIteratorFromArrowStreamReader(
+                     new ArrowStreamReader(new ByteArrayInputStream(stream), bufferAllocator))) {
+            iterator.forEachRemaining(records::add);
+        }
+        return records;
+    }
+
+    private ResultsOutputInfo publishToS3(QueryOrLeafPartitionQuery query, Schema resultsSchema, CloseableIterator<Record> results) {
+        String bucket = config.getOrDefault(S3ResultsOutput.S3_BUCKET, instanceProperties.get(QUERY_RESULTS_BUCKET));
+        if (null == bucket) {
+            return new ResultsOutputInfo(0, List.of(), new IOException(
+                    "Bucket to output results to cannot be found in either the config or the instance properties"));
+        }
+        String outputFile = instanceProperties.get(FILE_SYSTEM) + bucket + "/query-" + query.getQueryId() + "/" + UUID.randomUUID() + ".arrow";
+        List<ResultsOutputLocation> outputLocations = List.of(new ResultsOutputLocation("s3", outputFile));
+        LOGGER.info("Opening Arrow writer for results of query {} to {}", query.getQueryId(), outputFile);
+        long count = 0L;
+        Path path = new Path(outputFile);
+        try (ArrowResultsEncoder encoder = new ArrowResultsEncoder(resultsSchema);
+             ArrowStreamWriter writer = encoder.startStream(path.getFileSystem(new Configuration()).create(path))) {
+            List<Record> batch = new ArrayList<>(batchSize);
+            while (results.hasNext()) {
+                batch.add(results.next());
+                if (batch.size() >= batchSize) {
+                    encoder.writeBatch(writer, batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                encoder.writeBatch(writer, batch);
+                count += batch.size();
+            }
+            writer.end();
+            LOGGER.info("Wrote {} records to {}", count, outputFile);
+            return new ResultsOutputInfo(count, outputLocations);
+        } catch (RuntimeException | IOException e) {
+            LOGGER.error("Exception writing Arrow results to S3", e);
+            return new ResultsOutputInfo(count, outputLocations, e);
+        }
+    }
+
+    private ResultsOutputInfo publishToWebSocket(QueryOrLeafPartitionQuery query, Schema resultsSchema, CloseableIterator<Record> results) {
+        List<ResultsOutputLocation> outputLocations = List.of(
+                new ResultsOutputLocation("websocket-endpoint", config.get(WebSocketOutput.ENDPOINT)),
+                new ResultsOutputLocation("websocket-connection-id", config.get(WebSocketOutput.CONNECTION_ID)));
+        long count = 0L;
+        try (ArrowResultsEncoder encoder = new ArrowResultsEncoder(resultsSchema)) {
+            WebSocketBatchSender sender = new WebSocketBatchSender(new WebSocketOutput(config), encoder, WebSocketOutput.getQueryId(query));
+            sender.sendSchema();
+            List<Record> batch = new ArrayList<>(batchSize);
+            while (results.hasNext()) {
+                batch.add(results.next());
+                if (batch.size() >= batchSize) {
+                    sender.send(batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                sender.send(batch);
+                count += batch.size();
+            }
+            return new ResultsOutputInfo(count, outputLocations);
+        } catch (RuntimeException | IOException e) {
+            LOGGER.error("Exception sending Arrow results to WebSocket", e);
+            return new ResultsOutputInfo(count, outputLocations, e);
+        }
+    }
+
+    private Schema getResultsSchema(QueryOrLeafPartitionQuery query) {
+        return query.getProcessingConfig().getResultsSchema(schema);
+    }
+
+    /**
+     * Sends batches to a WebSocket connection, splitting them if they are too big for one message. The schema is sent
+     * once, in the first message.
+     */
+    private static class WebSocketBatchSender {
+        private final WebSocketOutput output;
+        private final ArrowResultsEncoder encoder;
+        private final String queryId;
+        private final int maxArrowMessageBytes;
+
+        WebSocketBatchSender(WebSocketOutput output, ArrowResultsEncoder encoder, String queryId) {
+            this.output = output;
+            this.encoder = encoder;
+            this.queryId = queryId;
+            maxArrowMessageBytes = WebSocketOutput.MAX_PAYLOAD_SIZE - ArrowWebSocketResultsReader.headerLength(queryId);
+        }
+
+        void sendSchema() throws IOException {
+            output.sendBytes(ArrowWebSocketResultsReader.encodeMessage(queryId, encoder.encodeSchemaMessage()));
+        }
+
+        void send(List<Record> records) throws IOException {
+            byte[] arrowMessage = encoder.encodeBatchMessage(records);
+            if (arrowMessage.length > maxArrowMessageBytes && records.size() > 1) {
+                int half = records.size() / 2;
+                send(records.subList(0, half));
+                send(records.subList(half, records.size()));
+                return;
+            }
+            LOGGER.info("Publishing batch of {} records to WebSocket connection in {} bytes", records.size(), arrowMessage.length);
+            output.sendBytes(ArrowWebSocketResultsReader.encodeMessage(queryId, arrowMessage));
+        }
+    }
+}
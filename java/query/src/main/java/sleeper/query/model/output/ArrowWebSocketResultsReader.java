@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.model.output;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorLoader;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+
+import sleeper.arrow.ArrowToRecordConversionUtils;
+import sleeper.core.record.Record;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads query results sent to a WebSocket client by {@link ArrowResultsOutput}. Each binary WebSocket message holds
+ * the ID of a query, followed by a single Arrow IPC message. The first message for a query holds the schema of its
+ * results, and each later message holds a batch of records. Results of different queries may be interleaved on the same
+ * connection, so the schema of each query is held until {@link #queryFinished(String)} is called.
+ */
+public class ArrowWebSocketResultsReader implements AutoCloseable {
+    private final BufferAllocator bufferAllocator = new RootAllocator();
+    private final Map<String, VectorSchemaRoot> vectorsByQueryId = new HashMap<>();
+
+    /**
+     * Reads the ID of the query that a WebSocket message is for. This moves the position of the buffer to the start of
+     * the Arrow IPC message.
+     *
+     * @param  message the WebSocket message
+     * @return         the query ID
+     */
+    public static String readQueryId(ByteBuffer message) {
+        byte[] queryId = new byte[message.getInt()];
+        message.get(queryId);
+        return new String(queryId, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the records in a WebSocket message. If this is the first message for the query, it holds the schema and
+     * there are no records.
+     *
+     * @param  queryId     the query ID, as read by {@link #readQueryId(ByteBuffer)}
+     * @param  message     the WebSocket message, positioned at the start of the Arrow IPC message
+     * @return             the records
+     * @throws IOException if the message could not be read
+     */
+    public List<Record> readRecords(String queryId, ByteBuffer message) throws IOException {
+        byte[] bytes = new byte[message.remaining()];
+        message.get(bytes);
+        ReadChannel channel = new ReadChannel(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        VectorSchemaRoot vectorSchemaRoot = vectorsByQueryId.get(queryId);
+        if (vectorSchemaRoot == null) {
+            vectorsByQueryId.put(queryId, VectorSchemaRoot.create(MessageSerializer.deserializeSchema(channel), bufferAllocator));
+            return List.of();
+        }
+        try (ArrowRecordBatch batch = MessageSerializer.deserializeRecordBatch(channel, bufferAllocator)) {
+            new VectorLoader(vectorSchemaRoot).load(batch);
+        }
+        List<Record> records = new ArrayList<>(vectorSchemaRoot.getRowCount());
+        for (int rowNo = 0; rowNo < vectorSchemaRoot.getRowCount(); rowNo++) {
+            records.add(ArrowToRecordConversionUtils.convertVectorSchemaRootToRecord(vectorSchemaRoot, rowNo));
+        }
+        return records;
+    }
+
+    /**
+     * Frees the vectors held for a query, once all of its results have been received.
+     *
+     * @param queryId the query ID
+     */
+    public void queryFinished(String queryId) {
+        VectorSchemaRoot vectorSchemaRoot = vectorsByQueryId.remove(queryId);
+        if (vectorSchemaRoot != null) {
+            vectorSchemaRoot.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        vectorsByQueryId.values().forEach(VectorSchemaRoot::close);
+        vectorsByQueryId.clear();
+        bufferAllocator.close();
+    }
+
+    static byte[] encodeMessage(String queryId, byte[] arrowMessage) {
+        byte[] queryIdBytes = queryId.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(headerLength(queryId) + arrowMessage.length)
+                .putInt(queryIdBytes.length)
+                .put(queryIdBytes)
+                .put(arrowMessage)
+                .array();
+    }
+
+    static int headerLength(String queryId) {
+        return Integer.BYTES + queryId.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -107,7 +107,7 @@ public class S3ResultsOutput implements ResultsOutput {
     private ParquetWriter<Record> buildParquetWriter(Path path) throws IOException {
         String defaultRowGroupSize = instanceProperties.get(DEFAULT_RESULTS_ROW_GROUP_SIZE);
         String defaultPageSize = instanceProperties.get(DEFAULT_RESULTS_PAGE_SIZE);
-        ParquetRecordWriterFactory.Builder builder = parquetRecordWriterBuilder(path, tableProperties)
+        ParquetRecordWriterFactory.Builder<Record> builder = parquetRecordWriterBuilder(path, tableProperties)
                 .withRowGroupSize(Long.parseLong(config.getOrDefault(ROW_GROUP_SIZE, defaultRowGroupSize)))
                 .withPageSize(Integer.parseInt(config.getOrDefault(PAGE_SIZE, defaultPageSize)));
         Optional.ofNullable(config.get(COMPRESSION_CODEC)).ifPresent(builder::withCompressionCodec);
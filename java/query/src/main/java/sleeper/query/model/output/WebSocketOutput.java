@@ -117,13 +117,17 @@ public class WebSocketOutput {
     }
 
     public void sendString(String message) throws IOException {
+        sendBytes(message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void sendBytes(byte[] message) throws IOException {
         if (clientGone) {
             throw new IOException("Not sending message as websocket client " + connectionId + " has already disconnected!");
         }
 
         PostToConnectionRequest request = new PostToConnectionRequest()
                 .withConnectionId(connectionId)
-                .withData(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+                .withData(ByteBuffer.wrap(message));
 
         try {
             client.postToConnection(request);
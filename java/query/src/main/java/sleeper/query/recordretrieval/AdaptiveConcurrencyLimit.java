@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.recordretrieval;
+
+/**
+ * A limit on how many files may be opened at once, which adapts to the observed latency of opening them. The limit
+ * grows while the latency stays close to the lowest latency seen recently, and shrinks when the latency rises well
+ * above it, e.g. because S3 is throttling requests or the network is saturated. This is the gradient approach used
+ * for adaptive concurrency limits in services.
+ */
+class AdaptiveConcurrencyLimit {
+    private static final double SHORT_SMOOTHING = 0.2;
+    private static final double BASELINE_SMOOTHING = 0.01;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double LATENCY_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double shortLatency = -1;
+    private double baselineLatency = -1;
+
+    AdaptiveConcurrencyLimit(int minLimit, int initialLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Records how long it took to open a file, and updates the limit.
+     *
+     * @param latencyNanos the time taken to open the file in nanoseconds
+     */
+    synchronized void recordLatency(long latencyNanos) {
+        if (shortLatency < 0) {
+            shortLatency = latencyNanos;
+            baselineLatency = latencyNanos;
+            return;
+        }
+        shortLatency = shortLatency * (1 - SHORT_SMOOTHING) + latencyNanos * SHORT_SMOOTHING;
+        // The baseline drifts slowly towards the current latency, but drops immediately if the latency improves
+        baselineLatency = Math.min(shortLatency,
+                baselineLatency * (1 - BASELINE_SMOOTHING) + shortLatency * BASELINE_SMOOTHING);
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, LATENCY_TOLERANCE * baselineLatency / shortLatency));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit,
+                limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.recordretrieval;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.hadoop.conf.Configuration;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Schedules the opening of files to read in queries. The number of files being opened at once is shared between all
+ * queries in this JVM, and is bounded by a limit which adapts to the observed latency. Tasks are started in the order
+ * they were submitted as capacity becomes available, so a query over many files does not hold threads waiting for a
+ * turn.
+ * <p>
+ * Files may be opened on the executor used to retrieve records, or on threads dedicated to opening files. Dedicated
+ * threads are created on demand up to the maximum concurrency, and discarded when idle, as they spend most of their
+ * time blocked waiting for S3.
+ */
+public class FileOpenScheduler {
+    public static final String MAX_CONCURRENCY_KEY = "sleeper.query.file.open.max.concurrency";
+    public static final String DEDICATED_THREADS_KEY = "sleeper.query.file.open.dedicated.threads";
+    public static final int DEFAULT_MAX_CONCURRENCY = 64;
+    private static final int INITIAL_CONCURRENCY = 8;
+
+    private static FileOpenScheduler shared;
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final ExecutorService dedicatedThreads;
+    private final Deque<PendingTask> pending = new ArrayDeque<>();
+    private int inFlight;
+
+    public FileOpenScheduler(int maxConcurrency, boolean dedicatedThreads) {
+        this.limit = new AdaptiveConcurrencyLimit(1, INITIAL_CONCURRENCY, maxConcurrency);
+        this.dedicatedThreads = dedicatedThreads ? Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "file-open");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Retrieves the scheduler shared by all queries in this JVM. The scheduler is configured from the first
+     * configuration it is retrieved with.
+     *
+     * @param  conf the Hadoop configuration
+     * @return      the shared scheduler
+     */
+    @SuppressFBWarnings("MS_EXPOSE_REP") // The scheduler is deliberately shared
+    public static synchronized FileOpenScheduler getShared(Configuration conf) {
+        if (shared == null) {
+            shared = new FileOpenScheduler(
+                    conf.getInt(MAX_CONCURRENCY_KEY, DEFAULT_MAX_CONCURRENCY),
+                    conf.getBoolean(DEDICATED_THREADS_KEY, false));
+        }
+        return shared;
+    }
+
+    /**
+     * Submits tasks to open files. Each task will run once there is capacity to open another file.
+     *
+     * @param  <T>      the type of the result of each task
+     * @param  tasks    the tasks
+     * @param  executor the executor to run the tasks on, if this scheduler does not have dedicated threads
+     * @return          a future for the result of each task, in the order the tasks were given
+     */
+    public <T> List<CompletableFuture<T>> submit(List<Callable<T>> tasks, Executor executor) {
+        Executor runOn = dedicatedThreads != null ? dedicatedThreads : executor;
+        List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+        synchronized (this) {
+            for (Callable<T> task : tasks) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                pending.add(new PendingTask(() -> run(task, future), runOn));
+                futures.add(future);
+            }
+        }
+        dispatch();
+        return futures;
+    }
+
+    public int getConcurrencyLimit() {
+        return limit.getLimit();
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> future) {
+        long startTime = System.nanoTime();
+        try {
+            future.complete(task.call());
+            limit.recordLatency(System.nanoTime() - startTime);
+        } catch (Throwable e) {
+            // Complete the future for any failure, including an Error, so that nothing is left waiting for it
+            future.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                inFlight--;
+            }
+            dispatch();
+        }
+    }
+
+    private void dispatch() {
+        List<PendingTask> toStart = new ArrayList<>();
+        synchronized (this) {
+            while (inFlight < limit.getLimit() && !pending.isEmpty()) {
+                toStart.add(pending.poll());
+                inFlight++;
+            }
+        }
+        for (PendingTask task : toStart) {
+            try {
+                task.executor.execute(task.runnable);
+            } catch (RejectedExecutionException e) {
+                // The runnable completes its future and releases its capacity even if it cannot be started
+                task.runnable.run();
+            }
+        }
+    }
+
+    /**
+     * A task waiting for capacity, and the executor to run it on.
+     */
+    private static class PendingTask {
+        private final Runnable runnable;
+        private final Executor executor;
+
+        PendingTask(Runnable runnable, Executor executor) {
+            this.runnable = runnable;
+            this.executor = executor;
+        }
+    }
+}
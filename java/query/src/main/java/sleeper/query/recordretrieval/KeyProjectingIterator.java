@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.recordretrieval;
+
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Schema;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Reduces records to the fields in a query's results schema. When only checking for the existence of row keys,
+ * consecutive records with the same row key are also collapsed into one. The input is sorted by row key, so this
+ * returns each row key once.
+ */
+class KeyProjectingIterator implements CloseableIterator<Record> {
+    private final List<String> fieldNames;
+    private final List<String> rowKeyFieldNames;
+    private final boolean distinctRowKeys;
+    private final CloseableIterator<Record> input;
+    private Record next;
+
+    KeyProjectingIterator(Schema resultsSchema, boolean distinctRowKeys, CloseableIterator<Record> input) {
+        this.fieldNames = resultsSchema.getAllFieldNames();
+        this.rowKeyFieldNames = resultsSchema.getRowKeyFieldNames();
+        this.distinctRowKeys = distinctRowKeys;
+        this.input = input;
+        this.next = input.hasNext() ? input.next() : null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return null != next;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Record record = next;
+        next = null;
+        while (input.hasNext()) {
+            Record nextInput = input.next();
+            if (!distinctRowKeys || !sameRowKey(record, nextInput)) {
+                next = nextInput;
+                break;
+            }
+        }
+        return project(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private boolean sameRowKey(Record record1, Record record2) {
+        for (String fieldName : rowKeyFieldNames) {
+            if (!Objects.deepEquals(record1.get(fieldName), record2.get(fieldName))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Record project(Record record) {
+        Record projected = new Record();
+        for (String fieldName : fieldNames) {
+            projected.put(fieldName, record.get(fieldName));
+        }
+        return projected;
+    }
+}
@@ -26,12 +26,17 @@ import sleeper.configuration.properties.table.TableProperties;
 import sleeper.configuration.properties.table.TableProperty;
 import sleeper.core.iterator.CloseableIterator;
 import sleeper.core.iterator.IteratorException;
+import sleeper.core.iterator.MergeImplementation;
 import sleeper.core.iterator.SortedRecordIterator;
+import sleeper.core.range.Region;
 import sleeper.core.record.Record;
 import sleeper.core.schema.Field;
 import sleeper.core.schema.Schema;
 import sleeper.query.QueryException;
+import sleeper.query.aggregation.AggregatingIterator;
 import sleeper.query.model.LeafPartitionQuery;
+import sleeper.query.model.QueryAggregations;
+import sleeper.query.model.QueryProjection;
 import sleeper.query.utils.RangeQueryUtils;
 
 import java.util.HashMap;
@@ -39,6 +44,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
@@ -80,13 +86,34 @@ public class LeafPartitionQueryExecutor {
         } catch (IteratorException e) {
             throw new QueryException("Failed to initialise iterators", e);
         }
+        QueryAggregations aggregations = leafPartitionQuery.getAggregations();
+        Schema resultsSchema;
+        try {
+            resultsSchema = leafPartitionQuery.getProcessingConfig().getResultsSchema(tableSchema);
+        } catch (IllegalArgumentException e) {
+            throw new QueryException("Invalid aggregations or projection for query", e);
+        }
 
         Schema dataReadSchema = createSchemaForDataRead(leafPartitionQuery, tableSchema, compactionIterator, queryIterator);
 
-        FilterPredicate filterPredicate = RangeQueryUtils.getFilterPredicateMultidimensionalKey(
-                tableSchema.getRowKeyFields(), leafPartitionQuery.getRegions(), leafPartitionQuery.getPartitionRegion());
+        List<Field> rowKeyFields = tableSchema.getRowKeyFields();
+        List<Region> regions = leafPartitionQuery.getRegions();
+        FilterPredicate filterPredicate;
+        if (RangeQueryUtils.isExactKeyQuery(rowKeyFields, regions)) {
+            Optional<FilterPredicate> exactKeysPredicate = RangeQueryUtils.getFilterPredicateForExactKeys(
+                    rowKeyFields, regions, leafPartitionQuery.getPartitionRegion());
+            if (exactKeysPredicate.isEmpty()) {
+                LOGGER.info("None of the requested keys are in partition {}, so no files will be read", leafPartitionQuery.getLeafPartitionId());
+                files = List.of();
+            }
+            filterPredicate = exactKeysPredicate.orElse(null);
+        } else {
+            filterPredicate = RangeQueryUtils.getFilterPredicateMultidimensionalKey(
+                    rowKeyFields, regions, leafPartitionQuery.getPartitionRegion());
+        }
 
-        LeafPartitionRecordRetriever retriever = new LeafPartitionRecordRetriever(executorService, conf);
+        LeafPartitionRecordRetriever retriever = new LeafPartitionRecordRetriever(executorService, conf,
+                MergeImplementation.from(tableProperties.get(TableProperty.MERGE_IMPLEMENTATION)));
 
         try {
             CloseableIterator<Record> iterator = retriever.getRecords(files, dataReadSchema, filterPredicate);
@@ -98,6 +125,15 @@ public class LeafPartitionQueryExecutor {
             if (null != queryIterator) {
                 iterator = queryIterator.apply(iterator);
             }
+            // Aggregate records within the partition, so that only the results are returned
+            if (null != aggregations) {
+                iterator = new AggregatingIterator(aggregations, tableSchema, iterator);
+            }
+            // Drop any value fields which were only read for iterators
+            QueryProjection projection = leafPartitionQuery.getProjection();
+            if (QueryProjection.KEYS == projection || QueryProjection.EXISTENCE == projection) {
+                iterator = new KeyProjectingIterator(resultsSchema, QueryProjection.EXISTENCE == projection, iterator);
+            }
 
             return iterator;
         } catch (RecordRetrievalException e) {
@@ -107,6 +143,13 @@ public class LeafPartitionQueryExecutor {
 
     private Schema createSchemaForDataRead(LeafPartitionQuery query, Schema schema, SortedRecordIterator compactionIterator, SortedRecordIterator queryIterator) {
         List<String> requestedValueFields = query.getRequestedValueFields();
+        if (query.getAggregations() != null) {
+            requestedValueFields = query.getAggregations().getFieldsToRead();
+        }
+        QueryProjection projection = query.getProjection();
+        if (QueryProjection.KEYS == projection || QueryProjection.EXISTENCE == projection) {
+            requestedValueFields = List.of();
+        }
         if (requestedValueFields == null) {
             return schema;
         }
@@ -123,9 +166,12 @@ public class LeafPartitionQueryExecutor {
             requiredFields.addAll(queryIterator.getRequiredValueFields());
         }
 
+        // Existence only depends on the row keys, unless an iterator may need the records in order of their sort keys
+        boolean readSortKeys = QueryProjection.EXISTENCE != projection || compactionIterator != null || queryIterator != null;
+
         return Schema.builder()
                 .rowKeyFields(schema.getRowKeyFields())
-                .sortKeyFields(schema.getSortKeyFields())
+                .sortKeyFields(readSortKeys ? schema.getSortKeyFields() : List.of())
                 .valueFields(requiredFields.stream()
                         .map(fields::get)
                         .filter(Objects::nonNull)
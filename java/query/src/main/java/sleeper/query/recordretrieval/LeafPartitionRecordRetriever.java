@@ -17,7 +17,6 @@ package sleeper.query.recordretrieval;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.Path;
 import org.apache.parquet.filter2.compat.FilterCompat;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.hadoop.ParquetReader;
@@ -25,23 +24,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import sleeper.core.iterator.CloseableIterator;
-import sleeper.core.iterator.MergingIterator;
+import sleeper.core.iterator.MergeImplementation;
 import sleeper.core.iterator.WrappedIterator;
 import sleeper.core.record.Record;
 import sleeper.core.record.RecordComparator;
 import sleeper.core.schema.Schema;
+import sleeper.io.parquet.cache.ParquetFileTailCache;
 import sleeper.io.parquet.record.ParquetRecordReader;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A {@link LeafPartitionRecordRetriever} pulls back records for a single leaf partition according to
@@ -52,10 +51,16 @@ public class LeafPartitionRecordRetriever {
 
     private final Configuration filesConfig;
     private final ExecutorService executorService;
+    private final MergeImplementation mergeImplementation;
 
     public LeafPartitionRecordRetriever(ExecutorService executorService, Configuration conf) {
+        this(executorService, conf, MergeImplementation.PRIORITY_QUEUE);
+    }
+
+    public LeafPartitionRecordRetriever(ExecutorService executorService, Configuration conf, MergeImplementation mergeImplementation) {
         this.executorService = executorService;
         this.filesConfig = conf;
+        this.mergeImplementation = mergeImplementation;
     }
 
     public CloseableIterator<Record> getRecords(List<String> files, Schema dataReadSchema, FilterPredicate filterPredicate) throws RecordRetrievalException {
@@ -63,64 +68,97 @@ public class LeafPartitionRecordRetriever {
             return new WrappedIterator<>(Collections.emptyIterator());
         }
 
-        ArrayList<RetrieveTask> tasks = new ArrayList<>();
-        Map<Integer, CloseableIterator<Record>> indexToReader = new HashMap<>();
+        // Each file is opened and its first record is read in a separate task. This forces the initialisation of the
+        // reader and the retrieval of the first batch to be done in parallel. If any file fails, files which have not
+        // been opened yet are skipped.
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<Callable<Pair<Record, CloseableIterator<Record>>>> tasks = new ArrayList<>();
         for (String file : files) {
-            try {
-                tasks.add(new RetrieveTask(createParquetReader(dataReadSchema, file, filterPredicate)));
-            } catch (IOException e) {
-                throw new RecordRetrievalException("Failed to create a parquet reader", e);
-            }
-            LOGGER.debug("Created reader for file {}", file);
+            tasks.add(() -> {
+                if (failed.get()) {
+                    return null;
+                }
+                LOGGER.debug("Opening reader for file {}", file);
+                return new RetrieveTask(createParquetReader(dataReadSchema, file, filterPredicate)).call();
+            });
         }
-
-        List<Future<Pair<Record, CloseableIterator<Record>>>> futures;
+        List<CompletableFuture<Pair<Record, CloseableIterator<Record>>>> futures =
+                FileOpenScheduler.getShared(filesConfig).submit(tasks, executorService);
         try {
-            futures = executorService.invokeAll(tasks);
-        } catch (InterruptedException e) {
-            throw new RecordRetrievalException("Interrupted while invoking retrieve tasks", e);
+            waitForAllOrFirstFailure(futures);
+        } catch (RecordRetrievalException e) {
+            failed.set(true);
+            futures.forEach(future -> future.thenAccept(LeafPartitionRecordRetriever::closeReader));
+            throw e;
         }
 
-        // First record from each iterator is returned separately - this forces
-        // the initialisation of the reader and the retrieval of the first
-        // batch to be done in parallel.
-        Map<Integer, Record> currentValues = new HashMap<>();
-        int count = 0;
-        for (Future<Pair<Record, CloseableIterator<Record>>> future : futures) {
-            Pair<Record, CloseableIterator<Record>> pair;
-            try {
-                pair = future.get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RecordRetrievalException("Failed to retrieve records due to an exception", e);
-            }
+        // Files with no records matching the filter return null
+        List<Record> currentValues = new ArrayList<>();
+        List<CloseableIterator<Record>> readers = new ArrayList<>();
+        for (CompletableFuture<Pair<Record, CloseableIterator<Record>>> future : futures) {
+            Pair<Record, CloseableIterator<Record>> pair = future.join();
             if (null != pair) {
-                indexToReader.put(count, pair.getRight());
-                currentValues.put(count, pair.getLeft());
-                count++;
+                currentValues.add(pair.getLeft());
+                readers.add(pair.getRight());
             }
         }
 
         // Sort current values and create iterator
         RecordComparator recordComparator = new RecordComparator(dataReadSchema);
-        Iterator<Record> currentValuesSorted = currentValues.values()
-                .stream()
-                .sorted(recordComparator)
-                .iterator();
+        currentValues.sort(recordComparator);
 
         // Create list of iterators - one for each of the ParquetReaderIterators
         // and one for the values that have already been read.
         List<CloseableIterator<Record>> iterators = new ArrayList<>();
-        iterators.add(new WrappedIterator<>(currentValuesSorted));
-        iterators.addAll(indexToReader.values());
+        iterators.add(new WrappedIterator<>(currentValues.iterator()));
+        iterators.addAll(readers);
+
+        return mergeImplementation.createMergingIterator(dataReadSchema, iterators);
+    }
 
-        return new MergingIterator(dataReadSchema, iterators);
+    /**
+     * Waits for all files to be opened. This fails as soon as any file fails to open, rather than waiting for the
+     * files before it.
+     *
+     * @param  futures                   the futures for each file
+     * @throws RecordRetrievalException if any file failed to open
+     */
+    private static void waitForAllOrFirstFailure(List<? extends CompletableFuture<?>> futures) throws RecordRetrievalException {
+        CompletableFuture<Void> allOrFirstFailure = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        for (CompletableFuture<?> future : futures) {
+            future.whenComplete((result, e) -> {
+                if (null != e) {
+                    allOrFirstFailure.completeExceptionally(e);
+                }
+            });
+        }
+        try {
+            allOrFirstFailure.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RecordRetrievalException("Interrupted while retrieving records", e);
+        } catch (ExecutionException e) {
+            throw new RecordRetrievalException("Failed to retrieve records due to an exception", e.getCause());
+        }
+    }
+
+    private static void closeReader(Pair<Record, CloseableIterator<Record>> pair) {
+        if (null == pair) {
+            return;
+        }
+        try {
+            pair.getRight().close();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Failed closing reader after another file failed", e);
+        }
     }
 
     private ParquetReader<Record> createParquetReader(Schema readSchema, String fileName, FilterPredicate filterPredicate)
             throws IOException {
         // NB Do not create a ParquetReaderIterator here as that forces the
-        // opening of the file which needs to be done in parallel.
-        return new ParquetRecordReader.Builder(new Path(fileName), readSchema)
+        // opening of the file which needs to be done in parallel. The footer and page indexes are cached between
+        // queries, as the same files are often read again before they are compacted.
+        return new ParquetRecordReader.Builder(ParquetFileTailCache.getShared(filesConfig).inputFile(fileName, filesConfig), readSchema)
                 .withConf(filesConfig)
                 .withFilter(FilterCompat.get(filterPredicate))
                 .build();
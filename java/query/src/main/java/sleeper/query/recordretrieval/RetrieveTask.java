@@ -48,6 +48,12 @@ public class RetrieveTask implements Callable<Pair<Record, CloseableIterator<Rec
         if (iterator.hasNext()) {
             return new ImmutablePair<>(iterator.next(), iterator);
         }
+        // Release the file if none of its records matched the filter, e.g. because it was skipped by its statistics
+        try {
+            iterator.close();
+        } catch (IOException e) {
+            throw new RuntimeException("IOException closing ParquetReaderIterator", e);
+        }
         return null;
     }
 }
@@ -20,8 +20,11 @@ import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
 import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
@@ -41,6 +44,9 @@ import java.util.stream.Collectors;
 import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.QUERY_TRACKER_TABLE_NAME;
 import static sleeper.configuration.properties.instance.QueryProperty.QUERY_TRACKER_ITEM_TTL_IN_DAYS;
 import static sleeper.query.tracker.DynamoDBQueryTrackerEntry.LAST_KNOWN_STATE;
+import static sleeper.query.tracker.DynamoDBQueryTrackerEntry.PARTIAL_RESULTS_EXPECTED;
+import static sleeper.query.tracker.DynamoDBQueryTrackerEntry.PARTIAL_RESULTS_MERGED;
+import static sleeper.query.tracker.DynamoDBQueryTrackerEntry.PARTIAL_RESULTS_RECEIVED;
 
 /**
  * The query tracker updates and keeps track of the status of queries so that clients
@@ -190,6 +196,97 @@ public class DynamoDBQueryTracker implements QueryStatusReportListener, QueryTra
                 .build());
     }
 
+    /**
+     * Records how many sub queries of a query will save partial results of aggregations. This must be called before
+     * the sub queries are sent, so that each one can be recorded by {@link #partialResultsReceived}.
+     *
+     * @param query      the query
+     * @param subQueries the number of sub queries
+     */
+    public void partialResultsExpected(Query query, int subQueries) {
+        dynamoDB.updateItem(new UpdateItemRequest()
+                .withTableName(trackerTableName)
+                .withKey(DynamoDBQueryTrackerEntry.withQuery(query).build().getKey())
+                .withUpdateExpression("SET #Expected = :expected REMOVE #Received, #Merged")
+                .withExpressionAttributeNames(Map.of(
+                        "#Expected", PARTIAL_RESULTS_EXPECTED,
+                        "#Received", PARTIAL_RESULTS_RECEIVED,
+                        "#Merged", PARTIAL_RESULTS_MERGED))
+                .withExpressionAttributeValues(Map.of(":expected", new AttributeValue().withN(String.valueOf(subQueries)))));
+    }
+
+    /**
+     * Records that a sub query has saved its partial results of aggregations. Sub queries are recorded by their ID, so
+     * a sub query which is run more than once is only counted once. This is needed as a sub query may be received
+     * more than once from SQS.
+     * <p>
+     * This returns true whenever every sub query has been recorded and the partial results have not yet been merged.
+     * If merging fails, the sub query that found it was the last can be retried, and will merge the results again.
+     *
+     * @param  leafQuery the sub query
+     * @return           true if every sub query has now saved its partial results, and they should be merged
+     */
+    public boolean partialResultsReceived(LeafPartitionQuery leafQuery) {
+        Map<String, AttributeValue> key = DynamoDBQueryTrackerEntry.builder().queryId(leafQuery.getQueryId()).build().getKey();
+        Map<String, AttributeValue> item;
+        try {
+            item = dynamoDB.updateItem(new UpdateItemRequest()
+                    .withTableName(trackerTableName)
+                    .withKey(key)
+                    .withUpdateExpression("ADD #Received :subQueryIds")
+                    .withConditionExpression("NOT contains(#Received, :subQueryId)")
+                    .withExpressionAttributeNames(Map.of("#Received", PARTIAL_RESULTS_RECEIVED))
+                    .withExpressionAttributeValues(Map.of(
+                            ":subQueryIds", new AttributeValue().withSS(leafQuery.getSubQueryId()),
+                            ":subQueryId", new AttributeValue(leafQuery.getSubQueryId())))
+                    .withReturnValues(ReturnValue.ALL_NEW))
+                    .getAttributes();
+        } catch (ConditionalCheckFailedException e) {
+            LOGGER.info("Partial results were already received for subquery {} of query {}",
+                    leafQuery.getSubQueryId(), leafQuery.getQueryId());
+            item = getPartialResultsItem(key);
+        }
+        long expected = Long.parseLong(item.get(PARTIAL_RESULTS_EXPECTED).getN());
+        int received = item.get(PARTIAL_RESULTS_RECEIVED).getSS().size();
+        LOGGER.debug("Partial results received for query {}: {} of {}", leafQuery.getQueryId(), received, expected);
+        return received == expected && !item.containsKey(PARTIAL_RESULTS_MERGED);
+    }
+
+    /**
+     * Records that the partial results of aggregations for a query have been merged and published. After this, any
+     * repeat of a sub query of the query will be ignored.
+     *
+     * @param query the query
+     */
+    public void partialResultsMerged(Query query) {
+        dynamoDB.updateItem(new UpdateItemRequest()
+                .withTableName(trackerTableName)
+                .withKey(DynamoDBQueryTrackerEntry.withQuery(query).build().getKey())
+                .withUpdateExpression("SET #Merged = :merged")
+                .withExpressionAttributeNames(Map.of("#Merged", PARTIAL_RESULTS_MERGED))
+                .withExpressionAttributeValues(Map.of(":merged", new AttributeValue().withBOOL(true))));
+    }
+
+    /**
+     * Checks whether the partial results of aggregations for a query have already been merged and published.
+     *
+     * @param  queryId the query ID
+     * @return         true if the partial results have been merged
+     */
+    public boolean isPartialResultsMerged(String queryId) {
+        Map<String, AttributeValue> item = getPartialResultsItem(
+                DynamoDBQueryTrackerEntry.builder().queryId(queryId).build().getKey());
+        return null != item && item.containsKey(PARTIAL_RESULTS_MERGED);
+    }
+
+    private Map<String, AttributeValue> getPartialResultsItem(Map<String, AttributeValue> key) {
+        return dynamoDB.getItem(new GetItemRequest()
+                .withTableName(trackerTableName)
+                .withKey(key)
+                .withConsistentRead(true))
+                .getItem();
+    }
+
     private void updateState(DynamoDBQueryTrackerEntry entry) {
         dynamoDB.updateItem(new UpdateItemRequest(trackerTableName,
                 entry.getKey(), entry.getValueUpdate(queryTrackerTTL)));
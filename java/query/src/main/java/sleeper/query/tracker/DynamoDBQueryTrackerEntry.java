@@ -42,6 +42,9 @@ class DynamoDBQueryTrackerEntry {
     static final String SUB_QUERY_ID = "subQueryId";
     static final String ERROR_MESSAGE = "errors";
     static final String EXPIRY_DATE = "expiryDate";
+    static final String PARTIAL_RESULTS_EXPECTED = "partialResultsExpected";
+    static final String PARTIAL_RESULTS_RECEIVED = "partialResultsReceived";
+    static final String PARTIAL_RESULTS_MERGED = "partialResultsMerged";
 
     private final String queryId;
     private final String subQueryId;
@@ -22,6 +22,7 @@ import org.apache.parquet.filter2.predicate.Operators.LongColumn;
 import org.apache.parquet.io.api.Binary;
 
 import sleeper.core.range.Range;
+import sleeper.core.range.RangeCanonicaliser;
 import sleeper.core.range.Region;
 import sleeper.core.range.RegionCanonicaliser;
 import sleeper.core.schema.Field;
@@ -33,13 +34,17 @@ import sleeper.core.schema.type.Type;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 
 import static org.apache.parquet.filter2.predicate.FilterApi.and;
 import static org.apache.parquet.filter2.predicate.FilterApi.binaryColumn;
+import static org.apache.parquet.filter2.predicate.FilterApi.eq;
 import static org.apache.parquet.filter2.predicate.FilterApi.gtEq;
 import static org.apache.parquet.filter2.predicate.FilterApi.intColumn;
 import static org.apache.parquet.filter2.predicate.FilterApi.longColumn;
 import static org.apache.parquet.filter2.predicate.FilterApi.lt;
+import static org.apache.parquet.filter2.predicate.FilterApi.or;
 
 public class RangeQueryUtils {
 
@@ -92,6 +97,90 @@ public class RangeQueryUtils {
         return org.apache.parquet.filter2.predicate.FilterApi.and(partitionPredicate, anyRangeFilter);
     }
 
+    /**
+     * Checks whether regions each specify a single value for every row key field, i.e. they are a lookup of a set of
+     * exact keys.
+     *
+     * @param  rowKeyFields the row key fields
+     * @param  regions      the regions
+     * @return              true if every region is for an exact key
+     */
+    public static boolean isExactKeyQuery(List<Field> rowKeyFields, List<Region> regions) {
+        if (regions.isEmpty()) {
+            return false;
+        }
+        for (Region region : regions) {
+            for (Field field : rowKeyFields) {
+                Range range = region.getRange(field.getName());
+                if (null == range || !isExactValue(range)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a filter for a lookup of exact keys in a partition. This uses equality rather than range predicates, so
+     * that Parquet can skip row groups using bloom filters as well as statistics, and can use the page indexes to read
+     * only the pages that may hold the keys. Keys outside the partition are left out of the filter.
+     *
+     * @param  rowKeyFields    the row key fields
+     * @param  regions         the regions, which must each be for an exact key
+     * @param  partitionRegion the region of the partition
+     * @return                 the filter, or an empty optional if none of the keys are in the partition
+     */
+    public static Optional<FilterPredicate> getFilterPredicateForExactKeys(
+            List<Field> rowKeyFields,
+            List<Region> regions,
+            Region partitionRegion) {
+        FilterPredicate anyKeyFilter = null;
+        for (Region region : regions) {
+            FilterPredicate keyFilter = null;
+            boolean keyInPartition = true;
+            for (Field field : rowKeyFields) {
+                Object value = RangeCanonicaliser.canonicaliseRange(region.getRange(field.getName())).getMin();
+                if (!partitionRegion.getRange(field.getName()).doesRangeContainObject(value)) {
+                    keyInPartition = false;
+                    break;
+                }
+                FilterPredicate fieldFilter = getEqualityPredicate(field, value);
+                keyFilter = null == keyFilter ? fieldFilter : and(keyFilter, fieldFilter);
+            }
+            if (keyInPartition) {
+                anyKeyFilter = null == anyKeyFilter ? keyFilter : or(anyKeyFilter, keyFilter);
+            }
+        }
+        return Optional.ofNullable(anyKeyFilter);
+    }
+
+    private static boolean isExactValue(Range range) {
+        Range canonical = RangeCanonicaliser.canonicaliseRange(range);
+        if (null == canonical.getMin() || null == canonical.getMax()) {
+            return false;
+        }
+        Range exact = RangeCanonicaliser.canonicaliseRange(
+                new Range(range.getField(), canonical.getMin(), true, canonical.getMin(), true));
+        return Objects.deepEquals(exact.getMax(), canonical.getMax());
+    }
+
+    private static FilterPredicate getEqualityPredicate(Field field, Object value) {
+        Type keyType = field.getType();
+        if (keyType instanceof IntType) {
+            return eq(intColumn(field.getName()), (Integer) value);
+        }
+        if (keyType instanceof LongType) {
+            return eq(longColumn(field.getName()), (Long) value);
+        }
+        if (keyType instanceof StringType) {
+            return eq(binaryColumn(field.getName()), Binary.fromString((String) value));
+        }
+        if (keyType instanceof ByteArrayType) {
+            return eq(binaryColumn(field.getName()), Binary.fromConstantByteArray((byte[]) value));
+        }
+        throw new IllegalArgumentException("Unknown type " + keyType);
+    }
+
     private static FilterPredicate getFilterPredicate(Range range) {
         Type keyType = range.getFieldType();
         if (keyType instanceof IntType) {
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.aggregation;
+
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.iterator.WrappedIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+import sleeper.query.model.QueryAggregation;
+import sleeper.query.model.QueryAggregations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AggregatingIteratorTest {
+
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key1", new StringType()), new Field("key2", new LongType()))
+            .valueFields(new Field("value", new LongType()), new Field("label", new StringType()))
+            .build();
+
+    @Test
+    void shouldAggregateRecordsGroupedByRowKeyPrefix() {
+        // Given
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .groupByRowKeyFields(1)
+                .aggregations(QueryAggregation.count(), QueryAggregation.sum("value"), QueryAggregation.max("label"))
+                .build();
+        List<Record> records = List.of(
+                record("A", 1L, 10L, "x"),
+                record("A", 2L, 20L, "z"),
+                record("A", 3L, 30L, "y"),
+                record("B", 1L, 5L, "w"));
+
+        // When
+        AggregatingIterator iterator = new AggregatingIterator(aggregations, schema, new WrappedIterator<>(records.iterator()));
+
+        // Then
+        assertThat(iterator).toIterable().containsExactly(
+                new Record(Map.of("key1", "A", "key2", 1L, "count", 3L, "sum_value", 60L, "max_label", "z")),
+                new Record(Map.of("key1", "B", "key2", 1L, "count", 1L, "sum_value", 5L, "max_label", "w")));
+    }
+
+    @Test
+    void shouldMergePartialResultsForTheSameGroupFromDifferentPartitions() {
+        // Given
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .groupByRowKeyFields(1)
+                .aggregations(QueryAggregation.count(), QueryAggregation.min("value"))
+                .build();
+        List<Record> partition1Results = List.of(
+                new Record(Map.of("key1", "A", "key2", 1L, "count", 2L, "min_value", 20L)),
+                new Record(Map.of("key1", "B", "key2", 1L, "count", 1L, "min_value", 5L)));
+        List<Record> partition2Results = List.of(
+                new Record(Map.of("key1", "A", "key2", 10L, "count", 3L, "min_value", 15L)));
+
+        // When
+        AggregationMergingIterator iterator = new AggregationMergingIterator(aggregations, schema, List.of(
+                new WrappedIterator<>(partition1Results.iterator()),
+                new WrappedIterator<>(partition2Results.iterator())));
+
+        // Then
+        assertThat(iterator).toIterable().containsExactly(
+                new Record(Map.of("key1", "A", "key2", 1L, "count", 5L, "min_value", 15L)),
+                new Record(Map.of("key1", "B", "key2", 1L, "count", 1L, "min_value", 5L)));
+    }
+
+    @Test
+    void shouldMergePartialResultsWhenNotGrouped() {
+        // Given
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .aggregations(QueryAggregation.count(), QueryAggregation.max("label"))
+                .build();
+        List<Record> partition1Results = List.of(
+                new Record(Map.of("key1", "B", "key2", 1L, "count", 2L, "max_label", "x")));
+        List<Record> partition2Results = List.of(
+                new Record(Map.of("key1", "A", "key2", 5L, "count", 3L, "max_label", "y")));
+
+        // When
+        AggregationMergingIterator iterator = new AggregationMergingIterator(aggregations, schema, List.of(
+                new WrappedIterator<>(partition1Results.iterator()),
+                new WrappedIterator<>(partition2Results.iterator())));
+
+        // Then
+        assertThat(iterator).toIterable().containsExactly(
+                new Record(Map.of("key1", "A", "key2", 5L, "count", 5L, "max_label", "y")));
+    }
+
+    @Test
+    void shouldReturnCountOfZeroWhenNotGroupedAndNoRecordsWereFound() {
+        // Given
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .aggregations(QueryAggregation.count(), QueryAggregation.sum("value"))
+                .build();
+
+        // When
+        AggregationMergingIterator iterator = new AggregationMergingIterator(aggregations, schema, List.of(
+                new WrappedIterator<>(Collections.emptyIterator())));
+
+        // Then
+        assertThat(iterator).toIterable().containsExactly(
+                new Record(Map.of("key1", "", "key2", Long.MIN_VALUE, "count", 0L, "sum_value", 0L)));
+    }
+
+    @Test
+    void shouldReturnNothingWhenGroupedAndNoRecordsWereFound() {
+        // Given
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .groupByRowKeyFields(1)
+                .aggregations(QueryAggregation.count())
+                .build();
+
+        // When
+        AggregationMergingIterator iterator = new AggregationMergingIterator(aggregations, schema, List.of());
+
+        // Then
+        assertThat(iterator).toIterable().isEmpty();
+    }
+
+    @Test
+    void shouldReturnNothingWhenNoRecordsWereFoundForMaximum() {
+        // Given
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .aggregations(QueryAggregation.count(), QueryAggregation.max("value"))
+                .build();
+
+        // When
+        AggregationMergingIterator iterator = new AggregationMergingIterator(aggregations, schema, List.of());
+
+        // Then
+        assertThat(iterator).toIterable().isEmpty();
+    }
+
+    @Test
+    void shouldRefuseToSumStringField() {
+        // Given
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .aggregations(QueryAggregation.sum("label"))
+                .build();
+
+        // When / Then
+        assertThatThrownBy(() -> aggregations.getResultSchema(schema))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cannot sum field of type StringType{}: label");
+    }
+
+    private static Record record(String key1, long key2, long value, String label) {
+        return new Record(Map.of("key1", key1, "key2", key2, "value", value, "label", label));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.aggregation;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.iterator.WrappedIterator;
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.range.Range;
+import sleeper.core.range.Region;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.query.model.LeafPartitionQuery;
+import sleeper.query.model.Query;
+import sleeper.query.model.QueryAggregation;
+import sleeper.query.model.QueryAggregations;
+import sleeper.query.model.QueryProcessingConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.QUERY_RESULTS_BUCKET;
+import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
+
+public class PartialAggregationResultsTest {
+    @TempDir
+    public Path tempDir;
+
+    private final Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new LongType()))
+            .valueFields(new Field("value", new LongType()))
+            .build();
+    private final QueryAggregations aggregations = QueryAggregations.builder()
+            .aggregations(QueryAggregation.count(), QueryAggregation.sum("value"))
+            .build();
+    private final Schema resultSchema = aggregations.getResultSchema(schema);
+    private final PartitionTree partitions = new PartitionsBuilder(schema)
+            .rootFirst("root")
+            .splitToNewChildren("root", "L", "R", 5L)
+            .buildTree();
+    private final Query query = Query.builder()
+            .tableName("test-table")
+            .queryId("query-id")
+            .regions(List.of(new Region(new Range.RangeFactory(schema).createRange("key", 1L, 10L))))
+            .processingConfig(QueryProcessingConfig.builder().aggregations(aggregations).build())
+            .build();
+
+    @Test
+    void shouldMergePartialResultsFromEachSubQuery() throws Exception {
+        // Given
+        PartialAggregationResults partialResults = partialResults();
+        partialResults.saveQuery("query-id", "{\"queryId\":\"query-id\"}");
+        partialResults.savePartialResults(leafQuery("sub-query-1", "L"), resultsTableProperties(),
+                results(new Record(Map.of("key", 1L, "count", 2L, "sum_value", 10L))));
+        partialResults.savePartialResults(leafQuery("sub-query-2", "R"), resultsTableProperties(),
+                results(new Record(Map.of("key", 6L, "count", 3L, "sum_value", 20L))));
+
+        // When
+        AggregationMergingIterator merged = new AggregationMergingIterator(aggregations, schema,
+                partialResults.readPartialResults("query-id", resultSchema));
+
+        // Then
+        assertThat(partialResults.loadQuery("query-id")).isEqualTo("{\"queryId\":\"query-id\"}");
+        assertThat(merged).toIterable().containsExactly(
+                new Record(Map.of("key", 1L, "count", 5L, "sum_value", 30L)));
+    }
+
+    @Test
+    void shouldReplacePartialResultsWhenSubQueryIsRunAgain() throws Exception {
+        // Given
+        PartialAggregationResults partialResults = partialResults();
+        partialResults.savePartialResults(leafQuery("sub-query-1", "L"), resultsTableProperties(),
+                results(new Record(Map.of("key", 1L, "count", 2L, "sum_value", 10L))));
+
+        // When
+        partialResults.savePartialResults(leafQuery("sub-query-1", "L"), resultsTableProperties(),
+                results(new Record(Map.of("key", 1L, "count", 4L, "sum_value", 15L))));
+
+        // Then
+        assertThat(new AggregationMergingIterator(aggregations, schema,
+                partialResults.readPartialResults("query-id", resultSchema)))
+                .toIterable().containsExactly(
+                        new Record(Map.of("key", 1L, "count", 4L, "sum_value", 15L)));
+    }
+
+    @Test
+    void shouldDeletePartialResultsOnceMerged() throws Exception {
+        // Given
+        PartialAggregationResults partialResults = partialResults();
+        partialResults.saveQuery("query-id", "{}");
+        partialResults.savePartialResults(leafQuery("sub-query-1", "L"), resultsTableProperties(),
+                results(new Record(Map.of("key", 1L, "count", 2L, "sum_value", 10L))));
+
+        // When
+        partialResults.delete("query-id");
+
+        // Then
+        assertThat(tempDir.resolve("results/partial-aggregations/query-id")).doesNotExist();
+    }
+
+    private PartialAggregationResults partialResults() throws Exception {
+        InstanceProperties instanceProperties = new InstanceProperties();
+        instanceProperties.set(FILE_SYSTEM, "file://");
+        instanceProperties.set(QUERY_RESULTS_BUCKET, Files.createDirectories(tempDir.resolve("results")).toString());
+        return new PartialAggregationResults(instanceProperties, new Configuration());
+    }
+
+    private TableProperties resultsTableProperties() {
+        TableProperties properties = new TableProperties(new InstanceProperties());
+        properties.setSchema(resultSchema);
+        return properties;
+    }
+
+    private LeafPartitionQuery leafQuery(String subQueryId, String partitionId) {
+        return LeafPartitionQuery.builder()
+                .parentQuery(query)
+                .tableId("test-table-id")
+                .subQueryId(subQueryId)
+                .regions(query.getRegions())
+                .leafPartitionId(partitionId)
+                .partitionRegion(partitions.getPartition(partitionId).getRegion())
+                .files(List.of())
+                .build();
+    }
+
+    private static CloseableIterator<Record> results(Record... records) {
+        return new WrappedIterator<>(List.of(records).iterator());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.cache;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.iterator.CloseableIterator;
+import sleeper.core.iterator.WrappedIterator;
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.range.Range;
+import sleeper.core.range.Region;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.query.QueryException;
+import sleeper.query.model.LeafPartitionQuery;
+import sleeper.query.model.Query;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.configuration.properties.table.TableProperty.TABLE_ID;
+
+public class QueryResultsCacheTest {
+    @TempDir
+    public Path tempDir;
+
+    private final Schema schema = Schema.builder().rowKeyFields(new Field("key", new LongType())).build();
+    private final TableProperties tableProperties = createTableProperties();
+    private final PartitionTree partitions = new PartitionsBuilder(schema).singlePartition("root").buildTree();
+    private final Query query = Query.builder()
+            .tableName("test-table")
+            .queryId("query-id")
+            .regions(List.of(new Region(new Range.RangeFactory(schema).createRange("key", 1L, 10L))))
+            .build();
+    private final List<Record> records = LongStream.range(1, 10)
+            .mapToObj(key -> new Record(Map.of("key", key)))
+            .collect(Collectors.toList());
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void shouldReuseResultsWhenFilesAreUnchanged() throws Exception {
+        // Given
+        QueryResultsCache cache = new QueryResultsCache(10, 100, tempDir.toString());
+        QueryResultsCacheKey key = keyForFiles("file1.parquet", "file2.parquet");
+
+        // When
+        List<Record> results1 = readAll(cache.getResults(key, schema, new Configuration(), this::executeQuery));
+        List<Record> results2 = readAll(cache.getResults(key, schema, new Configuration(), this::executeQuery));
+
+        // Then
+        assertThat(results1).isEqualTo(records);
+        assertThat(results2).isEqualTo(records);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void shouldExecuteQueryAgainWhenFilesChange() throws Exception {
+        // Given
+        QueryResultsCache cache = new QueryResultsCache(10, 100, tempDir.toString());
+        readAll(cache.getResults(keyForFiles("file1.parquet"), schema, new Configuration(), this::executeQuery));
+
+        // When
+        QueryResultsCacheKey newKey = keyForFiles("file1.parquet", "file2.parquet");
+        readAll(cache.getResults(newKey, schema, new Configuration(), this::executeQuery));
+
+        // Then
+        assertThat(executions).hasValue(2);
+        assertThat(cache.isCached(newKey)).isTrue();
+    }
+
+    @Test
+    void shouldCacheLargeResultsInFile() throws Exception {
+        // Given
+        QueryResultsCache cache = new QueryResultsCache(10, 5, tempDir.toString());
+        QueryResultsCacheKey key = keyForFiles("file1.parquet");
+
+        // When
+        readAll(cache.getResults(key, schema, new Configuration(), this::executeQuery));
+        List<Record> cachedResults = readAll(cache.getResults(key, schema, new Configuration(), this::executeQuery));
+
+        // Then
+        assertThat(cachedResults).isEqualTo(records);
+        assertThat(executions).hasValue(1);
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".parquet"))).hasSize(1);
+        }
+    }
+
+    @Test
+    void shouldNotCacheResultsWhichWereNotReadInFull() throws Exception {
+        // Given
+        QueryResultsCache cache = new QueryResultsCache(10, 5, tempDir.toString());
+        QueryResultsCacheKey key = keyForFiles("file1.parquet");
+
+        // When
+        try (CloseableIterator<Record> results = cache.getResults(key, schema, new Configuration(), this::executeQuery)) {
+            for (int i = 0; i < 7; i++) {
+                results.next();
+            }
+        }
+
+        // Then
+        assertThat(cache.isCached(key)).isFalse();
+        try (var files = Files.list(tempDir)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".parquet"))).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedResults() throws Exception {
+        // Given
+        QueryResultsCache cache = new QueryResultsCache(2, 100, tempDir.toString());
+        QueryResultsCacheKey key1 = keyForFiles("file1.parquet");
+        QueryResultsCacheKey key2 = keyForFiles("file2.parquet");
+        QueryResultsCacheKey key3 = keyForFiles("file3.parquet");
+        readAll(cache.getResults(key1, schema, new Configuration(), this::executeQuery));
+        readAll(cache.getResults(key2, schema, new Configuration(), this::executeQuery));
+        readAll(cache.getResults(key1, schema, new Configuration(), this::executeQuery));
+
+        // When
+        readAll(cache.getResults(key3, schema, new Configuration(), this::executeQuery));
+
+        // Then
+        assertThat(cache.isCached(key1)).isTrue();
+        assertThat(cache.isCached(key2)).isFalse();
+        assertThat(cache.isCached(key3)).isTrue();
+    }
+
+    private QueryResultsCacheKey keyForFiles(String... files) {
+        LeafPartitionQuery leafQuery = LeafPartitionQuery.builder()
+                .parentQuery(query)
+                .tableId("test-table-id")
+                .subQueryId("sub-query-id")
+                .regions(query.getRegions())
+                .leafPartitionId("root")
+                .partitionRegion(partitions.getRootPartition().getRegion())
+                .files(List.of(files))
+                .build();
+        return QueryResultsCacheKey.forQuery(query, List.of(leafQuery), tableProperties);
+    }
+
+    private CloseableIterator<Record> executeQuery() throws QueryException {
+        executions.incrementAndGet();
+        return new WrappedIterator<>(records.iterator());
+    }
+
+    private static List<Record> readAll(CloseableIterator<Record> iterator) throws Exception {
+        List<Record> results = new ArrayList<>();
+        try (iterator) {
+            iterator.forEachRemaining(results::add);
+        }
+        return results;
+    }
+
+    private TableProperties createTableProperties() {
+        TableProperties properties = new TableProperties(new InstanceProperties());
+        properties.set(TABLE_ID, "test-table-id");
+        properties.setSchema(schema);
+        return properties;
+    }
+}
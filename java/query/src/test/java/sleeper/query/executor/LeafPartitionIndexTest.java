@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.executor;
+
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.partition.Partition;
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.range.Range.RangeFactory;
+import sleeper.core.range.Region;
+import sleeper.core.schema.Schema;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.core.schema.SchemaTestHelper.schemaWithKey;
+
+public class LeafPartitionIndexTest {
+
+    private final Schema schema = schemaWithKey("key");
+    private final RangeFactory rangeFactory = new RangeFactory(schema);
+    private final PartitionTree tree = new PartitionsBuilder(schema)
+            .rootFirst("root")
+            .splitToNewChildren("root", "L", "R", 50L)
+            .splitToNewChildren("L", "LL", "LR", 20L)
+            .splitToNewChildren("R", "RL", "RR", 80L)
+            .buildTree();
+    private final LeafPartitionIndex index = new LeafPartitionIndex(schema, tree.getAllPartitions());
+
+    @Test
+    void shouldOrderLeafPartitionsByRegion() {
+        assertThat(index.getLeafPartitions())
+                .extracting(Partition::getId)
+                .containsExactly("LL", "LR", "RL", "RR");
+    }
+
+    @Test
+    void shouldFindLeafPartitionsOverlappingRegions() {
+        // Given
+        Region region1 = new Region(rangeFactory.createRange("key", 60L, 90L));
+        Region region2 = new Region(rangeFactory.createExactRange("key", 10L));
+        Region region3 = new Region(rangeFactory.createExactRange("key", 85L));
+
+        // When
+        Map<Partition, List<Region>> overlapping = index.getLeafPartitionsOverlapping(List.of(region1, region2, region3));
+
+        // Then
+        assertThat(overlapping).containsExactly(
+                Map.entry(tree.getPartition("LL"), List.of(region2)),
+                Map.entry(tree.getPartition("RL"), List.of(region1)),
+                Map.entry(tree.getPartition("RR"), List.of(region1, region3)));
+    }
+
+    @Test
+    void shouldIncludeFilesInAncestorsOfLeafPartition() {
+        // Given
+        LeafPartitionIndex indexWithFiles = index.withFiles(Map.of(
+                "root", List.of("root-file"),
+                "L", List.of("L-file"),
+                "LR", List.of("LR-file1", "LR-file2"),
+                "R", List.of("R-file")));
+
+        // When / Then
+        assertThat(indexWithFiles.getFiles(tree.getPartition("LR"))).containsExactly("LR-file1", "LR-file2", "L-file", "root-file");
+        assertThat(indexWithFiles.getFiles(tree.getPartition("LL"))).containsExactly("L-file", "root-file");
+        assertThat(indexWithFiles.getFiles(tree.getPartition("RR"))).containsExactly("R-file", "root-file");
+    }
+
+    @Test
+    void shouldUpdateFilesWhenTheyChange() {
+        // Given
+        LeafPartitionIndex before = index.withFiles(Map.of("LL", List.of("file1")));
+
+        // When
+        LeafPartitionIndex after = before.withFiles(Map.of("LL", List.of("file2")));
+
+        // Then
+        assertThat(after.getFiles(tree.getPartition("LL"))).containsExactly("file2");
+        assertThat(before.getFiles(tree.getPartition("LL"))).containsExactly("file1");
+    }
+
+    @Test
+    void shouldDetectWhenPartitionsHaveChanged() {
+        // Given
+        List<Partition> splitPartitions = new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "L", "R", 50L)
+                .splitToNewChildren("L", "LL", "LR", 20L)
+                .splitToNewChildren("R", "RL", "RR", 80L)
+                .splitToNewChildren("RR", "RRL", "RRR", 90L)
+                .buildList();
+
+        // When / Then
+        assertThat(index.hasPartitions(tree.getAllPartitions())).isTrue();
+        assertThat(index.hasPartitions(splitPartitions)).isFalse();
+    }
+}
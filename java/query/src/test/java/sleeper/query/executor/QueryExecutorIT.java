@@ -49,7 +49,10 @@ import sleeper.ingest.IngestFactory;
 import sleeper.query.QueryException;
 import sleeper.query.model.LeafPartitionQuery;
 import sleeper.query.model.Query;
+import sleeper.query.model.QueryAggregation;
+import sleeper.query.model.QueryAggregations;
 import sleeper.query.model.QueryProcessingConfig;
+import sleeper.query.model.QueryProjection;
 import sleeper.statestore.FixedStateStoreProvider;
 
 import java.io.IOException;
@@ -60,9 +63,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.nio.file.Files.createTempDirectory;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -70,9 +77,11 @@ import static sleeper.configuration.properties.instance.CdkDefinedInstanceProper
 import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
 import static sleeper.configuration.properties.instance.IngestProperty.INGEST_PARTITION_FILE_WRITER_TYPE;
 import static sleeper.configuration.properties.table.TablePropertiesTestHelper.createTestTableProperties;
+import static sleeper.configuration.properties.table.TableProperty.BLOOM_FILTER_FOR_ROW_KEY_FIELDS;
 import static sleeper.configuration.properties.table.TableProperty.COMPRESSION_CODEC;
 import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CLASS_NAME;
 import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CONFIG;
+import static sleeper.configuration.properties.table.TableProperty.QUERY_PARTITION_PARALLELISM;
 import static sleeper.configuration.properties.table.TableProperty.TABLE_ID;
 import static sleeper.core.statestore.inmemory.StateStoreTestHelper.inMemoryStateStoreWithPartitions;
 
@@ -458,6 +467,366 @@ public class QueryExecutorIT {
                         .build());
     }
 
+    @Test
+    public void shouldReturnExactKeysFromFilesWithBloomFiltersInMultiplePartitions() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        tableProperties.set(BLOOM_FILTER_FOR_ROW_KEY_FIELDS, "true");
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 5L)
+                .buildList());
+        for (int i = 0; i < 5; i++) {
+            ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        }
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = Query.builder()
+                .tableName("myTable")
+                .queryId("id")
+                .regions(List.of(
+                        new Region(rangeFactory.createExactRange(field, 2L)),
+                        new Region(rangeFactory.createExactRange(field, 7L)),
+                        new Region(rangeFactory.createExactRange(field, 20L))))
+                .build();
+
+        // When
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+
+            // Then
+            assertThat(results).toIterable().hasSize(10)
+                    .containsOnly(getMultipleRecords().get(1), getMultipleRecords().get(6));
+        }
+    }
+
+    @Test
+    public void shouldReturnRecordsInPartitionOrderWhenReadingPartitionsInParallel() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        tableProperties.setNumber(QUERY_PARTITION_PARALLELISM, 3);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 5L)
+                .splitToNewChildren("left", "LL", "LR", 3L)
+                .splitToNewChildren("right", "RL", "RR", 8L)
+                .buildList());
+        for (int i = 0; i < 3; i++) {
+            ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        }
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Region region = new Region(rangeFactory.createRange(field, 1L, true, 10L, true));
+
+        // When
+        List<Record> results = new ArrayList<>();
+        try (CloseableIterator<Record> iterator = queryExecutor.execute(queryWithRegion(region))) {
+            iterator.forEachRemaining(results::add);
+        }
+
+        // Then
+        assertThat(results).extracting(record -> record.get("key"))
+                .containsExactly(1L, 1L, 1L, 2L, 2L, 2L, 3L, 3L, 3L, 4L, 4L, 4L, 5L, 5L, 5L,
+                        6L, 6L, 6L, 7L, 7L, 7L, 8L, 8L, 8L, 9L, 9L, 9L, 10L, 10L, 10L);
+    }
+
+    @Test
+    public void shouldRunConcurrentQueriesReadingPartitionsInParallelWithFewThreadsToReadFiles() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        tableProperties.setNumber(QUERY_PARTITION_PARALLELISM, 3);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 5L)
+                .splitToNewChildren("left", "LL", "LR", 3L)
+                .splitToNewChildren("right", "RL", "RR", 8L)
+                .buildList());
+        ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        ExecutorService fileReadingThreads = Executors.newFixedThreadPool(2);
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), fileReadingThreads);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = queryWithRegion(new Region(rangeFactory.createRange(field, 1L, true, 10L, true)));
+        ExecutorService queryThreads = Executors.newFixedThreadPool(3);
+
+        // When
+        List<Future<List<Record>>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                futures.add(queryThreads.submit(() -> {
+                    List<Record> results = new ArrayList<>();
+                    try (CloseableIterator<Record> iterator = queryExecutor.execute(query)) {
+                        iterator.forEachRemaining(results::add);
+                    }
+                    return results;
+                }));
+            }
+
+            // Then
+            for (Future<List<Record>> future : futures) {
+                assertThat(future.get(1, TimeUnit.MINUTES))
+                        .extracting(record -> record.get("key"))
+                        .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+            }
+        } finally {
+            queryThreads.shutdownNow();
+            fileReadingThreads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldAggregateRecordsAcrossMultiplePartitions() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 5L)
+                .buildList());
+        for (int i = 0; i < 3; i++) {
+            ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        }
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = Query.builder()
+                .tableName("myTable")
+                .queryId("id")
+                .regions(List.of(new Region(rangeFactory.createRange(field, 2L, true, 8L, true))))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .aggregations(QueryAggregations.builder()
+                                .aggregations(QueryAggregation.count(), QueryAggregation.sum("value1"),
+                                        QueryAggregation.min("value2"), QueryAggregation.max("value2"))
+                                .build())
+                        .build())
+                .build();
+
+        // When
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+
+            // Then
+            assertThat(results).toIterable().containsExactly(new Record(Map.of(
+                    "key", 2L,
+                    "count", 21L,
+                    "sum_value1", 1050L,
+                    "min_value2", 200L,
+                    "max_value2", 800L)));
+        }
+    }
+
+    @Test
+    public void shouldCountZeroRecordsWhenNoRecordsMatchQuery() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 5L)
+                .buildList());
+        ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = Query.builder()
+                .tableName("myTable")
+                .queryId("id")
+                .regions(List.of(new Region(rangeFactory.createRange(field, 100L, true, 200L, true))))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .aggregations(QueryAggregations.builder()
+                                .aggregations(QueryAggregation.count())
+                                .build())
+                        .build())
+                .build();
+
+        // When
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+
+            // Then
+            assertThat(results).toIterable().containsExactly(new Record(Map.of(
+                    "key", Long.MIN_VALUE,
+                    "count", 0L)));
+        }
+    }
+
+    @Test
+    public void shouldAggregateRecordsGroupedByRowKey() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 5L)
+                .buildList());
+        for (int i = 0; i < 2; i++) {
+            ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        }
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = Query.builder()
+                .tableName("myTable")
+                .queryId("id")
+                .regions(List.of(new Region(rangeFactory.createRange(field, 4L, true, 6L, true))))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .aggregations(QueryAggregations.builder()
+                                .groupByRowKeyFields(1)
+                                .aggregations(QueryAggregation.count(), QueryAggregation.sum("value1"))
+                                .build())
+                        .build())
+                .build();
+
+        // When
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+
+            // Then
+            assertThat(results).toIterable().containsExactly(
+                    new Record(Map.of("key", 4L, "count", 2L, "sum_value1", 80L)),
+                    new Record(Map.of("key", 5L, "count", 2L, "sum_value1", 100L)),
+                    new Record(Map.of("key", 6L, "count", 2L, "sum_value1", 120L)));
+        }
+    }
+
+    @Test
+    public void shouldAggregateRecordsGroupedByRowKeyAcrossMorePartitionsThanCanBeOpenAtOnce() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        int numLeaves = QueryExecutor.MAX_AGGREGATION_PARTITIONS_OPEN + 4;
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .leavesWithSplits(
+                        IntStream.range(0, numLeaves).mapToObj(i -> "leaf-" + i).collect(Collectors.toList()),
+                        IntStream.range(1, numLeaves).mapToObj(i -> (Object) (long) i).collect(Collectors.toList()))
+                .anyTreeJoiningAllLeaves()
+                .buildList());
+        for (int i = 0; i < 2; i++) {
+            ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        }
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = Query.builder()
+                .tableName("myTable")
+                .queryId("id")
+                .regions(List.of(new Region(rangeFactory.createRange(field, 1L, true, 10L, true))))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .aggregations(QueryAggregations.builder()
+                                .groupByRowKeyFields(1)
+                                .aggregations(QueryAggregation.count(), QueryAggregation.sum("value1"))
+                                .build())
+                        .build())
+                .build();
+
+        // When
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+
+            // Then
+            assertThat(results).toIterable().containsExactlyElementsOf(
+                    IntStream.rangeClosed(1, 10)
+                            .mapToObj(i -> new Record(Map.of("key", (long) i, "count", 2L, "sum_value1", i * 20L)))
+                            .collect(Collectors.toList()));
+        }
+    }
+    @Test
+    public void shouldReturnOnlyKeysWhenProjectedToKeys() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema).rootFirst("root").buildList());
+        for (int i = 0; i < 2; i++) {
+            ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        }
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = Query.builder()
+                .tableName("myTable")
+                .queryId("id")
+                .regions(List.of(new Region(rangeFactory.createRange(field, 4L, true, 5L, true))))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .projection(QueryProjection.KEYS)
+                        .build())
+                .build();
+
+        // When
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+
+            // Then
+            assertThat(results).toIterable().containsExactly(
+                    new Record(Map.of("key", 4L)),
+                    new Record(Map.of("key", 4L)),
+                    new Record(Map.of("key", 5L)),
+                    new Record(Map.of("key", 5L)));
+        }
+    }
+
+    @Test
+    public void shouldReturnEachRowKeyOnceWhenProjectedToExistence() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema)
+                .rootFirst("root")
+                .splitToNewChildren("root", "left", "right", 5L)
+                .buildList());
+        for (int i = 0; i < 2; i++) {
+            ingestData(instanceProperties, stateStore, tableProperties, getMultipleRecords().iterator());
+        }
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Query query = Query.builder()
+                .tableName("myTable")
+                .queryId("id")
+                .regions(List.of(
+                        new Region(rangeFactory.createRange(field, 4L, true, 6L, true)),
+                        new Region(rangeFactory.createExactRange(field, 20L))))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .projection(QueryProjection.EXISTENCE)
+                        .build())
+                .build();
+
+        // When
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+
+            // Then
+            assertThat(results).toIterable().containsExactly(
+                    new Record(Map.of("key", 4L)),
+                    new Record(Map.of("key", 5L)),
+                    new Record(Map.of("key", 6L)));
+        }
+    }
+
     @Test
     public void shouldReturnCorrectDataWhenRecordsInMultipleFilesInMultiplePartitions()
             throws StateStoreException, IOException, IteratorException, ObjectFactoryException, QueryException {
@@ -1233,6 +1602,34 @@ public class QueryExecutorIT {
         }
     }
 
+    @Test
+    public void shouldReadFilesFoundWhenQueryWasSplitAfterStateIsRefreshed() throws Exception {
+        // Given
+        Schema schema = getLongKeySchema();
+        Field field = schema.getRowKeyFields().get(0);
+        InstanceProperties instanceProperties = createInstanceProperties();
+        TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+        StateStore stateStore = inMemoryStateStoreWithPartitions(new PartitionsBuilder(schema).rootFirst("root").buildList());
+        ingestData(instanceProperties, stateStore, tableProperties, getRecords().iterator());
+        QueryExecutor queryExecutor = new QueryExecutor(new ObjectFactory(instanceProperties, null, ""),
+                tableProperties, stateStore, new Configuration(), executorService);
+        queryExecutor.init();
+        Query query = queryWithRegion(new Region(new RangeFactory(schema).createExactRange(field, 1L)));
+        List<LeafPartitionQuery> leafPartitionQueries = queryExecutor.splitIntoLeafPartitionQueries(query);
+
+        // When
+        ingestData(instanceProperties, stateStore, tableProperties, getRecords().iterator());
+        queryExecutor.init();
+
+        // Then
+        try (CloseableIterator<Record> results = queryExecutor.execute(query, leafPartitionQueries)) {
+            assertThat(results).toIterable().containsExactly(getRecords().get(0));
+        }
+        try (CloseableIterator<Record> results = queryExecutor.execute(query)) {
+            assertThat(results).toIterable().containsExactly(getRecords().get(0), getRecords().get(0));
+        }
+    }
+
     private Query queryWithRegion(Region region) {
         return Query.builder()
                 .tableName("myTable")
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.lambda;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.jupiter.api.Test;
+
+import sleeper.configuration.jars.ObjectFactory;
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.range.Range;
+import sleeper.core.range.Region;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.statestore.FileInfoFactory;
+import sleeper.core.statestore.StateStore;
+import sleeper.query.executor.QueryExecutor;
+import sleeper.query.model.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.configuration.properties.table.TableProperty.ITERATOR_CONFIG;
+import static sleeper.configuration.properties.table.TableProperty.TABLE_ID;
+import static sleeper.configuration.properties.table.TableProperty.TABLE_NAME;
+import static sleeper.core.statestore.inmemory.StateStoreTestHelper.inMemoryStateStoreWithFixedPartitions;
+
+public class QueryExecutorCacheTest {
+    private final Schema schema = Schema.builder().rowKeyFields(new Field("key", new LongType())).build();
+    private final TableProperties tableProperties = createTableProperties();
+    private final PartitionTree partitions = new PartitionsBuilder(schema).singlePartition("root").buildTree();
+    private final StateStore stateStore = inMemoryStateStoreWithFixedPartitions(partitions.getAllPartitions());
+    private final FileInfoFactory fileInfoFactory = new FileInfoFactory(schema, partitions.getAllPartitions());
+    private final Query query = Query.builder()
+            .tableName("test-table")
+            .queryId("query-id")
+            .regions(List.of(new Region(new Range.RangeFactory(schema).createRange("key", 1L, 10L))))
+            .build();
+    private Instant currentTime = Instant.parse("2024-01-01T12:00:00Z");
+
+    @Test
+    void shouldNotReloadFilesWithinRefreshPeriod() throws Exception {
+        // Given
+        QueryExecutorCache cache = createCache(Duration.ofMinutes(1));
+        stateStore.addFile(fileInfoFactory.rootFile("file1.parquet", 10));
+        cache.getExecutor(tableProperties);
+        stateStore.addFile(fileInfoFactory.rootFile("file2.parquet", 10));
+
+        // When
+        currentTime = currentTime.plus(Duration.ofSeconds(59));
+        QueryExecutor executor = cache.getExecutor(tableProperties);
+
+        // Then
+        assertThat(filesInQuery(executor)).containsExactly("file1.parquet");
+    }
+
+    @Test
+    void shouldReloadFilesBeforeQueryWhenOlderThanRefreshPeriod() throws Exception {
+        // Given
+        QueryExecutorCache cache = createCache(Duration.ofMinutes(1));
+        stateStore.addFile(fileInfoFactory.rootFile("file1.parquet", 10));
+        cache.getExecutor(tableProperties);
+        stateStore.addFile(fileInfoFactory.rootFile("file2.parquet", 10));
+
+        // When
+        currentTime = currentTime.plus(Duration.ofSeconds(61));
+        QueryExecutor executor = cache.getExecutor(tableProperties);
+
+        // Then
+        assertThat(filesInQuery(executor)).containsExactlyInAnyOrder("file1.parquet", "file2.parquet");
+    }
+
+    @Test
+    void shouldRecreateExecutorWhenTablePropertiesChange() throws Exception {
+        // Given
+        QueryExecutorCache cache = createCache(Duration.ofMinutes(1));
+        QueryExecutor executorBefore = cache.getExecutor(tableProperties);
+        TableProperties changedProperties = TableProperties.copyOf(tableProperties);
+        changedProperties.set(ITERATOR_CONFIG, "changed");
+
+        // When
+        QueryExecutor executorAfterChange = cache.getExecutor(changedProperties);
+        QueryExecutor executorAfterNoChange = cache.getExecutor(changedProperties);
+
+        // Then
+        assertThat(executorAfterChange).isNotSameAs(executorBefore);
+        assertThat(executorAfterNoChange).isSameAs(executorAfterChange);
+    }
+
+    private QueryExecutorCache createCache(Duration refreshPeriod) {
+        return new QueryExecutorCache(properties -> new QueryExecutor(ObjectFactory.noUserJars(), properties,
+                stateStore, new Configuration(), null), refreshPeriod, () -> currentTime, null);
+    }
+
+    private List<String> filesInQuery(QueryExecutor executor) {
+        return executor.splitIntoLeafPartitionQueries(query).stream()
+                .flatMap(leafQuery -> leafQuery.getFiles().stream())
+                .collect(Collectors.toList());
+    }
+
+    private TableProperties createTableProperties() {
+        TableProperties properties = new TableProperties(new InstanceProperties());
+        properties.set(TABLE_ID, "test-table-id");
+        properties.set(TABLE_NAME, "test-table");
+        properties.setSchema(schema);
+        return properties;
+    }
+}
@@ -69,6 +69,8 @@ import sleeper.ingest.IngestFactory;
 import sleeper.io.parquet.record.ParquetReaderIterator;
 import sleeper.io.parquet.record.ParquetRecordReader;
 import sleeper.query.model.Query;
+import sleeper.query.model.QueryAggregation;
+import sleeper.query.model.QueryAggregations;
 import sleeper.query.model.QueryProcessingConfig;
 import sleeper.query.model.QuerySerDe;
 import sleeper.query.model.output.ResultsOutputConstants;
@@ -263,6 +265,44 @@ public class SqsQueryProcessorLambdaIT {
                 .isEqualTo(builder.lastKnownState(COMPLETED).recordCount(1461L).build());
     }
 
+    @Test
+    public void shouldMergePartialAggregationsWhenAllSubQueriesHaveFinished() throws Exception {
+        // Given
+        TableProperties timeSeriesTable = createTimeSeriesTable(2000, 2020);
+        loadData(timeSeriesTable, 2005, 2008);
+        RangeFactory rangeFactory = new RangeFactory(SCHEMA);
+        Range range1 = rangeFactory.createRange(SCHEMA.getRowKeyFields().get(0), 2000, true, 2010, true);
+        Range range2 = rangeFactory.createRange(SCHEMA.getRowKeyFields().get(1), 0, true, null, true);
+        Range range3 = rangeFactory.createRange(SCHEMA.getRowKeyFields().get(2), 0, true, null, true);
+        QueryAggregations aggregations = QueryAggregations.builder()
+                .aggregations(QueryAggregation.count())
+                .build();
+        Query query = Query.builder()
+                .tableName(timeSeriesTable.get(TABLE_NAME))
+                .queryId("abc")
+                .regions(List.of(new Region(List.of(range1, range2, range3))))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .aggregations(aggregations)
+                        .build())
+                .build();
+        processQuery(query);
+
+        // When
+        processQueriesFromQueue(4);
+
+        // Then
+        assertThat(queryTracker.getAllQueries())
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("lastUpdateTime", "expiryDate")
+                .containsExactly(trackedQuery()
+                        .queryId("abc")
+                        .lastKnownState(COMPLETED)
+                        .recordCount(1L)
+                        .build());
+        assertThat(getRecordsInFileOutput(instanceProperties, query, aggregations.getResultSchema(SCHEMA)))
+                .extracting(record -> record.get("count"))
+                .containsExactly(1461L);
+    }
+
     @Test
     public void shouldSetStatusOfQueryToCOMPLETEDWhenOnlyOneSubQueryIsCreated() throws Exception {
         // Given
@@ -644,6 +684,19 @@ public class SqsQueryProcessorLambdaIT {
         return numberOfRecordsInOutput;
     }
 
+    private List<Record> getRecordsInFileOutput(InstanceProperties instanceProperties, Query query, Schema schema) throws IOException {
+        String outputDir = instanceProperties.get(FILE_SYSTEM) + instanceProperties.get(QUERY_RESULTS_BUCKET) + "/query-" + query.getQueryId();
+        List<Record> records = new ArrayList<>();
+        RemoteIterator<LocatedFileStatus> outputFiles = FileSystem.get(new Configuration()).listFiles(new Path(outputDir), true);
+        while (outputFiles.hasNext()) {
+            LocatedFileStatus outputFile = outputFiles.next();
+            try (ParquetReader<Record> reader = new ParquetRecordReader.Builder(outputFile.getPath(), schema).build()) {
+                new ParquetReaderIterator(reader).forEachRemaining(records::add);
+            }
+        }
+        return records;
+    }
+
     private void processQuery(Query query) throws Exception {
         QuerySerDe querySerDe = new QuerySerDe(new TablePropertiesProvider(instanceProperties, s3Client, dynamoClient));
         String jsonQuery = querySerDe.toJson(query);
@@ -689,6 +689,57 @@ public class QuerySerDeTest {
         assertThat(deserialisedQuery).isEqualTo(query);
     }
 
+    @ParameterizedTest()
+    @MethodSource("alternateTestParameters")
+    public void shouldSerDeQueryWithAggregations(boolean useTablePropertiesProvider) {
+        // Given
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Region region = new Region(rangeFactory.createRange(field, 1, true, 5, true));
+        Query query = Query.builder()
+                .tableName("my-table")
+                .queryId("id")
+                .regions(List.of(region))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .aggregations(QueryAggregations.builder()
+                                .groupByRowKeyFields(1)
+                                .aggregations(QueryAggregation.count(), QueryAggregation.max("value1"))
+                                .build())
+                        .build())
+                .build();
+        QuerySerDe querySerDe = generateQuerySerDe("my-table", schema, useTablePropertiesProvider);
+
+        // When
+        Query deserialisedQuery = querySerDe.fromJsonOrLeafQuery(querySerDe.toJson(query))
+                .asParentQuery();
+
+        // Then
+        assertThat(deserialisedQuery).isEqualTo(query);
+    }
+
+    @ParameterizedTest()
+    @MethodSource("alternateTestParameters")
+    public void shouldSerDeQueryWithProjection(boolean useTablePropertiesProvider) {
+        // Given
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Region region = new Region(rangeFactory.createExactRange(field, 1));
+        Query query = Query.builder()
+                .tableName("my-table")
+                .queryId("id")
+                .regions(List.of(region))
+                .processingConfig(QueryProcessingConfig.builder()
+                        .projection(QueryProjection.EXISTENCE)
+                        .build())
+                .build();
+        QuerySerDe querySerDe = generateQuerySerDe("my-table", schema, useTablePropertiesProvider);
+
+        // When
+        Query deserialisedQuery = querySerDe.fromJsonOrLeafQuery(querySerDe.toJson(query))
+                .asParentQuery();
+
+        // Then
+        assertThat(deserialisedQuery).isEqualTo(query);
+    }
+
     @ParameterizedTest()
     @MethodSource("alternateTestParameters")
     public void shouldThrowExceptionWithNullTableName(boolean useTablePropertiesProvider) {
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.model.output;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.core.iterator.WrappedIterator;
+import sleeper.core.record.Record;
+import sleeper.core.schema.Field;
+import sleeper.core.schema.Schema;
+import sleeper.core.schema.type.IntType;
+import sleeper.core.schema.type.LongType;
+import sleeper.core.schema.type.StringType;
+import sleeper.query.model.Query;
+import sleeper.query.model.QueryOrLeafPartitionQuery;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.QUERY_RESULTS_BUCKET;
+import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
+
+class ArrowResultsOutputIT {
+    @TempDir
+    public Path tempDir;
+
+    InstanceProperties instanceProperties = new InstanceProperties();
+    Schema schema = Schema.builder()
+            .rowKeyFields(new Field("key", new StringType()))
+            .sortKeyFields(new Field("timestamp", new LongType()))
+            .valueFields(new Field("count", new IntType()), new Field("label", new StringType()))
+            .build();
+    List<Record> recordList = IntStream.range(0, 25)
+            .mapToObj(i -> new Record(Map.of("key", "key-" + i, "timestamp", 1000L + i, "count", i, "label", "label-" + i)))
+            .collect(Collectors.toList());
+    Query query = Query.builder()
+            .tableName("table")
+            .queryId("query-id")
+            .regions(List.of())
+            .build();
+
+    @BeforeEach
+    public void setup() {
+        instanceProperties.set(QUERY_RESULTS_BUCKET, UUID.randomUUID().toString());
+        instanceProperties.set(FILE_SYSTEM, tempDir.toString() + "/");
+    }
+
+    @Test
+    void shouldWriteRecordsToArrowFileInBatches() throws Exception {
+        // Given
+        ResultsOutput resultsOutput = new ArrowResultsOutput(instanceProperties, schema,
+                Map.of(ArrowResultsOutput.BATCH_SIZE, "10"));
+
+        // When
+        ResultsOutputInfo info = resultsOutput.publish(new QueryOrLeafPartitionQuery(query), new WrappedIterator<>(recordList.iterator()));
+
+        // Then
+        assertThat(info.getRecordCount()).isEqualTo(25);
+        assertThat(info.getError()).isNull();
+        assertThat(ArrowResultsOutput.readRecords(Files.readAllBytes(getArrowFile())))
+                .containsExactlyElementsOf(recordList);
+    }
+
+    @Test
+    void shouldWriteOnlyRequestedValueFields() throws Exception {
+        // Given
+        ResultsOutput resultsOutput = new ArrowResultsOutput(instanceProperties, schema, Map.of());
+        Query requestedFieldsQuery = query.withRequestedValueFields(List.of("count"));
+
+        // When
+        resultsOutput.publish(new QueryOrLeafPartitionQuery(requestedFieldsQuery), new WrappedIterator<>(recordList.subList(0, 1).iterator()));
+
+        // Then
+        assertThat(ArrowResultsOutput.readRecords(Files.readAllBytes(getArrowFile())))
+                .containsExactly(new Record(Map.of("key", "key-0", "timestamp", 1000L, "count", 0)));
+    }
+
+    @Test
+    void shouldReadWebSocketBatchesAfterSchemaIsSentOnce() throws Exception {
+        // Given
+        List<byte[]> messages = new ArrayList<>();
+        try (ArrowResultsEncoder encoder = new ArrowResultsEncoder(schema)) {
+            messages.add(ArrowWebSocketResultsReader.encodeMessage("query-id", encoder.encodeSchemaMessage()));
+            messages.add(ArrowWebSocketResultsReader.encodeMessage("query-id", encoder.encodeBatchMessage(recordList.subList(0, 3))));
+            messages.add(ArrowWebSocketResultsReader.encodeMessage("query-id", encoder.encodeBatchMessage(recordList.subList(3, 5))));
+        }
+
+        // When
+        List<List<Record>> batches = new ArrayList<>();
+        try (ArrowWebSocketResultsReader reader = new ArrowWebSocketResultsReader()) {
+            for (byte[] message : messages) {
+                ByteBuffer buffer = ByteBuffer.wrap(message);
+                batches.add(reader.readRecords(ArrowWebSocketResultsReader.readQueryId(buffer), buffer));
+            }
+        }
+
+        // Then
+        assertThat(batches).containsExactly(
+                List.of(), recordList.subList(0, 3), recordList.subList(3, 5));
+    }
+
+    @Test
+    void shouldReadInterleavedWebSocketBatchesForDifferentQueries() throws Exception {
+        // Given
+        Schema otherSchema = Schema.builder().rowKeyFields(new Field("id", new LongType())).build();
+        Record otherRecord = new Record(Map.of("id", 123L));
+        List<byte[]> messages = new ArrayList<>();
+        try (ArrowResultsEncoder encoder = new ArrowResultsEncoder(schema);
+             ArrowResultsEncoder otherEncoder = new ArrowResultsEncoder(otherSchema)) {
+            messages.add(ArrowWebSocketResultsReader.encodeMessage("query-1", encoder.encodeSchemaMessage()));
+            messages.add(ArrowWebSocketResultsReader.encodeMessage("query-2", otherEncoder.encodeSchemaMessage()));
+            messages.add(ArrowWebSocketResultsReader.encodeMessage("query-1", encoder.encodeBatchMessage(recordList.subList(0, 2))));
+            messages.add(ArrowWebSocketResultsReader.encodeMessage("query-2", otherEncoder.encodeBatchMessage(List.of(otherRecord))));
+        }
+
+        // When
+        Map<String, List<Record>> recordsByQueryId = new HashMap<>();
+        try (ArrowWebSocketResultsReader reader = new ArrowWebSocketResultsReader()) {
+            for (byte[] message : messages) {
+                ByteBuffer buffer = ByteBuffer.wrap(message);
+                String queryId = ArrowWebSocketResultsReader.readQueryId(buffer);
+                recordsByQueryId.computeIfAbsent(queryId, id -> new ArrayList<>())
+                        .addAll(reader.readRecords(queryId, buffer));
+            }
+        }
+
+        // Then
+        assertThat(recordsByQueryId).isEqualTo(Map.of(
+                "query-1", recordList.subList(0, 2),
+                "query-2", List.of(otherRecord)));
+    }
+
+    private Path getArrowFile() throws IOException {
+        try (Stream<Path> stream = Files.walk(tempDir)) {
+            List<Path> files = stream
+                    .filter(file -> file.toString().endsWith(".arrow"))
+                    .collect(Collectors.toList());
+            assertThat(files).as("one results Arrow file").hasSize(1);
+            return files.get(0);
+        }
+    }
+}
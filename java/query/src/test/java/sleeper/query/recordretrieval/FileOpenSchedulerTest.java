@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.query.recordretrieval;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FileOpenSchedulerTest {
+    private final ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Test
+    void shouldReturnResultsInOrderOfTasks() {
+        // Given
+        FileOpenScheduler scheduler = new FileOpenScheduler(4, false);
+        List<Callable<Integer>> tasks = IntStream.range(0, 20)
+                .mapToObj(i -> (Callable<Integer>) () -> i)
+                .collect(Collectors.toList());
+
+        // When
+        List<CompletableFuture<Integer>> futures = scheduler.submit(tasks, executorService);
+
+        // Then
+        assertThat(futures).extracting(CompletableFuture::join)
+                .containsExactlyElementsOf(IntStream.range(0, 20).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldNotRunMoreTasksAtOnceThanMaximum() {
+        // Given
+        FileOpenScheduler scheduler = new FileOpenScheduler(3, true);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<Integer>> tasks = IntStream.range(0, 30)
+                .mapToObj(i -> (Callable<Integer>) () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return i;
+                })
+                .collect(Collectors.toList());
+
+        // When
+        scheduler.submit(tasks, executorService).forEach(CompletableFuture::join);
+
+        // Then
+        assertThat(maxRunning.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void shouldReportFailureOfTask() {
+        // Given
+        FileOpenScheduler scheduler = new FileOpenScheduler(4, false);
+        List<Callable<Integer>> tasks = List.of(() -> 1, () -> {
+            throw new IllegalStateException("Failed opening file");
+        });
+
+        // When
+        List<CompletableFuture<Integer>> futures = scheduler.submit(tasks, executorService);
+
+        // Then
+        assertThat(futures.get(0).join()).isEqualTo(1);
+        assertThatThrownBy(() -> futures.get(1).join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("Failed opening file");
+    }
+
+    @Test
+    void shouldReportErrorThrownByTask() {
+        // Given
+        FileOpenScheduler scheduler = new FileOpenScheduler(4, false);
+        List<Callable<Integer>> tasks = List.of(() -> {
+            throw new Error("Failed opening file");
+        }, () -> 2);
+
+        // When
+        List<CompletableFuture<Integer>> futures = scheduler.submit(tasks, executorService);
+
+        // Then
+        assertThatThrownBy(() -> futures.get(0).join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseExactlyInstanceOf(Error.class)
+                .hasRootCauseMessage("Failed opening file");
+        assertThat(futures.get(1).join()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldGrowLimitWhileLatencyIsSteady() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 8, 64);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limit.recordLatency(50_000_000);
+        }
+
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(64);
+    }
+
+    @Test
+    void shouldReduceLimitWhenLatencyRises() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 8, 64);
+        for (int i = 0; i < 100; i++) {
+            limit.recordLatency(50_000_000);
+        }
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            limit.recordLatency(500_000_000);
+        }
+
+        // Then
+        assertThat(limit.getLimit()).isLessThan(32);
+    }
+}
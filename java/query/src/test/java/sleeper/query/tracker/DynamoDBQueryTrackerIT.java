@@ -256,6 +256,62 @@ public class DynamoDBQueryTrackerIT {
                         .errorMessage("Query has failed").build());
     }
 
+    @Nested
+    @DisplayName("Track partial results of aggregations")
+    class TrackPartialResults {
+        DynamoDBQueryTracker queryTracker;
+        Query query = createQueryWithId("parent");
+        LeafPartitionQuery subQuery1 = createSubQueryWithId("parent", "sub-1");
+        LeafPartitionQuery subQuery2 = createSubQueryWithId("parent", "sub-2");
+
+        @BeforeEach
+        void setUp() {
+            queryTracker = new DynamoDBQueryTracker(instanceProperties, dynamoDBClient);
+            queryTracker.queryInProgress(query);
+            queryTracker.partialResultsExpected(query, 2);
+        }
+
+        @Test
+        void shouldMergeWhenEverySubQueryIsReceived() {
+            // When / Then
+            assertThat(queryTracker.partialResultsReceived(subQuery1)).isFalse();
+            assertThat(queryTracker.partialResultsReceived(subQuery2)).isTrue();
+        }
+
+        @Test
+        void shouldNotCountSubQueryReceivedTwice() {
+            // When / Then
+            assertThat(queryTracker.partialResultsReceived(subQuery1)).isFalse();
+            assertThat(queryTracker.partialResultsReceived(subQuery1)).isFalse();
+            assertThat(queryTracker.partialResultsReceived(subQuery2)).isTrue();
+        }
+
+        @Test
+        void shouldMergeAgainWhenLastSubQueryIsRetriedBeforeMerged() {
+            // Given
+            queryTracker.partialResultsReceived(subQuery1);
+            queryTracker.partialResultsReceived(subQuery2);
+
+            // When / Then
+            assertThat(queryTracker.partialResultsReceived(subQuery2)).isTrue();
+            assertThat(queryTracker.isPartialResultsMerged("parent")).isFalse();
+        }
+
+        @Test
+        void shouldNotMergeAgainAfterMerged() {
+            // Given
+            queryTracker.partialResultsReceived(subQuery1);
+            queryTracker.partialResultsReceived(subQuery2);
+
+            // When
+            queryTracker.partialResultsMerged(query);
+
+            // Then
+            assertThat(queryTracker.isPartialResultsMerged("parent")).isTrue();
+            assertThat(queryTracker.partialResultsReceived(subQuery2)).isFalse();
+        }
+    }
+
     @Nested
     @DisplayName("Get tracked queries")
     class GetTrackedQueries {
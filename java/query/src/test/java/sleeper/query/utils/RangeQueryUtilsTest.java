@@ -17,6 +17,7 @@ package sleeper.query.utils;
 
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.filter2.predicate.Operators.And;
+import org.apache.parquet.filter2.predicate.Operators.Eq;
 import org.apache.parquet.filter2.predicate.Operators.GtEq;
 import org.apache.parquet.filter2.predicate.Operators.Lt;
 import org.apache.parquet.filter2.predicate.Operators.Or;
@@ -316,4 +317,64 @@ public class RangeQueryUtilsTest {
         Lt lt4 = (Lt) l3And4.getRight();
         assertThat(lt4.getValue()).isEqualTo(200);
     }
+
+    @Test
+    public void shouldDetectExactKeyQuery() {
+        // Given
+        Field field1 = new Field("key1", new LongType());
+        Field field2 = new Field("key2", new StringType());
+        Schema schema = Schema.builder().rowKeyFields(field1, field2).build();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        Region exactRegion = new Region(List.of(
+                rangeFactory.createExactRange(field1, 1L),
+                rangeFactory.createRange(field2, "A", true, "A\u0000", false)));
+        Region rangeRegion = new Region(List.of(
+                rangeFactory.createExactRange(field1, 1L),
+                rangeFactory.createRange(field2, "A", "B")));
+
+        // When / Then
+        assertThat(RangeQueryUtils.isExactKeyQuery(schema.getRowKeyFields(), List.of(exactRegion))).isTrue();
+        assertThat(RangeQueryUtils.isExactKeyQuery(schema.getRowKeyFields(), List.of(exactRegion, rangeRegion))).isFalse();
+        assertThat(RangeQueryUtils.isExactKeyQuery(schema.getRowKeyFields(), List.of())).isFalse();
+    }
+
+    @Test
+    public void shouldGiveEqualityPredicateForExactKeysInPartition() {
+        // Given
+        Field field = new Field("key", new LongType());
+        Schema schema = Schema.builder().rowKeyFields(field).build();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        List<Region> regions = List.of(
+                new Region(rangeFactory.createExactRange(field, 1L)),
+                new Region(rangeFactory.createExactRange(field, 200L)),
+                new Region(rangeFactory.createExactRange(field, 2L)));
+        Region partitionRegion = new Region(rangeFactory.createRange(field, 0L, 100L));
+
+        // When
+        FilterPredicate predicate = RangeQueryUtils.getFilterPredicateForExactKeys(schema.getRowKeyFields(), regions, partitionRegion)
+                .orElseThrow();
+
+        // Then
+        assertThat(predicate).isInstanceOf(Or.class);
+        FilterPredicate left = ((Or) predicate).getLeft();
+        FilterPredicate right = ((Or) predicate).getRight();
+        assertThat(left).isInstanceOf(Eq.class);
+        assertThat(((Eq) left).getValue()).isEqualTo(1L);
+        assertThat(right).isInstanceOf(Eq.class);
+        assertThat(((Eq) right).getValue()).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldGiveNoPredicateWhenNoExactKeysAreInPartition() {
+        // Given
+        Field field = new Field("key", new StringType());
+        Schema schema = Schema.builder().rowKeyFields(field).build();
+        RangeFactory rangeFactory = new RangeFactory(schema);
+        List<Region> regions = List.of(new Region(rangeFactory.createExactRange(field, "Z")));
+        Region partitionRegion = new Region(rangeFactory.createRange(field, "", "M"));
+
+        // When / Then
+        assertThat(RangeQueryUtils.getFilterPredicateForExactKeys(schema.getRowKeyFields(), regions, partitionRegion))
+                .isEmpty();
+    }
 }
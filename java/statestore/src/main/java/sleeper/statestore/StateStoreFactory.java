@@ -23,6 +23,7 @@ import sleeper.configuration.properties.table.TableProperties;
 import sleeper.core.statestore.StateStore;
 import sleeper.statestore.dynamodb.DynamoDBStateStore;
 import sleeper.statestore.s3.S3StateStore;
+import sleeper.statestore.transactionlog.DynamoDBTransactionLogStateStore;
 
 import static sleeper.configuration.properties.table.TableProperty.STATESTORE_CLASSNAME;
 
@@ -45,6 +46,9 @@ public class StateStoreFactory {
         if (stateStoreClassName.equals(S3StateStore.class.getName())) {
             return new S3StateStore(instanceProperties, tableProperties, dynamoDB, configuration);
         }
+        if (stateStoreClassName.equals(DynamoDBTransactionLogStateStore.class.getName())) {
+            return new DynamoDBTransactionLogStateStore(instanceProperties, tableProperties, dynamoDB, configuration);
+        }
         throw new RuntimeException("Unknown StateStore class: " + stateStoreClassName);
     }
 }
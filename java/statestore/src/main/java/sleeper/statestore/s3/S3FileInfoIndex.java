@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.statestore.s3;
+
+import sleeper.core.statestore.FileInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static sleeper.statestore.s3.S3RevisionUtils.RevisionId;
+
+/**
+ * The file information held in one revision of the S3 state store, indexed by file name, status and partition. Active
+ * files with no job ID are also held separately. This is immutable, so it can be cached and shared between threads
+ * until the revision changes.
+ */
+class S3FileInfoIndex {
+    private static final Comparator<FileInfo> BY_UPDATE_TIME = Comparator.comparingLong(FileInfo::getLastStateStoreUpdateTime);
+
+    private final RevisionId revisionId;
+    private final List<FileInfo> allFiles;
+    private final Map<String, FileInfo> filenameToFile;
+    private final List<FileInfo> activeFiles;
+    private final List<FileInfo> activeFilesWithNoJobId;
+    private final Map<String, List<String>> partitionToActiveFilenames;
+    private final List<FileInfo> readyForGCFilesByUpdateTime;
+
+    S3FileInfoIndex(RevisionId revisionId, List<FileInfo> files) {
+        this.revisionId = revisionId;
+        this.allFiles = Collections.unmodifiableList(new ArrayList<>(files));
+        this.filenameToFile = new HashMap<>();
+        this.activeFiles = new ArrayList<>();
+        this.activeFilesWithNoJobId = new ArrayList<>();
+        this.partitionToActiveFilenames = new LinkedHashMap<>();
+        this.readyForGCFilesByUpdateTime = new ArrayList<>();
+        for (FileInfo file : files) {
+            filenameToFile.put(file.getFilename(), file);
+            if (FileInfo.FileStatus.ACTIVE == file.getFileStatus()) {
+                activeFiles.add(file);
+                if (null == file.getJobId()) {
+                    activeFilesWithNoJobId.add(file);
+                }
+                partitionToActiveFilenames.computeIfAbsent(file.getPartitionId(), id -> new ArrayList<>())
+                        .add(file.getFilename());
+            } else if (FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION == file.getFileStatus()) {
+                readyForGCFilesByUpdateTime.add(file);
+            }
+        }
+        readyForGCFilesByUpdateTime.sort(BY_UPDATE_TIME);
+    }
+
+    static S3FileInfoIndex empty() {
+        return new S3FileInfoIndex(null, Collections.emptyList());
+    }
+
+    boolean isRevision(RevisionId revisionId) {
+        return null != this.revisionId && this.revisionId.equals(revisionId);
+    }
+
+    List<FileInfo> getAllFiles() {
+        return allFiles;
+    }
+
+    FileInfo getFile(String filename) {
+        return filenameToFile.get(filename);
+    }
+
+    boolean isEmpty() {
+        return allFiles.isEmpty();
+    }
+
+    List<FileInfo> getActiveFiles() {
+        return new ArrayList<>(activeFiles);
+    }
+
+    List<FileInfo> getActiveFilesWithNoJobId() {
+        return new ArrayList<>(activeFilesWithNoJobId);
+    }
+
+    Map<String, List<String>> getPartitionToActiveFilesMap() {
+        Map<String, List<String>> map = new HashMap<>();
+        partitionToActiveFilenames.forEach((partitionId, filenames) -> map.put(partitionId, new ArrayList<>(filenames)));
+        return map;
+    }
+
+    /**
+     * Retrieves files which are ready for garbage collection and were last updated before a given time. The files are
+     * held sorted by update time, so only the files that are returned are read.
+     *
+     * @param  maxUpdateTime the time in milliseconds since the epoch that files must have been updated before
+     * @return               the files ready for garbage collection
+     */
+    List<FileInfo> getReadyForGCFilesUpdatedBefore(long maxUpdateTime) {
+        List<FileInfo> files = new ArrayList<>();
+        for (FileInfo file : readyForGCFilesByUpdateTime) {
+            if (file.getLastStateStoreUpdateTime() >= maxUpdateTime) {
+                break;
+            }
+            files.add(file);
+        }
+        return files;
+    }
+}
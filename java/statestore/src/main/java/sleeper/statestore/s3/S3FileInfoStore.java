@@ -28,6 +28,7 @@ import sleeper.core.schema.Field;
 import sleeper.core.schema.Schema;
 import sleeper.core.schema.type.LongType;
 import sleeper.core.schema.type.StringType;
+import sleeper.core.statestore.AssignJobIdRequest;
 import sleeper.core.statestore.FileInfo;
 import sleeper.core.statestore.FileInfoStore;
 import sleeper.core.statestore.StateStoreException;
@@ -65,6 +66,7 @@ class S3FileInfoStore implements FileInfoStore {
     private final Configuration conf;
     private final S3RevisionUtils s3RevisionUtils;
     private Clock clock = Clock.systemUTC();
+    private volatile S3FileInfoIndex cachedIndex = S3FileInfoIndex.empty();
 
     private S3FileInfoStore(Builder builder) {
         this.stateStorePath = Objects.requireNonNull(builder.stateStorePath, "stateStorePath must not be null");
@@ -112,12 +114,11 @@ class S3FileInfoStore implements FileInfoStore {
                 .map(FileInfo::getFilename)
                 .collect(Collectors.toSet());
 
-        Function<List<FileInfo>, String> condition = list -> {
-            Map<String, FileInfo> fileNameToFileInfo = new HashMap<>();
-            list.forEach(f -> fileNameToFileInfo.put(f.getFilename(), f));
+        Function<S3FileInfoIndex, String> condition = index -> {
             for (FileInfo fileInfo : filesToBeMarkedReadyForGC) {
-                if (!fileNameToFileInfo.containsKey(fileInfo.getFilename())
-                        || !fileNameToFileInfo.get(fileInfo.getFilename()).getFileStatus().equals(FileInfo.FileStatus.ACTIVE)) {
+                FileInfo currentFileInfo = index.getFile(fileInfo.getFilename());
+                if (null == currentFileInfo
+                        || !currentFileInfo.getFileStatus().equals(FileInfo.FileStatus.ACTIVE)) {
                     return "Files in filesToBeMarkedReadyForGC should be active: file " + fileInfo.getFilename() + " is not active";
                 }
             }
@@ -154,12 +155,11 @@ class S3FileInfoStore implements FileInfoStore {
         Set<String> namesOfFilesToBeMarkedReadyForGC = new HashSet<>();
         filesToBeMarkedReadyForGC.stream().map(FileInfo::getFilename).forEach(namesOfFilesToBeMarkedReadyForGC::add);
 
-        Function<List<FileInfo>, String> condition = list -> {
-            Map<String, FileInfo> fileNameToFileInfo = new HashMap<>();
-            list.forEach(f -> fileNameToFileInfo.put(f.getFilename(), f));
+        Function<S3FileInfoIndex, String> condition = index -> {
             for (FileInfo fileInfo : filesToBeMarkedReadyForGC) {
-                if (!fileNameToFileInfo.containsKey(fileInfo.getFilename())
-                        || !fileNameToFileInfo.get(fileInfo.getFilename()).getFileStatus().equals(FileInfo.FileStatus.ACTIVE)) {
+                FileInfo currentFileInfo = index.getFile(fileInfo.getFilename());
+                if (null == currentFileInfo
+                        || !currentFileInfo.getFileStatus().equals(FileInfo.FileStatus.ACTIVE)) {
                     return "Files in filesToBeMarkedReadyForGC should be active: file " + fileInfo.getFilename() + " is not active";
                 }
             }
@@ -190,17 +190,27 @@ class S3FileInfoStore implements FileInfoStore {
 
     @Override
     public void atomicallyUpdateJobStatusOfFiles(String jobId, List<FileInfo> fileInfos) throws StateStoreException {
+        atomicallyAssignJobIdsToFiles(List.of(AssignJobIdRequest.assignJobOnFiles(jobId, fileInfos)));
+    }
+
+    @Override
+    public void atomicallyAssignJobIdsToFiles(List<AssignJobIdRequest> requests) throws StateStoreException {
         long updateTime = clock.millis();
-        Set<String> namesOfFiles = new HashSet<>();
-        fileInfos.stream().map(FileInfo::getFilename).forEach(namesOfFiles::add);
-
-        Function<List<FileInfo>, String> condition = list -> {
-            Map<String, FileInfo> fileNameToFileInfo = new HashMap<>();
-            list.forEach(f -> fileNameToFileInfo.put(f.getFilename(), f));
-            for (FileInfo fileInfo : fileInfos) {
-                if (!fileNameToFileInfo.containsKey(fileInfo.getFilename())
-                        || null != fileNameToFileInfo.get(fileInfo.getFilename()).getJobId()) {
-                    return "Files should have a null job status: file " + fileInfo.getFilename() + " doesn't meet this criteria";
+        Map<String, String> filenameToJobId = new HashMap<>();
+        for (AssignJobIdRequest request : requests) {
+            for (FileInfo fileInfo : request.getFiles()) {
+                if (null != filenameToJobId.put(fileInfo.getFilename(), request.getJobId())) {
+                    throw new StateStoreException("File " + fileInfo.getFilename() + " is in more than one job");
+                }
+            }
+        }
+
+        Function<S3FileInfoIndex, String> condition = index -> {
+            for (String filename : filenameToJobId.keySet()) {
+                FileInfo currentFileInfo = index.getFile(filename);
+                if (null == currentFileInfo
+                        || null != currentFileInfo.getJobId()) {
+                    return "Files should have a null job status: file " + filename + " doesn't meet this criteria";
                 }
             }
             return "";
@@ -209,7 +219,8 @@ class S3FileInfoStore implements FileInfoStore {
         Function<List<FileInfo>, List<FileInfo>> update = list -> {
             List<FileInfo> filteredFiles = new ArrayList<>();
             for (FileInfo fileInfo : list) {
-                if (namesOfFiles.contains(fileInfo.getFilename())) {
+                String jobId = filenameToJobId.get(fileInfo.getFilename());
+                if (null != jobId) {
                     fileInfo = fileInfo.toBuilder().jobId(jobId)
                             .lastStateStoreUpdateTime(updateTime)
                             .build();
@@ -231,11 +242,8 @@ class S3FileInfoStore implements FileInfoStore {
     @Override
     public void deleteReadyForGCFile(FileInfo readyForGCFileInfo) throws StateStoreException {
         long updateTime = clock.millis();
-        Function<List<FileInfo>, String> condition = list -> {
-            Map<String, FileInfo> fileNameToFileInfo = new HashMap<>();
-            list.forEach(f -> fileNameToFileInfo.put(f.getFilename(), f));
-
-            FileInfo currentFileInfo = fileNameToFileInfo.get(readyForGCFileInfo.getFilename());
+        Function<S3FileInfoIndex, String> condition = index -> {
+            FileInfo currentFileInfo = index.getFile(readyForGCFileInfo.getFilename());
             if (!currentFileInfo.getFileStatus().equals(FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION)) {
                 return "File to be deleted should be marked as ready for GC, got " + currentFileInfo.getFileStatus();
             }
@@ -261,14 +269,8 @@ class S3FileInfoStore implements FileInfoStore {
 
     @Override
     public List<FileInfo> getActiveFiles() throws StateStoreException {
-        // TODO Optimise the following by pushing the predicate down to the Parquet reader
-        RevisionId revisionId = getCurrentFilesRevisionId();
-        if (null == revisionId) {
-            return Collections.emptyList();
-        }
         try {
-            List<FileInfo> fileInfos = readFileInfosFromParquet(getFilesPath(revisionId));
-            return fileInfos.stream().filter(f -> f.getFileStatus().equals(FileInfo.FileStatus.ACTIVE)).collect(Collectors.toList());
+            return loadCurrentIndex().getActiveFiles();
         } catch (IOException e) {
             throw new StateStoreException("IOException retrieving active files", e);
         }
@@ -276,19 +278,10 @@ class S3FileInfoStore implements FileInfoStore {
 
     @Override
     public Iterator<FileInfo> getReadyForGCFiles() throws StateStoreException {
-        // TODO Optimise the following by pushing the predicate down to the Parquet reader
         try {
             long delayInMilliseconds = 1000L * 60L * garbageCollectorDelayBeforeDeletionInMinutes;
             long deleteTime = clock.millis() - delayInMilliseconds;
-            List<FileInfo> fileInfos = readFileInfosFromParquet(getFilesPath(getCurrentFilesRevisionId()));
-            List<FileInfo> filesReadyForGC = fileInfos.stream().filter(f -> {
-                if (!f.getFileStatus().equals(FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION)) {
-                    return false;
-                }
-                long lastUpdateTime = f.getLastStateStoreUpdateTime();
-                return lastUpdateTime < deleteTime;
-            }).collect(Collectors.toList());
-            return filesReadyForGC.iterator();
+            return loadCurrentIndex().getReadyForGCFilesUpdatedBefore(deleteTime).iterator();
         } catch (IOException e) {
             throw new StateStoreException("IOException retrieving ready for GC files", e);
         }
@@ -296,15 +289,8 @@ class S3FileInfoStore implements FileInfoStore {
 
     @Override
     public List<FileInfo> getActiveFilesWithNoJobId() throws StateStoreException {
-        // TODO Optimise the following by pushing the predicate down to the Parquet reader
         try {
-            List<FileInfo> fileInfos = readFileInfosFromParquet(getFilesPath(getCurrentFilesRevisionId()));
-            return fileInfos.stream().filter(f -> {
-                if (!f.getFileStatus().equals(FileInfo.FileStatus.ACTIVE)) {
-                    return false;
-                }
-                return null == f.getJobId();
-            }).collect(Collectors.toList());
+            return loadCurrentIndex().getActiveFilesWithNoJobId();
         } catch (IOException e) {
             throw new StateStoreException("IOException retrieving active files with no job id", e);
         }
@@ -312,31 +298,26 @@ class S3FileInfoStore implements FileInfoStore {
 
     @Override
     public Map<String, List<String>> getPartitionToActiveFilesMap() throws StateStoreException {
-        List<FileInfo> files = getActiveFiles();
-        Map<String, List<String>> partitionToFiles = new HashMap<>();
-        for (FileInfo fileInfo : files) {
-            String partition = fileInfo.getPartitionId();
-            if (!partitionToFiles.containsKey(partition)) {
-                partitionToFiles.put(partition, new ArrayList<>());
-            }
-            partitionToFiles.get(partition).add(fileInfo.getFilename());
+        try {
+            return loadCurrentIndex().getPartitionToActiveFilesMap();
+        } catch (IOException e) {
+            throw new StateStoreException("IOException retrieving active files", e);
         }
-        return partitionToFiles;
     }
 
     private void updateFiles(Function<List<FileInfo>, List<FileInfo>> update) throws IOException, StateStoreException {
         updateFiles(update, l -> "");
     }
 
-    private void updateFiles(Function<List<FileInfo>, List<FileInfo>> update, Function<List<FileInfo>, String> condition)
+    private void updateFiles(Function<List<FileInfo>, List<FileInfo>> update, Function<S3FileInfoIndex, String> condition)
             throws IOException, StateStoreException {
         int numberAttempts = 0;
         while (numberAttempts < 10) {
             RevisionId revisionId = getCurrentFilesRevisionId();
             String filesPath = getFilesPath(revisionId);
-            List<FileInfo> files;
+            S3FileInfoIndex index;
             try {
-                files = readFileInfosFromParquet(filesPath);
+                index = loadIndex(revisionId);
                 LOGGER.debug("Attempt number {}: reading file information (revisionId = {}, path = {})",
                         numberAttempts, revisionId, filesPath);
             } catch (IOException e) {
@@ -347,13 +328,13 @@ class S3FileInfoStore implements FileInfoStore {
             }
 
             // Check condition
-            String conditionCheck = condition.apply(files);
+            String conditionCheck = condition.apply(index);
             if (!conditionCheck.isEmpty()) {
                 throw new StateStoreException("Conditional check failed: " + conditionCheck);
             }
 
             // Apply update
-            List<FileInfo> updatedFiles = update.apply(files);
+            List<FileInfo> updatedFiles = update.apply(new ArrayList<>(index.getAllFiles()));
             LOGGER.debug("Applied update to file information");
 
             // Attempt to write update
@@ -371,6 +352,7 @@ class S3FileInfoStore implements FileInfoStore {
             try {
                 conditionalUpdateOfFileInfoRevisionId(revisionId, nextRevisionId);
                 LOGGER.debug("Updated file information to revision {}", nextRevisionId);
+                cachedIndex = new S3FileInfoIndex(nextRevisionId, updatedFiles);
                 break;
             } catch (ConditionalCheckFailedException e) {
                 LOGGER.info("Attempt number {} to update files failed with conditional check failure, deleting file {} and retrying ({}) ",
@@ -397,6 +379,32 @@ class S3FileInfoStore implements FileInfoStore {
     }
 
 
+    private S3FileInfoIndex loadCurrentIndex() throws IOException {
+        return loadIndex(getCurrentFilesRevisionId());
+    }
+
+    /**
+     * Loads the file information for a revision. The files are only read from S3 if the revision has changed since
+     * they were last loaded or updated by this process.
+     *
+     * @param  revisionId  the revision to load
+     * @return             the file information in that revision
+     * @throws IOException if the files could not be read
+     */
+    private S3FileInfoIndex loadIndex(RevisionId revisionId) throws IOException {
+        if (null == revisionId) {
+            return S3FileInfoIndex.empty();
+        }
+        S3FileInfoIndex index = cachedIndex;
+        if (index.isRevision(revisionId)) {
+            LOGGER.debug("Using cached file information for revision {}", revisionId);
+            return index;
+        }
+        index = new S3FileInfoIndex(revisionId, readFileInfosFromParquet(getFilesPath(revisionId)));
+        cachedIndex = index;
+        return index;
+    }
+
     private RevisionId getCurrentFilesRevisionId() {
         return s3RevisionUtils.getCurrentFilesRevisionId();
     }
@@ -435,6 +443,10 @@ class S3FileInfoStore implements FileInfoStore {
         if (revisionId == null) {
             return true;
         }
+        S3FileInfoIndex index = cachedIndex;
+        if (index.isRevision(revisionId)) {
+            return index.isEmpty();
+        }
         String path = getFilesPath(revisionId);
         try (ParquetReader<Record> reader = fileInfosReader(path)) {
             return reader.read() == null;
@@ -452,6 +464,7 @@ class S3FileInfoStore implements FileInfoStore {
             throw new UncheckedIOException(e);
         }
         s3RevisionUtils.deleteFilesRevision();
+        cachedIndex = S3FileInfoIndex.empty();
     }
 
     private String getFilesPath(RevisionId revisionId) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.statestore.transactionlog;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import org.apache.hadoop.conf.Configuration;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.configuration.properties.table.TableProperty;
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.transactionlog.TransactionLogStateStore;
+import sleeper.core.statestore.transactionlog.TransactionSerDe;
+
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.DATA_BUCKET;
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.TRANSACTION_LOG_TABLENAME;
+import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
+import static sleeper.configuration.properties.table.TableProperty.GARBAGE_COLLECTOR_DELAY_BEFORE_DELETION;
+import static sleeper.configuration.properties.table.TableProperty.TRANSACTION_LOG_SNAPSHOT_INTERVAL;
+
+/**
+ * An implementation of StateStore that holds every update as a transaction in a log in DynamoDB. The state is built up
+ * in memory by replaying the log, and each update only writes a single small item, rather than rewriting the whole
+ * state. Transactions too large for a DynamoDB item are written to S3, with a pointer held in the log. Snapshots of
+ * the state are periodically written to S3 as JSON, so that readers can start from the latest snapshot rather than
+ * replaying the whole log.
+ */
+public class DynamoDBTransactionLogStateStore extends TransactionLogStateStore {
+
+    public DynamoDBTransactionLogStateStore(InstanceProperties instanceProperties,
+                                            TableProperties tableProperties,
+                                            AmazonDynamoDB dynamoDB,
+                                            Configuration conf) {
+        super(builder(instanceProperties, tableProperties, dynamoDB, conf));
+    }
+
+    private static Builder builder(InstanceProperties instanceProperties,
+                                   TableProperties tableProperties,
+                                   AmazonDynamoDB dynamoDB,
+                                   Configuration conf) {
+        Schema schema = tableProperties.getSchema();
+        TransactionSerDe serDe = new TransactionSerDe(schema);
+        String dynamoTableName = instanceProperties.get(TRANSACTION_LOG_TABLENAME);
+        String tableId = tableProperties.get(TableProperty.TABLE_ID);
+        String snapshotsPath = instanceProperties.get(FILE_SYSTEM)
+                + instanceProperties.get(DATA_BUCKET) + "/"
+                + tableId + "/"
+                + "statestore/transactionlog";
+        return builder()
+                .filesLogStore(new DynamoDBTransactionLogStore(dynamoDB, dynamoTableName, tableId + "-files", serDe,
+                        snapshotsPath + "/files-transactions", conf))
+                .partitionsLogStore(new DynamoDBTransactionLogStore(dynamoDB, dynamoTableName, tableId + "-partitions", serDe,
+                        snapshotsPath + "/partitions-transactions", conf))
+                .filesSnapshotStore(HadoopTransactionLogSnapshotStore.files(snapshotsPath + "/files-snapshots", conf, serDe))
+                .partitionsSnapshotStore(HadoopTransactionLogSnapshotStore.partitions(snapshotsPath + "/partitions-snapshots", conf, serDe))
+                .schema(schema)
+                .garbageCollectorDelayBeforeDeletionInMinutes(tableProperties.getInt(GARBAGE_COLLECTOR_DELAY_BEFORE_DELETION))
+                .snapshotInterval(tableProperties.getLong(TRANSACTION_LOG_SNAPSHOT_INTERVAL));
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.statestore.transactionlog;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sleeper.core.statestore.transactionlog.DuplicateTransactionNumberException;
+import sleeper.core.statestore.transactionlog.StateStoreTransaction;
+import sleeper.core.statestore.transactionlog.TransactionLogEntry;
+import sleeper.core.statestore.transactionlog.TransactionLogStore;
+import sleeper.core.statestore.transactionlog.TransactionSerDe;
+import sleeper.core.statestore.transactionlog.TransactionType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static sleeper.dynamodb.tools.DynamoDBUtils.streamPagedItems;
+
+/**
+ * Stores a transaction log in a DynamoDB table. Each transaction is held in an item keyed by the log and the
+ * transaction number. A conditional put ensures that only one process can add each transaction number.
+ * <p>
+ * A DynamoDB item can hold at most 400KB. A transaction whose body is too large for that is written to a file in a
+ * Hadoop file system, usually S3, and the item holds the path to that file instead of the body.
+ */
+public class DynamoDBTransactionLogStore implements TransactionLogStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DynamoDBTransactionLogStore.class);
+
+    public static final String TABLE_ID = "TABLE_ID";
+    public static final String TRANSACTION_NUMBER = "TRANSACTION_NUMBER";
+    public static final String TYPE = "TYPE";
+    public static final String BODY = "BODY";
+    public static final String BODY_FILE = "BODY_FILE";
+    public static final String UPDATE_TIME = "UPDATE_TIME";
+
+    /**
+     * The largest transaction body to hold in a DynamoDB item. This leaves room under the 400KB item limit for the
+     * other attributes.
+     */
+    private static final int MAX_BODY_BYTES_IN_ITEM = 350 * 1024;
+
+    private final AmazonDynamoDB dynamoDB;
+    private final String dynamoTableName;
+    private final String logId;
+    private final TransactionSerDe serDe;
+    private final Path bodiesDirectory;
+    private final Configuration conf;
+    private final int maxBodyBytesInItem;
+
+    public DynamoDBTransactionLogStore(AmazonDynamoDB dynamoDB, String dynamoTableName, String logId,
+                                       TransactionSerDe serDe, String bodiesDirectory, Configuration conf) {
+        this(dynamoDB, dynamoTableName, logId, serDe, bodiesDirectory, conf, MAX_BODY_BYTES_IN_ITEM);
+    }
+
+    DynamoDBTransactionLogStore(AmazonDynamoDB dynamoDB, String dynamoTableName, String logId,
+                                TransactionSerDe serDe, String bodiesDirectory, Configuration conf, int maxBodyBytesInItem) {
+        this.dynamoDB = dynamoDB;
+        this.dynamoTableName = dynamoTableName;
+        this.logId = logId;
+        this.serDe = serDe;
+        this.bodiesDirectory = new Path(bodiesDirectory);
+        this.conf = conf;
+        this.maxBodyBytesInItem = maxBodyBytesInItem;
+    }
+
+    @Override
+    public void addTransaction(TransactionLogEntry entry) throws DuplicateTransactionNumberException {
+        StateStoreTransaction<?> transaction = entry.getTransaction();
+        String body = serDe.toJson(transaction);
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put(TABLE_ID, new AttributeValue().withS(logId));
+        item.put(TRANSACTION_NUMBER, new AttributeValue().withN(String.valueOf(entry.getTransactionNumber())));
+        item.put(TYPE, new AttributeValue().withS(TransactionType.getType(transaction).name()));
+        item.put(UPDATE_TIME, new AttributeValue().withN(String.valueOf(entry.getUpdateTime().toEpochMilli())));
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        Path bodyFile = null;
+        if (bodyBytes.length > maxBodyBytesInItem) {
+            bodyFile = new Path(bodiesDirectory, entry.getTransactionNumber() + "-" + UUID.randomUUID() + ".json");
+            writeBodyFile(bodyFile, bodyBytes);
+            item.put(BODY_FILE, new AttributeValue().withS(bodyFile.toString()));
+        } else {
+            item.put(BODY, new AttributeValue().withS(body));
+        }
+        PutItemRequest request = new PutItemRequest()
+                .withTableName(dynamoTableName)
+                .withItem(item)
+                .withConditionExpression("attribute_not_exists(#Number)")
+                .withExpressionAttributeNames(Map.of("#Number", TRANSACTION_NUMBER));
+        try {
+            dynamoDB.putItem(request);
+            LOGGER.debug("Added transaction {} to log {}", entry.getTransactionNumber(), logId);
+        } catch (ConditionalCheckFailedException e) {
+            if (bodyFile != null) {
+                deleteBodyFile(bodyFile);
+            }
+            throw new DuplicateTransactionNumberException(entry.getTransactionNumber(), e);
+        }
+    }
+
+    @Override
+    public Stream<TransactionLogEntry> readTransactionsAfter(long lastTransactionNumber) {
+        QueryRequest request = new QueryRequest()
+                .withTableName(dynamoTableName)
+                .withConsistentRead(true)
+                .withKeyConditionExpression("#TableId = :table_id and #Number > :number")
+                .withExpressionAttributeNames(Map.of("#TableId", TABLE_ID, "#Number", TRANSACTION_NUMBER))
+                .withExpressionAttributeValues(Map.of(
+                        ":table_id", new AttributeValue().withS(logId),
+                        ":number", new AttributeValue().withN(String.valueOf(lastTransactionNumber))))
+                .withScanIndexForward(true);
+        return streamPagedItems(dynamoDB, request).map(this::readEntry);
+    }
+
+    @Override
+    public void deleteTransactionsAtOrBefore(long transactionNumber) {
+        QueryRequest request = new QueryRequest()
+                .withTableName(dynamoTableName)
+                .withConsistentRead(true)
+                .withKeyConditionExpression("#TableId = :table_id and #Number <= :number")
+                .withExpressionAttributeNames(Map.of("#TableId", TABLE_ID, "#Number", TRANSACTION_NUMBER, "#BodyFile", BODY_FILE))
+                .withExpressionAttributeValues(Map.of(
+                        ":table_id", new AttributeValue().withS(logId),
+                        ":number", new AttributeValue().withN(String.valueOf(transactionNumber))))
+                .withProjectionExpression("#TableId, #Number, #BodyFile");
+        deleteItems(request);
+    }
+
+    @Override
+    public void clear() {
+        QueryRequest request = new QueryRequest()
+                .withTableName(dynamoTableName)
+                .withConsistentRead(true)
+                .withKeyConditionExpression("#TableId = :table_id")
+                .withExpressionAttributeNames(Map.of("#TableId", TABLE_ID, "#Number", TRANSACTION_NUMBER, "#BodyFile", BODY_FILE))
+                .withExpressionAttributeValues(Map.of(":table_id", new AttributeValue().withS(logId)))
+                .withProjectionExpression("#TableId, #Number, #BodyFile");
+        deleteItems(request);
+    }
+
+    private void deleteItems(QueryRequest request) {
+        streamPagedItems(dynamoDB, request).forEach(item -> {
+            dynamoDB.deleteItem(new DeleteItemRequest()
+                    .withTableName(dynamoTableName)
+                    .withKey(Map.of(
+                            TABLE_ID, item.get(TABLE_ID),
+                            TRANSACTION_NUMBER, item.get(TRANSACTION_NUMBER))));
+            if (item.containsKey(BODY_FILE)) {
+                deleteBodyFile(new Path(item.get(BODY_FILE).getS()));
+            }
+        });
+    }
+
+    private TransactionLogEntry readEntry(Map<String, AttributeValue> item) {
+        TransactionType type = TransactionType.valueOf(item.get(TYPE).getS());
+        return new TransactionLogEntry(
+                Long.parseLong(item.get(TRANSACTION_NUMBER).getN()),
+                Instant.ofEpochMilli(Long.parseLong(item.get(UPDATE_TIME).getN())),
+                serDe.toTransaction(type, readBody(item)));
+    }
+
+    private String readBody(Map<String, AttributeValue> item) {
+        if (!item.containsKey(BODY_FILE)) {
+            return item.get(BODY).getS();
+        }
+        Path path = new Path(item.get(BODY_FILE).getS());
+        try (FSDataInputStream in = path.getFileSystem(conf).open(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed reading transaction body from " + path, e);
+        }
+    }
+
+    private void writeBodyFile(Path path, byte[] body) {
+        try (FSDataOutputStream out = path.getFileSystem(conf).create(path, false)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed writing transaction body to " + path, e);
+        }
+        LOGGER.debug("Wrote body of {} bytes for log {} to {}", body.length, logId, path);
+    }
+
+    private void deleteBodyFile(Path path) {
+        try {
+            FileSystem fs = path.getFileSystem(conf);
+            fs.delete(path, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed deleting transaction body at " + path, e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.statestore.transactionlog;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import sleeper.core.statestore.transactionlog.StateStoreFiles;
+import sleeper.core.statestore.transactionlog.StateStorePartitions;
+import sleeper.core.statestore.transactionlog.TransactionLogSnapshot;
+import sleeper.core.statestore.transactionlog.TransactionLogSnapshotStore;
+import sleeper.core.statestore.transactionlog.TransactionSerDe;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores snapshots of a transaction log as JSON files in a Hadoop file system, usually S3. Each snapshot is held in a
+ * file named after its transaction number, padded so that the files sort in order. Superseded snapshots are deleted,
+ * so only a few files need to be listed to find the latest.
+ *
+ * @param <T> the type of the state
+ */
+public class HadoopTransactionLogSnapshotStore<T> implements TransactionLogSnapshotStore<T> {
+    private static final String SUFFIX = ".json";
+
+    private final Path directory;
+    private final Configuration conf;
+    private final SnapshotWriter<T> writer;
+    private final SnapshotReader<T> reader;
+
+    private HadoopTransactionLogSnapshotStore(
+            String directory, Configuration conf, SnapshotWriter<T> writer, SnapshotReader<T> reader) {
+        this.directory = new Path(directory);
+        this.conf = conf;
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    public static HadoopTransactionLogSnapshotStore<StateStoreFiles> files(
+            String directory, Configuration conf, TransactionSerDe serDe) {
+        return new HadoopTransactionLogSnapshotStore<>(directory, conf, serDe::writeFiles, serDe::readFiles);
+    }
+
+    public static HadoopTransactionLogSnapshotStore<StateStorePartitions> partitions(
+            String directory, Configuration conf, TransactionSerDe serDe) {
+        return new HadoopTransactionLogSnapshotStore<>(directory, conf, serDe::writePartitions, serDe::readPartitions);
+    }
+
+    @Override
+    public Optional<TransactionLogSnapshot<T>> loadLatestSnapshot() throws IOException {
+        FileSystem fs = directory.getFileSystem(conf);
+        Optional<Path> latest = listSnapshots(fs)
+                .max((a, b) -> a.getName().compareTo(b.getName()));
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        Path path = latest.get();
+        try (Reader in = new InputStreamReader(fs.open(path), StandardCharsets.UTF_8)) {
+            return Optional.of(new TransactionLogSnapshot<>(getTransactionNumber(path), reader.read(in)));
+        }
+    }
+
+    @Override
+    public void saveSnapshot(TransactionLogSnapshot<T> snapshot) throws IOException {
+        Path path = new Path(directory, getZeroPaddedLong(snapshot.getTransactionNumber()) + SUFFIX);
+        FileSystem fs = path.getFileSystem(conf);
+        try (Writer out = new OutputStreamWriter(fs.create(path, false), StandardCharsets.UTF_8)) {
+            writer.write(snapshot.getState(), out);
+        }
+    }
+
+    @Override
+    public void deleteSnapshotsBefore(long transactionNumber) throws IOException {
+        FileSystem fs = directory.getFileSystem(conf);
+        List<Path> superseded = listSnapshots(fs)
+                .filter(path -> getTransactionNumber(path) < transactionNumber)
+                .collect(Collectors.toUnmodifiableList());
+        for (Path path : superseded) {
+            fs.delete(path, false);
+        }
+    }
+
+    @Override
+    public void clear() throws IOException {
+        directory.getFileSystem(conf).delete(directory, true);
+    }
+
+    private Stream<Path> listSnapshots(FileSystem fs) throws IOException {
+        FileStatus[] statuses;
+        try {
+            statuses = fs.listStatus(directory);
+        } catch (FileNotFoundException e) {
+            return Stream.empty();
+        }
+        return Stream.of(statuses)
+                .map(FileStatus::getPath)
+                .filter(path -> path.getName().endsWith(SUFFIX));
+    }
+
+    private static long getTransactionNumber(Path path) {
+        return Long.parseLong(path.getName().substring(0, path.getName().length() - SUFFIX.length()));
+    }
+
+    private static String getZeroPaddedLong(long number) {
+        StringBuilder versionString = new StringBuilder("" + number);
+        while (versionString.length() < 19) {
+            versionString.insert(0, "0");
+        }
+        return versionString.toString();
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWriter<T> {
+        void write(T state, Appendable out);
+    }
+
+    @FunctionalInterface
+    private interface SnapshotReader<T> {
+        T read(Reader in);
+    }
+}
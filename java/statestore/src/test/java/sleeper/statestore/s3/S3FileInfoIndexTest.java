@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.statestore.s3;
+
+import org.junit.jupiter.api.Test;
+
+import sleeper.core.statestore.FileInfo;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.statestore.s3.S3RevisionUtils.RevisionId;
+
+class S3FileInfoIndexTest {
+
+    private static final RevisionId REVISION = new RevisionId("00000000000000000001", "test");
+
+    @Test
+    void shouldIndexActiveFilesByPartitionAndJobId() {
+        // Given
+        FileInfo file1 = activeFile("file1", "A", null);
+        FileInfo file2 = activeFile("file2", "A", "job1");
+        FileInfo file3 = activeFile("file3", "B", null);
+        FileInfo gcFile = readyForGCFile("file4", "B", 100L);
+
+        // When
+        S3FileInfoIndex index = new S3FileInfoIndex(REVISION, List.of(file1, file2, file3, gcFile));
+
+        // Then
+        assertThat(index.getActiveFiles()).containsExactly(file1, file2, file3);
+        assertThat(index.getActiveFilesWithNoJobId()).containsExactly(file1, file3);
+        assertThat(index.getPartitionToActiveFilesMap()).isEqualTo(Map.of(
+                "A", List.of("file1", "file2"),
+                "B", List.of("file3")));
+        assertThat(index.getFile("file4")).isEqualTo(gcFile);
+        assertThat(index.getFile("not-a-file")).isNull();
+    }
+
+    @Test
+    void shouldFindReadyForGCFilesUpdatedBeforeTime() {
+        // Given
+        FileInfo file1 = readyForGCFile("file1", "A", 300L);
+        FileInfo file2 = readyForGCFile("file2", "A", 100L);
+        FileInfo file3 = readyForGCFile("file3", "A", 200L);
+        S3FileInfoIndex index = new S3FileInfoIndex(REVISION, List.of(file1, file2, file3, activeFile("file4", "A", null)));
+
+        // When / Then
+        assertThat(index.getReadyForGCFilesUpdatedBefore(250L)).containsExactly(file2, file3);
+        assertThat(index.getReadyForGCFilesUpdatedBefore(100L)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchRevision() {
+        // Given
+        S3FileInfoIndex index = new S3FileInfoIndex(REVISION, List.of());
+
+        // When / Then
+        assertThat(index.isRevision(new RevisionId("00000000000000000001", "test"))).isTrue();
+        assertThat(index.isRevision(new RevisionId("00000000000000000002", "test"))).isFalse();
+        assertThat(S3FileInfoIndex.empty().isRevision(REVISION)).isFalse();
+        assertThat(index.isEmpty()).isTrue();
+    }
+
+    private static FileInfo activeFile(String filename, String partitionId, String jobId) {
+        return FileInfo.builder()
+                .filename(filename)
+                .partitionId(partitionId)
+                .fileStatus(FileInfo.FileStatus.ACTIVE)
+                .numberOfRecords(100L)
+                .lastStateStoreUpdateTime(0L)
+                .jobId(jobId)
+                .build();
+    }
+
+    private static FileInfo readyForGCFile(String filename, String partitionId, long updateTime) {
+        return FileInfo.builder()
+                .filename(filename)
+                .partitionId(partitionId)
+                .fileStatus(FileInfo.FileStatus.READY_FOR_GARBAGE_COLLECTION)
+                .numberOfRecords(100L)
+                .lastStateStoreUpdateTime(updateTime)
+                .build();
+    }
+}
@@ -75,6 +75,7 @@ import static sleeper.configuration.properties.instance.CommonProperty.MAXIMUM_C
 import static sleeper.configuration.properties.table.TablePropertiesTestHelper.createTestTableProperties;
 import static sleeper.configuration.properties.table.TableProperty.GARBAGE_COLLECTOR_DELAY_BEFORE_DELETION;
 import static sleeper.core.schema.SchemaTestHelper.schemaWithKey;
+import static sleeper.core.statestore.AssignJobIdRequest.assignJobOnFiles;
 import static sleeper.dynamodb.tools.GenericContainerAwsV1ClientHelper.buildAwsV1Client;
 
 @Testcontainers
@@ -687,6 +688,38 @@ public class S3StateStoreIT {
         assertThat(stateStore.getReadyForGCFiles()).isExhausted();
     }
 
+    @Test
+    public void shouldAtomicallyAssignJobIdsToFilesOfManyJobs() throws Exception {
+        // Given
+        Schema schema = schemaWithSingleRowKeyType(new LongType());
+        StateStore stateStore = getStateStore(schema);
+        List<FileInfo> files = new ArrayList<>();
+        for (int i = 1; i < 5; i++) {
+            FileInfo fileInfo = FileInfo.builder()
+                    .filename("file" + i)
+                    .fileStatus(FileInfo.FileStatus.ACTIVE)
+                    .partitionId("8")
+                    .numberOfRecords(1L)
+                    .build();
+            files.add(fileInfo);
+        }
+        stateStore.addFiles(files);
+
+        // When
+        stateStore.atomicallyAssignJobIdsToFiles(List.of(
+                assignJobOnFiles("job1", files.subList(0, 2)),
+                assignJobOnFiles("job2", files.subList(2, 4))));
+
+        // Then
+        assertThat(stateStore.getActiveFiles())
+                .extracting(FileInfo::getFilename, FileInfo::getJobId)
+                .containsExactlyInAnyOrder(
+                        tuple("file1", "job1"),
+                        tuple("file2", "job1"),
+                        tuple("file3", "job2"),
+                        tuple("file4", "job2"));
+    }
+
     @Test
     public void shouldNotAtomicallyCreateJobAndUpdateJobStatusOfFilesWhenJobIdAlreadySet() throws Exception {
         // Given
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.statestore.transactionlog;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import sleeper.configuration.properties.instance.InstanceProperties;
+import sleeper.configuration.properties.table.TableProperties;
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.FileInfo;
+import sleeper.core.statestore.FileInfoFactory;
+import sleeper.core.statestore.StateStore;
+import sleeper.dynamodb.tools.DynamoDBContainer;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.configuration.properties.InstancePropertiesTestHelper.createTestInstanceProperties;
+import static sleeper.configuration.properties.instance.CdkDefinedInstanceProperty.DATA_BUCKET;
+import static sleeper.configuration.properties.instance.CommonProperty.FILE_SYSTEM;
+import static sleeper.configuration.properties.table.TablePropertiesTestHelper.createTestTableProperties;
+import static sleeper.configuration.properties.table.TableProperty.TRANSACTION_LOG_SNAPSHOT_INTERVAL;
+import static sleeper.core.schema.SchemaTestHelper.schemaWithKey;
+import static sleeper.dynamodb.tools.GenericContainerAwsV1ClientHelper.buildAwsV1Client;
+
+@Testcontainers
+public class DynamoDBTransactionLogStateStoreIT {
+    @Container
+    public static DynamoDBContainer dynamoDb = new DynamoDBContainer();
+    private static AmazonDynamoDB dynamoDBClient;
+
+    private final InstanceProperties instanceProperties = createTestInstanceProperties();
+    private final Schema schema = schemaWithKey("key");
+    private final TableProperties tableProperties = createTestTableProperties(instanceProperties, schema);
+    private final PartitionTree tree = new PartitionsBuilder(schema)
+            .rootFirst("root")
+            .splitToNewChildren("root", "L", "R", 100L)
+            .buildTree();
+    private final FileInfoFactory factory = FileInfoFactory.builder().schema(schema).partitionTree(tree).build();
+
+    @TempDir
+    public Path tempDir;
+
+    @BeforeAll
+    public static void initDynamoClient() {
+        dynamoDBClient = buildAwsV1Client(dynamoDb, dynamoDb.getDynamoPort(), AmazonDynamoDBClientBuilder.standard());
+    }
+
+    @AfterAll
+    public static void shutdownDynamoClient() {
+        dynamoDBClient.shutdown();
+    }
+
+    @BeforeEach
+    void setUp() {
+        instanceProperties.set(FILE_SYSTEM, "file://");
+        instanceProperties.set(DATA_BUCKET, tempDir.toString());
+        new DynamoDBTransactionLogStateStoreCreator(instanceProperties, dynamoDBClient).create();
+    }
+
+    @Test
+    void shouldStoreFilesAndPartitions() throws Exception {
+        // Given
+        StateStore stateStore = createStateStore();
+        stateStore.initialise(tree.getAllPartitions());
+        FileInfo file1 = factory.partitionFile("L", "file1", 100L);
+        FileInfo file2 = factory.partitionFile("R", "file2", 200L);
+
+        // When
+        stateStore.addFiles(List.of(file1, file2));
+
+        // Then
+        StateStore otherStateStore = createStateStore();
+        assertThat(otherStateStore.getAllPartitions()).containsExactlyInAnyOrderElementsOf(tree.getAllPartitions());
+        assertThat(otherStateStore.getActiveFiles())
+                .extracting(FileInfo::getFilename)
+                .containsExactly("file1", "file2");
+    }
+
+    @Test
+    void shouldAddFilesConcurrentlyFromSeparateStateStores() throws Exception {
+        // Given
+        createStateStore().initialise(tree.getAllPartitions());
+        List<FileInfo> files = IntStream.range(0, 20)
+                .mapToObj(i -> factory.partitionFile("L", "file" + i, 100L))
+                .collect(Collectors.toUnmodifiableList());
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+        // When
+        try {
+            CompletableFuture.allOf(files.stream()
+                    .map(file -> CompletableFuture.runAsync(() -> {
+                        try {
+                            createStateStore().addFile(file);
+                        } catch (Exception e) {
+                            throw new RuntimeException(e);
+                        }
+                    }, executorService))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executorService.shutdown();
+        }
+
+        // Then
+        assertThat(createStateStore().getActiveFiles())
+                .extracting(FileInfo::getFilename)
+                .containsExactlyInAnyOrderElementsOf(files.stream()
+                        .map(FileInfo::getFilename)
+                        .collect(Collectors.toUnmodifiableList()));
+    }
+
+    @Test
+    void shouldLoadStateFromSnapshotAfterOldTransactionsAreDeleted() throws Exception {
+        // Given
+        tableProperties.setNumber(TRANSACTION_LOG_SNAPSHOT_INTERVAL, 2);
+        StateStore stateStore = createStateStore();
+        stateStore.initialise(tree.getAllPartitions());
+        List<FileInfo> files = IntStream.range(0, 5)
+                .mapToObj(i -> factory.partitionFile("L", "file" + i, 100L))
+                .collect(Collectors.toUnmodifiableList());
+
+        // When
+        for (FileInfo file : files) {
+            stateStore.addFile(file);
+        }
+
+        // Then
+        assertThat(createStateStore().getActiveFiles())
+                .extracting(FileInfo::getFilename)
+                .containsExactly("file0", "file1", "file2", "file3", "file4");
+    }
+
+    @Test
+    void shouldStoreTransactionTooLargeForDynamoDBItem() throws Exception {
+        // Given
+        StateStore stateStore = createStateStore();
+        stateStore.initialise(tree.getAllPartitions());
+        List<FileInfo> files = IntStream.range(0, 2000)
+                .mapToObj(i -> factory.partitionFile("L", "s3a://some-bucket/some/long/path/to/data/file" + i + ".parquet", 100L))
+                .collect(Collectors.toUnmodifiableList());
+
+        // When
+        stateStore.addFiles(files);
+
+        // Then
+        assertThat(createStateStore().getActiveFiles())
+                .extracting(FileInfo::getFilename)
+                .containsExactlyInAnyOrderElementsOf(files.stream()
+                        .map(FileInfo::getFilename)
+                        .collect(Collectors.toUnmodifiableList()));
+    }
+
+    private StateStore createStateStore() {
+        return new DynamoDBTransactionLogStateStore(instanceProperties, tableProperties, dynamoDBClient, new Configuration());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022-2023 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package sleeper.statestore.transactionlog;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sleeper.core.partition.PartitionTree;
+import sleeper.core.partition.PartitionsBuilder;
+import sleeper.core.schema.Schema;
+import sleeper.core.statestore.FileInfoFactory;
+import sleeper.core.statestore.transactionlog.StateStoreFiles;
+import sleeper.core.statestore.transactionlog.StateStorePartitions;
+import sleeper.core.statestore.transactionlog.TransactionLogSnapshot;
+import sleeper.core.statestore.transactionlog.TransactionSerDe;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sleeper.core.schema.SchemaTestHelper.schemaWithKey;
+
+public class HadoopTransactionLogSnapshotStoreTest {
+
+    @TempDir
+    public Path tempDir;
+
+    private final Schema schema = schemaWithKey("key");
+    private final TransactionSerDe serDe = new TransactionSerDe(schema);
+    private final PartitionTree tree = new PartitionsBuilder(schema)
+            .rootFirst("root")
+            .splitToNewChildren("root", "L", "R", 100L)
+            .buildTree();
+    private final FileInfoFactory factory = FileInfoFactory.builder()
+            .schema(schema).partitionTree(tree)
+            .lastStateStoreUpdate(Instant.parse("2023-10-04T14:08:00Z"))
+            .build();
+
+    @Test
+    void shouldLoadNothingWhenNoSnapshotHasBeenSaved() throws Exception {
+        assertThat(filesStore().loadLatestSnapshot()).isEmpty();
+    }
+
+    @Test
+    void shouldLoadLatestFilesSnapshot() throws Exception {
+        // Given
+        HadoopTransactionLogSnapshotStore<StateStoreFiles> store = filesStore();
+        StateStoreFiles files1 = new StateStoreFiles(List.of(factory.partitionFile("L", "file1", 100L)));
+        StateStoreFiles files2 = new StateStoreFiles(List.of(
+                factory.partitionFile("L", "file1", 100L),
+                factory.partitionFile("R", "file2", 200L)));
+        store.saveSnapshot(new TransactionLogSnapshot<>(9, files1));
+        store.saveSnapshot(new TransactionLogSnapshot<>(10, files2));
+
+        // When / Then
+        assertThat(store.loadLatestSnapshot()).contains(new TransactionLogSnapshot<>(10, files2));
+    }
+
+    @Test
+    void shouldLoadPartitionsSnapshot() throws Exception {
+        // Given
+        HadoopTransactionLogSnapshotStore<StateStorePartitions> store = HadoopTransactionLogSnapshotStore.partitions(
+                tempDir.resolve("partitions").toString(), new Configuration(), serDe);
+        StateStorePartitions partitions = new StateStorePartitions(tree.getAllPartitions());
+        store.saveSnapshot(new TransactionLogSnapshot<>(1, partitions));
+
+        // When / Then
+        assertThat(store.loadLatestSnapshot()).contains(new TransactionLogSnapshot<>(1, partitions));
+    }
+
+    @Test
+    void shouldDeleteSupersededSnapshots() throws Exception {
+        // Given
+        HadoopTransactionLogSnapshotStore<StateStoreFiles> store = filesStore();
+        StateStoreFiles files = new StateStoreFiles(List.of(factory.partitionFile("L", "file1", 100L)));
+        store.saveSnapshot(new TransactionLogSnapshot<>(1, new StateStoreFiles()));
+        store.saveSnapshot(new TransactionLogSnapshot<>(2, new StateStoreFiles()));
+        store.saveSnapshot(new TransactionLogSnapshot<>(3, files));
+
+        // When
+        store.deleteSnapshotsBefore(3);
+
+        // Then
+        assertThat(store.loadLatestSnapshot()).contains(new TransactionLogSnapshot<>(3, files));
+        assertThat(tempDir.resolve("files")).isDirectoryContaining("glob:**0000000000000000003.json")
+                .isDirectoryNotContaining("glob:**0000000000000000001.json")
+                .isDirectoryNotContaining("glob:**0000000000000000002.json");
+    }
+
+    @Test
+    void shouldClearSnapshots() throws Exception {
+        // Given
+        HadoopTransactionLogSnapshotStore<StateStoreFiles> store = filesStore();
+        store.saveSnapshot(new TransactionLogSnapshot<>(1, new StateStoreFiles()));
+
+        // When
+        store.clear();
+
+        // Then
+        assertThat(store.loadLatestSnapshot()).isEmpty();
+    }
+
+    private HadoopTransactionLogSnapshotStore<StateStoreFiles> filesStore() {
+        return HadoopTransactionLogSnapshotStore.files(tempDir.resolve("files").toString(), new Configuration(), serDe);
+    }
+}